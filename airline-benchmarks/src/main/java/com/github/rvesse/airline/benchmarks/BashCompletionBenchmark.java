@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+/**
+ * Benchmarks the time bash takes to source a single completion script versus
+ * the root script of a split completion script, each invocation starts a new
+ * bash process so the difference between the two is what matters
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BashCompletionBenchmark {
+
+    @Param({ "small", "large" })
+    public String size;
+
+    private File dir, single, root;
+
+    @Setup
+    public void setup() throws IOException {
+        GlobalMetadata<Runnable> global = BenchmarkClis.builder(BenchmarkClis.groups(size)).build().getMetadata();
+        BashCompletionGenerator<Runnable> generator = new BashCompletionGenerator<Runnable>();
+        dir = Files.createTempDirectory("airline-bash").toFile();
+        single = new File(dir, "single.bash");
+        try (OutputStream output = new FileOutputStream(single)) {
+            generator.usage(global, output);
+        }
+        root = generator.usage(global, dir);
+    }
+
+    @TearDown
+    public void tearDown() {
+        delete(dir);
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        f.delete();
+    }
+
+    private static int source(File script) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder("bash", "-c", "source '" + script.getAbsolutePath() + "'")
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.INHERIT).start();
+        int exitCode = process.waitFor();
+        if (exitCode != 0)
+            throw new IllegalStateException("Failed to source " + script);
+        return exitCode;
+    }
+
+    @Benchmark
+    public int sourceSingleScript() throws IOException, InterruptedException {
+        return source(single);
+    }
+
+    @Benchmark
+    public int sourceSplitRootScript() throws IOException, InterruptedException {
+        return source(root);
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+/**
+ * Benchmarks for {@link Cli#parseAll(Iterable, ForkJoinPool)} and
+ * {@link Cli#parseEach(Iterable, ForkJoinPool, int)} with varying degrees of
+ * parallelism, compare against {@link #sequential()} to see how throughput
+ * scales
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchParseBenchmark {
+
+    private static final int COMMAND_LINES = 10000;
+
+    @Param({ "1", "2", "4", "8" })
+    public int parallelism;
+
+    private Cli<Runnable> cli;
+    private List<String[]> commandLines;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        CliBuilder<Runnable> builder = BenchmarkClis.builder(BenchmarkClis.LARGE_GROUPS);
+        builder.withParser().withErrorHandler(new CollectAll());
+        cli = builder.build();
+        pool = new ForkJoinPool(parallelism);
+
+        commandLines = new ArrayList<>();
+        for (int i = 0; i < COMMAND_LINES; i++) {
+            String group = BenchmarkClis.groupName(i % BenchmarkClis.LARGE_GROUPS);
+            switch (i % 3) {
+            case 0:
+                commandLines.add(BenchmarkClis.args("-v", group, "build", "--threads", Integer.toString(i), "a"));
+                break;
+            case 1:
+                commandLines.add(BenchmarkClis.args(group, "--profile", "ci", "deploy", "--retries", "3"));
+                break;
+            default:
+                // Invalid, collected as an error
+                commandLines.add(BenchmarkClis.args(group, "status", "--depth", "deep"));
+                break;
+            }
+        }
+    }
+
+    @TearDown
+    public void teardown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int sequential() {
+        int successful = 0;
+        for (String[] args : commandLines) {
+            if (cli.parseWithResult(args).wasSuccessful())
+                successful++;
+        }
+        return successful;
+    }
+
+    @Benchmark
+    public List<ParseResult<Runnable>> parseAll() {
+        return cli.parseAll(commandLines, pool);
+    }
+
+    @Benchmark
+    public int parseEach() {
+        int successful = 0;
+        for (Iterator<ParseResult<Runnable>> results = cli.parseEach(commandLines, pool,
+                1000); results.hasNext();) {
+            if (results.next().wasSuccessful())
+                successful++;
+        }
+        return successful;
+    }
+}
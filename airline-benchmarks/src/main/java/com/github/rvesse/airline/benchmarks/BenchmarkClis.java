@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.benchmarks.commands.Build;
+import com.github.rvesse.airline.benchmarks.commands.Clean;
+import com.github.rvesse.airline.benchmarks.commands.Deploy;
+import com.github.rvesse.airline.benchmarks.commands.Status;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.Help;
+
+/**
+ * Helpers for creating the CLIs used by the benchmarks
+ */
+public class BenchmarkClis {
+
+    /**
+     * Number of groups in a large CLI
+     */
+    public static final int LARGE_GROUPS = 100;
+
+    /**
+     * Creates a CLI builder
+     * 
+     * @param groups
+     *            Number of groups, each group contains all the benchmark
+     *            commands
+     * @return CLI builder
+     */
+    @SuppressWarnings("unchecked")
+    public static CliBuilder<Runnable> builder(int groups) {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("bench").withDescription("Benchmark CLI")
+                .withDefaultCommand(Help.class).withCommands(Help.class, Build.class, Deploy.class, Status.class,
+                        Clean.class);
+        for (int i = 0; i < groups; i++) {
+            builder.withGroup(groupName(i)).withDescription("Group " + i).withCommands(Build.class, Deploy.class,
+                    Status.class, Clean.class);
+        }
+        return builder;
+    }
+
+    /**
+     * Gets the name of the group with the given index
+     * 
+     * @param i
+     *            Index
+     * @return Group name
+     */
+    public static String groupName(int i) {
+        return String.format("group%03d", i);
+    }
+
+    /**
+     * Gets the size of CLI to use given a size parameter
+     * 
+     * @param size
+     *            Either {@code small} or {@code large}
+     * @return Number of groups
+     */
+    public static int groups(String size) {
+        return "large".equals(size) ? LARGE_GROUPS : 1;
+    }
+
+    /**
+     * Applies common parser options
+     * 
+     * @param parser
+     *            Parser builder
+     * @param dispatch
+     *            Whether to use option parser dispatch
+     */
+    public static void configure(ParserBuilder<Runnable> parser, boolean dispatch) {
+        if (dispatch)
+            parser.withOptionParserDispatch();
+    }
+
+    /**
+     * Creates a long argument list for a command
+     * 
+     * @param prefix
+     *            Arguments that precede the generated arguments
+     * @param count
+     *            Number of generated option and argument pairs
+     * @return Argument list
+     */
+    public static String[] longArguments(List<String> prefix, int count) {
+        List<String> args = new ArrayList<>(prefix);
+        for (int i = 0; i < count; i++) {
+            args.add("--include");
+            args.add("pattern" + i);
+        }
+        for (int i = 0; i < count; i++) {
+            args.add("target" + i);
+        }
+        return args.toArray(new String[args.size()]);
+    }
+
+    /**
+     * Creates an argument array
+     * 
+     * @param args
+     *            Arguments
+     * @return Argument array
+     */
+    public static String[] args(String... args) {
+        return Arrays.copyOf(args, args.length);
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+
+/**
+ * Benchmarks for {@link Cli#parse(String...)} across differently sized CLIs
+ * and inputs
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CliParseBenchmark {
+
+    @Param({ "small", "large" })
+    public String size;
+
+    @Param({ "false", "true" })
+    public boolean dispatch;
+
+    private Cli<Runnable> cli, abbreviatingCli, aliasingCli;
+    private String[] defaultGroupArgs, groupArgs, longArgs, abbreviatedArgs, aliasArgs;
+
+    @Setup
+    public void setup() {
+        int groups = BenchmarkClis.groups(size);
+        String lastGroup = BenchmarkClis.groupName(groups - 1);
+
+        CliBuilder<Runnable> builder = BenchmarkClis.builder(groups);
+        BenchmarkClis.configure(builder.withParser(), dispatch);
+        cli = builder.build();
+
+        builder = BenchmarkClis.builder(groups);
+        BenchmarkClis.configure(builder.withParser(), dispatch);
+        builder.withParser().withCommandAbbreviation().withOptionAbbreviation();
+        abbreviatingCli = builder.build();
+
+        builder = BenchmarkClis.builder(groups);
+        BenchmarkClis.configure(builder.withParser(), dispatch);
+        builder.withParser().withAliasesChaining();
+        builder.withParser().withAlias("b1").withArguments("b2", "--dry-run");
+        builder.withParser().withAlias("b2").withArguments("b3", "--release");
+        builder.withParser().withAlias("b3").withArguments(lastGroup, "build");
+        aliasingCli = builder.build();
+
+        defaultGroupArgs = BenchmarkClis.args("-v", "build", "--threads", "4", "--output", "out", "a", "b");
+        groupArgs = BenchmarkClis.args("-v", lastGroup, "--profile", "ci", "deploy", "--retries", "3", "--force",
+                "a", "b");
+        longArgs = BenchmarkClis.longArguments(Arrays.asList(lastGroup, "status"), 500);
+        abbreviatedArgs = BenchmarkClis.args("--verb", lastGroup, "--prof", "ci", "dep", "--ret", "3", "--for",
+                "a");
+        aliasArgs = BenchmarkClis.args("b1", "a", "b");
+    }
+
+    @Benchmark
+    public Runnable parseDefaultGroupCommand() {
+        return cli.parse(defaultGroupArgs);
+    }
+
+    @Benchmark
+    public Runnable parseGroupCommand() {
+        return cli.parse(groupArgs);
+    }
+
+    @Benchmark
+    public Runnable parseLongArguments() {
+        return cli.parse(longArgs);
+    }
+
+    @Benchmark
+    public Runnable parseAbbreviated() {
+        return abbreviatingCli.parse(abbreviatedArgs);
+    }
+
+    @Benchmark
+    public Runnable parseAliasChain() {
+        return aliasingCli.parse(aliasArgs);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+/**
+ * Measures the throughput of a single {@link Cli} shared by as many threads as
+ * there are cores, scaling should be close to linear since parsing shares no
+ * mutable state
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ConcurrentParseBenchmark {
+
+    private Cli<Runnable> cli;
+    private String[] validArgs, invalidArgs;
+
+    @Setup
+    public void setup() {
+        CliBuilder<Runnable> builder = BenchmarkClis.builder(BenchmarkClis.LARGE_GROUPS);
+        builder.withParser().withErrorHandler(new CollectAll());
+        cli = builder.build();
+
+        String group = BenchmarkClis.groupName(BenchmarkClis.LARGE_GROUPS / 2);
+        validArgs = BenchmarkClis.args("-v", group, "--profile", "ci", "deploy", "--retries", "3", "--force");
+        invalidArgs = BenchmarkClis.args(group, "deploy", "--retries", "three", "--environment");
+    }
+
+    @Benchmark
+    public ParseResult<Runnable> parseShared() {
+        return cli.parseWithResult(validArgs);
+    }
+
+    @Benchmark
+    public ParseResult<Runnable> parseSharedWithErrors() {
+        return cli.parseWithResult(invalidArgs);
+    }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.daemon.Daemon;
+import com.github.rvesse.airline.daemon.DaemonClient;
+import com.github.rvesse.airline.daemon.DaemonCommandExecutor;
+import com.github.rvesse.airline.daemon.DaemonRequest;
+
+/**
+ * Measures the round trip time of dispatching a command to a {@link Daemon}
+ * over the loopback interface
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DaemonBenchmark {
+
+    private Daemon<Runnable> daemon;
+    private DaemonClient client;
+    private List<String> args;
+    private File workingDirectory;
+    private Map<String, String> environment;
+    private ByteArrayOutputStream output;
+
+    @Setup
+    public void setup() throws IOException {
+        File tokenFile = File.createTempFile("daemon-benchmark", ".token");
+        tokenFile.deleteOnExit();
+        daemon = Daemon.builder(BenchmarkClis.builder(BenchmarkClis.LARGE_GROUPS).build())
+                .withTokenFile(tokenFile).withExecutor(new DaemonCommandExecutor<Runnable>() {
+                    @Override
+                    public int execute(Runnable command, DaemonRequest request, PrintStream out, PrintStream err) {
+                        out.println(command.getClass().getSimpleName());
+                        return 0;
+                    }
+                }).start();
+        client = new DaemonClient(daemon.getPort(), daemon.getToken());
+        args = Arrays.asList(BenchmarkClis.args("-v", BenchmarkClis.groupName(0), "deploy", "--retries", "3"));
+        workingDirectory = new File(".");
+        environment = Collections.singletonMap("HOME", "/home/user");
+        output = new ByteArrayOutputStream();
+    }
+
+    @TearDown
+    public void teardown() throws IOException {
+        daemon.close();
+    }
+
+    @Benchmark
+    public int dispatch() throws IOException {
+        output.reset();
+        return client.run(args, workingDirectory, environment, output, output);
+    }
+}
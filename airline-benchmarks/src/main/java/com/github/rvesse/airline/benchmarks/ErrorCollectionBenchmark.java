@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+/**
+ * Benchmarks collecting errors for input where every argument is invalid, run
+ * with {@code -prof gc} to compare allocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ErrorCollectionBenchmark {
+
+    @Command(name = "numbers")
+    public static class Numbers {
+        @Arguments
+        public List<Integer> values;
+    }
+
+    @Param({ "1000", "100000" })
+    public int count;
+
+    private SingleCommand<Numbers> collectAll, stackless, limited;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        collectAll = SingleCommand.singleCommand(Numbers.class,
+                new ParserBuilder<Numbers>().withErrorHandler(new CollectAll()).build());
+        stackless = SingleCommand.singleCommand(Numbers.class,
+                new ParserBuilder<Numbers>().withErrorHandler(new CollectAll()).withoutErrorStackTraces().build());
+        limited = SingleCommand.singleCommand(Numbers.class, new ParserBuilder<Numbers>()
+                .withErrorHandler(new CollectAll(100)).withoutErrorStackTraces().build());
+
+        args = new String[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = "nan" + i;
+        }
+    }
+
+    @Benchmark
+    public int collectAll() {
+        return collectAll.parseWithResult(args).getErrors().size();
+    }
+
+    @Benchmark
+    public int stackless() {
+        return stackless.parseWithResult(args).getErrors().size();
+    }
+
+    @Benchmark
+    public int limited() {
+        return limited.parseWithResult(args).getErrors().size();
+    }
+}
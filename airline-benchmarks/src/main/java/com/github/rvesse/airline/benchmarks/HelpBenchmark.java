@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.benchmarks.commands.Deploy;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.help.HelpCache;
+import com.github.rvesse.airline.help.cli.bash.BashCompletionGenerator;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+/**
+ * Benchmarks for help and completion script generation, help is benchmarked
+ * both with and without the help cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HelpBenchmark {
+
+    @Param({ "small", "large" })
+    public String size;
+
+    @Param({ "true", "false" })
+    public boolean cached;
+
+    private GlobalMetadata<Runnable> global;
+    private CommandMetadata command;
+    private List<String> groupCommand;
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+    @Setup
+    public void setup() {
+        int groups = BenchmarkClis.groups(size);
+        global = BenchmarkClis.builder(groups).build().getMetadata();
+        command = MetadataLoader.loadCommand(Deploy.class);
+        groupCommand = Arrays.asList(BenchmarkClis.groupName(groups - 1), "deploy");
+    }
+
+    @Benchmark
+    public int globalHelp() throws IOException {
+        reset();
+        Help.help(global, Collections.<String> emptyList(), output);
+        return output.size();
+    }
+
+    @Benchmark
+    public int groupCommandHelp() throws IOException {
+        reset();
+        Help.help(global, groupCommand, output);
+        return output.size();
+    }
+
+    @Benchmark
+    public int commandHelp() throws IOException {
+        reset();
+        Help.help(command, output);
+        return output.size();
+    }
+
+    private void reset() {
+        output.reset();
+        if (!cached)
+            HelpCache.getDefault().clear();
+    }
+
+    @Benchmark
+    public int bashCompletion() throws IOException {
+        output.reset();
+        new BashCompletionGenerator<Runnable>().usage(global, output);
+        return output.size();
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.benchmarks.commands.Deploy;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
+
+/**
+ * Benchmarks for loading command meta-data and building CLIs, comparing
+ * reflective loading with the snapshot cache and lazy loading
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MetadataLoadingBenchmark {
+
+    private File snapshotFile;
+    private String lastGroup;
+
+    @Setup
+    public void setup() throws IOException {
+        snapshotFile = File.createTempFile("airline-benchmark", ".snapshot");
+        snapshotFile.delete();
+        MetadataSnapshot snapshot = new MetadataSnapshot(snapshotFile);
+        snapshot.loadCommand(Deploy.class);
+        snapshot.save();
+
+        lastGroup = BenchmarkClis.groupName(BenchmarkClis.LARGE_GROUPS - 1);
+    }
+
+    @TearDown
+    public void teardown() {
+        snapshotFile.delete();
+    }
+
+    @Benchmark
+    public CommandMetadata loadCommandReflectively() {
+        return MetadataLoader.loadCommand(Deploy.class, false);
+    }
+
+    @Benchmark
+    public CommandMetadata loadCommandFromSnapshot() {
+        return new MetadataSnapshot(snapshotFile).loadCommand(Deploy.class);
+    }
+
+    @Benchmark
+    public Cli<Runnable> buildLargeCli() {
+        return BenchmarkClis.builder(BenchmarkClis.LARGE_GROUPS).build();
+    }
+
+    @Benchmark
+    public Runnable buildLargeCliAndParse() {
+        return BenchmarkClis.builder(BenchmarkClis.LARGE_GROUPS).build().parse(lastGroup, "deploy", "a");
+    }
+
+    @Benchmark
+    public Runnable buildLazyLargeCliAndParse() {
+        CliBuilder<Runnable> builder = BenchmarkClis.builder(BenchmarkClis.LARGE_GROUPS);
+        builder.withParser().withLazyCommandLoading();
+        return builder.build().parse(lastGroup, "deploy", "a");
+    }
+}
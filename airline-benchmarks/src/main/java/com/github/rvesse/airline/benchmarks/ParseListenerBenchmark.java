@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.parser.listeners.ParseStatistics;
+
+/**
+ * Benchmarks the overhead of collecting parse statistics compared to parsing
+ * without a parse listener
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseListenerBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean statistics;
+
+    private Cli<Runnable> cli;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        int groups = BenchmarkClis.groups("large");
+        CliBuilder<Runnable> builder = BenchmarkClis.builder(groups);
+        if (statistics)
+            builder.withParser().withParseListener(new ParseStatistics());
+        cli = builder.build();
+
+        args = BenchmarkClis.args("-v", BenchmarkClis.groupName(groups - 1), "--profile", "ci", "deploy",
+                "--retries", "3", "--force", "a", "b");
+    }
+
+    @Benchmark
+    public Runnable parse() {
+        return cli.parse(args);
+    }
+}
@@ -0,0 +1,141 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Path;
+import com.github.rvesse.airline.annotations.restrictions.PathKind;
+
+/**
+ * Benchmarks path restrictions against a synthetic directory tree
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathRestrictionBenchmark {
+
+    @Command(name = "existing")
+    public static class ExistingCommand {
+        @Arguments
+        @Path(mustExist = true, kind = PathKind.FILE, readable = true)
+        public List<String> files;
+    }
+
+    @Command(name = "existing")
+    public static class ExistingParallelCommand {
+        @Arguments
+        @Path(mustExist = true, kind = PathKind.FILE, readable = true, parallel = true)
+        public List<String> files;
+    }
+
+    @Command(name = "outputs")
+    public static class OutputsCommand {
+        @Option(name = "--output", arity = 1)
+        @Path(mustExist = false, writable = true)
+        public List<String> outputs;
+    }
+
+    @Param({ "10", "500" })
+    public int files;
+
+    private File root;
+    private SingleCommand<ExistingCommand> existing;
+    private SingleCommand<ExistingParallelCommand> existingParallel;
+    private SingleCommand<OutputsCommand> outputs;
+    private String[] existingArgs, outputArgs;
+
+    @Setup
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("airline-paths").toFile();
+        existing = SingleCommand.singleCommand(ExistingCommand.class);
+        existingParallel = SingleCommand.singleCommand(ExistingParallelCommand.class);
+        outputs = SingleCommand.singleCommand(OutputsCommand.class);
+
+        // Spread the files over a few levels of directories so ancestors are
+        // shared between many values
+        List<String> existingArgs = new ArrayList<>();
+        List<String> outputArgs = new ArrayList<>();
+        for (int i = 0; i < files; i++) {
+            File dir = new File(root, "a" + (i % 4) + File.separator + "b" + (i % 16));
+            dir.mkdirs();
+            File f = new File(dir, "file" + i);
+            f.createNewFile();
+            existingArgs.add(f.getPath());
+
+            // Outputs don't exist so their nearest existing ancestor is checked
+            outputArgs.add("--output");
+            outputArgs.add(new File(dir, "missing" + File.separator + "out" + i).getPath());
+        }
+        this.existingArgs = existingArgs.toArray(new String[existingArgs.size()]);
+        this.outputArgs = outputArgs.toArray(new String[outputArgs.size()]);
+    }
+
+    @TearDown
+    public void tearDown() {
+        delete(root);
+    }
+
+    private static void delete(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        f.delete();
+    }
+
+    @Benchmark
+    public ExistingCommand existingFiles() {
+        return existing.parse(existingArgs);
+    }
+
+    @Benchmark
+    public ExistingParallelCommand existingFilesParallel() {
+        return existingParallel.parse(existingArgs);
+    }
+
+    @Benchmark
+    public OutputsCommand missingOutputs() {
+        return outputs.parse(outputArgs);
+    }
+}
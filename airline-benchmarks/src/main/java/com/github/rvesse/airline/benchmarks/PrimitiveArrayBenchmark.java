@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+/**
+ * Benchmarks binding many numeric values to boxed collections against binding
+ * them to primitive arrays, run with {@code -prof gc} to compare allocation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveArrayBenchmark {
+
+    @Command(name = "boxed")
+    public static class BoxedIds {
+        @Option(name = "--id", arity = 1)
+        public List<Integer> ids;
+
+        @Arguments
+        public List<Long> values;
+    }
+
+    @Command(name = "primitive")
+    public static class PrimitiveIds {
+        @Option(name = "--id", arity = 1)
+        public int[] ids;
+
+        @Arguments
+        public long[] values;
+    }
+
+    @Param({ "1000", "100000" })
+    public int count;
+
+    private SingleCommand<BoxedIds> boxed;
+    private SingleCommand<PrimitiveIds> primitive;
+    private String[] optionArgs, arguments;
+
+    @Setup
+    public void setup() {
+        boxed = SingleCommand.singleCommand(BoxedIds.class);
+        primitive = SingleCommand.singleCommand(PrimitiveIds.class);
+
+        optionArgs = new String[count * 2];
+        arguments = new String[count];
+        for (int i = 0; i < count; i++) {
+            optionArgs[i * 2] = "--id";
+            optionArgs[i * 2 + 1] = Integer.toString(i * 1000);
+            arguments[i] = Long.toString(i * 1000000l);
+        }
+    }
+
+    @Benchmark
+    public int boxedOptions() {
+        return boxed.parse(optionArgs).ids.size();
+    }
+
+    @Benchmark
+    public int primitiveOptions() {
+        return primitive.parse(optionArgs).ids.length;
+    }
+
+    @Benchmark
+    public int boxedArguments() {
+        return boxed.parse(arguments).values.size();
+    }
+
+    @Benchmark
+    public int primitiveArguments() {
+        return primitive.parse(arguments).values.length;
+    }
+}
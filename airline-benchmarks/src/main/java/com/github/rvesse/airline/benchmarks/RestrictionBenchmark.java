@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.AllowedValues;
+import com.github.rvesse.airline.annotations.restrictions.MaxLength;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.MinLength;
+import com.github.rvesse.airline.annotations.restrictions.MinOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.NotEmpty;
+import com.github.rvesse.airline.annotations.restrictions.Once;
+import com.github.rvesse.airline.annotations.restrictions.Path;
+import com.github.rvesse.airline.annotations.restrictions.Pattern;
+import com.github.rvesse.airline.annotations.restrictions.Port;
+import com.github.rvesse.airline.annotations.restrictions.RequireOnlyOne;
+import com.github.rvesse.airline.annotations.restrictions.RequireSome;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.RequiredOnlyIf;
+import com.github.rvesse.airline.annotations.restrictions.ranges.DoubleRange;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.annotations.restrictions.ranges.LexicalRange;
+
+/**
+ * Benchmarks for parsing commands whose options use each of the built-in
+ * restrictions
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestrictionBenchmark {
+
+    @Command(name = "required")
+    public static class RequiredCommand {
+        @Option(name = "--value", arity = 1)
+        @Required
+        public String value;
+    }
+
+    @Command(name = "allowed-raw-values")
+    public static class AllowedRawValuesCommand {
+        @Option(name = "--value", arity = 1)
+        @AllowedRawValues(allowedValues = { "alpha", "beta", "gamma", "delta" })
+        public String value;
+    }
+
+    @Command(name = "allowed-values")
+    public static class AllowedValuesCommand {
+        @Option(name = "--value", arity = 1)
+        @AllowedValues(allowedValues = { "1", "2", "3", "4" })
+        public int value;
+    }
+
+    @Command(name = "length")
+    public static class LengthCommand {
+        @Option(name = "--value", arity = 1)
+        @MinLength(length = 2)
+        @MaxLength(length = 10)
+        public String value;
+    }
+
+    @Command(name = "occurrences")
+    public static class OccurrencesCommand {
+        @Option(name = "--value", arity = 1)
+        @MinOccurrences(occurrences = 1)
+        @MaxOccurrences(occurrences = 4)
+        public List<String> value;
+    }
+
+    @Command(name = "once")
+    public static class OnceCommand {
+        @Option(name = "--value", arity = 1)
+        @Once
+        public String value;
+    }
+
+    @Command(name = "not-blank")
+    public static class NotBlankCommand {
+        @Option(name = "--value", arity = 1)
+        @NotBlank
+        @NotEmpty
+        public String value;
+    }
+
+    @Command(name = "pattern")
+    public static class PatternCommand {
+        @Option(name = "--value", arity = 1)
+        @Pattern(pattern = "[a-z]+-[0-9]+")
+        public String value;
+    }
+
+    @Command(name = "path")
+    public static class PathCommand {
+        @Option(name = "--value", arity = 1)
+        @Path(mustExist = true)
+        public String value;
+    }
+
+    @Command(name = "port")
+    public static class PortCommand {
+        @Option(name = "--value", arity = 1)
+        @Port
+        public int value;
+    }
+
+    @Command(name = "ranges")
+    public static class RangesCommand {
+        @Option(name = "--value", arity = 1)
+        @IntegerRange(min = 0, max = 100)
+        public int value;
+
+        @Option(name = "--ratio", arity = 1)
+        @DoubleRange(min = 0, max = 1)
+        public double ratio;
+
+        @Option(name = "--name", arity = 1)
+        @LexicalRange(min = "a", max = "m")
+        public String name;
+    }
+
+    @Command(name = "tags")
+    public static class TagsCommand {
+        @Option(name = "--value", arity = 1)
+        @MutuallyExclusiveWith(tag = "exclusive")
+        @RequireOnlyOne(tag = "one")
+        public String value;
+
+        @Option(name = "--other", arity = 1)
+        @MutuallyExclusiveWith(tag = "exclusive")
+        @RequireOnlyOne(tag = "one")
+        public String other;
+
+        @Option(name = "--some", arity = 1)
+        @RequireSome(tag = "some")
+        public String some;
+
+        @Option(name = "--extra", arity = 1)
+        @RequireSome(tag = "some")
+        @RequiredOnlyIf(names = "--value")
+        public String extra;
+    }
+
+    @Command(name = "arguments")
+    public static class ArgumentsCommand {
+        @Arguments
+        @Required
+        @NotBlank
+        @MaxOccurrences(occurrences = 10)
+        public List<String> value;
+    }
+
+    private static final Map<String, Object[]> COMMANDS = new HashMap<>();
+
+    static {
+        //@formatter:off
+        COMMANDS.put("required", new Object[] { RequiredCommand.class, new String[] { "--value", "x" } });
+        COMMANDS.put("allowed-raw-values", new Object[] { AllowedRawValuesCommand.class, new String[] { "--value", "gamma" } });
+        COMMANDS.put("allowed-values", new Object[] { AllowedValuesCommand.class, new String[] { "--value", "3" } });
+        COMMANDS.put("length", new Object[] { LengthCommand.class, new String[] { "--value", "abcdef" } });
+        COMMANDS.put("occurrences", new Object[] { OccurrencesCommand.class, new String[] { "--value", "a", "--value", "b", "--value", "c" } });
+        COMMANDS.put("once", new Object[] { OnceCommand.class, new String[] { "--value", "x" } });
+        COMMANDS.put("not-blank", new Object[] { NotBlankCommand.class, new String[] { "--value", "x" } });
+        COMMANDS.put("pattern", new Object[] { PatternCommand.class, new String[] { "--value", "abc-123" } });
+        COMMANDS.put("path", new Object[] { PathCommand.class, new String[] { "--value", "." } });
+        COMMANDS.put("port", new Object[] { PortCommand.class, new String[] { "--value", "8080" } });
+        COMMANDS.put("ranges", new Object[] { RangesCommand.class, new String[] { "--value", "50", "--ratio", "0.5", "--name", "foo" } });
+        COMMANDS.put("tags", new Object[] { TagsCommand.class, new String[] { "--value", "x", "--some", "y", "--extra", "z" } });
+        COMMANDS.put("arguments", new Object[] { ArgumentsCommand.class, new String[] { "a", "b", "c" } });
+        //@formatter:on
+    }
+
+    @Param({ "required", "allowed-raw-values", "allowed-values", "length", "occurrences", "once", "not-blank",
+            "pattern", "path", "port", "ranges", "tags", "arguments" })
+    public String restriction;
+
+    private SingleCommand<?> parser;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        Object[] command = COMMANDS.get(restriction);
+        parser = SingleCommand.singleCommand((Class<?>) command[0]);
+        args = (String[]) command[1];
+    }
+
+    @Benchmark
+    public Object parse() {
+        return parser.parse(args);
+    }
+}
@@ -0,0 +1,82 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.benchmarks.commands.Build;
+import com.github.rvesse.airline.builder.ParserBuilder;
+
+/**
+ * Benchmarks for {@link SingleCommand#parse(String...)}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SingleCommandParseBenchmark {
+
+    @Param({ "false", "true" })
+    public boolean dispatch;
+
+    private SingleCommand<Build> parser, abbreviatingParser;
+    private String[] fewArgs, longArgs, abbreviatedArgs;
+
+    @Setup
+    public void setup() {
+        ParserBuilder<Build> builder = new ParserBuilder<Build>();
+        if (dispatch)
+            builder.withOptionParserDispatch();
+        parser = SingleCommand.singleCommand(Build.class, builder.build());
+        builder.withOptionAbbreviation();
+        abbreviatingParser = SingleCommand.singleCommand(Build.class, builder.build());
+
+        fewArgs = BenchmarkClis.args("-v", "--threads", "4", "--release", "target");
+        longArgs = BenchmarkClis.longArguments(Collections.<String> emptyList(), 1000);
+        abbreviatedArgs = BenchmarkClis.args("--verb", "--thr", "4", "--rel", "--out", "dir", "target");
+    }
+
+    @Benchmark
+    public Build parseFewOptions() {
+        return parser.parse(fewArgs);
+    }
+
+    @Benchmark
+    public Build parseLongArguments() {
+        return parser.parse(longArgs);
+    }
+
+    @Benchmark
+    public Build parseAbbreviated() {
+        return abbreviatingParser.parse(abbreviatedArgs);
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.benchmarks.commands.Archive;
+import com.github.rvesse.airline.benchmarks.commands.Build;
+
+/**
+ * Benchmarks eagerly collected arguments against lazily streamed arguments,
+ * both commands consume every argument so the comparison includes conversion
+ * and validation
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StreamingArgumentsBenchmark {
+
+    @Param({ "1000", "100000" })
+    public int count;
+
+    private SingleCommand<Build> collecting;
+    private SingleCommand<Archive> streaming;
+    private String[] collectingArgs, streamingArgs;
+
+    @Setup
+    public void setup() {
+        collecting = SingleCommand.singleCommand(Build.class);
+        streaming = SingleCommand.singleCommand(Archive.class);
+
+        collectingArgs = new String[count + 2];
+        streamingArgs = new String[count + 2];
+        collectingArgs[0] = streamingArgs[0] = "--output";
+        collectingArgs[1] = streamingArgs[1] = "dir";
+        for (int i = 0; i < count; i++) {
+            collectingArgs[i + 2] = streamingArgs[i + 2] = "file" + i;
+        }
+    }
+
+    @Benchmark
+    public int collectArguments() {
+        return collecting.parse(collectingArgs).targets.size();
+    }
+
+    @Benchmark
+    public Archive streamArguments() {
+        Archive archive = streaming.parse(streamingArgs);
+        archive.run();
+        return archive;
+    }
+}
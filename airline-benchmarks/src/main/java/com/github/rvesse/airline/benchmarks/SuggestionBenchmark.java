@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.SuggestionIndex;
+import com.github.rvesse.airline.parser.errors.ParseCommandUnrecognizedException;
+
+/**
+ * Benchmarks for prefix suggestions and typo correction over the names of a
+ * CLI
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SuggestionBenchmark {
+
+    @Param({ "100", "5000" })
+    public int groups;
+
+    private Cli<Runnable> cli;
+    private SuggestionIndex index;
+    private String prefix;
+    private String misspelt;
+
+    @Setup
+    public void setup() {
+        // No default command so that unrecognized commands are errors
+        cli = BenchmarkClis.builder(groups).withDefaultCommand(null).build();
+        GlobalMetadata<Runnable> global = cli.getMetadata();
+        index = global.getSuggestionIndex();
+        prefix = BenchmarkClis.groupName(groups / 2).substring(0, 7);
+
+        // Transpose two characters of a group name
+        String name = BenchmarkClis.groupName(groups / 2);
+        misspelt = name.charAt(1) + "" + name.charAt(0) + name.substring(2);
+    }
+
+    @Benchmark
+    public List<String> prefix() {
+        return index.suggest(prefix, 10);
+    }
+
+    @Benchmark
+    public List<String> correct() {
+        return index.correct(misspelt, 3);
+    }
+
+    @Benchmark
+    public List<String> unrecognizedCommand() {
+        try {
+            cli.parse(misspelt);
+            throw new IllegalStateException("Expected an unrecognized command");
+        } catch (ParseCommandUnrecognizedException e) {
+            return e.getSuggestions();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.MutuallyExclusiveWith;
+import com.github.rvesse.airline.annotations.restrictions.Partial;
+import com.github.rvesse.airline.annotations.restrictions.Pattern;
+import com.github.rvesse.airline.annotations.restrictions.RequireSome;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+
+/**
+ * Benchmarks final validation of commands where many values have been parsed
+ * for options whose restrictions need occurrence counts
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+    @Command(name = "validate")
+    public static class ValidateCommand {
+        @Option(name = "--include", arity = 1)
+        @Required
+        @MaxOccurrences(occurrences = 1000000)
+        public List<String> includes;
+
+        @Option(name = "--exclude", arity = 1)
+        @RequireSome(tag = "filters")
+        @MutuallyExclusiveWith(tag = "mode")
+        public List<String> excludes;
+
+        @Option(name = "--filter", arity = 1)
+        @RequireSome(tag = "filters")
+        @MutuallyExclusiveWith(tag = "mode")
+        public List<String> filters;
+
+        @Option(name = "--pair", arity = 2)
+        @Partial(restriction = Pattern.class, appliesTo = 0)
+        @Pattern(pattern = "[a-z]+[0-9]*")
+        public List<String> pairs;
+    }
+
+    @Param({ "10", "1000", "10000" })
+    public int values;
+
+    private SingleCommand<ValidateCommand> parser;
+    private String[] args;
+
+    @Setup
+    public void setup() {
+        parser = SingleCommand.singleCommand(ValidateCommand.class);
+
+        List<String> args = new ArrayList<>();
+        for (int i = 0; i < values; i++) {
+            args.add("--include");
+            args.add("pattern" + i);
+            args.add("--exclude");
+            args.add("other" + i);
+            args.add("--pair");
+            args.add("key" + i);
+            args.add("value" + i);
+        }
+        this.args = args.toArray(new String[args.size()]);
+    }
+
+    @Benchmark
+    public ValidateCommand parseManyValues() {
+        return parser.parse(args);
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.commands;
+
+import java.util.Iterator;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+/**
+ * Command whose arguments are bound lazily
+ */
+@Command(name = "archive", description = "Archives the given files")
+public class Archive implements Runnable {
+
+    @Option(name = { "--output" }, title = "Directory", description = "Sets the directory")
+    public String output;
+
+    @Arguments(title = "File", description = "Files")
+    public Iterator<String> files;
+
+    @Override
+    public void run() {
+        while (files.hasNext()) {
+            files.next();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.commands;
+
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+
+/**
+ * Base class for benchmark commands which declares some global and group
+ * options
+ */
+public abstract class BenchmarkCommand implements Runnable {
+
+    @Option(type = OptionType.GLOBAL, name = { "-v", "--verbose" }, description = "Verbose output")
+    public boolean verbose;
+
+    @Option(type = OptionType.GLOBAL, name = { "-c", "--config" }, title = "File", description = "Configuration file")
+    public String config;
+
+    @Option(type = OptionType.GROUP, name = { "--profile" }, title = "Profile", description = "Profile to use")
+    public String profile;
+
+    @Option(name = { "-i", "--include" }, title = "Pattern", description = "Include patterns")
+    public List<String> includes;
+
+    @Option(name = { "--dry-run" }, description = "Show what would be done without doing it")
+    public boolean dryRun;
+
+    @Override
+    public void run() {
+        // No-op
+    }
+}
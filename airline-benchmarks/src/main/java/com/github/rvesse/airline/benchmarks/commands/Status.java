@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.benchmarks.commands;
+
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+@Command(name = "status", description = "Shows the status of the given targets")
+public class Status extends BenchmarkCommand {
+
+    @Option(name = { "--depth" }, title = "Depth", description = "Sets the depth")
+    public int depth;
+
+    @Option(name = { "--porcelain" }, description = "Enables porcelain mode")
+    public boolean porcelain;
+
+    @Option(name = { "--format" }, title = "Format", description = "Sets the format")
+    public String format;
+
+    @Arguments(title = "Target", description = "Targets")
+    public List<String> targets;
+}
@@ -18,9 +18,15 @@ package com.github.rvesse.airline;
 import com.github.rvesse.airline.parser.ParserUtil;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.PersistentPrimitiveList;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
 import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.lang.reflect.TypeVariable;
@@ -39,10 +45,18 @@ import com.github.rvesse.airline.utils.ListUtils;
 
 public class Accessor
 {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+    private static final MethodType FACTORY_TYPE = MethodType.methodType(Object.class);
+
     private final String name;
     private final Class<?> javaType;
     private final List<Field> path;
     private boolean multiValued;
+    private final boolean streaming;
+    private final boolean array;
+    private volatile Handles handles;
 
     public Accessor(Field... path)
     {
@@ -73,7 +87,9 @@ public class Accessor
         this.name = nameBuilder.toString();
 
         Field field = this.path.get(this.path.size() - 1);
-        multiValued = Collection.class.isAssignableFrom(field.getType());
+        streaming = isStreamingType(field.getType());
+        array = field.getType().isArray() && field.getType().getComponentType().isPrimitive();
+        multiValued = streaming || array || Collection.class.isAssignableFrom(field.getType());
         javaType = getItemType(name, field.getGenericType());
     }
 
@@ -82,6 +98,15 @@ public class Accessor
         return name;
     }
 
+    /**
+     * Gets the fields that make up the path to the value
+     * 
+     * @return Field path
+     */
+    public List<Field> getPath() {
+        return path;
+    }
+
     public Class<?> getJavaType()
     {
         return javaType;
@@ -92,29 +117,65 @@ public class Accessor
         return multiValued;
     }
 
-    public Object getValue(Object instance)
+    /**
+     * Gets whether the field is an {@link Iterator} or {@link Iterable} whose
+     * values are bound lazily rather than being collected up front
+     * 
+     * @return True if streaming, false otherwise
+     */
+    public boolean isStreaming()
     {
-        StringBuilder pathName = new StringBuilder();
-        for (Field intermediateField : path.subList(0, path.size() - 1)) {
-            if (pathName.length() != 0) {
-                pathName.append(".");
-            }
-            pathName.append(intermediateField.getName());
+        return streaming;
+    }
+
+    /**
+     * Gets whether the field is an array of a primitive type, in which case the
+     * values replace any existing array and {@link #getJavaType()} gives the
+     * component type
+     * <p>
+     * Values for {@code int[]}, {@code long[]} and {@code double[]} fields are
+     * accumulated by the parser without boxing, see
+     * {@link com.github.rvesse.airline.types.PrimitiveTypeConverter}.
+     * </p>
+     * 
+     * @return True if an array, false otherwise
+     */
+    public boolean isArray()
+    {
+        return array;
+    }
 
+    public Object getValue(Object instance)
+    {
+        Handles handles = getHandles();
+        for (int i = 0; i < path.size() - 1; i++) {
+            Field intermediateField = path.get(i);
             try {
-                Object nextInstance = intermediateField.get(instance);
+                Object nextInstance = handles.getters[i].invokeExact(instance);
                 if (nextInstance == null) {
                     nextInstance = ParserUtil.createInstance(intermediateField.getType());
-                    intermediateField.set(instance, nextInstance);
+                    handles.setters[i].invokeExact(instance, nextInstance);
                 }
                 instance = nextInstance;
             }
-            catch (Exception e) {
-                throw new ParseException(e, "Error getting value of %s", pathName);
+            catch (Throwable e) {
+                throw parseException(e, "Error getting value of %s", getPathName(i));
             }
         }
         return instance;
     }
+
+    private String getPathName(int index)
+    {
+        StringBuilder pathName = new StringBuilder();
+        for (Field intermediateField : path.subList(0, index + 1)) {
+            if (pathName.length() != 0) {
+                pathName.append(".");
+            }
+            pathName.append(intermediateField.getName());
+        }
+        return pathName.toString();
+    }
     
     public <T extends Annotation> T getAnnotation(Class<T> annotationCls) {
         Field lastField = path.get(path.size() - 1);
@@ -123,30 +184,88 @@ public class Accessor
 
     public void addValues(Object commandInstance, Iterable<?> values)
     {
+        if (streaming) {
+            // Bind the values as-is, they may only be iterated once
+            setStream(commandInstance, values);
+            return;
+        }
         if (!values.iterator().hasNext()) {
             return;
         }
+        if (array) {
+            setArray(commandInstance, values);
+            return;
+        }
 
         // get the actual instance
         Object instance = getValue(commandInstance);
 
-        Field field = path.get(path.size() - 1);
-        field.setAccessible(true);
-        if (Collection.class.isAssignableFrom(field.getType())) {
-            Collection<Object> collection = getOrCreateCollectionField(name, instance, field);
+        Handles handles = getHandles();
+        int last = path.size() - 1;
+        Field field = path.get(last);
+        if (multiValued) {
+            Collection<Object> collection = getOrCreateCollectionField(name, instance, field, handles.getters[last],
+                    handles.setters[last], handles.collectionFactory);
             CollectionUtils.addAll(collection, values);
         }
         else {
             try {
-                field.set(instance, AirlineUtils.last(values));
+                handles.setters[last].invokeExact(instance, (Object) AirlineUtils.last(values));
             }
-            catch (Exception e) {
-                throw new ParseException(e, "Error setting %s for argument %s", field.getName(), name);
+            catch (Throwable e) {
+                throw parseException(e, "Error setting %s for argument %s", field.getName(), name);
             }
         }
 
     }
 
+    private void setStream(Object commandInstance, Iterable<?> values)
+    {
+        Object instance = getValue(commandInstance);
+
+        Handles handles = getHandles();
+        int last = path.size() - 1;
+        Field field = path.get(last);
+        Object value = Iterator.class.equals(field.getType()) ? values.iterator() : values;
+        try {
+            handles.setters[last].invokeExact(instance, value);
+        }
+        catch (Throwable e) {
+            throw parseException(e, "Error setting %s for argument %s", field.getName(), name);
+        }
+    }
+
+    private void setArray(Object commandInstance, Iterable<?> values)
+    {
+        Object instance = getValue(commandInstance);
+
+        Handles handles = getHandles();
+        int last = path.size() - 1;
+        Field field = path.get(last);
+        try {
+            handles.setters[last].invokeExact(instance, toArray(javaType, values));
+        }
+        catch (Throwable e) {
+            throw parseException(e, "Error setting %s for argument %s", field.getName(), name);
+        }
+    }
+
+    private static Object toArray(Class<?> componentType, Iterable<?> values)
+    {
+        if (values instanceof PersistentPrimitiveList
+                && ((PersistentPrimitiveList) values).getPrimitiveType().equals(componentType)) {
+            // Already held as primitives so can be copied without unboxing
+            return ((PersistentPrimitiveList) values).toPrimitiveArray();
+        }
+
+        List<?> items = values instanceof List ? (List<?>) values : IteratorUtils.toList(values.iterator());
+        Object array = Array.newInstance(componentType, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Array.set(array, i, items.get(i));
+        }
+        return array;
+    }
+
     @Override
     public boolean equals(Object o)
     {
@@ -182,46 +301,146 @@ public class Accessor
     // Private reflection helper methods
     //
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
-    private static Collection<Object> newCollection(Class<?> type)
+    /**
+     * Method handles used to read and write the fields along the path, these
+     * are resolved once on first use so that repeated injections do no
+     * reflective lookups
+     */
+    private static final class Handles
     {
+        private final MethodHandle[] getters;
+        private final MethodHandle[] setters;
+        private final MethodHandle collectionFactory;
+
+        private Handles(List<Field> path, boolean collection)
+        {
+            getters = new MethodHandle[path.size()];
+            setters = new MethodHandle[path.size()];
+            for (int i = 0; i < path.size(); i++) {
+                Field field = path.get(i);
+                field.setAccessible(true);
+                getters[i] = getter(field);
+                setters[i] = setter(field);
+            }
+            collectionFactory = collection ? collectionFactory(path.get(path.size() - 1).getType()) : null;
+        }
+    }
+
+    private Handles getHandles()
+    {
+        Handles handles = this.handles;
+        if (handles == null) {
+            handles = new Handles(path, multiValued && !array);
+            this.handles = handles;
+        }
+        return handles;
+    }
+
+    private static ParseException parseException(Throwable e, String message, Object... args)
+    {
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        return new ParseException((Exception) e, message, args);
+    }
+
+    private static MethodHandle getter(Field field)
+    {
+        try {
+            MethodHandle getter = LOOKUP.unreflectGetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                getter = MethodHandles.dropArguments(getter, 0, Object.class);
+            }
+            return getter.asType(GETTER_TYPE);
+        }
+        catch (IllegalAccessException e) {
+            // Fall back to reflective access
+            return reflective(field, "get", GETTER_TYPE);
+        }
+    }
+
+    private static MethodHandle setter(Field field)
+    {
+        try {
+            MethodHandle setter = LOOKUP.unreflectSetter(field);
+            if (Modifier.isStatic(field.getModifiers())) {
+                setter = MethodHandles.dropArguments(setter, 0, Object.class);
+            }
+            return setter.asType(SETTER_TYPE);
+        }
+        catch (IllegalAccessException e) {
+            // Method handles refuse to write final fields so fall back to
+            // reflective access in that case
+            return reflective(field, "set", SETTER_TYPE);
+        }
+    }
+
+    private static MethodHandle reflective(Field field, String method, MethodType type)
+    {
+        try {
+            return LOOKUP.findVirtual(Field.class, method, type).bindTo(field);
+        }
+        catch (ReflectiveOperationException e) {
+            throw new ParseException(e, "Unable to access field %s", field.getName());
+        }
+    }
+
+    private static MethodHandle collectionFactory(Class<?> type)
+    {
+        Class<?> implType = type;
         if (Collection.class.equals(type) || List.class.equals(type)) {
-            return new ArrayList<Object>();
+            implType = ArrayList.class;
         }
-        if (Set.class.equals(type)) {
-            return new HashSet<Object>();
+        else if (Set.class.equals(type)) {
+            implType = HashSet.class;
         }
-        if (SortedSet.class.equals(type)) {
-            return new TreeSet();
+        else if (SortedSet.class.equals(type)) {
+            implType = TreeSet.class;
         }
 
         try {
-            return (Collection<Object>) type.getConstructor().newInstance();
+            return LOOKUP.findConstructor(implType, MethodType.methodType(void.class)).asType(FACTORY_TYPE);
         }
         catch (Exception ignored) {
+            // Not supported, will produce an error if we ever need to create
+            // an instance
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Collection<Object> newCollection(Class<?> type, MethodHandle factory)
+    {
+        if (factory != null) {
+            try {
+                return (Collection<Object>) (Object) factory.invokeExact();
+            }
+            catch (Throwable ignored) {
+            }
         }
 
         throw new ParseException("Parameters of Collection type '%s' are not supported. Please use List or Set instead.", type.getSimpleName());
     }
 
     @SuppressWarnings("unchecked")
-    private static Collection<Object> getOrCreateCollectionField(String name, Object object, Field field)
+    private static Collection<Object> getOrCreateCollectionField(String name, Object object, Field field,
+            MethodHandle getter, MethodHandle setter, MethodHandle factory)
     {
         Collection<Object> collection;
         try {
-            collection = (Collection<Object>) field.get(object);
+            collection = (Collection<Object>) (Object) getter.invokeExact(object);
         }
-        catch (Exception e) {
-            throw new ParseException(e, "Error getting collection field %s for argument %s", field.getName(), name);
+        catch (Throwable e) {
+            throw parseException(e, "Error getting collection field %s for argument %s", field.getName(), name);
         }
 
         if (collection == null) {
-            collection = newCollection(field.getType());
+            collection = newCollection(field.getType(), factory);
             try {
-                field.set(object, collection);
+                setter.invokeExact(object, (Object) collection);
             }
-            catch (Exception e) {
-                throw new ParseException(e, "Error setting collection field %s for argument %s", field.getName(), name);
+            catch (Throwable e) {
+                throw parseException(e, "Error setting collection field %s for argument %s", field.getName(), name);
             }
         }
         return collection;
@@ -234,6 +453,19 @@ public class Accessor
             throw new ParseException("Type of option %s be an exact type", name);
         }
 
+        if (rawClass.isArray() && rawClass.getComponentType().isPrimitive()) {
+            return rawClass.getComponentType();
+        }
+
+        if (isStreamingType(rawClass)) {
+            Type[] types = getTypeParameters(rawClass, type);
+            if ((types == null) || (types.length != 1) || !(types[0] instanceof Class)) {
+                throw new ParseException("%s type option %s must have an exact item type", rawClass.getSimpleName(),
+                        name);
+            }
+            return (Class<?>) types[0];
+        }
+
         if (!Collection.class.isAssignableFrom(rawClass)) {
             return rawClass;
         }
@@ -251,6 +483,11 @@ public class Accessor
         return (Class<?>) itemType;
     }
 
+    private static boolean isStreamingType(Class<?> type)
+    {
+        return Iterator.class.equals(type) || Iterable.class.equals(type);
+    }
+
     private static Class<?> getRawType(Type type)
     {
         if (type instanceof Class) {
@@ -15,12 +15,17 @@
  */
 package com.github.rvesse.airline;
 
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
 import com.github.rvesse.airline.utils.ListUtils;
 
 import com.github.rvesse.airline.builder.CliBuilder;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.command.BatchParser;
 import com.github.rvesse.airline.parser.command.CliParser;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
@@ -137,4 +142,78 @@ public class Cli<C> {
         CliParser<C> parser = new CliParser<C>();
         return parser.parseWithResult(metadata, args);
     }
+
+    /**
+     * Parses many command lines in parallel on the default pool, see
+     * {@link #parseAll(Iterable, ForkJoinPool)}
+     * 
+     * @param commandLines
+     *            Command lines
+     * @return Parse results in the same order as the command lines
+     */
+    public List<ParseResult<C>> parseAll(Iterable<String[]> commandLines) {
+        return parseAll(commandLines, BatchParser.defaultPool());
+    }
+
+    /**
+     * Parses many command lines in parallel on the given pool
+     * <p>
+     * The results can be inspected as for {@link #parseWithResult(String...)},
+     * an error handler that collects errors e.g. {@code CollectAll} should be
+     * used if every command line is to produce a result. Otherwise the first
+     * error thrown, in command line order, is rethrown.
+     * </p>
+     * 
+     * @param commandLines
+     *            Command lines
+     * @param pool
+     *            Pool to parse on
+     * @return Parse results in the same order as the command lines
+     */
+    public List<ParseResult<C>> parseAll(Iterable<String[]> commandLines, ForkJoinPool pool) {
+        return batchParser(pool, BatchParser.DEFAULT_CHUNK_SIZE).parseAll(commandLines);
+    }
+
+    /**
+     * Parses many command lines in parallel on the default pool streaming the
+     * results, see {@link #parseEach(Iterable, ForkJoinPool, int)}
+     * 
+     * @param commandLines
+     *            Command lines
+     * @return Parse results in the same order as the command lines
+     */
+    public Iterator<ParseResult<C>> parseEach(Iterable<String[]> commandLines) {
+        return parseEach(commandLines, BatchParser.defaultPool(), BatchParser.DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Parses many command lines in parallel on the given pool streaming the
+     * results
+     * <p>
+     * Command lines are read and parsed a chunk at a time as the results are
+     * consumed so this is suitable for very large or unbounded inputs. If
+     * parsing a command line throws an error it is thrown when the result for
+     * that command line is requested.
+     * </p>
+     * 
+     * @param commandLines
+     *            Command lines
+     * @param pool
+     *            Pool to parse on
+     * @param chunkSize
+     *            Number of command lines to parse at a time
+     * @return Parse results in the same order as the command lines
+     */
+    public Iterator<ParseResult<C>> parseEach(Iterable<String[]> commandLines, ForkJoinPool pool, int chunkSize) {
+        return batchParser(pool, chunkSize).parseEach(commandLines);
+    }
+
+    private BatchParser<C> batchParser(ForkJoinPool pool, int chunkSize) {
+        return new BatchParser<C>(pool, chunkSize) {
+            @Override
+            protected ParseResult<C> parse(String[] args) {
+                return parseWithResult(args);
+            }
+        };
+    }
 }
@@ -23,6 +23,7 @@ import javax.inject.Inject;
 
 import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.help.CommandUsageGenerator;
+import com.github.rvesse.airline.help.HelpCache;
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
@@ -145,7 +146,8 @@ public class HelpOption<C> {
     }
 
     /**
-     * Shows help using the given usage generator
+     * Shows help using the given usage generator, the output is cached by the
+     * default {@link HelpCache}
      * 
      * @param generator
      *            Usage generator
@@ -154,9 +156,10 @@ public class HelpOption<C> {
         if (generator == null)
             throw new NullPointerException("Usage generator cannot be null");
         try {
-            generator.usage(globalMetadata != null ? globalMetadata.getName() : null,
+            HelpCache.getDefault().usage(generator, globalMetadata != null ? globalMetadata.getName() : null,
                     groupMetadata != null ? toGroupNames(groupMetadata) : null, commandMetadata.getName(),
-                    commandMetadata, globalMetadata != null ? globalMetadata.getParserConfiguration() : null);
+                    commandMetadata, globalMetadata != null ? globalMetadata.getParserConfiguration() : null,
+                    System.out);
         } catch (IOException e) {
             throw new RuntimeException("Error generating usage documentation", e);
         }
@@ -20,6 +20,7 @@ import java.util.List;
 import com.github.rvesse.airline.utils.IteratorUtils;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.command.SingleCommandParser;
@@ -71,7 +72,10 @@ public class SingleCommand<C> {
         if (this.restrictions.size() == 0)
             this.restrictions.addAll(AirlineUtils.arrayToList(GlobalRestriction.DEFAULTS));
 
-        commandMetadata = MetadataLoader.loadCommand(command);
+        MetadataSnapshot snapshot = this.parserConfig.getMetadataSnapshot();
+        commandMetadata = MetadataLoader.loadCommand(command, snapshot);
+        if (snapshot != null)
+            snapshot.saveQuietly();
     }
 
     /**
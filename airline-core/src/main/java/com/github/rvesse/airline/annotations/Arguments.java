@@ -25,6 +25,23 @@ import static java.lang.annotation.ElementType.FIELD;
 
 import java.lang.annotation.Documented;
 
+/**
+ * Annotation that marks a field as receiving the arguments of a command
+ * <p>
+ * If the field is declared as an {@link java.util.Iterator} or
+ * {@link Iterable} then arguments are bound lazily, they are converted and
+ * validated as the command consumes them so arbitrarily many arguments can be
+ * processed without holding them all in memory. In this case all tokens
+ * following the first argument are treated as arguments and the bound value
+ * may only be iterated once.
+ * </p>
+ * <p>
+ * If the field is declared as an array of a primitive type then the arguments
+ * are bound as a new array. For {@code int[]}, {@code long[]} and
+ * {@code double[]} fields the values are accumulated without boxing, see
+ * {@link com.github.rvesse.airline.types.PrimitiveTypeConverter}.
+ * </p>
+ */
 @Retention(java.lang.annotation.RetentionPolicy.RUNTIME)
 @Target({ FIELD })
 @Documented
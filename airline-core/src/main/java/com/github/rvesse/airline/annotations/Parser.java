@@ -26,6 +26,7 @@ import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.SingleCommand;
 import com.github.rvesse.airline.model.ParserMetadata;
+import com.github.rvesse.airline.parser.argfiles.ArgumentFileFormat;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
 import com.github.rvesse.airline.parser.options.OptionParser;
@@ -170,6 +171,53 @@ public @interface Parser {
      */
     boolean defaultParsersFirst() default true;
 
+    /**
+     * Sets whether each token is dispatched directly to the option parsers
+     * applicable to it rather than trying every option parser in turn
+     * (default false)
+     * 
+     * @return True if option parser dispatch is used, false otherwise
+     */
+    boolean useOptionParserDispatch() default false;
+
+    /**
+     * Defines the name of a file in which discovered command meta-data is
+     * cached so that later runs need not load it reflectively, if empty
+     * (the default) no snapshot is used
+     * 
+     * @return Meta-data snapshot filename
+     */
+    String metadataSnapshot() default "";
+
+    /**
+     * Sets whether command meta-data is loaded lazily i.e. only command names,
+     * group membership and global and group options are loaded up front and
+     * the rest of a command's meta-data is loaded when it is first used
+     * (default false)
+     * 
+     * @return True if command meta-data is loaded lazily, false otherwise
+     */
+    boolean lazyCommandLoading() default false;
+
+    /**
+     * Sets the prefix that denotes an argument file, when set any argument
+     * starting with this prefix is replaced by the arguments read from the
+     * referenced file. The default is empty i.e. argument files are not
+     * supported.
+     * 
+     * @return Argument file prefix
+     */
+    String argumentFilePrefix() default "";
+
+    /**
+     * Sets the format of argument files (default
+     * {@link ArgumentFileFormat#QUOTED}), only used if
+     * {@link #argumentFilePrefix()} is set
+     * 
+     * @return Argument file format
+     */
+    ArgumentFileFormat argumentFileFormat() default ArgumentFileFormat.QUOTED;
+
     /**
      * Sets the option parser classes to be used
      * 
@@ -210,6 +258,15 @@ public @interface Parser {
      */
     Class<? extends ParserErrorHandler> errorHandler() default FailFast.class;
 
+    /**
+     * Sets whether parse errors capture stack traces (default true), disabling
+     * this makes creating errors much cheaper which is useful when an error
+     * handler that collects errors is used
+     * 
+     * @return True if errors capture stack traces, false otherwise
+     */
+    boolean errorStackTraces() default true;
+
     /**
      * Sets the flag negation prefix
      * <p>
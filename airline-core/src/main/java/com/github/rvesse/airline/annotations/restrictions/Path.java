@@ -63,4 +63,13 @@ public @interface Path {
      * @return Expected file kind
      */
     public PathKind kind() default PathKind.ANY;
+
+    /**
+     * Gets/Sets whether values are checked in parallel, when enabled any
+     * violations are reported during final validation in the order the values
+     * were given rather than as each value is parsed
+     * 
+     * @return True if values are checked in parallel, false otherwise
+     */
+    public boolean parallel() default false;
 }
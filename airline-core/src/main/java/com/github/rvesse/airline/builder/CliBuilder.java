@@ -30,6 +30,8 @@ import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.MetadataSnapshot;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.None;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -142,14 +144,17 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
 
     @Override
     public Cli<C> build() {
+        ParserMetadata<C> parserConfig = this.parserBuilder.build();
+        MetadataSnapshot snapshot = parserConfig.getMetadataSnapshot();
+
         CommandMetadata defaultCommandMetadata = null;
         List<CommandMetadata> allCommands = new ArrayList<CommandMetadata>();
         if (defaultCommand != null) {
-            defaultCommandMetadata = MetadataLoader.loadCommand(defaultCommand);
+            defaultCommandMetadata = MetadataLoader.loadCommand(defaultCommand, parserConfig);
         }
 
         List<CommandMetadata> defaultCommandGroup = defaultCommandGroupCommands != null ? MetadataLoader
-                .loadCommands(defaultCommandGroupCommands) : new ArrayList<CommandMetadata>();
+                .loadCommands(defaultCommandGroupCommands, parserConfig) : new ArrayList<CommandMetadata>();
 
         allCommands.addAll(defaultCommandGroup);
         if (defaultCommandMetadata != null)
@@ -160,7 +165,7 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
         if (groups != null) {
             commandGroups = new ArrayList<CommandGroupMetadata>();
             for (GroupBuilder<C> groupBuilder : groups.values()) {
-                commandGroups.add(groupBuilder.build());
+                commandGroups.add(groupBuilder.build(parserConfig));
             }
         } else {
             commandGroups = new ArrayList<>();
@@ -189,7 +194,9 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
         // annotations
         // rather than change the entire way metadata is loaded, I figured just
         // post-processing was an easier, yet uglier, way to go
-        MetadataLoader.loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup);
+        MetadataLoader.loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup, parserConfig);
+        if (snapshot != null)
+            snapshot.saveQuietly();
 
         // Build restrictions
         // Use defaults if none specified
@@ -202,7 +209,7 @@ public class CliBuilder<C> extends AbstractBuilder<Cli<C>> {
         // Build metadata objects
         GlobalMetadata<C> metadata = MetadataLoader.<C> loadGlobal(name, description, defaultCommandMetadata,
                 ListUtils.unmodifiableList(defaultCommandGroup), ListUtils.unmodifiableList(commandGroups),
-                ListUtils.unmodifiableList(restrictions), this.parserBuilder.build());
+                ListUtils.unmodifiableList(restrictions), parserConfig);
 
         return new Cli<C>(metadata);
     }
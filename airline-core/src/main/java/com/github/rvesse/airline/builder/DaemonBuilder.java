@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.builder;
+
+import java.io.File;
+import java.io.IOException;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.daemon.Daemon;
+import com.github.rvesse.airline.daemon.DaemonCommandExecutor;
+import com.github.rvesse.airline.daemon.DefaultDaemonCommandExecutor;
+
+/**
+ * Builder for daemons
+ *
+ * @param <C>
+ *            Command type
+ */
+public class DaemonBuilder<C> extends AbstractBuilder<Daemon<C>> {
+
+    private final Cli<C> cli;
+    private DaemonCommandExecutor<C> executor = new DefaultDaemonCommandExecutor<C>();
+    private int port = 0;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private String token;
+    private File tokenFile;
+    private int maxRequestSize = Daemon.DEFAULT_MAX_REQUEST_SIZE;
+    private int requestTimeout = Daemon.DEFAULT_REQUEST_TIMEOUT;
+
+    public DaemonBuilder(Cli<C> cli) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        this.cli = cli;
+    }
+
+    /**
+     * Sets the executor used to run commands, if not set commands must be
+     * {@link Runnable} or {@link java.util.concurrent.Callable}
+     * 
+     * @param executor
+     *            Executor
+     * @return Builder
+     */
+    public DaemonBuilder<C> withExecutor(DaemonCommandExecutor<C> executor) {
+        if (executor == null)
+            throw new NullPointerException("executor cannot be null");
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the port to listen on, by default a free port is chosen
+     * 
+     * @param port
+     *            Port
+     * @return Builder
+     */
+    public DaemonBuilder<C> withPort(int port) {
+        if (port < 0 || port > 65535)
+            throw new IllegalArgumentException(String.format("Invalid port %d", port));
+        this.port = port;
+        return this;
+    }
+
+    /**
+     * Sets the number of worker threads, defaults to the number of available
+     * processors
+     * 
+     * @param workers
+     *            Number of workers
+     * @return Builder
+     */
+    public DaemonBuilder<C> withWorkers(int workers) {
+        if (workers < 1)
+            throw new IllegalArgumentException("Workers must be at least 1");
+        this.workers = workers;
+        return this;
+    }
+
+    /**
+     * Sets a token that clients must present, if not set a random token is
+     * generated and written to the token file
+     * 
+     * @param token
+     *            Token
+     * @return Builder
+     */
+    public DaemonBuilder<C> withToken(String token) {
+        checkNotBlank(token, "Token");
+        this.token = token;
+        return this;
+    }
+
+    /**
+     * Sets the file the token is written to when the daemon starts, only the
+     * current user can read the file. If not set a generated token is written
+     * to {@link Daemon#getDefaultTokenFile(String, int)} and a configured token
+     * is not written anywhere. The file is deleted when the daemon is closed
+     * unless another daemon has since written its own token to it.
+     * 
+     * @param tokenFile
+     *            Token file
+     * @return Builder
+     */
+    public DaemonBuilder<C> withTokenFile(File tokenFile) {
+        if (tokenFile == null)
+            throw new NullPointerException("tokenFile cannot be null");
+        this.tokenFile = tokenFile;
+        return this;
+    }
+
+    /**
+     * Sets the maximum size in bytes of a request, clients sending larger
+     * requests are disconnected
+     * 
+     * @param maxRequestSize
+     *            Maximum request size
+     * @return Builder
+     */
+    public DaemonBuilder<C> withMaxRequestSize(int maxRequestSize) {
+        if (maxRequestSize < 1)
+            throw new IllegalArgumentException("Maximum request size must be at least 1");
+        this.maxRequestSize = maxRequestSize;
+        return this;
+    }
+
+    /**
+     * Sets the time in milliseconds a client has to send its request, clients
+     * that take longer are disconnected. {@code 0} waits indefinitely.
+     * 
+     * @param requestTimeout
+     *            Request timeout
+     * @return Builder
+     */
+    public DaemonBuilder<C> withRequestTimeout(int requestTimeout) {
+        if (requestTimeout < 0)
+            throw new IllegalArgumentException("Request timeout cannot be negative");
+        this.requestTimeout = requestTimeout;
+        return this;
+    }
+
+    /**
+     * Builds the daemon, the daemon does not listen for clients until it is
+     * started
+     * 
+     * @return Daemon
+     */
+    @Override
+    public Daemon<C> build() {
+        return new Daemon<C>(cli, executor, port, workers, token, tokenFile, maxRequestSize, requestTimeout);
+    }
+
+    /**
+     * Builds and starts the daemon
+     * 
+     * @return Running daemon
+     * @throws IOException
+     *             Thrown if the token file cannot be written or the daemon
+     *             cannot listen on the configured port
+     */
+    public Daemon<C> start() throws IOException {
+        return build().start();
+    }
+}
@@ -26,6 +26,7 @@ import com.github.rvesse.airline.utils.StringUtils;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class GroupBuilder<C> extends AbstractBuilder<CommandGroupMetadata> {
@@ -118,11 +119,15 @@ public class GroupBuilder<C> extends AbstractBuilder<CommandGroupMetadata> {
 
     @Override
     public CommandGroupMetadata build() {
-        CommandMetadata groupDefault = MetadataLoader.loadCommand(defaultCommand);
-        List<CommandMetadata> groupCommands = MetadataLoader.loadCommands(commands);
+        return build(null);
+    }
+
+    CommandGroupMetadata build(ParserMetadata<?> parserConfig) {
+        CommandMetadata groupDefault = MetadataLoader.loadCommand(defaultCommand, parserConfig);
+        List<CommandMetadata> groupCommands = MetadataLoader.loadCommands(commands, parserConfig);
         List<CommandGroupMetadata> subGroups = new ArrayList<CommandGroupMetadata>();
         for (GroupBuilder<C> builder : this.subGroups.values()) {
-            subGroups.add(builder.build());
+            subGroups.add(builder.build(parserConfig));
         }
 
         CommandGroupMetadata group = MetadataLoader.loadCommandGroup(name, description, hidden, subGroups,
@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.builder;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -23,9 +24,12 @@ import java.util.Map;
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.AliasMetadata;
+import com.github.rvesse.airline.model.MetadataSnapshot;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
+import com.github.rvesse.airline.parser.argfiles.ArgumentFileFormat;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
 import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
 import com.github.rvesse.airline.parser.options.LongGetOptParser;
 import com.github.rvesse.airline.parser.options.OptionParser;
@@ -34,6 +38,7 @@ import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.types.numerics.NumericTypeConverter;
+import com.github.rvesse.airline.utils.StringUtils;
 
 /**
  * Builder for parser configurations
@@ -47,11 +52,15 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
     protected NumericTypeConverter numericTypeConverter = new DefaultNumericConverter();
     protected final Map<String, AliasBuilder<C>> aliases = new HashMap<>();
     protected CommandFactory<C> commandFactory = new DefaultCommandFactory<C>();
-    protected boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
+    protected boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain,
+            useOptionParserDispatch, lazyCommandLoading, errorStackTraces = true;
     protected final List<OptionParser<C>> optionParsers = new ArrayList<>();
-    protected String argsSeparator, flagNegationPrefix;
+    protected String argsSeparator, flagNegationPrefix, argumentFilePrefix;
+    protected ArgumentFileFormat argumentFileFormat = ArgumentFileFormat.QUOTED;
     protected UserAliasesSource<C> userAliases;
     protected ParserErrorHandler errorHandler;
+    protected ParseListener parseListener;
+    protected File metadataSnapshotFile;
 
     public static <T> ParserMetadata<T> defaultConfiguration() {
         return new ParserBuilder<T>().build();
@@ -255,6 +264,58 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
         return this;
     }
 
+    /**
+     * Configures the parser to create errors without stack traces
+     * <p>
+     * Capturing a stack trace dominates the cost of creating an error, when an
+     * error handler that collects errors is used with input that may contain
+     * many errors, e.g. untrusted or generated input, this makes error handling
+     * much cheaper. Errors still carry their messages and causes, only the
+     * stack traces are omitted.
+     * </p>
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutErrorStackTraces() {
+        this.errorStackTraces = false;
+        return this;
+    }
+
+    /**
+     * Configures the parser to create errors with stack traces, this is the
+     * default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withErrorStackTraces() {
+        this.errorStackTraces = true;
+        return this;
+    }
+
+    /**
+     * Sets a listener that is notified as parsing moves through its phases,
+     * e.g. {@link com.github.rvesse.airline.parser.listeners.ParseStatistics}
+     * to see where parse time is spent
+     * 
+     * @param listener
+     *            Parse listener
+     * @return Builder
+     */
+    public ParserBuilder<C> withParseListener(ParseListener listener) {
+        this.parseListener = listener;
+        return this;
+    }
+
+    /**
+     * Removes any parse listener, this is the default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutParseListener() {
+        this.parseListener = null;
+        return this;
+    }
+
     /**
      * Configures the CLI to use the given option parser
      * <p>
@@ -332,6 +393,174 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
                 new ClassicGetOptParser<C>());
     }
 
+    /**
+     * Configures the CLI to dispatch each token directly to the option parsers
+     * that are applicable to it rather than trying every option parser in turn
+     * <p>
+     * Each token is classified once and only those option parsers which report
+     * they could parse it are invoked, parsers are still consulted in order of
+     * registration. Custom parsers which extend a built-in parser and accept
+     * additional token forms should override
+     * {@link com.github.rvesse.airline.parser.options.AbstractOptionParser#isApplicable(com.github.rvesse.airline.parser.options.OptionToken)}
+     * accordingly.
+     * </p>
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withOptionParserDispatch() {
+        this.useOptionParserDispatch = true;
+        return this;
+    }
+
+    /**
+     * Configures the CLI to try every option parser in turn for each token,
+     * this is the default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutOptionParserDispatch() {
+        this.useOptionParserDispatch = false;
+        return this;
+    }
+
+    /**
+     * Configures the CLI to cache the command meta-data it discovers in the
+     * given snapshot file
+     * <p>
+     * On first use command meta-data is loaded as normal and then written to
+     * the snapshot file, subsequent uses replay the snapshot rather than
+     * reflectively inspecting the command classes. Snapshot entries are
+     * ignored and refreshed whenever the classes they were built from
+     * change, see {@link MetadataSnapshot} for details.
+     * </p>
+     * 
+     * @param file
+     *            Snapshot file
+     * @return Builder
+     */
+    public ParserBuilder<C> withMetadataSnapshot(File file) {
+        if (file == null)
+            throw new NullPointerException("file cannot be null");
+        this.metadataSnapshotFile = file;
+        return this;
+    }
+
+    /**
+     * Configures the CLI to cache the command meta-data it discovers in the
+     * given snapshot file, see {@link #withMetadataSnapshot(File)}
+     * 
+     * @param filename
+     *            Snapshot filename
+     * @return Builder
+     */
+    public ParserBuilder<C> withMetadataSnapshot(String filename) {
+        if (StringUtils.isEmpty(filename))
+            throw new IllegalArgumentException("filename cannot be null/empty");
+        return withMetadataSnapshot(new File(filename));
+    }
+
+    /**
+     * Configures the CLI to always load command meta-data afresh, this is the
+     * default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutMetadataSnapshot() {
+        this.metadataSnapshotFile = null;
+        return this;
+    }
+
+    /**
+     * Configures the CLI to load command meta-data lazily
+     * <p>
+     * When the CLI is built only the names, descriptions and group membership
+     * of commands plus any global and group scoped options they declare are
+     * loaded. The remainder of each command's meta-data, i.e. its command
+     * options, arguments, help sections and meta-data injections, is loaded
+     * when the command is first used. For CLIs with many commands this means
+     * parsing only pays the cost of loading the command actually invoked.
+     * </p>
+     * <p>
+     * Note that since commands are not fully loaded up front errors in a
+     * command's definition are not reported until that command is used.
+     * </p>
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withLazyCommandLoading() {
+        this.lazyCommandLoading = true;
+        return this;
+    }
+
+    /**
+     * Configures the CLI to load all command meta-data when it is built, this
+     * is the default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutLazyCommandLoading() {
+        this.lazyCommandLoading = false;
+        return this;
+    }
+
+    /**
+     * Enables argument files using the default {@code @} prefix, see
+     * {@link #withArgumentFiles(String)}
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withArgumentFiles() {
+        return withArgumentFiles(ParserMetadata.DEFAULT_ARGUMENT_FILE_PREFIX);
+    }
+
+    /**
+     * Enables argument files, any argument starting with the given prefix is
+     * treated as a reference to a file whose contents are read as further
+     * arguments
+     * <p>
+     * This allows supplying more arguments than the operating system permits
+     * on a command line. Arguments are streamed from the file as they are
+     * parsed so the file is never read into memory in its entirety. An
+     * argument that starts with the prefix repeated twice is passed through as
+     * a literal argument with a single prefix.
+     * </p>
+     * 
+     * @param prefix
+     *            Argument file prefix
+     * @return Builder
+     */
+    public ParserBuilder<C> withArgumentFiles(String prefix) {
+        if (StringUtils.isEmpty(prefix))
+            throw new IllegalArgumentException("prefix cannot be null/empty");
+        this.argumentFilePrefix = prefix;
+        return this;
+    }
+
+    /**
+     * Sets the format of argument files, defaults to
+     * {@link ArgumentFileFormat#QUOTED}
+     * 
+     * @param format
+     *            Argument file format
+     * @return Builder
+     */
+    public ParserBuilder<C> withArgumentFileFormat(ArgumentFileFormat format) {
+        if (format == null)
+            throw new NullPointerException("format cannot be null");
+        this.argumentFileFormat = format;
+        return this;
+    }
+
+    /**
+     * Disables argument files, this is the default behaviour
+     * 
+     * @return Builder
+     */
+    public ParserBuilder<C> withoutArgumentFiles() {
+        this.argumentFilePrefix = null;
+        return this;
+    }
+
     /**
      * Sets the arguments separator, this is a token used to indicate the point
      * at which no further options will be seen and all further tokens should be
@@ -405,6 +634,8 @@ public class ParserBuilder<C> extends AbstractBuilder<ParserMetadata<C>> {
 
         return new ParserMetadata<C>(commandFactory, optionParsers, typeConverter, errorHandler,
                 allowAbbreviatedCommands, allowAbbreviatedOptions, aliasData, userAliases, aliasesOverrideBuiltIns,
-                aliasesMayChain, argsSeparator, flagNegationPrefix);
+                aliasesMayChain, argsSeparator, flagNegationPrefix, useOptionParserDispatch,
+                metadataSnapshotFile != null ? new MetadataSnapshot(metadataSnapshotFile) : null, lazyCommandLoading,
+                argumentFilePrefix, argumentFileFormat, errorStackTraces, parseListener);
     }
 }
\ No newline at end of file
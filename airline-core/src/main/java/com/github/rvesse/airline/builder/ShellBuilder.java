@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.builder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.shell.DefaultShellCommandExecutor;
+import com.github.rvesse.airline.shell.Shell;
+import com.github.rvesse.airline.shell.ShellCommandExecutor;
+
+/**
+ * Builder for interactive shells
+ *
+ * @param <C>
+ *            Command type
+ */
+public class ShellBuilder<C> extends AbstractBuilder<Shell<C>> {
+
+    public static final int DEFAULT_HISTORY_SIZE = 500;
+
+    private final Cli<C> cli;
+    private ShellCommandExecutor<C> executor = new DefaultShellCommandExecutor<C>();
+    private String prompt;
+    private int historySize = DEFAULT_HISTORY_SIZE;
+    private boolean timing = false;
+    private final List<String> exitCommands = new ArrayList<>();
+
+    public ShellBuilder(Cli<C> cli) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        this.cli = cli;
+        this.prompt = cli.getMetadata().getName() + "> ";
+    }
+
+    /**
+     * Sets the executor used to run commands, if not set commands must be
+     * {@link Runnable} or {@link java.util.concurrent.Callable}
+     * 
+     * @param executor
+     *            Executor
+     * @return Builder
+     */
+    public ShellBuilder<C> withExecutor(ShellCommandExecutor<C> executor) {
+        if (executor == null)
+            throw new NullPointerException("executor cannot be null");
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Sets the prompt, defaults to the CLI name followed by {@code >}
+     * 
+     * @param prompt
+     *            Prompt
+     * @return Builder
+     */
+    public ShellBuilder<C> withPrompt(String prompt) {
+        checkNotNull(prompt, "prompt");
+        this.prompt = prompt;
+        return this;
+    }
+
+    /**
+     * Sets how many commands are kept in the history
+     * 
+     * @param size
+     *            History size, zero disables history
+     * @return Builder
+     */
+    public ShellBuilder<C> withHistorySize(int size) {
+        if (size < 0)
+            throw new IllegalArgumentException("History size cannot be negative");
+        this.historySize = size;
+        return this;
+    }
+
+    /**
+     * Reports how long each command took to parse and execute
+     * 
+     * @return Builder
+     */
+    public ShellBuilder<C> withTiming() {
+        this.timing = true;
+        return this;
+    }
+
+    /**
+     * Does not report how long each command took
+     * 
+     * @return Builder
+     */
+    public ShellBuilder<C> withoutTiming() {
+        this.timing = false;
+        return this;
+    }
+
+    /**
+     * Adds a command which exits the shell, if none are added then
+     * {@code exit} and {@code quit} are used
+     * 
+     * @param command
+     *            Exit command
+     * @return Builder
+     */
+    public ShellBuilder<C> withExitCommand(String command) {
+        checkNotBlank(command, "command");
+        this.exitCommands.add(command);
+        return this;
+    }
+
+    @Override
+    public Shell<C> build() {
+        List<String> exitCommands = new ArrayList<>(this.exitCommands);
+        if (exitCommands.isEmpty()) {
+            exitCommands.add("exit");
+            exitCommands.add("quit");
+        }
+        return new Shell<C>(cli, executor, prompt, historySize, timing, exitCommands);
+    }
+}
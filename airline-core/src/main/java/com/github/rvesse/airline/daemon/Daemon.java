@@ -0,0 +1,494 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.DaemonBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.command.CliParser;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.ListUtils;
+import com.github.rvesse.airline.utils.StringUtils;
+
+/**
+ * A resident daemon which hosts a {@link Cli} and runs commands on behalf of
+ * {@link DaemonClient}s so that the cost of starting a JVM and loading the CLI
+ * meta-data is only paid once
+ * <p>
+ * The daemon only listens on the loopback interface. Each client connection
+ * sends its arguments, working directory and environment, the arguments are
+ * parsed against the hosted CLI and the resulting command is run on a pool of
+ * worker threads with its standard output, standard error and exit code
+ * streamed back to the client. Since parsing is reentrant all workers share
+ * the same CLI.
+ * </p>
+ * <p>
+ * Any local user can connect to the loopback interface so clients must always
+ * present a token. If no token is configured a random token is generated when
+ * the daemon starts and written to a token file that only the owner of the
+ * daemon can read, see {@link #getTokenFile()}. The default token file is
+ * named for both the CLI and the port so that several daemons for the same CLI
+ * do not overwrite each others tokens. The token is checked before anything
+ * else is read from the client, requests are limited in size and clients that
+ * do not send their request in time are disconnected.
+ * </p>
+ * <p>
+ * Anything the command writes to {@link System#out} and {@link System#err} is
+ * sent to the client that requested it, while any daemon is running the
+ * standard streams are replaced with streams that route the output of each
+ * worker thread to its current client.
+ * </p>
+ * <p>
+ * The exit code is {@value #EXIT_PARSE_ERROR} if the arguments could not be
+ * parsed and {@value #EXIT_FAILURE} if the command threw an error.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class Daemon<C> implements Closeable {
+
+    public static final int EXIT_FAILURE = 1;
+    public static final int EXIT_PARSE_ERROR = 2;
+
+    /**
+     * Default maximum size of a request in bytes
+     */
+    public static final int DEFAULT_MAX_REQUEST_SIZE = 16 * 1024 * 1024;
+
+    /**
+     * Default time in milliseconds a client has to send its request
+     */
+    public static final int DEFAULT_REQUEST_TIMEOUT = 30000;
+
+    /**
+     * Number of random bytes in a generated token
+     */
+    private static final int TOKEN_BYTES = 32;
+
+    /**
+     * Creates a builder for a daemon
+     * 
+     * @param cli
+     *            CLI whose commands the daemon will run
+     * @return Daemon builder
+     */
+    public static <T> DaemonBuilder<T> builder(Cli<T> cli) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        return new DaemonBuilder<T>(cli);
+    }
+
+    private final Cli<C> cli;
+    private final String name;
+    private final CliParser<C> parser = new CliParser<C>();
+    private final DaemonCommandExecutor<C> executor;
+    private final String token;
+    private final byte[] tokenBytes;
+    private final boolean generatedToken;
+    private final File configuredTokenFile;
+    private volatile File tokenFile;
+    private final int port, maxRequestSize, requestTimeout;
+    private volatile ServerSocket serverSocket;
+    private final ExecutorService workers;
+    private final Thread acceptor;
+    private volatile boolean started = false, closed = false;
+
+    /**
+     * Creates a new daemon, the daemon does not listen for clients until
+     * {@link #start()} is called
+     * 
+     * @param cli
+     *            CLI
+     * @param executor
+     *            Command executor
+     * @param port
+     *            Port to listen on, {@code 0} to pick a free port
+     * @param workers
+     *            Number of worker threads
+     * @param token
+     *            Token clients must present, {@code null} or empty to generate
+     *            a random token
+     * @param tokenFile
+     *            File the token is written to when the daemon starts,
+     *            {@code null} to use {@link #getDefaultTokenFile(String, int)}
+     *            if the token is generated and to not write the token
+     *            otherwise
+     * @param maxRequestSize
+     *            Maximum size of a request in bytes
+     * @param requestTimeout
+     *            Time in milliseconds a client has to send its request
+     */
+    public Daemon(Cli<C> cli, DaemonCommandExecutor<C> executor, int port, int workers, String token,
+            File tokenFile, int maxRequestSize, int requestTimeout) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        if (executor == null)
+            throw new NullPointerException("executor cannot be null");
+        if (workers < 1)
+            throw new IllegalArgumentException("workers must be at least 1");
+        if (maxRequestSize < 1)
+            throw new IllegalArgumentException("maxRequestSize must be at least 1");
+        if (requestTimeout < 0)
+            throw new IllegalArgumentException("requestTimeout cannot be negative");
+        final String name = cli.getMetadata().getName();
+        this.name = name;
+        this.cli = cli;
+        this.executor = executor;
+        this.port = port;
+        this.maxRequestSize = maxRequestSize;
+        this.requestTimeout = requestTimeout;
+        this.generatedToken = StringUtils.isEmpty(token);
+        this.token = this.generatedToken ? generateToken() : token;
+        this.tokenBytes = this.token.getBytes(StandardCharsets.UTF_8);
+        this.configuredTokenFile = tokenFile;
+
+        this.workers = Executors.newFixedThreadPool(workers, new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, String.format("%s-daemon-worker-%d", name, count.incrementAndGet()));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, String.format("%s-daemon-acceptor", name));
+        this.acceptor.setDaemon(true);
+    }
+
+    /**
+     * Gets the token file used when a token is generated and no token file is
+     * given
+     * 
+     * @param name
+     *            CLI name
+     * @param port
+     *            Port the daemon is listening on
+     * @return Default token file
+     */
+    public static File getDefaultTokenFile(String name, int port) {
+        return new File(new File(System.getProperty("user.home"), ".airline"),
+                String.format("%s-daemon-%d.token", name, port));
+    }
+
+    private static String generateToken() {
+        byte[] data = new byte[TOKEN_BYTES];
+        new SecureRandom().nextBytes(data);
+        StringBuilder builder = new StringBuilder(data.length * 2);
+        for (byte b : data) {
+            builder.append(String.format("%02x", b & 0xff));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Starts the daemon, if a token file is used the token is written to it
+     * before the daemon starts accepting clients
+     * 
+     * @return Daemon
+     * @throws IOException
+     *             Thrown if the token file cannot be written or the daemon
+     *             cannot listen on the port
+     */
+    public synchronized Daemon<C> start() throws IOException {
+        if (this.started)
+            throw new IllegalStateException("Daemon has already been started");
+        if (this.closed)
+            throw new IllegalStateException("Daemon has been closed");
+        ServerSocket socket = new ServerSocket();
+        File file = null;
+        try {
+            socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), this.port));
+            // The default token file includes the port so it can only be
+            // chosen once we are bound
+            file = this.configuredTokenFile != null ? this.configuredTokenFile
+                    : this.generatedToken ? getDefaultTokenFile(this.name, socket.getLocalPort()) : null;
+            if (file != null)
+                writeTokenFile(file, this.token);
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+        this.serverSocket = socket;
+        this.tokenFile = file;
+        this.started = true;
+        DaemonOutput.install();
+        this.acceptor.start();
+        return this;
+    }
+
+    /**
+     * Writes the token to a file that only the current user can read or write
+     */
+    private static void writeTokenFile(File file, String token) throws IOException {
+        File dir = file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs())
+            throw new IOException("Unable to create directory " + dir);
+        Path path = file.toPath();
+        Files.deleteIfExists(path);
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            // Not a POSIX file system so restrict access as best we can
+            Files.createFile(path);
+            File f = path.toFile();
+            if (!f.setReadable(false, false) || !f.setReadable(true, true) || !f.setWritable(false, false)
+                    || !f.setWritable(true, true))
+                throw new IOException("Unable to restrict access to token file " + file);
+        }
+        Files.write(path, token.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Deletes the token file provided it still holds our token, if another
+     * daemon has since written its token to the same file it is left alone
+     */
+    private static void deleteTokenFile(File file, String token) throws IOException {
+        Path path = file.toPath();
+        try {
+            if (!token.equals(DaemonClient.readToken(file)))
+                return;
+        } catch (NoSuchFileException e) {
+            return;
+        }
+        Files.deleteIfExists(path);
+    }
+
+    /**
+     * Gets the CLI hosted by this daemon
+     * 
+     * @return CLI
+     */
+    public Cli<C> getCli() {
+        return cli;
+    }
+
+    /**
+     * Gets the token clients must present
+     * 
+     * @return Token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets the file the token was written to when the daemon started, the file
+     * is deleted when the daemon is closed
+     * 
+     * @return Token file, {@code null} if the daemon has not been started or
+     *         the token is not written to a file
+     */
+    public File getTokenFile() {
+        return tokenFile;
+    }
+
+    /**
+     * Gets the port the daemon is listening on
+     * 
+     * @return Port, {@code -1} if the daemon has not been started
+     */
+    public int getPort() {
+        ServerSocket socket = this.serverSocket;
+        return socket != null ? socket.getLocalPort() : -1;
+    }
+
+    /**
+     * Gets whether the daemon has been closed
+     * 
+     * @return True if closed, false otherwise
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Stops accepting new clients, clients already connected are allowed to
+     * finish
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed)
+                return;
+            closed = true;
+        }
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } finally {
+            workers.shutdown();
+            if (started) {
+                DaemonOutput.uninstall();
+                if (tokenFile != null)
+                    deleteTokenFile(tokenFile, token);
+            }
+        }
+    }
+
+    private void accept() {
+        while (!closed) {
+            final Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                // Socket closed
+                return;
+            }
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    handle(socket);
+                }
+            });
+        }
+    }
+
+    private void handle(Socket socket) {
+        try (Socket s = socket) {
+            s.setTcpNoDelay(true);
+            s.setSoTimeout(requestTimeout);
+            DataInputStream input = new DataInputStream(
+                    new BufferedInputStream(new DaemonProtocol.LimitedInputStream(s.getInputStream(), maxRequestSize)));
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(s.getOutputStream()));
+            PrintStream out = new PrintStream(new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDOUT),
+                    false, "UTF-8");
+            PrintStream err = new PrintStream(new DaemonProtocol.FrameOutputStream(output, DaemonProtocol.STDERR),
+                    false, "UTF-8");
+
+            int exitCode;
+            DaemonRequest request = readRequest(input, err);
+            if (request == null) {
+                exitCode = EXIT_FAILURE;
+            } else {
+                exitCode = run(request, out, err);
+            }
+
+            out.flush();
+            err.flush();
+            synchronized (output) {
+                output.writeByte(DaemonProtocol.EXIT);
+                output.writeInt(exitCode);
+                output.flush();
+            }
+        } catch (SocketException e) {
+            // Client went away, nothing to report to
+        } catch (IOException e) {
+            // Malformed, oversized or slow request or client went away
+        }
+    }
+
+    private DaemonRequest readRequest(DataInputStream input, PrintStream err) throws IOException {
+        if (input.readInt() != DaemonProtocol.MAGIC) {
+            err.println("Not an Airline daemon request");
+            return null;
+        }
+        int version = input.readInt();
+        if (version != DaemonProtocol.VERSION) {
+            err.println(String.format("Unsupported protocol version %d, expected %d", version,
+                    DaemonProtocol.VERSION));
+            return null;
+        }
+        // Check the token before reading anything else so unauthenticated
+        // clients cannot make the daemon do any further work, compare in
+        // constant time so the token cannot be guessed by timing
+        byte[] clientToken = DaemonProtocol.readBytes(input, DaemonProtocol.MAX_TOKEN_LENGTH);
+        if (!MessageDigest.isEqual(this.tokenBytes, clientToken)) {
+            err.println("Invalid token");
+            return null;
+        }
+
+        File workingDirectory = new File(DaemonProtocol.readString(input));
+        int argc = DaemonProtocol.readCount(input);
+        List<String> args = new ArrayList<>(Math.min(argc, 256));
+        for (int i = 0; i < argc; i++) {
+            args.add(DaemonProtocol.readString(input));
+        }
+        int envc = DaemonProtocol.readCount(input);
+        Map<String, String> env = new LinkedHashMap<>();
+        for (int i = 0; i < envc; i++) {
+            env.put(DaemonProtocol.readString(input), DaemonProtocol.readString(input));
+        }
+        return new DaemonRequest(ListUtils.unmodifiableList(args), workingDirectory,
+                AirlineUtils.unmodifiableMapCopy(env));
+    }
+
+    private int run(DaemonRequest request, PrintStream out, PrintStream err) {
+        ParseResult<C> result;
+        try {
+            result = parser.parseWithResult(cli.getMetadata(), request.getArguments());
+        } catch (ParseException e) {
+            err.println(e.getMessage());
+            return EXIT_PARSE_ERROR;
+        }
+        if (!result.wasSuccessful()) {
+            for (ParseException e : result.getErrors()) {
+                err.println(e.getMessage());
+            }
+            return EXIT_PARSE_ERROR;
+        }
+        if (result.getCommand() == null) {
+            err.println("No command specified");
+            return EXIT_PARSE_ERROR;
+        }
+
+        DaemonOutput.redirect(out, err);
+        try {
+            return executor.execute(result.getCommand(), request, out, err);
+        } catch (Exception e) {
+            err.println(String.format("Error: %s", e.getMessage()));
+            return EXIT_FAILURE;
+        } finally {
+            DaemonOutput.restore();
+        }
+    }
+}
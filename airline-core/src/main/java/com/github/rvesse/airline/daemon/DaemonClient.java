@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.StringUtils;
+
+/**
+ * Client for a {@link Daemon}
+ * <p>
+ * The client sends its arguments, working directory and environment to a
+ * daemon listening on the loopback interface and copies the output of the
+ * command to its own output, the {@link #main(String[])} method may be used as
+ * a tiny launcher in place of starting the full application.
+ * </p>
+ */
+public class DaemonClient {
+
+    /**
+     * System property used by {@link #main(String[])} to find the daemon port
+     */
+    public static final String PORT_PROPERTY = "airline.daemon.port";
+    /**
+     * System property used by {@link #main(String[])} to find the daemon token
+     */
+    public static final String TOKEN_PROPERTY = "airline.daemon.token";
+    /**
+     * System property used by {@link #main(String[])} to find the file
+     * containing the daemon token when {@value #TOKEN_PROPERTY} is not set
+     */
+    public static final String TOKEN_FILE_PROPERTY = "airline.daemon.token.file";
+
+    private static final int CONNECT_TIMEOUT = 5000;
+
+    private final int port;
+    private final String token;
+
+    /**
+     * Creates a new client
+     * 
+     * @param port
+     *            Port the daemon listens on
+     * @param token
+     *            Token expected by the daemon
+     */
+    public DaemonClient(int port, String token) {
+        if (port < 1 || port > 65535)
+            throw new IllegalArgumentException(String.format("Invalid port %d", port));
+        if (StringUtils.isEmpty(token))
+            throw new IllegalArgumentException("token cannot be null/empty");
+        this.port = port;
+        this.token = token;
+    }
+
+    /**
+     * Reads the token from a token file written by the daemon
+     * 
+     * @param tokenFile
+     *            Token file
+     * @return Token
+     * @throws IOException
+     *             Thrown if the token file cannot be read
+     */
+    public static String readToken(File tokenFile) throws IOException {
+        return new String(Files.readAllBytes(tokenFile.toPath()), StandardCharsets.UTF_8).trim();
+    }
+
+    /**
+     * Runs a command on the daemon with the working directory and environment
+     * of this process, copying its output to this process's standard output
+     * and standard error
+     * 
+     * @param args
+     *            Arguments
+     * @return Exit code
+     * @throws IOException
+     *             Thrown if the daemon cannot be reached
+     */
+    public int run(String... args) throws IOException {
+        return run(AirlineUtils.arrayToList(args), new File(System.getProperty("user.dir")), System.getenv(),
+                System.out, System.err);
+    }
+
+    /**
+     * Runs a command on the daemon
+     * 
+     * @param args
+     *            Arguments
+     * @param workingDirectory
+     *            Working directory
+     * @param environment
+     *            Environment
+     * @param out
+     *            Stream to copy the commands standard output to
+     * @param err
+     *            Stream to copy the commands standard error to
+     * @return Exit code
+     * @throws IOException
+     *             Thrown if the daemon cannot be reached or disconnects before
+     *             the command completes
+     */
+    public int run(List<String> args, File workingDirectory, Map<String, String> environment, OutputStream out,
+            OutputStream err) throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), CONNECT_TIMEOUT);
+
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeInt(DaemonProtocol.MAGIC);
+            output.writeInt(DaemonProtocol.VERSION);
+            DaemonProtocol.writeString(output, token);
+            DaemonProtocol.writeString(output, workingDirectory.getAbsolutePath());
+            output.writeInt(args.size());
+            for (String arg : args) {
+                DaemonProtocol.writeString(output, arg);
+            }
+            output.writeInt(environment.size());
+            for (Map.Entry<String, String> var : environment.entrySet()) {
+                DaemonProtocol.writeString(output, var.getKey());
+                DaemonProtocol.writeString(output, var.getValue());
+            }
+            output.flush();
+
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            byte[] buffer = new byte[8192];
+            while (true) {
+                byte type;
+                try {
+                    type = input.readByte();
+                } catch (EOFException e) {
+                    throw new IOException("Daemon disconnected before the command completed");
+                }
+                if (type == DaemonProtocol.EXIT) {
+                    out.flush();
+                    err.flush();
+                    return input.readInt();
+                }
+
+                OutputStream target;
+                if (type == DaemonProtocol.STDOUT) {
+                    target = out;
+                } else if (type == DaemonProtocol.STDERR) {
+                    target = err;
+                } else {
+                    throw new IOException(String.format("Unexpected frame type %d", type));
+                }
+                int remaining = input.readInt();
+                while (remaining > 0) {
+                    int read = input.read(buffer, 0, Math.min(buffer.length, remaining));
+                    if (read < 0)
+                        throw new IOException("Daemon disconnected before the command completed");
+                    target.write(buffer, 0, read);
+                    remaining -= read;
+                }
+            }
+        }
+    }
+
+    /**
+     * Launcher which runs the given arguments on the daemon whose port is
+     * given by the {@value #PORT_PROPERTY} system property and exits with the
+     * exit code of the command. The token is given by the
+     * {@value #TOKEN_PROPERTY} system property or read from the file given by
+     * the {@value #TOKEN_FILE_PROPERTY} system property.
+     * 
+     * @param args
+     *            Arguments
+     */
+    public static void main(String[] args) {
+        String port = System.getProperty(PORT_PROPERTY);
+        if (port == null) {
+            System.err.println(String.format("The %s system property must give the daemon port", PORT_PROPERTY));
+            System.exit(Daemon.EXIT_FAILURE);
+        }
+        try {
+            String token = System.getProperty(TOKEN_PROPERTY);
+            String tokenFile = System.getProperty(TOKEN_FILE_PROPERTY);
+            if (token == null && tokenFile != null)
+                token = readToken(new File(tokenFile));
+            DaemonClient client = new DaemonClient(Integer.parseInt(port), token);
+            System.exit(client.run(args));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(String.format("Unable to run command via daemon: %s", e.getMessage()));
+            System.exit(Daemon.EXIT_FAILURE);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.PrintStream;
+
+/**
+ * Interface for executors which run the commands received by a {@link Daemon}
+ * <p>
+ * Executors are invoked concurrently from the daemons worker threads. While an
+ * executor runs {@link System#out} and {@link System#err} are routed to the
+ * given client streams for the calling thread, output written from other
+ * threads started by the command goes to the daemons own streams.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public interface DaemonCommandExecutor<C> {
+
+    /**
+     * Executes a command
+     * 
+     * @param command
+     *            Command
+     * @param request
+     *            Request the command was parsed from
+     * @param out
+     *            Standard output of the client
+     * @param err
+     *            Standard error of the client
+     * @return Exit code to return to the client
+     * @throws Exception
+     *             Thrown if the command fails, the error is reported to the
+     *             client which exits with a non-zero exit code
+     */
+    public int execute(C command, DaemonRequest request, PrintStream out, PrintStream err) throws Exception;
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Routes {@link System#out} and {@link System#err} to the client a daemon
+ * worker thread is currently serving
+ * <p>
+ * While at least one daemon is running the standard streams are replaced with
+ * streams that look up the client streams registered for the calling thread,
+ * threads that are not serving a client write to the original streams. Only
+ * the thread running the command is routed, threads started by the command
+ * write to the original streams.
+ * </p>
+ */
+final class DaemonOutput {
+
+    private static final ThreadLocal<PrintStream[]> CLIENT = new ThreadLocal<PrintStream[]>();
+
+    private static int installed = 0;
+    private static PrintStream originalOut, originalErr, routedOut, routedErr;
+
+    private DaemonOutput() {
+    }
+
+    /**
+     * Replaces the standard streams with routing streams if this is the first
+     * running daemon
+     */
+    static synchronized void install() {
+        if (installed++ > 0)
+            return;
+        originalOut = System.out;
+        originalErr = System.err;
+        routedOut = new RoutingPrintStream(new RoutingOutputStream(originalOut, 0));
+        routedErr = new RoutingPrintStream(new RoutingOutputStream(originalErr, 1));
+        System.setOut(routedOut);
+        System.setErr(routedErr);
+    }
+
+    /**
+     * Restores the standard streams if this was the last running daemon,
+     * streams that have since been replaced by someone else are left alone
+     */
+    static synchronized void uninstall() {
+        if (installed == 0 || --installed > 0)
+            return;
+        if (System.out == routedOut)
+            System.setOut(originalOut);
+        if (System.err == routedErr)
+            System.setErr(originalErr);
+        originalOut = originalErr = routedOut = routedErr = null;
+    }
+
+    /**
+     * Routes the standard streams of the calling thread to the given client
+     * streams
+     *
+     * @param out
+     *            Client standard output
+     * @param err
+     *            Client standard error
+     */
+    static void redirect(PrintStream out, PrintStream err) {
+        CLIENT.set(new PrintStream[] { out, err });
+    }
+
+    /**
+     * Stops routing the standard streams of the calling thread
+     */
+    static void restore() {
+        CLIENT.remove();
+    }
+
+    private static final class RoutingPrintStream extends PrintStream {
+
+        RoutingPrintStream(OutputStream output) {
+            super(output, true);
+        }
+
+        @Override
+        public void close() {
+            // Commands closing the standard streams must not close them for
+            // every other thread or close the client connection
+            flush();
+        }
+    }
+
+    private static final class RoutingOutputStream extends OutputStream {
+        private final PrintStream original;
+        private final int index;
+
+        RoutingOutputStream(PrintStream original, int index) {
+            this.original = original;
+            this.index = index;
+        }
+
+        private PrintStream target() {
+            PrintStream[] client = CLIENT.get();
+            return client != null ? client[this.index] : this.original;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            target().write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            target().write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            target().flush();
+        }
+    }
+}
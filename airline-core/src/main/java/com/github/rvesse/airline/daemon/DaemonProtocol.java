@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire protocol shared by the {@link Daemon} and the {@link DaemonClient}
+ * <p>
+ * A client sends a single request consisting of the magic number, the
+ * protocol version, the token, the working directory, the arguments and the
+ * environment. The daemon replies with a sequence of frames each consisting of
+ * a frame type and a length prefixed payload, the final frame is always an
+ * exit frame carrying the exit code.
+ * </p>
+ */
+final class DaemonProtocol {
+
+    static final int MAGIC = 0x41524c44;
+    static final int VERSION = 1;
+
+    static final byte STDOUT = 1;
+    static final byte STDERR = 2;
+    static final byte EXIT = 3;
+
+    /**
+     * Upper bound on the length of any string sent by a client, guards against
+     * allocating huge buffers for malformed requests
+     */
+    static final int MAX_STRING_LENGTH = 1024 * 1024;
+
+    /**
+     * Upper bound on the length of the token sent by a client
+     */
+    static final int MAX_TOKEN_LENGTH = 1024;
+
+    private DaemonProtocol() {
+    }
+
+    static void writeString(DataOutputStream output, String value) throws IOException {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(data.length);
+        output.write(data);
+    }
+
+    static String readString(DataInputStream input) throws IOException {
+        return new String(readBytes(input, MAX_STRING_LENGTH), StandardCharsets.UTF_8);
+    }
+
+    static byte[] readBytes(DataInputStream input, int maxLength) throws IOException {
+        int length = input.readInt();
+        if (length < 0 || length > maxLength)
+            throw new IOException(String.format("Invalid string length %d", length));
+        byte[] data = new byte[length];
+        input.readFully(data);
+        return data;
+    }
+
+    static int readCount(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        if (count < 0 || count > MAX_STRING_LENGTH)
+            throw new IOException(String.format("Invalid count %d", count));
+        return count;
+    }
+
+    /**
+     * Input stream which fails once more than a given number of bytes have
+     * been read from it, bounds the size of a request
+     */
+    static final class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+
+        LimitedInputStream(InputStream input, long limit) {
+            super(input);
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            checkRemaining();
+            int b = super.read();
+            if (b >= 0)
+                this.remaining--;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            checkRemaining();
+            int read = super.read(b, off, (int) Math.min(len, this.remaining));
+            if (read > 0)
+                this.remaining -= read;
+            return read;
+        }
+
+        private void checkRemaining() throws IOException {
+            if (this.remaining <= 0)
+                throw new IOException("Request exceeds the maximum request size");
+        }
+    }
+
+    /**
+     * Output stream which writes everything as frames of a given type
+     */
+    static final class FrameOutputStream extends OutputStream {
+        private final DataOutputStream output;
+        private final byte type;
+
+        FrameOutputStream(DataOutputStream output, byte type) {
+            this.output = output;
+            this.type = type;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len == 0)
+                return;
+            // Stdout and stderr frames share the underlying stream
+            synchronized (output) {
+                output.writeByte(type);
+                output.writeInt(len);
+                output.write(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (output) {
+                output.flush();
+            }
+        }
+    }
+}
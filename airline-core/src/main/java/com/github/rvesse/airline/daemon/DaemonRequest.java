@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.File;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A request received by a {@link Daemon}
+ */
+public class DaemonRequest {
+
+    private final List<String> args;
+    private final File workingDirectory;
+    private final Map<String, String> environment;
+
+    public DaemonRequest(List<String> args, File workingDirectory, Map<String, String> environment) {
+        this.args = args;
+        this.workingDirectory = workingDirectory;
+        this.environment = environment;
+    }
+
+    /**
+     * Gets the arguments the client was invoked with
+     * 
+     * @return Arguments
+     */
+    public List<String> getArguments() {
+        return args;
+    }
+
+    /**
+     * Gets the working directory of the client, relative paths given as
+     * arguments should be resolved against this rather than the working
+     * directory of the daemon
+     * 
+     * @return Working directory
+     */
+    public File getWorkingDirectory() {
+        return workingDirectory;
+    }
+
+    /**
+     * Gets the environment of the client
+     * 
+     * @return Environment
+     */
+    public Map<String, String> getEnvironment() {
+        return environment;
+    }
+}
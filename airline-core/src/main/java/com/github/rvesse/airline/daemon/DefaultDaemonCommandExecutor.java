@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Default executor which runs commands that are {@link Runnable} or
+ * {@link Callable}
+ * <p>
+ * If a {@link Callable} returns an {@link Integer} it is used as the exit code,
+ * any other non-null result is printed to the clients standard output.
+ * Anything the command prints to {@link System#out} or {@link System#err} is
+ * routed to the client by the {@link Daemon}.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class DefaultDaemonCommandExecutor<C> implements DaemonCommandExecutor<C> {
+
+    @Override
+    public int execute(C command, DaemonRequest request, PrintStream out, PrintStream err) throws Exception {
+        if (command instanceof Runnable) {
+            ((Runnable) command).run();
+            return 0;
+        } else if (command instanceof Callable) {
+            Object result = ((Callable<?>) command).call();
+            if (result instanceof Integer)
+                return (Integer) result;
+            if (result != null)
+                out.println(result);
+            return 0;
+        } else {
+            throw new UnsupportedOperationException(String.format(
+                    "Command %s is neither Runnable nor Callable, a custom DaemonCommandExecutor is required to execute it",
+                    command.getClass().getName()));
+        }
+    }
+
+}
@@ -17,9 +17,6 @@ package com.github.rvesse.airline.help;
 
 import javax.inject.Inject;
 
-import com.github.rvesse.airline.utils.CollectionUtils;
-import com.github.rvesse.airline.utils.Predicate;
-
 import com.github.rvesse.airline.annotations.Arguments;
 import com.github.rvesse.airline.annotations.Command;
 import com.github.rvesse.airline.annotations.Option;
@@ -30,10 +27,6 @@ import com.github.rvesse.airline.help.cli.CliGlobalUsageSummaryGenerator;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -41,6 +34,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.Callable;
 
+/**
+ * A command that displays help
+ * <p>
+ * Rendered help is cached by the default {@link HelpCache} so repeated
+ * requests for the same help, e.g. in a shell, are served without
+ * regenerating it.
+ * </p>
+ */
 @Command(name = "help", description = "Display help information")
 public class Help<T> implements Runnable, Callable<Void> {
     @Inject
@@ -114,7 +115,8 @@ public class Help<T> implements Runnable, Callable<Void> {
      * @throws IOException
      */
     public static void help(CommandMetadata command, boolean includeHidden, OutputStream out) throws IOException {
-        new CliCommandUsageGenerator(includeHidden).usage(null, null, command.getName(), command, null, out);
+        HelpCache.getDefault().usage(new CliCommandUsageGenerator(includeHidden), null, null, command.getName(),
+                command, null, out);
     }
 
     /**
@@ -176,7 +178,7 @@ public class Help<T> implements Runnable, Callable<Void> {
     public static <T> void help(GlobalMetadata<T> global, List<String> commandNames, boolean includeHidden,
             OutputStream out) throws IOException {
         if (commandNames.isEmpty()) {
-            new CliGlobalUsageSummaryGenerator<T>(includeHidden).usage(global, out);
+            HelpCache.getDefault().usage(new CliGlobalUsageSummaryGenerator<T>(includeHidden), global, out);
             return;
         }
 
@@ -185,22 +187,15 @@ public class Help<T> implements Runnable, Callable<Void> {
         // Main program?
         if (name.equals(global.getName())) {
             // Main program help
-            new CliGlobalUsageGenerator<T>(includeHidden).usage(global, out);
+            HelpCache.getDefault().usage(new CliGlobalUsageGenerator<T>(includeHidden), global, out);
             return;
         }
 
-        // Predicates we may need
-        Predicate<CommandGroupMetadata> findGroupPredicate;
-        Predicate<CommandMetadata> findCommandPredicate;
-        //@formatter:off
-        findGroupPredicate = global.getParserConfiguration().allowsAbbreviatedCommands() 
-                             ? new AbbreviatedGroupFinder(name, global.getCommandGroups()) 
-                             : new GroupFinder(name);
-        //@formatter:on
+        boolean abbreviated = global.getParserConfiguration().allowsAbbreviatedCommands();
 
         // A command in a group?
         CommandMetadata command;
-        CommandGroupMetadata group = CollectionUtils.find(global.getCommandGroups(), findGroupPredicate);
+        CommandGroupMetadata group = global.findCommandGroup(name, abbreviated);
         if (group != null) {
             List<CommandGroupMetadata> groupPath = new ArrayList<CommandGroupMetadata>();
             groupPath.add(group);
@@ -208,7 +203,7 @@ public class Help<T> implements Runnable, Callable<Void> {
             // General group help or specific group command help?
             if (commandNames.size() == 1) {
                 // General group help
-                new CliCommandGroupUsageGenerator<T>(includeHidden).usage(global,
+                HelpCache.getDefault().usage(new CliCommandGroupUsageGenerator<T>(includeHidden), global,
                         groupPath.toArray(new CommandGroupMetadata[0]), out);
                 return;
             } else {
@@ -219,12 +214,7 @@ public class Help<T> implements Runnable, Callable<Void> {
                 while (group.getSubGroups().size() > 0 && i < commandNames.size()) {
                     commandOrSubGroupName = commandNames.get(i);
 
-                    //@formatter:off
-                    findGroupPredicate = global.getParserConfiguration().allowsAbbreviatedCommands() 
-                                         ? new AbbreviatedGroupFinder(commandOrSubGroupName, group.getSubGroups()) 
-                                         : new GroupFinder(commandOrSubGroupName);
-                    //@formatter:on
-                    CommandGroupMetadata subGroup = CollectionUtils.find(group.getSubGroups(), findGroupPredicate);
+                    CommandGroupMetadata subGroup = group.findSubGroup(commandOrSubGroupName, abbreviated);
                     if (subGroup != null) {
                         // Found a valid sub-group
                         groupPath.add(subGroup);
@@ -232,8 +222,8 @@ public class Help<T> implements Runnable, Callable<Void> {
                         i++;
                         if (i == commandNames.size()) {
                             // General sub-group help
-                            new CliCommandGroupUsageGenerator<T>(includeHidden).usage(global,
-                                    groupPath.toArray(new CommandGroupMetadata[0]), out);
+                            HelpCache.getDefault().usage(new CliCommandGroupUsageGenerator<T>(includeHidden),
+                                    global, groupPath.toArray(new CommandGroupMetadata[0]), out);
                             return;
                         }
                     } else {
@@ -245,20 +235,16 @@ public class Help<T> implements Runnable, Callable<Void> {
                 // Look for a command in the current group/sub-group
                 commandOrSubGroupName = commandNames.get(i);
 
-                //@formatter:off
-                findCommandPredicate = global.getParserConfiguration().allowsAbbreviatedCommands() 
-                                       ? new AbbreviatedCommandFinder(commandOrSubGroupName, group.getCommands())
-                                       : new CommandFinder(commandOrSubGroupName);
-                //@formatter:on
-                command = CollectionUtils.find(group.getCommands(), findCommandPredicate);
+                command = group.findCommand(commandOrSubGroupName, abbreviated);
                 if (command != null) {
-                    new CliCommandUsageGenerator().usage(global.getName(), UsageHelper.toGroupNames(groupPath),
-                            command.getName(), command, global.getParserConfiguration(), out);
+                    HelpCache.getDefault().usage(new CliCommandUsageGenerator(), global.getName(),
+                            UsageHelper.toGroupNames(groupPath), command.getName(), command,
+                            global.getParserConfiguration(), out);
                     return;
                 }
 
                 // Didn't find an appropriate command
-                if (global.getParserConfiguration().allowsAbbreviatedCommands()) {
+                if (abbreviated) {
                     System.out.println(
                             "Unknown command " + name + " " + commandOrSubGroupName + " or an ambiguous abbreviation");
                 } else {
@@ -268,21 +254,16 @@ public class Help<T> implements Runnable, Callable<Void> {
         }
 
         // A command in the default group?
-        //@formatter:off
-        findCommandPredicate = global.getParserConfiguration().allowsAbbreviatedCommands() 
-                               ? new AbbreviatedCommandFinder(name, global.getDefaultGroupCommands())
-                               : new CommandFinder(name);
-        //@formatter:on
-        command = CollectionUtils.find(global.getDefaultGroupCommands(), findCommandPredicate);
+        command = global.findDefaultGroupCommand(name, abbreviated);
         if (command != null) {
             // Command in default group help
-            new CliCommandUsageGenerator(includeHidden).usage(global.getName(), null, command.getName(), command,
-                    global.getParserConfiguration(), out);
+            HelpCache.getDefault().usage(new CliCommandUsageGenerator(includeHidden), global.getName(), null,
+                    command.getName(), command, global.getParserConfiguration(), out);
             return;
         }
 
         // Didn't find an appropriate group
-        if (global.getParserConfiguration().allowsAbbreviatedCommands()) {
+        if (abbreviated) {
             System.out.println("Unknown command " + name + " or an ambiguous abbreviation");
         } else {
             System.out.println("Unknown command " + name);
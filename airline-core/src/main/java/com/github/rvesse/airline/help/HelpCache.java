@@ -0,0 +1,315 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.help.common.AbstractUsageGenerator;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+
+/**
+ * A cache of rendered help output
+ * <p>
+ * Generating help sorts and wraps the same metadata every time, for long
+ * running processes such as a shell or daemon where help is requested
+ * repeatedly this cache holds the output of each generator as the bytes it
+ * wrote so that repeat requests are served with a single write. Output is
+ * cached per generator configuration, see
+ * {@link AbstractUsageGenerator#getCacheKey()}, and per metadata instance,
+ * generators that do not provide a cache key are always run.
+ * </p>
+ * <p>
+ * The cache holds a bounded number of entries, discarding the least recently
+ * used entry when full. Metadata is immutable so entries never need to be
+ * invalidated but {@link #clear()} may be used to release memory. Metadata is
+ * only weakly referenced so caching help never keeps a CLI, or the classes and
+ * class loader it was built from, alive; entries for metadata that has been
+ * garbage collected are discarded.
+ * </p>
+ */
+public final class HelpCache {
+
+    /**
+     * Default maximum number of entries
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private static final HelpCache DEFAULT = new HelpCache(DEFAULT_MAX_ENTRIES);
+
+    private final Map<List<Object>, byte[]> entries;
+    private final ReferenceQueue<Object> collected = new ReferenceQueue<>();
+
+    /**
+     * Creates a new cache
+     * 
+     * @param maxEntries
+     *            Maximum number of entries to hold
+     */
+    public HelpCache(final int maxEntries) {
+        if (maxEntries <= 0)
+            throw new IllegalArgumentException("maxEntries must be greater than 0");
+        this.entries = new LinkedHashMap<List<Object>, byte[]>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<Object>, byte[]> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the cache used by {@link Help} and
+     * {@link com.github.rvesse.airline.HelpOption}
+     * 
+     * @return Default cache
+     */
+    public static HelpCache getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Outputs command help
+     * 
+     * @param generator
+     *            Generator
+     * @param programName
+     *            Program Name
+     * @param groupNames
+     *            Group Name(s)
+     * @param commandName
+     *            Command Name
+     * @param command
+     *            Command Metadata
+     * @param parserConfig
+     *            Parser configuration, may be {@code null}
+     * @param out
+     *            Stream to output to
+     * @throws IOException
+     */
+    public <T> void usage(final CommandUsageGenerator generator, final String programName, final String[] groupNames,
+            final String commandName, final CommandMetadata command, final ParserMetadata<T> parserConfig,
+            OutputStream out) throws IOException {
+        List<Object> key = key(generator, "command", programName,
+                groupNames != null ? Arrays.asList(groupNames) : null, commandName, identity(command),
+                identity(parserConfig));
+        write(key, out, new Renderer() {
+            @Override
+            public void render(OutputStream output) throws IOException {
+                generator.usage(programName, groupNames, commandName, command, parserConfig, output);
+            }
+        });
+    }
+
+    /**
+     * Outputs global help
+     * 
+     * @param generator
+     *            Generator
+     * @param global
+     *            Global Metadata
+     * @param out
+     *            Stream to output to
+     * @throws IOException
+     */
+    public <T> void usage(final GlobalUsageGenerator<T> generator, final GlobalMetadata<T> global, OutputStream out)
+            throws IOException {
+        List<Object> key = key(generator, "global", identity(global));
+        write(key, out, new Renderer() {
+            @Override
+            public void render(OutputStream output) throws IOException {
+                generator.usage(global, output);
+            }
+        });
+    }
+
+    /**
+     * Outputs group help
+     * 
+     * @param generator
+     *            Generator
+     * @param global
+     *            Global Metadata
+     * @param groups
+     *            Group path
+     * @param out
+     *            Stream to output to
+     * @throws IOException
+     */
+    public <T> void usage(final CommandGroupUsageGenerator<T> generator, final GlobalMetadata<T> global,
+            final CommandGroupMetadata[] groups, OutputStream out) throws IOException {
+        List<Object> groupKeys = new ArrayList<>();
+        for (CommandGroupMetadata group : groups) {
+            groupKeys.add(identity(group));
+        }
+        List<Object> key = key(generator, "group", identity(global), groupKeys);
+        write(key, out, new Renderer() {
+            @Override
+            public void render(OutputStream output) throws IOException {
+                generator.usage(global, groups, output);
+            }
+        });
+    }
+
+    /**
+     * Gets the number of cached entries
+     * 
+     * @return Number of entries
+     */
+    public int size() {
+        synchronized (this.entries) {
+            expunge();
+            return this.entries.size();
+        }
+    }
+
+    /**
+     * Discards all cached entries
+     */
+    public void clear() {
+        synchronized (this.entries) {
+            this.entries.clear();
+        }
+    }
+
+    private Object identity(Object value) {
+        return value != null ? new Identity(value, this.collected) : NULL_IDENTITY;
+    }
+
+    private static List<Object> key(Object generator, Object... parts) {
+        if (!(generator instanceof AbstractUsageGenerator))
+            return null;
+        Object generatorKey = ((AbstractUsageGenerator) generator).getCacheKey();
+        if (generatorKey == null)
+            return null;
+
+        List<Object> key = new ArrayList<>(parts.length + 1);
+        key.add(generatorKey);
+        key.addAll(Arrays.asList(parts));
+        return key;
+    }
+
+    private void write(List<Object> key, OutputStream out, Renderer renderer) throws IOException {
+        if (key == null) {
+            // Not cacheable
+            renderer.render(out);
+            return;
+        }
+
+        byte[] rendered;
+        synchronized (this.entries) {
+            expunge();
+            rendered = this.entries.get(key);
+        }
+        if (rendered == null) {
+            // Rendered outside of the lock, if several threads race to render
+            // the same help they all produce identical output
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            renderer.render(buffer);
+            rendered = buffer.toByteArray();
+            synchronized (this.entries) {
+                this.entries.put(key, rendered);
+                for (Object part : key) {
+                    bind(part, key);
+                }
+            }
+        }
+        out.write(rendered);
+        out.flush();
+    }
+
+    /**
+     * Records the entry an identity belongs to so that the entry can be
+     * discarded once the metadata is garbage collected
+     */
+    private static void bind(Object part, List<Object> key) {
+        if (part instanceof Identity) {
+            ((Identity) part).entry = key;
+        } else if (part instanceof List) {
+            for (Object item : (List<?>) part) {
+                bind(item, key);
+            }
+        }
+    }
+
+    /**
+     * Discards entries whose metadata has been garbage collected, must be
+     * called while holding the lock on the entries
+     */
+    private void expunge() {
+        Reference<?> ref;
+        while ((ref = this.collected.poll()) != null) {
+            List<Object> entry = ((Identity) ref).entry;
+            if (entry != null)
+                this.entries.remove(entry);
+        }
+    }
+
+    /**
+     * Renders help to a stream
+     */
+    private interface Renderer {
+        void render(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Key used in place of {@code null} metadata
+     */
+    private static final Object NULL_IDENTITY = new Object();
+
+    /**
+     * Weakly references and compares objects by identity, metadata is compared
+     * this way since it is the same instances that are used for repeated help
+     * requests
+     */
+    private static final class Identity extends WeakReference<Object> {
+        private final int hash;
+        private List<Object> entry;
+
+        private Identity(Object value, ReferenceQueue<Object> queue) {
+            super(value, queue);
+            this.hash = System.identityHashCode(value);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (other == this)
+                return true;
+            if (!(other instanceof Identity))
+                return false;
+            Object value = get();
+            return value != null && ((Identity) other).get() == value;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+    }
+}
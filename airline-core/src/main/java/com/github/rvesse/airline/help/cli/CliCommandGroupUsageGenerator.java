@@ -317,4 +317,14 @@ public class CliCommandGroupUsageGenerator<T> extends AbstractPrintedCommandGrou
         }
         out.append(" - ").append(group.getDescription()).newline().newline();
     }
+
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(CliCommandGroupUsageGenerator.class);
+    }
+
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.hideGlobalOptions);
+    }
 }
@@ -184,4 +184,8 @@ public class CliCommandUsageGenerator extends AbstractPrintedCommandUsageGenerat
         out.append(commandName).append("-").append(command.getDescription()).newline().newline();
     }
 
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(CliCommandUsageGenerator.class);
+    }
 }
@@ -251,4 +251,9 @@ public class CliGlobalUsageGenerator<T> extends AbstractPrintedGlobalUsageGenera
         restrictionsPrinter.flush();
 
     }
+
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(CliGlobalUsageGenerator.class);
+    }
 }
@@ -148,4 +148,9 @@ public class CliGlobalUsageSummaryGenerator<T> extends AbstractPrintedGlobalUsag
            .newline();
         //@formatter:on
     }
+
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(CliGlobalUsageSummaryGenerator.class);
+    }
 }
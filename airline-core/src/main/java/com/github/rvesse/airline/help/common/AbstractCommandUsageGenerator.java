@@ -18,6 +18,7 @@ package com.github.rvesse.airline.help.common;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -132,4 +133,9 @@ public abstract class AbstractCommandUsageGenerator extends AbstractUsageGenerat
         Collections.sort(preSections, comparator);
         Collections.sort(postSections, comparator);
     }
-}
\ No newline at end of file
+
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.exitCodeComparator);
+    }
+}
@@ -17,6 +17,7 @@ package com.github.rvesse.airline.help.common;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -74,4 +75,9 @@ public abstract class AbstractGlobalUsageGenerator<T> extends AbstractUsageGener
         }
         return groups;
     }
-}
\ No newline at end of file
+
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.commandGroupComparator);
+    }
+}
@@ -18,6 +18,7 @@ package com.github.rvesse.airline.help.common;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Comparator;
 
 import com.github.rvesse.airline.help.sections.HelpHint;
@@ -78,4 +79,8 @@ public abstract class AbstractPrintedCommandGroupUsageGenerator<T> extends Abstr
         printer.flush();
     }
 
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.columnSize);
+    }
 }
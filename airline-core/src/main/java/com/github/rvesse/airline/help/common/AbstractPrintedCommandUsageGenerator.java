@@ -18,6 +18,7 @@ package com.github.rvesse.airline.help.common;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Comparator;
 
 import com.github.rvesse.airline.io.printers.UsagePrinter;
@@ -84,4 +85,8 @@ public abstract class AbstractPrintedCommandUsageGenerator extends AbstractComma
         printer.flush();
     }
 
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.columnSize);
+    }
 }
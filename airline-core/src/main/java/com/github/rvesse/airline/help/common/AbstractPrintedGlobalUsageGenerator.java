@@ -18,6 +18,7 @@ package com.github.rvesse.airline.help.common;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Comparator;
 
 import com.github.rvesse.airline.help.sections.HelpHint;
@@ -75,4 +76,8 @@ public abstract class AbstractPrintedGlobalUsageGenerator<T> extends AbstractGlo
         printer.flush();
     }
 
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.columns);
+    }
 }
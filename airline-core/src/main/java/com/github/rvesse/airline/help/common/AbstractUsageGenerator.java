@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.help.common;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
@@ -63,6 +64,50 @@ public class AbstractUsageGenerator {
         return this.includeHidden;
     }
 
+    /**
+     * Gets a key that identifies the configuration of this generator, used by
+     * {@link com.github.rvesse.airline.help.HelpCache} to cache its output
+     * <p>
+     * Caching is opt in, by default this returns {@code null} so output is
+     * never cached. Generators with equal keys must produce identical output
+     * for the same metadata and rendering must have no side effects, a
+     * generator that meets these requirements may override this to return
+     * {@link #getConfigurationKey()}, or {@link #getCacheKeyFor(Class)} so
+     * that generators derived from it must opt in themselves.
+     * </p>
+     * 
+     * @return Cache key, or {@code null} if output should not be cached
+     */
+    public Object getCacheKey() {
+        return null;
+    }
+
+    /**
+     * Gets a key describing the configuration of this generator that affects
+     * its output, derived generators that hold further such state should
+     * override this to include that state
+     * 
+     * @return Configuration key
+     */
+    protected Object getConfigurationKey() {
+        return Arrays.asList(getClass(), this.hintComparator, this.optionComparator, this.commandComparator,
+                this.includeHidden);
+    }
+
+    /**
+     * Gets the configuration key as the cache key only if this generator is
+     * exactly the given type, used by generators which opt in to caching so
+     * that the opt in does not extend to derived generators which may hold
+     * further state or render with side effects
+     * 
+     * @param type
+     *            Generator type which is cacheable
+     * @return Cache key, or {@code null} if this generator is a derived type
+     */
+    protected final Object getCacheKeyFor(Class<? extends AbstractUsageGenerator> type) {
+        return getClass() == type ? getConfigurationKey() : null;
+    }
+
     protected final Comparator<? super OptionMetadata> getOptionComparator() {
         return this.optionComparator;
     }
@@ -16,42 +16,41 @@
 package com.github.rvesse.airline.help.sections.factories;
 
 import java.lang.annotation.Annotation;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.github.rvesse.airline.help.sections.HelpSection;
 
 /**
  * Registry which maps annotations to help sections
+ * <p>
+ * The registry is safe for concurrent use, lookups never block and a
+ * {@link #reset()} replaces the registered factories in a single step.
+ * </p>
  */
 public class HelpSectionRegistry {
 
-    private static final Map<Class<? extends Annotation>, HelpSectionFactory> FACTORIES = new HashMap<>();
-    private static boolean init = false;
+    private static volatile ConcurrentMap<Class<? extends Annotation>, HelpSectionFactory> FACTORIES;
 
     static {
         init();
     }
 
     static synchronized void init() {
-        if (init)
-            return;
-
+        ConcurrentMap<Class<? extends Annotation>, HelpSectionFactory> factories = new ConcurrentHashMap<>();
         ServiceLoader<HelpSectionFactory> helpSectionFactories = ServiceLoader.load(HelpSectionFactory.class);
         for (HelpSectionFactory factory : helpSectionFactories) {
             for (Class<? extends Annotation> cls : factory.supportedAnnotations()) {
-                FACTORIES.put(cls, factory);
+                factories.put(cls, factory);
             }
         }
 
-        init = true;
+        FACTORIES = factories;
     }
 
-    public static synchronized void reset() {
-        init = false;
-        FACTORIES.clear();
+    public static void reset() {
         init();
     }
 
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.MetadataLoader;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
@@ -28,8 +29,11 @@ import javax.inject.Inject;
 import com.github.rvesse.airline.utils.ListUtils;
 
 public class CommandSuggester
-        implements Suggester
+        implements PrefixSuggester
 {
+    @Inject
+    public GlobalMetadata<?> metadata;
+
     @Inject
     public CommandMetadata command;
 
@@ -49,4 +53,19 @@ public class CommandSuggester
 
         return ListUtils.unmodifiableList(suggestions);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the suggestion index of the CLI, when available, so hidden options
+     * are not suggested.
+     * </p>
+     */
+    @Override
+    public Iterable<String> suggest(String prefix, int limit)
+    {
+        if (metadata == null)
+            return SuggesterUtils.filter(suggest(), prefix, limit);
+        return metadata.getSuggestionIndex(command).suggest(prefix, limit);
+    }
 }
@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.suggester.SuggestionParser;
+import com.github.rvesse.airline.restrictions.common.AbstractAllowedValuesRestriction;
+import com.github.rvesse.airline.utils.CollectionUtils;
+import com.github.rvesse.airline.utils.predicates.restrictions.AllowedValuesOptionFinder;
+
+/**
+ * A hidden command that shell completion drivers invoke to obtain completion
+ * candidates
+ * <p>
+ * The command is invoked as {@code __complete -- <cword> <words...>} where
+ * {@code <words...>} are the words of the command line being completed,
+ * starting with the program name, and {@code <cword>} is the index of the word
+ * being completed. This is the same shape as the {@code COMP_CWORD} and
+ * {@code COMP_WORDS} variables that Bash provides to completion functions. The
+ * words preceding the word being completed are parsed with a
+ * {@link SuggestionParser} and the appropriate {@link Suggester} is used to
+ * produce the candidates.
+ * </p>
+ * <p>
+ * The first line of output is either {@value #STATIC} or {@value #DYNAMIC}
+ * indicating whether the candidates, which follow one per line, depend only
+ * upon the CLI meta-data and the preceding words. Static candidates may be
+ * cached by the shell so that repeated completions do not need to invoke the
+ * CLI again. Candidates are not filtered by the partial word being completed,
+ * that is left to the shell.
+ * </p>
+ * <p>
+ * The built-in suggesters only make static suggestions, to complete values that
+ * depend on runtime state extend this command and either override
+ * {@link #completeValue(OptionMetadata)} or override
+ * {@link #getSuggesterClass(ParseState)} to return your own suggesters, any
+ * suggester other than the built-in ones is considered to make dynamic
+ * suggestions unless {@link #isCacheable(Suggester)} is also overridden.
+ * </p>
+ * 
+ * @param <T>
+ *            Command type
+ */
+@Command(name = CompleteCommand.NAME, hidden = true)
+public class CompleteCommand<T> extends SuggestCommand<T> {
+
+    /**
+     * Name of the completion command
+     */
+    public static final String NAME = "__complete";
+
+    /**
+     * Directive indicating that candidates may be cached
+     */
+    public static final String STATIC = "static";
+
+    /**
+     * Directive indicating that candidates must not be cached
+     */
+    public static final String DYNAMIC = "dynamic";
+
+    /**
+     * Produces the completion candidates for the given command line
+     * 
+     * @param cword
+     *            Index of the word being completed
+     * @param words
+     *            Words of the command line, starting with the program name
+     * @return Completions
+     */
+    public Completions complete(int cword, List<String> words) {
+        if (cword < 1 || cword > words.size())
+            return new Completions(Collections.<String> emptyList(), false);
+
+        List<String> preceding = words.subList(1, cword);
+        ParseState<T> state;
+        try {
+            SuggestionParser<T> parser = new SuggestionParser<T>();
+            state = parser.parse(metadata, preceding);
+        } catch (ParseException e) {
+            // Can't offer anything for a command line that doesn't parse
+            return new Completions(Collections.<String> emptyList(), false);
+        }
+
+        if (state.getLocation() == Context.OPTION && state.getCurrentOption() != null) {
+            return completeValue(state.getCurrentOption());
+        }
+        if (state.getLocation() == Context.ARGS
+                && preceding.contains(state.getParserConfiguration().getArgumentsSeparator())) {
+            // Only arguments may follow the arguments separator
+            return new Completions(Collections.<String> emptyList(), true);
+        }
+
+        Suggester suggester = createSuggester(state);
+        if (suggester == null)
+            return new Completions(Collections.<String> emptyList(), true);
+
+        List<String> candidates = new ArrayList<>();
+        for (String candidate : suggester.suggest()) {
+            if (!NAME.equals(candidate))
+                candidates.add(candidate);
+        }
+        return new Completions(candidates, isCacheable(suggester));
+    }
+
+    @Override
+    protected Class<? extends Suggester> getSuggesterClass(ParseState<T> state) {
+        if (state.getLocation() == Context.ARGS && state.getCommand() != null) {
+            // Options may still be given after arguments
+            return CommandSuggester.class;
+        }
+        return super.getSuggesterClass(state);
+    }
+
+    /**
+     * Produces the completion candidates for the value of an option
+     * <p>
+     * By default the allowed values of the option, if restricted, are offered.
+     * </p>
+     * 
+     * @param option
+     *            Option that is awaiting a value
+     * @return Completions
+     */
+    protected Completions completeValue(OptionMetadata option) {
+        AbstractAllowedValuesRestriction allowedValues = (AbstractAllowedValuesRestriction) CollectionUtils
+                .find(option.getRestrictions(), new AllowedValuesOptionFinder());
+        if (allowedValues == null)
+            return new Completions(Collections.<String> emptyList(), true);
+        return new Completions(new ArrayList<>(allowedValues.getAllowedValues()), true);
+    }
+
+    /**
+     * Gets whether the suggestions of the given suggester may be cached by the
+     * shell
+     * 
+     * @param suggester
+     *            Suggester
+     * @return True if the suggestions depend only upon the CLI meta-data and
+     *         the parsed words, false otherwise
+     */
+    protected boolean isCacheable(Suggester suggester) {
+        Class<?> cls = suggester.getClass();
+        return cls == GlobalSuggester.class || cls == GroupSuggester.class || cls == CommandSuggester.class;
+    }
+
+    @Override
+    public void run() {
+        Completions completions;
+        try {
+            int cword = Integer.parseInt(arguments.isEmpty() ? "" : arguments.get(0));
+            completions = complete(cword, arguments.subList(1, arguments.size()));
+        } catch (NumberFormatException e) {
+            completions = new Completions(Collections.<String> emptyList(), false);
+        }
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(completions.isCacheable() ? STATIC : DYNAMIC).append('\n');
+        for (String candidate : completions.getCandidates()) {
+            builder.append(candidate).append('\n');
+        }
+        System.out.print(builder);
+        System.out.flush();
+    }
+}
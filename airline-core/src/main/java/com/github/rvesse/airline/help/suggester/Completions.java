@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.List;
+
+import com.github.rvesse.airline.utils.ListUtils;
+
+/**
+ * Completion candidates produced by the {@link CompleteCommand}
+ */
+public final class Completions {
+
+    private final List<String> candidates;
+    private final boolean cacheable;
+
+    /**
+     * Creates new completions
+     * 
+     * @param candidates
+     *            Candidates
+     * @param cacheable
+     *            Whether the candidates depend only upon the CLI meta-data and
+     *            the preceding words and so may be cached by the shell
+     */
+    public Completions(List<String> candidates, boolean cacheable) {
+        this.candidates = ListUtils.unmodifiableList(candidates);
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * Gets the candidates
+     * 
+     * @return Candidates
+     */
+    public List<String> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Gets whether the candidates may be cached by the shell
+     * 
+     * @return True if cacheable, false otherwise
+     */
+    public boolean isCacheable() {
+        return cacheable;
+    }
+}
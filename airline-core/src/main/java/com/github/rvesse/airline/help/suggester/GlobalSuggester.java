@@ -28,7 +28,7 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 
 public class GlobalSuggester<T>
-    implements Suggester
+    implements PrefixSuggester
 {
     @Inject
     public GlobalMetadata<T> metadata;
@@ -48,4 +48,17 @@ public class GlobalSuggester<T>
         }
         return ListUtils.unmodifiableList(suggestions);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the suggestion index of the CLI so hidden groups, commands and
+     * options are not suggested.
+     * </p>
+     */
+    @Override
+    public Iterable<String> suggest(String prefix, int limit)
+    {
+        return metadata.getSuggestionIndex().suggest(prefix, limit);
+    }
 }
@@ -24,9 +24,13 @@ import com.github.rvesse.airline.utils.ListUtils;
 
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 
-public class GroupSuggester implements Suggester {
+public class GroupSuggester implements PrefixSuggester {
+    @Inject
+    public GlobalMetadata<?> metadata;
+
     @Inject
     public CommandGroupMetadata group;
 
@@ -41,4 +45,18 @@ public class GroupSuggester implements Suggester {
         }
         return ListUtils.unmodifiableList(suggestions);
     }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * Uses the suggestion index of the CLI, when available, so hidden
+     * commands and options are not suggested.
+     * </p>
+     */
+    @Override
+    public Iterable<String> suggest(String prefix, int limit) {
+        if (metadata == null)
+            return SuggesterUtils.filter(suggest(), prefix, limit);
+        return metadata.getSuggestionIndex(group).suggest(prefix, limit);
+    }
 }
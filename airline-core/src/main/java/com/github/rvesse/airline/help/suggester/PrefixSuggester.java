@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+/**
+ * A suggester which can restrict its suggestions to those starting with a
+ * given prefix without considering every possible suggestion
+ */
+public interface PrefixSuggester extends Suggester {
+
+    /**
+     * Gets the suggestions which start with the given prefix
+     * 
+     * @param prefix
+     *            Prefix
+     * @param limit
+     *            Maximum number of suggestions
+     * @return Suggestions
+     */
+    Iterable<String> suggest(String prefix, int limit);
+}
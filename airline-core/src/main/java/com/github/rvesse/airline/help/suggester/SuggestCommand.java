@@ -61,31 +61,57 @@ public class SuggestCommand<T> implements Runnable, Callable<Void> {
         SuggestionParser<T> parser = new SuggestionParser<T>();
         ParseState<T> state = parser.parse(metadata, arguments);
 
-        Class<? extends Suggester> suggesterClass = BUILTIN_SUGGESTERS.get(state.getLocation());
-        if (suggesterClass != null) {
-            SuggesterMetadata suggesterMetadata = MetadataLoader.loadSuggester(suggesterClass);
-
-            if (suggesterMetadata != null) {
-                Map<Class<?>, Object> bindings = new HashMap<Class<?>, Object>();
-                bindings.put(GlobalMetadata.class, metadata);
+        Suggester suggester = createSuggester(state);
+        if (suggester != null) {
+            return suggester.suggest();
+        }
 
-                if (state.getGroup() != null) {
-                    bindings.put(CommandGroupMetadata.class, state.getGroup());
-                }
+        return Collections.emptyList();
+    }
 
-                if (state.getCommand() != null) {
-                    bindings.put(CommandMetadata.class, state.getCommand());
-                }
+    /**
+     * Gets the class of the suggester that provides suggestions for the given
+     * parser state
+     * 
+     * @param state
+     *            Parser state
+     * @return Suggester class, {@code null} if there is no suggester for the
+     *         state
+     */
+    protected Class<? extends Suggester> getSuggesterClass(ParseState<T> state) {
+        return BUILTIN_SUGGESTERS.get(state.getLocation());
+    }
 
-                Suggester suggester = createInstance(suggesterMetadata.getSuggesterClass(),
-                        Collections.<OptionMetadata> emptyList(), null, null, null,
-                        suggesterMetadata.getMetadataInjections(), AirlineUtils.unmodifiableMapCopy(bindings));
+    /**
+     * Creates the suggester that provides suggestions for the given parser
+     * state
+     * 
+     * @param state
+     *            Parser state
+     * @return Suggester, {@code null} if there is no suggester for the state
+     */
+    protected Suggester createSuggester(ParseState<T> state) {
+        Class<? extends Suggester> suggesterClass = getSuggesterClass(state);
+        if (suggesterClass == null)
+            return null;
+
+        SuggesterMetadata suggesterMetadata = MetadataLoader.loadSuggester(suggesterClass);
+        if (suggesterMetadata == null)
+            return null;
+
+        Map<Class<?>, Object> bindings = new HashMap<Class<?>, Object>();
+        bindings.put(GlobalMetadata.class, metadata);
+
+        if (state.getGroup() != null) {
+            bindings.put(CommandGroupMetadata.class, state.getGroup());
+        }
 
-                return suggester.suggest();
-            }
+        if (state.getCommand() != null) {
+            bindings.put(CommandMetadata.class, state.getCommand());
         }
 
-        return Collections.emptyList();
+        return createInstance(suggesterMetadata.getSuggesterClass(), Collections.<OptionMetadata> emptyList(), null,
+                null, null, suggesterMetadata.getMetadataInjections(), AirlineUtils.unmodifiableMapCopy(bindings));
     }
 
     @Override
@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Helpers for suggesters
+ */
+final class SuggesterUtils {
+
+    private SuggesterUtils() {
+    }
+
+    /**
+     * Filters suggestions to those starting with the given prefix
+     * 
+     * @param suggestions
+     *            Suggestions
+     * @param prefix
+     *            Prefix
+     * @param limit
+     *            Maximum number of suggestions
+     * @return Filtered suggestions
+     */
+    static List<String> filter(Iterable<String> suggestions, String prefix, int limit) {
+        List<String> filtered = new ArrayList<String>();
+        for (String suggestion : suggestions) {
+            if (filtered.size() >= limit)
+                break;
+            if (prefix == null || suggestion.startsWith(prefix))
+                filtered.add(suggestion);
+        }
+        return filtered;
+    }
+}
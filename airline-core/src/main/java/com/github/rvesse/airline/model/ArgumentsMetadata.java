@@ -106,6 +106,21 @@ public class ArgumentsMetadata {
         return accessors.iterator().next().isMultiValued();
     }
 
+    /**
+     * Gets whether the arguments are bound lazily to an {@link java.util.Iterator}
+     * or {@link Iterable} field, in which case they are converted and
+     * validated on demand as the command consumes them
+     * 
+     * @return True if streaming, false otherwise
+     */
+    public boolean isStreaming() {
+        for (Accessor accessor : accessors) {
+            if (accessor.isStreaming())
+                return true;
+        }
+        return false;
+    }
+
     public Class<?> getJavaType() {
         return accessors.iterator().next().getJavaType();
     }
@@ -35,6 +35,10 @@ public class CommandGroupMetadata {
     private final List<CommandMetadata> commands;
     private final List<CommandGroupMetadata> subGroups;
     private CommandGroupMetadata parentGroup;
+    // Indexes are built on first use since commands and sub-groups may be
+    // added after construction
+    private volatile NameIndex<CommandMetadata> commandIndex;
+    private volatile NameIndex<CommandGroupMetadata> subGroupIndex;
 
     //@formatter:off
     public CommandGroupMetadata(String name, 
@@ -53,7 +57,7 @@ public class CommandGroupMetadata {
         this.name = name;
         this.description = description;
         this.hidden = hidden;
-        this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.options = new OptionIndex(options);
         this.subGroups = AirlineUtils.listCopy(subGroups);
         this.defaultCommand = defaultCommand;
         this.commands = AirlineUtils.listCopy(commands);
@@ -125,9 +129,28 @@ public class CommandGroupMetadata {
     public void addCommand(CommandMetadata command) {
         if (!commands.contains(command)) {
             commands.add(command);
+            commandIndex = null;
         }
     }
 
+    /**
+     * Finds a command in this group
+     * 
+     * @param name
+     *            Command name or abbreviation
+     * @param abbreviated
+     *            Whether abbreviations are permitted
+     * @return Command if found, {@code null} otherwise
+     */
+    public CommandMetadata findCommand(String name, boolean abbreviated) {
+        NameIndex<CommandMetadata> index = commandIndex;
+        if (index == null) {
+            index = NameIndex.ofCommands(commands);
+            commandIndex = index;
+        }
+        return index.find(name, abbreviated);
+    }
+
     /**
      * Gets the sub-groups of this group
      * 
@@ -146,7 +169,26 @@ public class CommandGroupMetadata {
     public void addSubGroup(CommandGroupMetadata subGroup) {
         if (!subGroups.contains(subGroup)) {
             subGroups.add(subGroup);
+            subGroupIndex = null;
+        }
+    }
+
+    /**
+     * Finds a sub-group of this group
+     * 
+     * @param name
+     *            Sub-group name or abbreviation
+     * @param abbreviated
+     *            Whether abbreviations are permitted
+     * @return Sub-group if found, {@code null} otherwise
+     */
+    public CommandGroupMetadata findSubGroup(String name, boolean abbreviated) {
+        NameIndex<CommandGroupMetadata> index = subGroupIndex;
+        if (index == null) {
+            index = NameIndex.ofGroups(subGroups);
+            subGroupIndex = index;
         }
+        return index.find(name, abbreviated);
     }
 
     /**
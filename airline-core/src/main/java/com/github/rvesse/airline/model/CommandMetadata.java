@@ -33,6 +33,7 @@ public class CommandMetadata {
     private final List<OptionMetadata> globalOptions;
     private final List<OptionMetadata> groupOptions;
     private final List<OptionMetadata> commandOptions;
+    private final List<OptionMetadata> allOptions;
     private final OptionMetadata defaultOption;
     private final ArgumentsMetadata arguments;
     private final List<Accessor> metadataInjections;
@@ -66,7 +67,12 @@ public class CommandMetadata {
         this.hidden = hidden;
         this.globalOptions = AirlineUtils.unmodifiableListCopy(globalOptions);
         this.groupOptions = AirlineUtils.unmodifiableListCopy(groupOptions);
-        this.commandOptions = AirlineUtils.unmodifiableListCopy(commandOptions);
+        this.commandOptions = new OptionIndex(commandOptions);
+        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
+        allOptions.addAll(this.globalOptions);
+        allOptions.addAll(this.groupOptions);
+        allOptions.addAll(this.commandOptions);
+        this.allOptions = ListUtils.unmodifiableList(allOptions);
         this.defaultOption = defaultOption;
         this.arguments = arguments;
 
@@ -95,11 +101,7 @@ public class CommandMetadata {
     }
 
     public List<OptionMetadata> getAllOptions() {
-        List<OptionMetadata> allOptions = new ArrayList<OptionMetadata>();
-        allOptions.addAll(globalOptions);
-        allOptions.addAll(groupOptions);
-        allOptions.addAll(commandOptions);
-        return ListUtils.unmodifiableList(allOptions);
+        return allOptions;
     }
 
     /**
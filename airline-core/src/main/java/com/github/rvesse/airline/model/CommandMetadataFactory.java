@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+/**
+ * Interface for factories that produce command meta-data without
+ * {@link MetadataLoader} having to reflectively inspect the command class
+ * <p>
+ * Implementations are normally generated at build time by the
+ * {@code airline-processor} annotation processor and are discovered by
+ * {@link MetadataLoader#loadCommand(Class)} based upon their name, see
+ * {@link MetadataLoader#getGeneratedFactoryName(Class)}. Implementations must
+ * have a public no-argument constructor.
+ * </p>
+ */
+public interface CommandMetadataFactory {
+
+    /**
+     * Loads the command meta-data
+     * 
+     * @return Command meta-data
+     */
+    public abstract CommandMetadata loadCommand();
+}
@@ -15,7 +15,10 @@
  */
 package com.github.rvesse.airline.model;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.github.rvesse.airline.utils.StringUtils;
 
@@ -34,8 +37,12 @@ public class GlobalMetadata<T> {
     private final CommandMetadata defaultCommand;
     private final List<CommandMetadata> defaultGroupCommands;
     private final List<CommandGroupMetadata> commandGroups;
+    private final NameIndex<CommandMetadata> defaultGroupCommandIndex;
+    private final NameIndex<CommandGroupMetadata> commandGroupIndex;
     private final ParserMetadata<T> parserConfig;
     private final List<GlobalRestriction> restrictions;
+    private final Map<Object, SuggestionIndex> suggestionIndexes = new IdentityHashMap<Object, SuggestionIndex>();
+    private volatile SuggestionIndex suggestionIndex;
 
     public GlobalMetadata(String name, String description, Iterable<OptionMetadata> options,
             CommandMetadata defaultCommand, Iterable<CommandMetadata> defaultGroupCommands,
@@ -48,10 +55,12 @@ public class GlobalMetadata<T> {
 
         this.name = name;
         this.description = description;
-        this.options = AirlineUtils.unmodifiableListCopy(options);
+        this.options = new OptionIndex(options);
         this.defaultCommand = defaultCommand;
         this.defaultGroupCommands = AirlineUtils.unmodifiableListCopy(defaultGroupCommands);
         this.commandGroups = AirlineUtils.unmodifiableListCopy(commandGroups);
+        this.defaultGroupCommandIndex = NameIndex.ofCommands(this.defaultGroupCommands);
+        this.commandGroupIndex = NameIndex.ofGroups(this.commandGroups);
         this.restrictions = AirlineUtils.unmodifiableListCopy(restrictions);
         this.parserConfig = parserConfig != null ? parserConfig : ParserBuilder.<T>defaultConfiguration();
     }
@@ -79,7 +88,98 @@ public class GlobalMetadata<T> {
     public List<CommandGroupMetadata> getCommandGroups() {
         return commandGroups;
     }
+
+    /**
+     * Finds a command in the default group
+     * 
+     * @param name
+     *            Command name or abbreviation
+     * @param abbreviated
+     *            Whether abbreviations are permitted
+     * @return Command if found, {@code null} otherwise
+     */
+    public CommandMetadata findDefaultGroupCommand(String name, boolean abbreviated) {
+        return defaultGroupCommandIndex.find(name, abbreviated);
+    }
+
+    /**
+     * Finds a top level command group
+     * 
+     * @param name
+     *            Group name or abbreviation
+     * @param abbreviated
+     *            Whether abbreviations are permitted
+     * @return Group if found, {@code null} otherwise
+     */
+    public CommandGroupMetadata findCommandGroup(String name, boolean abbreviated) {
+        return commandGroupIndex.find(name, abbreviated);
+    }
     
+    /**
+     * Gets the suggestion index for the top level of the CLI
+     * <p>
+     * The index covers the names of the visible groups, default group commands
+     * and global options and is built the first time it is needed.
+     * </p>
+     * 
+     * @return Suggestion index
+     */
+    public SuggestionIndex getSuggestionIndex() {
+        SuggestionIndex index = this.suggestionIndex;
+        if (index == null) {
+            index = SuggestionIndex.of(this.commandGroups, this.defaultGroupCommands, this.options);
+            this.suggestionIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Gets the suggestion index for a group
+     * <p>
+     * The index covers the names of the visible sub-groups, commands and
+     * options of the group and is built the first time it is needed.
+     * </p>
+     * 
+     * @param group
+     *            Group, if {@code null} the index for the top level is returned
+     * @return Suggestion index
+     */
+    public SuggestionIndex getSuggestionIndex(CommandGroupMetadata group) {
+        if (group == null)
+            return getSuggestionIndex();
+        synchronized (this.suggestionIndexes) {
+            SuggestionIndex index = this.suggestionIndexes.get(group);
+            if (index == null) {
+                index = SuggestionIndex.of(group.getSubGroups(), group.getCommands(), group.getOptions());
+                this.suggestionIndexes.put(group, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Gets the suggestion index for a command
+     * <p>
+     * The index covers the names of all the visible options that may be used
+     * with the command and is built the first time it is needed.
+     * </p>
+     * 
+     * @param command
+     *            Command
+     * @return Suggestion index
+     */
+    public SuggestionIndex getSuggestionIndex(CommandMetadata command) {
+        synchronized (this.suggestionIndexes) {
+            SuggestionIndex index = this.suggestionIndexes.get(command);
+            if (index == null) {
+                index = SuggestionIndex.of(Collections.<CommandGroupMetadata> emptyList(),
+                        Collections.<CommandMetadata> emptyList(), command.getAllOptions());
+                this.suggestionIndexes.put(command, index);
+            }
+            return index;
+        }
+    }
+
     public List<GlobalRestriction> getRestrictions() {
         return restrictions;
     }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.help.sections.HelpSection;
+
+/**
+ * Command meta-data whose options, arguments, help sections and meta-data
+ * injections are only loaded when first used
+ * <p>
+ * The name, description, group membership and global and group options of the
+ * command are known up front since these are needed to build the CLI and to
+ * parse the global and group options that precede the command name. The
+ * command meta-data is fully loaded the first time any other part of it is
+ * requested, typically because the command has been resolved by the parser or
+ * help is being generated for it.
+ * </p>
+ */
+final class LazyCommandMetadata extends CommandMetadata {
+
+    private final MetadataSnapshot snapshot;
+    private volatile CommandMetadata loaded;
+
+    //@formatter:off
+    LazyCommandMetadata(String name, 
+                        String description, 
+                        boolean hidden, 
+                        Iterable<OptionMetadata> globalOptions, 
+                        Iterable<OptionMetadata> groupOptions, 
+                        Class<?> type, 
+                        List<String> groupNames, 
+                        List<Group> groups, 
+                        MetadataSnapshot snapshot) {
+        super(name, 
+              description, 
+              hidden, 
+              globalOptions, 
+              groupOptions, 
+              Collections.<OptionMetadata> emptyList(), 
+              null, 
+              null, 
+              Collections.<Accessor> emptyList(), 
+              type, 
+              groupNames, 
+              groups, 
+              Collections.<HelpSection> emptyList());
+        this.snapshot = snapshot;
+    }
+    //@formatter:on
+
+    /**
+     * Gets whether the full command meta-data has been loaded
+     * 
+     * @return True if loaded, false otherwise
+     */
+    boolean isLoaded() {
+        return this.loaded != null;
+    }
+
+    private CommandMetadata load() {
+        CommandMetadata metadata = this.loaded;
+        if (metadata == null) {
+            synchronized (this) {
+                metadata = this.loaded;
+                if (metadata == null) {
+                    metadata = MetadataLoader.loadCommand(getType(), this.snapshot);
+                    if (this.snapshot != null)
+                        this.snapshot.saveQuietly();
+                    this.loaded = metadata;
+                }
+            }
+        }
+        return metadata;
+    }
+
+    @Override
+    public List<OptionMetadata> getAllOptions() {
+        return load().getAllOptions();
+    }
+
+    @Override
+    public List<HelpSection> getHelpSections() {
+        return load().getHelpSections();
+    }
+
+    @Override
+    public List<OptionMetadata> getCommandOptions() {
+        return load().getCommandOptions();
+    }
+
+    @Override
+    public OptionMetadata getDefaultOption() {
+        return load().getDefaultOption();
+    }
+
+    @Override
+    public ArgumentsMetadata getArguments() {
+        return load().getArguments();
+    }
+
+    @Override
+    public List<Accessor> getMetadataInjections() {
+        return load().getMetadataInjections();
+    }
+
+    @Override
+    public String toString() {
+        return load().toString();
+    }
+}
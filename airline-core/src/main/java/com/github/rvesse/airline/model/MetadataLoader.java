@@ -65,6 +65,52 @@ import java.util.*;
  */
 public class MetadataLoader {
 
+    /**
+     * Suffix appended to the names of generated {@link CommandMetadataFactory}
+     * classes
+     */
+    public static final String GENERATED_FACTORY_SUFFIX = "_AirlineMetadata";
+
+    private static final CommandMetadataFactory NO_GENERATED_FACTORY = new CommandMetadataFactory() {
+        @Override
+        public CommandMetadata loadCommand() {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private static final ClassValue<CommandMetadataFactory> GENERATED_FACTORIES = new ClassValue<CommandMetadataFactory>() {
+        @Override
+        protected CommandMetadataFactory computeValue(Class<?> type) {
+            try {
+                Class<?> factoryClass = Class.forName(getGeneratedFactoryName(type), true, type.getClassLoader());
+                if (!CommandMetadataFactory.class.isAssignableFrom(factoryClass))
+                    return NO_GENERATED_FACTORY;
+                return factoryClass.asSubclass(CommandMetadataFactory.class).getDeclaredConstructor().newInstance();
+            } catch (ClassNotFoundException e) {
+                // No generated factory so meta-data is loaded reflectively
+                return NO_GENERATED_FACTORY;
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(
+                        String.format("Failed to create generated meta-data factory for command %s", type), e);
+            }
+        }
+    };
+
+    private static final Class<? extends Annotation> GUICE_INJECT = findAnnotationClass("com.google.inject.Inject");
+
+    private static Class<? extends Annotation> findAnnotationClass(String className) {
+        try {
+            return Class.forName(className).asSubclass(Annotation.class);
+        } catch (ClassNotFoundException e) {
+            // this is ok, means Guice is not on the class path, so probably
+            // not being used
+            return null;
+        } catch (ClassCastException e) {
+            // ignore this too, not something we can use as an annotation
+            return null;
+        }
+    }
+
     public static <C> ParserMetadata<C> loadParser(Class<?> cliClass) {
         if (cliClass == null)
             return ParserBuilder.<C> defaultConfiguration();
@@ -101,6 +147,9 @@ public class MetadataLoader {
         } else {
             builder = builder.withDefaultErrorHandler();
         }
+        if (!parserConfig.errorStackTraces()) {
+            builder = builder.withoutErrorStackTraces();
+        }
 
         // Abbreviation options
         if (parserConfig.allowCommandAbbreviation()) {
@@ -142,6 +191,21 @@ public class MetadataLoader {
         if (!parserConfig.defaultParsersFirst() && parserConfig.useDefaultOptionParsers()) {
             builder = builder.withDefaultOptionParsers();
         }
+        if (parserConfig.useOptionParserDispatch()) {
+            builder = builder.withOptionParserDispatch();
+        }
+
+        // Meta-data options
+        if (!StringUtils.isEmpty(parserConfig.metadataSnapshot())) {
+            builder = builder.withMetadataSnapshot(parserConfig.metadataSnapshot());
+        }
+        if (parserConfig.lazyCommandLoading()) {
+            builder = builder.withLazyCommandLoading();
+        }
+        if (!StringUtils.isEmpty(parserConfig.argumentFilePrefix())) {
+            builder = builder.withArgumentFiles(parserConfig.argumentFilePrefix())
+                    .withArgumentFileFormat(parserConfig.argumentFileFormat());
+        }
 
         return builder.build();
     }
@@ -153,21 +217,22 @@ public class MetadataLoader {
 
         com.github.rvesse.airline.annotations.Cli cliConfig = (com.github.rvesse.airline.annotations.Cli) annotation;
 
+        // Prepare parser configuration
+        ParserMetadata<C> parserConfig = cliConfig.parserConfiguration() != null
+                ? MetadataLoader.<C> loadParser(cliConfig.parserConfiguration())
+                : MetadataLoader.<C> loadParser(cliClass);
+        MetadataSnapshot snapshot = parserConfig.getMetadataSnapshot();
+
         // Prepare commands
         CommandMetadata defaultCommand = null;
         if (!cliConfig.defaultCommand().equals(com.github.rvesse.airline.annotations.Cli.NO_DEFAULT.class)) {
-            defaultCommand = loadCommand(cliConfig.defaultCommand());
+            defaultCommand = loadCommand(cliConfig.defaultCommand(), parserConfig);
         }
         List<CommandMetadata> defaultGroupCommands = new ArrayList<CommandMetadata>();
         for (Class<?> cls : cliConfig.commands()) {
-            defaultGroupCommands.add(loadCommand(cls));
+            defaultGroupCommands.add(loadCommand(cls, parserConfig));
         }
 
-        // Prepare parser configuration
-        ParserMetadata<C> parserConfig = cliConfig.parserConfiguration() != null
-                ? MetadataLoader.<C> loadParser(cliConfig.parserConfiguration())
-                : MetadataLoader.<C> loadParser(cliClass);
-
         // Prepare restrictions
         // We find restrictions in the following order:
         // 1 - Those declared via annotations
@@ -215,7 +280,7 @@ public class MetadataLoader {
 
             List<CommandMetadata> groupCommands = new ArrayList<CommandMetadata>();
             for (Class<?> cls : groupAnno.commands()) {
-                groupCommands.add(loadCommand(cls));
+                groupCommands.add(loadCommand(cls, parserConfig));
             }
 
             if (group == null) {
@@ -225,7 +290,7 @@ public class MetadataLoader {
                                          groupAnno.description(),
                                          groupAnno.hidden(),
                                          Collections.<CommandGroupMetadata>emptyList(),
-                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand()) : null, 
+                                         !groupAnno.defaultCommand().equals(Group.NO_DEFAULT.class) ? loadCommand(groupAnno.defaultCommand(), parserConfig) : null, 
                                          groupCommands);
                 //@formatter:on
                 if (subGroupPath == null) {
@@ -267,7 +332,9 @@ public class MetadataLoader {
         }
 
         // Post-process to find possible further group assignments
-        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands);
+        loadCommandsIntoGroupsByAnnotation(allCommands, groups, defaultGroupCommands, parserConfig);
+        if (snapshot != null)
+            snapshot.saveQuietly();
 
         return loadGlobal(cliConfig.name(), cliConfig.description(), defaultCommand, defaultGroupCommands, groups,
                 restrictions, parserConfig);
@@ -366,10 +433,24 @@ public class MetadataLoader {
      * @return Command meta-data
      */
     public static <T> List<CommandMetadata> loadCommands(Iterable<Class<? extends T>> defaultCommands) {
+        return loadCommands(defaultCommands, null);
+    }
+
+    /**
+     * Loads command meta-data
+     * 
+     * @param defaultCommands
+     *            Default command classes
+     * @param parserConfig
+     *            Parser configuration, may be {@code null}
+     * @return Command meta-data
+     */
+    public static <T> List<CommandMetadata> loadCommands(Iterable<Class<? extends T>> defaultCommands,
+            ParserMetadata<?> parserConfig) {
         List<CommandMetadata> commandMetadata = new ArrayList<CommandMetadata>();
         Iterator<Class<? extends T>> iter = defaultCommands.iterator();
         while (iter.hasNext()) {
-            commandMetadata.add(loadCommand(iter.next()));
+            commandMetadata.add(loadCommand(iter.next(), parserConfig));
         }
         return commandMetadata;
     }
@@ -382,13 +463,119 @@ public class MetadataLoader {
      * @return Command meta-data
      */
     public static CommandMetadata loadCommand(Class<?> commandType) {
+        return loadCommand(commandType, true);
+    }
+
+    /**
+     * Loads command meta-data
+     * <p>
+     * When {@code useGeneratedFactory} is true and the build generated a
+     * {@link CommandMetadataFactory} for the command class (see
+     * {@link #getGeneratedFactoryName(Class)}) that factory is used instead of
+     * reflectively inspecting the command class.
+     * </p>
+     *
+     * @param commandType
+     *            Command class
+     * @param useGeneratedFactory
+     *            Whether a generated meta-data factory may be used
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadCommand(Class<?> commandType, boolean useGeneratedFactory) {
         if (commandType == null) {
             return null;
         }
-        Command command = null;
+        if (useGeneratedFactory) {
+            CommandMetadataFactory factory = GENERATED_FACTORIES.get(commandType);
+            if (factory != NO_GENERATED_FACTORY)
+                return factory.loadCommand();
+        }
+
         List<Group> groups = new ArrayList<>();
-        Map<String, HelpSection> helpSections = new HashMap<>();
+        Command command = findCommand(commandType, groups);
+        List<HelpSection> helpSections = loadHelpSections(commandType);
+        InjectionMetadata injectionMetadata = new InjectionMetadata();
+        loadInjectionMetadata(commandType, injectionMetadata, Collections.<Field> emptyList());
 
+        return loadCommand(commandType, command, groups, helpSections, injectionMetadata);
+    }
+
+    /**
+     * Loads command meta-data
+     * <p>
+     * If a generated {@link CommandMetadataFactory} is available it is used,
+     * otherwise if a snapshot is provided the meta-data is loaded via the
+     * snapshot, otherwise it is loaded reflectively.
+     * </p>
+     *
+     * @param commandType
+     *            Command class
+     * @param snapshot
+     *            Meta-data snapshot, may be {@code null}
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadCommand(Class<?> commandType, MetadataSnapshot snapshot) {
+        if (commandType == null) {
+            return null;
+        }
+        if (snapshot == null || GENERATED_FACTORIES.get(commandType) != NO_GENERATED_FACTORY) {
+            return loadCommand(commandType, true);
+        }
+        return snapshot.loadCommand(commandType);
+    }
+
+    /**
+     * Loads command meta-data as dictated by the parser configuration
+     * <p>
+     * If the configuration enables lazy command loading and no generated
+     * {@link CommandMetadataFactory} is available then only the command name,
+     * description, group membership and global and group options are loaded
+     * now, the remaining meta-data is loaded when first used. Otherwise the
+     * meta-data is loaded as by {@link #loadCommand(Class, MetadataSnapshot)}
+     * using the configured snapshot (if any).
+     * </p>
+     *
+     * @param commandType
+     *            Command class
+     * @param parserConfig
+     *            Parser configuration, may be {@code null}
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadCommand(Class<?> commandType, ParserMetadata<?> parserConfig) {
+        if (commandType == null) {
+            return null;
+        }
+        MetadataSnapshot snapshot = parserConfig != null ? parserConfig.getMetadataSnapshot() : null;
+        if (parserConfig == null || !parserConfig.usesLazyCommandLoading()
+                || GENERATED_FACTORIES.get(commandType) != NO_GENERATED_FACTORY) {
+            return loadCommand(commandType, snapshot);
+        }
+
+        List<Group> groups = new ArrayList<>();
+        Command command = findCommand(commandType, groups);
+        InjectionMetadata injectionMetadata = new ScopedInjectionMetadata();
+        loadInjectionMetadata(commandType, injectionMetadata, Collections.<Field> emptyList());
+        injectionMetadata.compact();
+
+        //@formatter:off
+        return new LazyCommandMetadata(command.name(), 
+                                       command.description().isEmpty() ? null : command.description(), 
+                                       command.hidden(), 
+                                       injectionMetadata.globalOptions, 
+                                       injectionMetadata.groupOptions, 
+                                       commandType, 
+                                       Arrays.asList(command.groupNames()), 
+                                       groups, 
+                                       snapshot);
+        //@formatter:on
+    }
+
+    /**
+     * Finds the {@link Command} annotation for a command class and collects
+     * the groups declared alongside it
+     */
+    static Command findCommand(Class<?> commandType, List<Group> groups) {
+        Command command = null;
         for (Class<?> cls = commandType; command == null && !Object.class.equals(cls); cls = cls.getSuperclass()) {
             command = cls.getAnnotation(Command.class);
 
@@ -403,53 +590,197 @@ public class MetadataLoader {
         if (command == null)
             throw new IllegalArgumentException(
                     String.format("Command %s is not annotated with @Command", commandType.getName()));
+        return command;
+    }
 
-        // Find help sections
-        for (Class<?> cls = commandType; !Object.class.equals(cls); cls = cls.getSuperclass()) {
-            for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
-                Annotation annotation = cls.getAnnotation(helpAnnotationClass);
-                if (annotation == null)
-                    continue;
-                HelpSection section = HelpSectionRegistry.getHelpSection(helpAnnotationClass, annotation);
-                if (section == null)
-                    continue;
-
-                // Because we're going up the class hierarchy the titled section
-                // lowest down the hierarchy should win so if we've already seen
-                // a section with this title ignore it
-                if (helpSections.containsKey(section.getTitle().toLowerCase(Locale.ENGLISH)))
-                    continue;
-
-                helpSections.put(section.getTitle().toLowerCase(Locale.ENGLISH), section);
-            }
-        }
-
+    static CommandMetadata loadCommand(Class<?> commandType, Command command, List<Group> groups,
+            List<HelpSection> helpSections, InjectionMetadata injectionMetadata) {
         String name = command.name();
         String description = command.description().isEmpty() ? null : command.description();
         List<String> groupNames = Arrays.asList(command.groupNames());
         boolean hidden = command.hidden();
 
-        InjectionMetadata injectionMetadata = loadInjectionMetadata(commandType);
+        return loadCommand(commandType, name, description, hidden, groupNames, groups, helpSections,
+                injectionMetadata);
+    }
+
+    /**
+     * Loads command meta-data from already discovered command information
+     * <p>
+     * This is primarily intended for use by generated
+     * {@link CommandMetadataFactory} implementations, the injection meta-data
+     * is compacted so that option overrides are applied in the same way as
+     * when the meta-data is loaded reflectively.
+     * </p>
+     *
+     * @param commandType
+     *            Command class
+     * @param name
+     *            Command name
+     * @param description
+     *            Command description, may be {@code null}
+     * @param hidden
+     *            Whether the command is hidden
+     * @param groupNames
+     *            Group names declared by the command
+     * @param groups
+     *            Group annotations declared on the command
+     * @param helpSections
+     *            Help sections
+     * @param injectionMetadata
+     *            Injection meta-data
+     * @return Command meta-data
+     */
+    public static CommandMetadata loadCommand(Class<?> commandType, String name, String description, boolean hidden,
+            List<String> groupNames, List<Group> groups, List<HelpSection> helpSections,
+            InjectionMetadata injectionMetadata) {
+        injectionMetadata.compact();
 
         //@formatter:off
-        CommandMetadata commandMetadata = new CommandMetadata(name, 
-                                                              description, 
-                                                              hidden, 
-                                                              injectionMetadata.globalOptions, 
+        CommandMetadata commandMetadata = new CommandMetadata(name,
+                                                              description,
+                                                              hidden,
+                                                              injectionMetadata.globalOptions,
                                                               injectionMetadata.groupOptions,
-                                                              injectionMetadata.commandOptions, 
+                                                              injectionMetadata.commandOptions,
                                                               injectionMetadata.defaultOption,
                                                               AirlineUtils.first(injectionMetadata.arguments, null),
-                                                              injectionMetadata.metadataInjections, 
-                                                              commandType, 
-                                                              groupNames, 
-                                                              groups, 
-                                                              AirlineUtils.listCopy(helpSections.values()));
+                                                              injectionMetadata.metadataInjections,
+                                                              commandType,
+                                                              groupNames,
+                                                              groups,
+                                                              helpSections);
         //@formatter:on
 
         return commandMetadata;
     }
 
+    /**
+     * Loads the help sections declared on some classes from a type hierarchy
+     *
+     * @param type
+     *            Type whose hierarchy should be inspected
+     * @param depths
+     *            Depths in the hierarchy to inspect, zero is the type itself,
+     *            one its superclass and so forth, must be in ascending order
+     * @return Help sections
+     */
+    public static List<HelpSection> loadHelpSections(Class<?> type, int... depths) {
+        Map<String, HelpSection> helpSections = new HashMap<>();
+        Class<?> cls = type;
+        int depth = 0;
+        for (int target : depths) {
+            for (; depth < target; depth++) {
+                cls = cls.getSuperclass();
+            }
+            loadHelpSections(cls, helpSections);
+        }
+        return AirlineUtils.listCopy(helpSections.values());
+    }
+
+    /**
+     * Loads the help sections declared anywhere in a type hierarchy
+     *
+     * @param type
+     *            Type whose hierarchy should be inspected
+     * @return Help sections
+     */
+    private static List<HelpSection> loadHelpSections(Class<?> type) {
+        Map<String, HelpSection> helpSections = new HashMap<>();
+        for (Class<?> cls = type; !Object.class.equals(cls); cls = cls.getSuperclass()) {
+            loadHelpSections(cls, helpSections);
+        }
+        return AirlineUtils.listCopy(helpSections.values());
+    }
+
+    private static void loadHelpSections(Class<?> cls, Map<String, HelpSection> helpSections) {
+        for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
+            loadHelpSection(cls, helpAnnotationClass, helpSections);
+        }
+    }
+
+    /**
+     * Loads the help section declared on a class by a specific annotation
+     *
+     * @param cls
+     *            Class
+     * @param helpAnnotationClass
+     *            Help section annotation class
+     * @param helpSections
+     *            Help sections loaded so far keyed by lower cased title, since
+     *            the hierarchy is inspected from the bottom up a section is only
+     *            added if no section with the same title has been loaded
+     * @return True if a section was added, false otherwise
+     */
+    static boolean loadHelpSection(Class<?> cls, Class<? extends Annotation> helpAnnotationClass,
+            Map<String, HelpSection> helpSections) {
+        Annotation annotation = cls.getAnnotation(helpAnnotationClass);
+        if (annotation == null)
+            return false;
+        HelpSection section = HelpSectionRegistry.getHelpSection(helpAnnotationClass, annotation);
+        if (section == null)
+            return false;
+
+        // Because we're going up the class hierarchy the titled section
+        // lowest down the hierarchy should win so if we've already seen
+        // a section with this title ignore it
+        if (helpSections.containsKey(section.getTitle().toLowerCase(Locale.ENGLISH)))
+            return false;
+
+        helpSections.put(section.getTitle().toLowerCase(Locale.ENGLISH), section);
+        return true;
+    }
+
+    /**
+     * Gets the name of the generated {@link CommandMetadataFactory} for a
+     * command class
+     * <p>
+     * Generated factories live in the same package as the command class and
+     * are named by taking the binary name of the command class, replacing any
+     * {@code $} with {@code _} and appending {@link #GENERATED_FACTORY_SUFFIX}
+     * </p>
+     *
+     * @param commandType
+     *            Command class
+     * @return Generated factory class name
+     */
+    public static String getGeneratedFactoryName(Class<?> commandType) {
+        String name = commandType.getName();
+        int index = name.lastIndexOf('.');
+        return name.substring(0, index + 1) + name.substring(index + 1).replace('$', '_') + GENERATED_FACTORY_SUFFIX;
+    }
+
+    /**
+     * Gets a declared field from a type hierarchy for use in an accessor path
+     *
+     * @param type
+     *            Type
+     * @param depth
+     *            Depth in the hierarchy of the class that declares the field,
+     *            zero is the type itself, one its superclass and so forth
+     * @param name
+     *            Field name
+     * @return Field
+     * @throws IllegalStateException
+     *             Thrown if the field does not exist, this typically indicates
+     *             generated meta-data is out of date
+     */
+    public static Field loadField(Class<?> type, int depth, String name) {
+        Class<?> cls = type;
+        for (int i = 0; i < depth; i++) {
+            cls = cls.getSuperclass();
+        }
+        try {
+            Field field = cls.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException(String.format(
+                    "Field %s does not exist on class %s, generated meta-data for %s may be out of date", name, cls,
+                    type), e);
+        }
+    }
+
     /**
      * Loads suggester meta-data
      * 
@@ -491,6 +822,7 @@ public class MetadataLoader {
             return;
         }
         for (Class<?> cls = type; !Object.class.equals(cls); cls = cls.getSuperclass()) {
+            injectionMetadata.inspect(cls);
             for (Field field : cls.getDeclaredFields()) {
                 field.setAccessible(true);
                 List<Field> path = new ArrayList<>(fields);
@@ -501,38 +833,28 @@ public class MetadataLoader {
                     if (field.getType().equals(GlobalMetadata.class)
                             || field.getType().equals(CommandGroupMetadata.class)
                             || field.getType().equals(CommandMetadata.class)) {
-                        injectionMetadata.metadataInjections.add(new Accessor(path));
+                        injectionMetadata.addMetadataInjection(new Accessor(path));
                     } else {
                         loadInjectionMetadata(field.getType(), injectionMetadata, path);
                     }
                 }
 
-                try {
-                    @SuppressWarnings("unchecked")
-                    Annotation aGuiceInject = field
-                            .getAnnotation((Class<? extends Annotation>) Class.forName("com.google.inject.Inject"));
+                if (GUICE_INJECT != null) {
+                    Annotation aGuiceInject = field.getAnnotation(GUICE_INJECT);
                     if (aGuiceInject != null) {
                         if (field.getType().equals(GlobalMetadata.class)
                                 || field.getType().equals(CommandGroupMetadata.class)
                                 || field.getType().equals(CommandMetadata.class)) {
-                            injectionMetadata.metadataInjections.add(new Accessor(path));
+                            injectionMetadata.addMetadataInjection(new Accessor(path));
                         } else {
                             loadInjectionMetadata(field.getType(), injectionMetadata, path);
                         }
                     }
-                } catch (ClassNotFoundException e) {
-                    // this is ok, means Guice is not on the class path, so
-                    // probably not being used
-                    // and thus, ok that this did not work.
-                } catch (ClassCastException e) {
-                    // ignore this too, we're doing some funky cross your
-                    // fingers type reflect stuff to play
-                    // nicely with Guice
                 }
 
                 Option optionAnnotation = field.getAnnotation(Option.class);
                 DefaultOption defaultOptionAnnotation = field.getAnnotation(DefaultOption.class);
-                if (optionAnnotation != null) {
+                if (optionAnnotation != null && injectionMetadata.loadsOptions(optionAnnotation.type())) {
                     OptionType optionType = optionAnnotation.type();
                     String name;
                     if (!optionAnnotation.title().isEmpty()) {
@@ -564,24 +886,8 @@ public class MetadataLoader {
                     boolean sealed = optionAnnotation.sealed();
 
                     // Find and create restrictions
-                    Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
-                    List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getOptionRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
-                        OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass,
-                                annotation);
-                        if (restriction != null) {
-                            // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass))
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
-
-                            restrictions.add(restriction);
-                        }
-                    }
-                    
+                    List<OptionRestriction> restrictions = loadOptionRestrictions(field);
+
                     // Type Converter provider
                     TypeConverterProvider provider = ParserUtil.createInstance(optionAnnotation.typeConverterProvider());
 
@@ -598,45 +904,7 @@ public class MetadataLoader {
                                                                        provider,
                                                                        path);
                     //@formatter:on
-                    switch (optionType) {
-                    case GLOBAL:
-                        if (defaultOptionAnnotation != null)
-                            throw new IllegalArgumentException(String.format(
-                                    "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
-                                    field));
-                        injectionMetadata.globalOptions.add(optionMetadata);
-                        break;
-                    case GROUP:
-                        if (defaultOptionAnnotation != null)
-                            throw new IllegalArgumentException(String.format(
-                                    "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
-                                    field));
-                        injectionMetadata.groupOptions.add(optionMetadata);
-                        break;
-                    case COMMAND:
-                        // Do we also have a @DefaultOption annotation
-
-                        if (defaultOptionAnnotation != null) {
-                            // Can't have both @DefaultOption and @Arguments
-                            if (injectionMetadata.arguments.size() > 0)
-                                throw new IllegalArgumentException(String.format(
-                                        "Field %s cannot be annotated with @DefaultOption because there are fields with @Arguments annotations present",
-                                        field));
-                            // Can't have more than one @DefaultOption
-                            if (injectionMetadata.defaultOption != null)
-                                throw new IllegalArgumentException(String.format(
-                                        "Command type %s has more than one field with @DefaultOption declared upon it",
-                                        type));
-                            // Arity of associated @Option must be 1
-                            if (optionMetadata.getArity() != 1)
-                                throw new IllegalArgumentException(String.format(
-                                        "Field %s annotated with @DefaultOption must also have an @Option annotation with an arity of 1",
-                                        field));
-                            injectionMetadata.defaultOption = optionMetadata;
-                        }
-                        injectionMetadata.commandOptions.add(optionMetadata);
-                        break;
-                    }
+                    injectionMetadata.addOption(type, field, optionMetadata, defaultOptionAnnotation != null);
                 }
 
                 if (optionAnnotation == null && defaultOptionAnnotation != null) {
@@ -646,13 +914,7 @@ public class MetadataLoader {
                 }
 
                 Arguments argumentsAnnotation = field.getAnnotation(Arguments.class);
-                if (field.isAnnotationPresent(Arguments.class)) {
-                    // Can't have both @DefaultOption and @Arguments
-                    if (injectionMetadata.defaultOption != null)
-                        throw new IllegalArgumentException(String.format(
-                                "Field %s cannot be annotated with @Arguments because there is a field with @DefaultOption present",
-                                field));
-
+                if (argumentsAnnotation != null && injectionMetadata.loadsArguments()) {
                     List<String> titles = new ArrayList<>();
 
                     if (!(argumentsAnnotation.title().length == 1 && argumentsAnnotation.title()[0].equals(""))) {
@@ -664,36 +926,103 @@ public class MetadataLoader {
                     String description = argumentsAnnotation.description();
                     TypeConverterProvider provider = ParserUtil.createInstance(argumentsAnnotation.typeConverterProvider());
 
-                    Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
-                    List<ArgumentsRestriction> restrictions = new ArrayList<>();
-                    for (Class<? extends Annotation> annotationClass : RestrictionRegistry
-                            .getArgumentsRestrictionAnnotationClasses()) {
-                        Annotation annotation = field.getAnnotation(annotationClass);
-                        if (annotation == null)
-                            continue;
-                        ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
-                                annotation);
-                        if (restriction != null) {
-                            // Adjust for partial if necessary
-                            if (partials.containsKey(annotationClass))
-                                restriction = new PartialRestriction(partials.get(annotationClass), restriction);
-
-                            restrictions.add(restriction);
-                        }
-                    }
+                    List<ArgumentsRestriction> restrictions = loadArgumentsRestrictions(field);
 
                     //@formatter:off
-                    injectionMetadata.arguments.add(new ArgumentsMetadata(titles, 
-                                                                          description,
-                                                                          restrictions,
-                                                                          provider,
-                                                                          path));
+                    injectionMetadata.addArguments(field, new ArgumentsMetadata(titles, 
+                                                                                description,
+                                                                                restrictions,
+                                                                                provider,
+                                                                                path));
                     //@formatter:on
                 }
             }
         }
     }
 
+    /**
+     * Loads the option restrictions declared on a field
+     *
+     * @param field
+     *            Field
+     * @return Option restrictions
+     */
+    public static List<OptionRestriction> loadOptionRestrictions(Field field) {
+        return loadOptionRestrictions(field, RestrictionRegistry.getOptionRestrictionAnnotationClasses());
+    }
+
+    /**
+     * Loads the option restrictions declared on a field by some restriction
+     * annotations
+     *
+     * @param field
+     *            Field
+     * @param annotationClasses
+     *            Restriction annotation classes to look for
+     * @return Option restrictions
+     */
+    static List<OptionRestriction> loadOptionRestrictions(Field field,
+            Iterable<Class<? extends Annotation>> annotationClasses) {
+        Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
+        List<OptionRestriction> restrictions = new ArrayList<OptionRestriction>();
+        for (Class<? extends Annotation> annotationClass : annotationClasses) {
+            Annotation annotation = field.getAnnotation(annotationClass);
+            if (annotation == null)
+                continue;
+            OptionRestriction restriction = RestrictionRegistry.getOptionRestriction(annotationClass, annotation);
+            if (restriction != null) {
+                // Adjust for partial if necessary
+                if (partials.containsKey(annotationClass))
+                    restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+
+                restrictions.add(restriction);
+            }
+        }
+        return restrictions;
+    }
+
+    /**
+     * Loads the arguments restrictions declared on a field
+     *
+     * @param field
+     *            Field
+     * @return Arguments restrictions
+     */
+    public static List<ArgumentsRestriction> loadArgumentsRestrictions(Field field) {
+        return loadArgumentsRestrictions(field, RestrictionRegistry.getArgumentsRestrictionAnnotationClasses());
+    }
+
+    /**
+     * Loads the arguments restrictions declared on a field by some restriction
+     * annotations
+     *
+     * @param field
+     *            Field
+     * @param annotationClasses
+     *            Restriction annotation classes to look for
+     * @return Arguments restrictions
+     */
+    static List<ArgumentsRestriction> loadArgumentsRestrictions(Field field,
+            Iterable<Class<? extends Annotation>> annotationClasses) {
+        Map<Class<? extends Annotation>, Set<Integer>> partials = loadPartials(field);
+        List<ArgumentsRestriction> restrictions = new ArrayList<>();
+        for (Class<? extends Annotation> annotationClass : annotationClasses) {
+            Annotation annotation = field.getAnnotation(annotationClass);
+            if (annotation == null)
+                continue;
+            ArgumentsRestriction restriction = RestrictionRegistry.getArgumentsRestriction(annotationClass,
+                    annotation);
+            if (restriction != null) {
+                // Adjust for partial if necessary
+                if (partials.containsKey(annotationClass))
+                    restriction = new PartialRestriction(partials.get(annotationClass), restriction);
+
+                restrictions.add(restriction);
+            }
+        }
+        return restrictions;
+    }
+
     private static Map<Class<? extends Annotation>, Set<Integer>> loadPartials(Field field) {
         Map<Class<? extends Annotation>, Set<Integer>> partials = new HashMap<>();
 
@@ -819,10 +1148,16 @@ public class MetadataLoader {
 
     public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
             List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup) {
+        loadCommandsIntoGroupsByAnnotation(allCommands, commandGroups, defaultCommandGroup, null);
+    }
+
+    public static void loadCommandsIntoGroupsByAnnotation(List<CommandMetadata> allCommands,
+            List<CommandGroupMetadata> commandGroups, List<CommandMetadata> defaultCommandGroup,
+            ParserMetadata<?> parserConfig) {
         List<CommandMetadata> newCommands = new ArrayList<CommandMetadata>();
 
         // first, create any groups explicitly annotated
-        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup);
+        createGroupsFromAnnotations(allCommands, newCommands, commandGroups, defaultCommandGroup, parserConfig);
 
         for (CommandMetadata command : allCommands) {
             boolean addedToGroup = false;
@@ -891,7 +1226,7 @@ public class MetadataLoader {
     @SuppressWarnings("rawtypes")
     private static void createGroupsFromAnnotations(List<CommandMetadata> allCommands,
             List<CommandMetadata> newCommands, List<CommandGroupMetadata> commandGroups,
-            List<CommandMetadata> defaultCommandGroup) {
+            List<CommandMetadata> defaultCommandGroup, ParserMetadata<?> parserConfig) {
 
         // We sort sub-groups by name length then lexically
         // This means that when we build the groups hierarchy we'll ensure we
@@ -911,7 +1246,7 @@ public class MetadataLoader {
                     defaultCommandClass = groupAnno.defaultCommand();
                     defaultCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(defaultCommandClass));
                     if (null == defaultCommand) {
-                        defaultCommand = loadCommand(defaultCommandClass);
+                        defaultCommand = loadCommand(defaultCommandClass, parserConfig);
                         newCommands.add(defaultCommand);
                     }
                 }
@@ -922,7 +1257,7 @@ public class MetadataLoader {
                 for (Class commandClass : groupAnno.commands()) {
                     groupCommand = CollectionUtils.find(allCommands, new CommandTypeFinder(commandClass));
                     if (null == groupCommand) {
-                        groupCommand = loadCommand(commandClass);
+                        groupCommand = loadCommand(commandClass, parserConfig);
                         newCommands.add(groupCommand);
                         groupCommands.add(groupCommand);
                     }
@@ -1014,7 +1349,16 @@ public class MetadataLoader {
         }
     }
 
-    private static class InjectionMetadata {
+    /**
+     * Injection meta-data collected from the fields of a class and any
+     * delegates injected into it
+     * <p>
+     * Options and arguments are validated as they are added, call
+     * {@link MetadataLoader#loadCommand(Class, String, String, boolean, List, List, List, InjectionMetadata)}
+     * to turn the collected meta-data into command meta-data.
+     * </p>
+     */
+    public static class InjectionMetadata {
         private List<OptionMetadata> globalOptions = new ArrayList<>();
         private List<OptionMetadata> groupOptions = new ArrayList<>();
         private List<OptionMetadata> commandOptions = new ArrayList<>();
@@ -1022,6 +1366,119 @@ public class MetadataLoader {
         private List<ArgumentsMetadata> arguments = new ArrayList<>();
         private List<Accessor> metadataInjections = new ArrayList<>();
 
+        /**
+         * Adds an option
+         *
+         * @param type
+         *            Type whose fields are being inspected
+         * @param field
+         *            Field the option was declared on
+         * @param optionMetadata
+         *            Option meta-data
+         * @param defaultOption
+         *            Whether the field is also annotated with
+         *            {@link DefaultOption}
+         */
+        public void addOption(Class<?> type, Field field, OptionMetadata optionMetadata, boolean defaultOption) {
+            switch (optionMetadata.getOptionType()) {
+            case GLOBAL:
+                if (defaultOption)
+                    throw new IllegalArgumentException(String.format(
+                            "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
+                            field));
+                this.globalOptions.add(optionMetadata);
+                break;
+            case GROUP:
+                if (defaultOption)
+                    throw new IllegalArgumentException(String.format(
+                            "Field %s which defines a global option cannot be annotated with @DefaultOption as this may only be applied to command options",
+                            field));
+                this.groupOptions.add(optionMetadata);
+                break;
+            case COMMAND:
+                // Do we also have a @DefaultOption annotation
+                if (defaultOption) {
+                    // Can't have both @DefaultOption and @Arguments
+                    if (this.arguments.size() > 0)
+                        throw new IllegalArgumentException(String.format(
+                                "Field %s cannot be annotated with @DefaultOption because there are fields with @Arguments annotations present",
+                                field));
+                    // Can't have more than one @DefaultOption
+                    if (this.defaultOption != null)
+                        throw new IllegalArgumentException(String.format(
+                                "Command type %s has more than one field with @DefaultOption declared upon it", type));
+                    // Arity of associated @Option must be 1
+                    if (optionMetadata.getArity() != 1)
+                        throw new IllegalArgumentException(String.format(
+                                "Field %s annotated with @DefaultOption must also have an @Option annotation with an arity of 1",
+                                field));
+                    this.defaultOption = optionMetadata;
+                }
+                this.commandOptions.add(optionMetadata);
+                break;
+            }
+        }
+
+        /**
+         * Adds arguments
+         *
+         * @param field
+         *            Field the arguments were declared on
+         * @param argumentsMetadata
+         *            Arguments meta-data
+         */
+        public void addArguments(Field field, ArgumentsMetadata argumentsMetadata) {
+            // Can't have both @DefaultOption and @Arguments
+            if (this.defaultOption != null)
+                throw new IllegalArgumentException(String.format(
+                        "Field %s cannot be annotated with @Arguments because there is a field with @DefaultOption present",
+                        field));
+            this.arguments.add(argumentsMetadata);
+        }
+
+        /**
+         * Adds a meta-data injection
+         *
+         * @param accessor
+         *            Accessor for the field the meta-data is injected into
+         */
+        public void addMetadataInjection(Accessor accessor) {
+            this.metadataInjections.add(accessor);
+        }
+
+        /**
+         * Called for each class whose fields are about to be inspected for
+         * injection annotations, by default does nothing
+         *
+         * @param cls
+         *            Class
+         */
+        protected void inspect(Class<?> cls) {
+        }
+
+        /**
+         * Gets whether options of the given type should be loaded, by default
+         * all options are loaded
+         *
+         * @param optionType
+         *            Option type
+         * @return True if options of the type should be loaded, false if
+         *         they should be skipped
+         */
+        protected boolean loadsOptions(OptionType optionType) {
+            return true;
+        }
+
+        /**
+         * Gets whether arguments should be loaded, by default they are
+         *
+         * @return True if arguments should be loaded, false if they should be
+         *         skipped
+         */
+        protected boolean loadsArguments() {
+            return true;
+        }
+
         private void compact() {
             globalOptions = overrideOptionSet(globalOptions);
             groupOptions = overrideOptionSet(groupOptions);
@@ -1046,4 +1503,21 @@ public class MetadataLoader {
             }
         }
     }
+
+    /**
+     * Injection meta-data that only loads the global and group options, used
+     * to load the parts of a command needed up front when loading lazily
+     */
+    private static class ScopedInjectionMetadata extends InjectionMetadata {
+
+        @Override
+        protected boolean loadsOptions(OptionType optionType) {
+            return optionType != OptionType.COMMAND;
+        }
+
+        @Override
+        protected boolean loadsArguments() {
+            return false;
+        }
+    }
 }
@@ -0,0 +1,729 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.Groups;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.help.sections.factories.HelpSectionRegistry;
+import com.github.rvesse.airline.parser.ParserUtil;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+import com.github.rvesse.airline.types.TypeConverterProvider;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * A file backed snapshot of discovered command meta-data
+ * <p>
+ * Loading command meta-data reflectively requires scanning every class in the
+ * hierarchy of a command, and of any delegates injected into it, for the
+ * command, group and help section annotations and every field of those classes
+ * for option, argument and restriction annotations. A snapshot records the
+ * outcome of that scan, i.e. the command details, which classes declare groups
+ * and help sections, which fields define which options and arguments and which
+ * restriction annotations they carry, in a compact binary file so that
+ * subsequent loads need only look up those specific annotations and fields.
+ * Restrictions, help sections and groups are still created from their
+ * annotations on each load since these are arbitrary user defined objects.
+ * </p>
+ * <p>
+ * Each entry is keyed by the command class name together with a fingerprint
+ * of every class that was scanned when it was built, computed from the last
+ * modified time and size of the class files or JARs those classes were loaded
+ * from. Each JAR is only checked once however many classes were loaded from
+ * it. If any of those files change the entry is discarded and rebuilt. The
+ * snapshot is purely a cache, a missing, corrupt or unwritable snapshot file
+ * simply means meta-data is loaded reflectively as normal.
+ * </p>
+ * <p>
+ * Snapshots are normally enabled via
+ * {@link com.github.rvesse.airline.builder.ParserBuilder#withMetadataSnapshot(File)}
+ * or the {@code metadataSnapshot} field of the
+ * {@link com.github.rvesse.airline.annotations.Parser} annotation.
+ * </p>
+ */
+public final class MetadataSnapshot {
+
+    private static final int MAGIC = 0x41524c53;
+    private static final int VERSION = 2;
+
+    private static final byte OP_OPTION = 1, OP_ARGUMENTS = 2, OP_METADATA_INJECTION = 3;
+
+    private final File file;
+    private Map<String, Entry> entries;
+    private boolean modified = false;
+    // Classes cannot change once loaded so the file each fingerprint is built
+    // from only needs checking once
+    private final Map<String, long[]> stamps = new HashMap<>();
+
+    /**
+     * Creates a new snapshot, the file is not read until meta-data is first
+     * requested from the snapshot
+     * 
+     * @param file
+     *            Snapshot file
+     */
+    public MetadataSnapshot(File file) {
+        if (file == null)
+            throw new NullPointerException("file cannot be null");
+        this.file = file;
+    }
+
+    /**
+     * Gets the snapshot file
+     * 
+     * @return Snapshot file
+     */
+    public File getFile() {
+        return this.file;
+    }
+
+    /**
+     * Gets whether the snapshot has entries that have not yet been saved
+     * 
+     * @return True if modified, false otherwise
+     */
+    public synchronized boolean isModified() {
+        return this.modified;
+    }
+
+    /**
+     * Loads command meta-data, replaying the snapshot entry for the command if
+     * it is up to date and otherwise loading it reflectively and recording a
+     * new entry
+     * 
+     * @param commandType
+     *            Command class
+     * @return Command meta-data
+     */
+    public synchronized CommandMetadata loadCommand(Class<?> commandType) {
+        Entry entry = getEntries().get(commandType.getName());
+        if (entry != null && entry.files.size() > 0 && entry.files.get(0).equals(getSourceFile(commandType))
+                && entry.hash == fingerprint(entry.files)) {
+            try {
+                return entry.replay(commandType);
+            } catch (ClassNotFoundException | ClassCastException | IllegalStateException e) {
+                // Snapshot entry no longer matches the classes so fall back to
+                // loading reflectively
+            }
+        }
+
+        Recorder recorder = new Recorder();
+        entry = new Entry();
+        List<Group> groups = new ArrayList<>();
+        Command command = MetadataLoader.findCommand(commandType, groups);
+        entry.recordCommand(commandType, command);
+        List<HelpSection> helpSections = entry.recordHelpSections(commandType);
+        MetadataLoader.loadInjectionMetadata(commandType, recorder, Collections.<Field> emptyList());
+        CommandMetadata metadata = MetadataLoader.loadCommand(commandType, command, groups, helpSections, recorder);
+
+        recorder.record(entry);
+        entry.files = getSourceFiles(commandType, recorder.inspected);
+        entry.hash = entry.files != null ? fingerprint(entry.files) : 0;
+        if (entry.hash != 0) {
+            this.entries.put(commandType.getName(), entry);
+            this.modified = true;
+        }
+        return metadata;
+    }
+
+    /**
+     * Saves the snapshot if it has been modified
+     * <p>
+     * The snapshot is written to a temporary file which then replaces the
+     * snapshot file so concurrent processes never see a partially written
+     * snapshot.
+     * </p>
+     * 
+     * @throws IOException
+     *             Thrown if the snapshot cannot be written
+     */
+    public synchronized void save() throws IOException {
+        if (!this.modified)
+            return;
+
+        File dir = this.file.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs())
+            throw new IOException("Unable to create directory " + dir);
+        File temp = File.createTempFile(this.file.getName(), ".tmp", dir);
+        try {
+            try (DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temp)))) {
+                output.writeInt(MAGIC);
+                output.writeInt(VERSION);
+                output.writeInt(this.entries.size());
+                for (Map.Entry<String, Entry> e : this.entries.entrySet()) {
+                    output.writeUTF(e.getKey());
+                    e.getValue().write(output);
+                }
+            }
+            try {
+                Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp.toPath(), this.file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        this.modified = false;
+    }
+
+    /**
+     * Saves the snapshot if it has been modified ignoring any errors, since
+     * the snapshot is only a cache failing to save it is not fatal
+     */
+    public void saveQuietly() {
+        try {
+            save();
+        } catch (IOException | RuntimeException e) {
+            // Ignored, the snapshot will be rebuilt next time
+        }
+    }
+
+    private Map<String, Entry> getEntries() {
+        if (this.entries != null)
+            return this.entries;
+
+        this.entries = new LinkedHashMap<>();
+        if (!this.file.isFile())
+            return this.entries;
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(this.file)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION)
+                return this.entries;
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = input.readUTF();
+                this.entries.put(name, Entry.read(input));
+            }
+        } catch (IOException e) {
+            // Corrupt or unreadable snapshot, anything read successfully can
+            // still be used since entries are validated before use
+        }
+        return this.entries;
+    }
+
+    /**
+     * Gets the files that the given classes were loaded from, i.e. the JAR
+     * for classes loaded from a JAR and the class file for classes loaded
+     * from a directory, the file for the command class always comes first
+     * 
+     * @return Files or {@code null} if any class was not loaded from a file
+     */
+    private static List<String> getSourceFiles(Class<?> commandType, Set<Class<?>> classes) {
+        Set<String> files = new LinkedHashSet<>();
+        files.add(getSourceFile(commandType));
+        for (Class<?> cls : classes) {
+            files.add(getSourceFile(cls));
+        }
+        return files.contains(null) ? null : new ArrayList<>(files);
+    }
+
+    private static String getSourceFile(Class<?> cls) {
+        try {
+            CodeSource codeSource = cls.getProtectionDomain().getCodeSource();
+            URL location = codeSource != null ? codeSource.getLocation() : null;
+            if (location == null || !"file".equals(location.getProtocol()))
+                return null;
+            File source = new File(location.toURI());
+            if (source.isDirectory())
+                source = new File(source, cls.getName().replace('.', '/') + ".class");
+            return source.getPath();
+        } catch (SecurityException | URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Computes the fingerprint for a set of files, a fingerprint of zero
+     * indicates a file is missing and so the classes cannot be reliably
+     * identified
+     */
+    private long fingerprint(List<String> files) {
+        long hash = 17;
+        for (String file : files) {
+            long[] stamp = this.stamps.get(file);
+            if (stamp == null) {
+                File f = new File(file);
+                stamp = new long[] { f.lastModified(), f.length() };
+                this.stamps.put(file, stamp);
+            }
+            if (stamp[0] == 0)
+                return 0;
+            hash = 31 * hash + file.hashCode();
+            hash = 31 * hash + stamp[0];
+            hash = 31 * hash + stamp[1];
+        }
+        return hash == 0 ? 1 : hash;
+    }
+
+    /**
+     * Injection meta-data that records the classes inspected and the options,
+     * arguments and meta-data injections added to it
+     */
+    private static final class Recorder extends MetadataLoader.InjectionMetadata {
+        private final List<Object[]> operations = new ArrayList<>();
+        // Every inspected class is a dependency, even one without annotated
+        // fields, since adding annotations to it later changes the meta-data
+        private final Set<Class<?>> inspected = new LinkedHashSet<>();
+
+        @Override
+        protected void inspect(Class<?> cls) {
+            this.inspected.add(cls);
+        }
+
+        @Override
+        public void addOption(Class<?> type, Field field, OptionMetadata optionMetadata, boolean defaultOption) {
+            super.addOption(type, field, optionMetadata, defaultOption);
+            this.operations.add(new Object[] { OP_OPTION, type, field, optionMetadata, defaultOption });
+        }
+
+        @Override
+        public void addArguments(Field field, ArgumentsMetadata argumentsMetadata) {
+            super.addArguments(field, argumentsMetadata);
+            this.operations.add(new Object[] { OP_ARGUMENTS, field, argumentsMetadata });
+        }
+
+        @Override
+        public void addMetadataInjection(Accessor accessor) {
+            super.addMetadataInjection(accessor);
+            this.operations.add(new Object[] { OP_METADATA_INJECTION, accessor });
+        }
+
+        private void record(Entry entry) {
+            for (Object[] operation : this.operations) {
+                byte op = (Byte) operation[0];
+                Operation recorded = new Operation(op);
+                switch (op) {
+                case OP_OPTION:
+                    OptionMetadata option = (OptionMetadata) operation[3];
+                    recorded.type = ((Class<?>) operation[1]).getName();
+                    recorded.optionType = option.getOptionType();
+                    recorded.names = new ArrayList<>(option.getOptions());
+                    recorded.title = option.getTitle();
+                    recorded.description = option.getDescription();
+                    recorded.arity = option.getArity();
+                    recorded.hidden = option.isHidden();
+                    recorded.override = option.isOverride();
+                    recorded.sealed = option.isSealed();
+                    recorded.provider = option.getTypeConverterProvider().getClass().getName();
+                    recorded.defaultOption = (Boolean) operation[4];
+                    recorded.setPath(option.getAccessors().iterator().next().getPath());
+                    if (!option.getRestrictions().isEmpty())
+                        recorded.setRestrictions((Field) operation[2],
+                                RestrictionRegistry.getOptionRestrictionAnnotationClasses());
+                    break;
+                case OP_ARGUMENTS:
+                    ArgumentsMetadata arguments = (ArgumentsMetadata) operation[2];
+                    recorded.names = new ArrayList<>(arguments.getTitle());
+                    recorded.description = arguments.getDescription();
+                    recorded.provider = arguments.getTypeConverterProvider().getClass().getName();
+                    recorded.setPath(arguments.getAccessors().iterator().next().getPath());
+                    if (!arguments.getRestrictions().isEmpty())
+                        recorded.setRestrictions((Field) operation[1],
+                                RestrictionRegistry.getArgumentsRestrictionAnnotationClasses());
+                    break;
+                case OP_METADATA_INJECTION:
+                    recorded.setPath(((Accessor) operation[1]).getPath());
+                    break;
+                }
+                entry.operations.add(recorded);
+            }
+        }
+    }
+
+    private static final class Entry {
+        private long hash;
+        private List<String> files = new ArrayList<>();
+        private String name, description;
+        private boolean hidden;
+        private List<String> groupNames = new ArrayList<>();
+        private final List<Integer> groupDepths = new ArrayList<>();
+        private final List<Integer> helpDepths = new ArrayList<>();
+        private final List<String> helpAnnotations = new ArrayList<>();
+        private final List<Operation> operations = new ArrayList<>();
+
+        private void recordCommand(Class<?> commandType, Command command) {
+            this.name = command.name();
+            this.description = command.description().isEmpty() ? null : command.description();
+            this.hidden = command.hidden();
+            this.groupNames = Arrays.asList(command.groupNames());
+
+            // Same walk as MetadataLoader.findCommand()
+            int depth = 0;
+            for (Class<?> cls = commandType; !Object.class.equals(cls); cls = cls.getSuperclass(), depth++) {
+                if (cls.isAnnotationPresent(Groups.class) || cls.isAnnotationPresent(Group.class))
+                    this.groupDepths.add(depth);
+                if (cls.isAnnotationPresent(Command.class))
+                    break;
+            }
+        }
+
+        private List<HelpSection> recordHelpSections(Class<?> commandType) {
+            Map<String, HelpSection> helpSections = new HashMap<>();
+            int depth = 0;
+            for (Class<?> cls = commandType; !Object.class.equals(cls); cls = cls.getSuperclass(), depth++) {
+                for (Class<? extends Annotation> helpAnnotationClass : HelpSectionRegistry.getAnnotationClasses()) {
+                    if (MetadataLoader.loadHelpSection(cls, helpAnnotationClass, helpSections)) {
+                        this.helpDepths.add(depth);
+                        this.helpAnnotations.add(helpAnnotationClass.getName());
+                    }
+                }
+            }
+            return AirlineUtils.listCopy(helpSections.values());
+        }
+
+        private CommandMetadata replay(Class<?> commandType) throws ClassNotFoundException {
+            ClassLoader loader = commandType.getClassLoader();
+            Map<String, Class<?>> classes = new HashMap<>();
+            Map<String, Field> fields = new HashMap<>();
+
+            List<Group> groups = new ArrayList<>();
+            for (int depth : this.groupDepths) {
+                Class<?> cls = getSuperclass(commandType, depth);
+                Groups groupsAnnotation = cls.getAnnotation(Groups.class);
+                Group groupAnnotation = cls.getAnnotation(Group.class);
+                if (groupsAnnotation == null && groupAnnotation == null)
+                    throw new IllegalStateException("Group annotation not found");
+                if (groupsAnnotation != null)
+                    groups.addAll(Arrays.asList(groupsAnnotation.value()));
+                if (groupAnnotation != null)
+                    groups.add(groupAnnotation);
+            }
+
+            Map<String, HelpSection> helpSections = new HashMap<>();
+            for (int i = 0; i < this.helpDepths.size(); i++) {
+                if (!MetadataLoader.loadHelpSection(getSuperclass(commandType, this.helpDepths.get(i)),
+                        getAnnotationClass(this.helpAnnotations.get(i), loader, classes), helpSections))
+                    throw new IllegalStateException("Help section annotation not found");
+            }
+
+            MetadataLoader.InjectionMetadata injectionMetadata = new MetadataLoader.InjectionMetadata();
+            for (Operation operation : this.operations) {
+                List<Field> path = new ArrayList<>();
+                for (int i = 0; i < operation.fieldNames.size(); i++) {
+                    path.add(getField(operation.declaringClasses.get(i), operation.fieldNames.get(i), loader, classes,
+                            fields));
+                }
+                Field field = path.get(path.size() - 1);
+
+                switch (operation.op) {
+                case OP_OPTION:
+                    List<OptionRestriction> optionRestrictions = operation.restrictions.isEmpty()
+                            ? Collections.<OptionRestriction> emptyList()
+                            : MetadataLoader.loadOptionRestrictions(field,
+                                    getAnnotationClasses(operation.restrictions, loader, classes));
+                    //@formatter:off
+                    OptionMetadata option = new OptionMetadata(operation.optionType, 
+                                                               operation.names, 
+                                                               operation.title,
+                                                               operation.description, 
+                                                               operation.arity, 
+                                                               operation.hidden, 
+                                                               operation.override,
+                                                               operation.sealed,
+                                                               optionRestrictions,
+                                                               createProvider(operation.provider, loader, classes), 
+                                                               path);
+                    //@formatter:on
+                    injectionMetadata.addOption(getClass(operation.type, loader, classes), field, option,
+                            operation.defaultOption);
+                    break;
+                case OP_ARGUMENTS:
+                    List<ArgumentsRestriction> argumentsRestrictions = operation.restrictions.isEmpty()
+                            ? Collections.<ArgumentsRestriction> emptyList()
+                            : MetadataLoader.loadArgumentsRestrictions(field,
+                                    getAnnotationClasses(operation.restrictions, loader, classes));
+                    //@formatter:off
+                    injectionMetadata.addArguments(field, new ArgumentsMetadata(operation.names, 
+                                                                                operation.description,
+                                                                                argumentsRestrictions,
+                                                                                createProvider(operation.provider, loader, classes), 
+                                                                                path));
+                    //@formatter:on
+                    break;
+                case OP_METADATA_INJECTION:
+                    injectionMetadata.addMetadataInjection(new Accessor(path));
+                    break;
+                }
+            }
+
+            return MetadataLoader.loadCommand(commandType, this.name, this.description, this.hidden, this.groupNames,
+                    groups, AirlineUtils.listCopy(helpSections.values()), injectionMetadata);
+        }
+
+        private static Class<?> getSuperclass(Class<?> type, int depth) {
+            Class<?> cls = type;
+            for (int i = 0; i < depth && cls != null; i++) {
+                cls = cls.getSuperclass();
+            }
+            if (cls == null)
+                throw new IllegalStateException("Class hierarchy has changed");
+            return cls;
+        }
+
+        private static Class<?> getClass(String name, ClassLoader loader, Map<String, Class<?>> classes)
+                throws ClassNotFoundException {
+            Class<?> cls = classes.get(name);
+            if (cls == null) {
+                cls = Class.forName(name, false, loader);
+                classes.put(name, cls);
+            }
+            return cls;
+        }
+
+        private static Class<? extends Annotation> getAnnotationClass(String name, ClassLoader loader,
+                Map<String, Class<?>> classes) throws ClassNotFoundException {
+            return getClass(name, loader, classes).asSubclass(Annotation.class);
+        }
+
+        private static List<Class<? extends Annotation>> getAnnotationClasses(List<String> names,
+                ClassLoader loader, Map<String, Class<?>> classes) throws ClassNotFoundException {
+            List<Class<? extends Annotation>> annotationClasses = new ArrayList<>(names.size());
+            for (String name : names) {
+                annotationClasses.add(getAnnotationClass(name, loader, classes));
+            }
+            return annotationClasses;
+        }
+
+        private static Field getField(String className, String name, ClassLoader loader,
+                Map<String, Class<?>> classes, Map<String, Field> fields) throws ClassNotFoundException {
+            String key = className + '#' + name;
+            Field field = fields.get(key);
+            if (field == null) {
+                field = MetadataLoader.loadField(getClass(className, loader, classes), 0, name);
+                fields.put(key, field);
+            }
+            return field;
+        }
+
+        private static TypeConverterProvider createProvider(String name, ClassLoader loader,
+                Map<String, Class<?>> classes) throws ClassNotFoundException {
+            return (TypeConverterProvider) ParserUtil.createInstance(getClass(name, loader, classes));
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeLong(this.hash);
+            writeStrings(output, this.files);
+            output.writeUTF(this.name);
+            writeNullableString(output, this.description);
+            output.writeBoolean(this.hidden);
+            writeStrings(output, this.groupNames);
+            writeInts(output, this.groupDepths);
+            writeInts(output, this.helpDepths);
+            writeStrings(output, this.helpAnnotations);
+            output.writeInt(this.operations.size());
+            for (Operation operation : this.operations) {
+                operation.write(output);
+            }
+        }
+
+        private static Entry read(DataInputStream input) throws IOException {
+            Entry entry = new Entry();
+            entry.hash = input.readLong();
+            entry.files = readStrings(input);
+            entry.name = input.readUTF();
+            entry.description = readNullableString(input);
+            entry.hidden = input.readBoolean();
+            entry.groupNames = readStrings(input);
+            entry.groupDepths.addAll(readInts(input));
+            entry.helpDepths.addAll(readInts(input));
+            entry.helpAnnotations.addAll(readStrings(input));
+            if (entry.helpDepths.size() != entry.helpAnnotations.size())
+                throw new IOException("Invalid help sections in snapshot");
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                entry.operations.add(Operation.read(input));
+            }
+            return entry;
+        }
+    }
+
+    private static final class Operation {
+        private final byte op;
+        private String type, title, description, provider;
+        private OptionType optionType;
+        private List<String> names;
+        private int arity;
+        private boolean hidden, override, sealed, defaultOption;
+        private List<String> restrictions = Collections.emptyList();
+        // Fields are held by name so that operations read from a snapshot can
+        // be written back without resolving their fields
+        private final List<String> declaringClasses = new ArrayList<>(), fieldNames = new ArrayList<>();
+
+        private Operation(byte op) {
+            this.op = op;
+        }
+
+        private void setPath(List<Field> path) {
+            for (Field field : path) {
+                this.declaringClasses.add(field.getDeclaringClass().getName());
+                this.fieldNames.add(field.getName());
+            }
+        }
+
+        private void setRestrictions(Field field, Set<Class<? extends Annotation>> annotationClasses) {
+            this.restrictions = new ArrayList<>();
+            for (Class<? extends Annotation> annotationClass : annotationClasses) {
+                if (field.isAnnotationPresent(annotationClass))
+                    this.restrictions.add(annotationClass.getName());
+            }
+        }
+
+        private void write(DataOutputStream output) throws IOException {
+            output.writeByte(this.op);
+            output.writeInt(this.fieldNames.size());
+            for (int i = 0; i < this.fieldNames.size(); i++) {
+                output.writeUTF(this.declaringClasses.get(i));
+                output.writeUTF(this.fieldNames.get(i));
+            }
+            switch (this.op) {
+            case OP_OPTION:
+                output.writeUTF(this.type);
+                output.writeUTF(this.optionType.name());
+                writeStrings(output, this.names);
+                output.writeUTF(this.title);
+                writeNullableString(output, this.description);
+                output.writeInt(this.arity);
+                output.writeBoolean(this.hidden);
+                output.writeBoolean(this.override);
+                output.writeBoolean(this.sealed);
+                writeStrings(output, this.restrictions);
+                output.writeUTF(this.provider);
+                output.writeBoolean(this.defaultOption);
+                break;
+            case OP_ARGUMENTS:
+                writeStrings(output, this.names);
+                writeNullableString(output, this.description);
+                writeStrings(output, this.restrictions);
+                output.writeUTF(this.provider);
+                break;
+            }
+        }
+
+        private static Operation read(DataInputStream input) throws IOException {
+            Operation operation = new Operation(input.readByte());
+            int count = input.readInt();
+            for (int i = 0; i < count; i++) {
+                operation.declaringClasses.add(input.readUTF());
+                operation.fieldNames.add(input.readUTF());
+            }
+            switch (operation.op) {
+            case OP_OPTION:
+                operation.type = input.readUTF();
+                try {
+                    operation.optionType = OptionType.valueOf(input.readUTF());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Unknown option type in snapshot", e);
+                }
+                operation.names = readStrings(input);
+                operation.title = input.readUTF();
+                operation.description = readNullableString(input);
+                operation.arity = input.readInt();
+                operation.hidden = input.readBoolean();
+                operation.override = input.readBoolean();
+                operation.sealed = input.readBoolean();
+                operation.restrictions = readStrings(input);
+                operation.provider = input.readUTF();
+                operation.defaultOption = input.readBoolean();
+                break;
+            case OP_ARGUMENTS:
+                operation.names = readStrings(input);
+                operation.description = readNullableString(input);
+                operation.restrictions = readStrings(input);
+                operation.provider = input.readUTF();
+                break;
+            case OP_METADATA_INJECTION:
+                break;
+            default:
+                throw new IOException("Unknown operation in snapshot");
+            }
+            return operation;
+        }
+    }
+
+    private static void writeStrings(DataOutputStream output, List<String> values) throws IOException {
+        output.writeInt(values.size());
+        for (String value : values) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static List<String> readStrings(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(input.readUTF());
+        }
+        return values;
+    }
+
+    private static void writeInts(DataOutputStream output, List<Integer> values) throws IOException {
+        output.writeInt(values.size());
+        for (int value : values) {
+            output.writeInt(value);
+        }
+    }
+
+    private static List<Integer> readInts(DataInputStream input) throws IOException {
+        int count = input.readInt();
+        List<Integer> values = new ArrayList<>(Math.min(count, 256));
+        for (int i = 0; i < count; i++) {
+            values.add(input.readInt());
+        }
+        return values;
+    }
+
+    private static void writeNullableString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null)
+            output.writeUTF(value);
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
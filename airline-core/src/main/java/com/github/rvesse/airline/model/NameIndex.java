@@ -0,0 +1,154 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * An index of named commands or groups at a single level of a CLI
+ * <p>
+ * Exact names are held in a hash map while abbreviations are resolved by
+ * binary searching a sorted array of names, since names sharing a prefix are
+ * contiguous in that array an abbreviation is unique precisely when only the
+ * first name at its insertion point starts with it. This gives the same
+ * results as the {@link com.github.rvesse.airline.utils.predicates.AbstractAbbreviationFinder}
+ * based predicates without scanning every command or group in scope.
+ * </p>
+ * 
+ * @param <T>
+ *            Item type
+ */
+public final class NameIndex<T> {
+
+    private static final Comparator<Map.Entry<String, ?>> NAME_COMPARATOR = new Comparator<Map.Entry<String, ?>>() {
+
+        @Override
+        public int compare(Map.Entry<String, ?> o1, Map.Entry<String, ?> o2) {
+            return o1.getKey().compareTo(o2.getKey());
+        }
+    };
+
+    private final Map<String, T> exactNames = new HashMap<String, T>();
+    private final String[] sortedNames;
+    private final List<T> sortedItems;
+
+    private NameIndex(List<Map.Entry<String, T>> entries) {
+        for (Map.Entry<String, T> entry : entries) {
+            // First item declaring a name wins, this mirrors the behaviour of
+            // a linear scan
+            if (!this.exactNames.containsKey(entry.getKey())) {
+                this.exactNames.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        List<Map.Entry<String, T>> sorted = new ArrayList<Map.Entry<String, T>>(entries);
+        Collections.sort(sorted, NAME_COMPARATOR);
+        this.sortedNames = new String[sorted.size()];
+        this.sortedItems = new ArrayList<T>(sorted.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            this.sortedNames[i] = sorted.get(i).getKey();
+            this.sortedItems.add(sorted.get(i).getValue());
+        }
+    }
+
+    /**
+     * Creates an index of commands
+     * 
+     * @param commands
+     *            Commands
+     * @return Index
+     */
+    public static NameIndex<CommandMetadata> ofCommands(Iterable<CommandMetadata> commands) {
+        List<Map.Entry<String, CommandMetadata>> entries = new ArrayList<Map.Entry<String, CommandMetadata>>();
+        for (CommandMetadata command : commands) {
+            if (command != null)
+                entries.add(AirlineUtils.pairOf(command.getName(), command));
+        }
+        return new NameIndex<CommandMetadata>(entries);
+    }
+
+    /**
+     * Creates an index of groups
+     * 
+     * @param groups
+     *            Groups
+     * @return Index
+     */
+    public static NameIndex<CommandGroupMetadata> ofGroups(Iterable<CommandGroupMetadata> groups) {
+        List<Map.Entry<String, CommandGroupMetadata>> entries = new ArrayList<Map.Entry<String, CommandGroupMetadata>>();
+        for (CommandGroupMetadata group : groups) {
+            if (group != null)
+                entries.add(AirlineUtils.pairOf(group.getName(), group));
+        }
+        return new NameIndex<CommandGroupMetadata>(entries);
+    }
+
+    /**
+     * Finds the item with the given name
+     * 
+     * @param name
+     *            Name
+     * @return Item if found, {@code null} otherwise
+     */
+    public T find(String name) {
+        return this.exactNames.get(name);
+    }
+
+    /**
+     * Finds the item with the given name or which is uniquely identified by
+     * the given abbreviation
+     * 
+     * @param name
+     *            Name or abbreviation
+     * @return Item if found, {@code null} if not found or if the abbreviation
+     *         is ambiguous
+     */
+    public T findAbbreviated(String name) {
+        T exact = this.exactNames.get(name);
+        if (exact != null || name == null)
+            return exact;
+
+        int index = Arrays.binarySearch(this.sortedNames, name);
+        if (index < 0)
+            index = -(index + 1);
+        if (index >= this.sortedNames.length || !this.sortedNames[index].startsWith(name))
+            return null;
+        if (index + 1 < this.sortedNames.length && this.sortedNames[index + 1].startsWith(name))
+            return null;
+        return this.sortedItems.get(index);
+    }
+
+    /**
+     * Finds an item either by exact name or by abbreviation
+     * 
+     * @param name
+     *            Name or abbreviation
+     * @param abbreviated
+     *            Whether abbreviations are permitted
+     * @return Item if found, {@code null} otherwise
+     */
+    public T find(String name, boolean abbreviated) {
+        return abbreviated ? findAbbreviated(name) : find(name);
+    }
+}
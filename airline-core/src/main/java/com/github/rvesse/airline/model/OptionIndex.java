@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+/**
+ * A read-only list of options which is indexed by option name
+ * <p>
+ * Option lookups are performed for every token that is parsed so rather than
+ * linearly scanning the options and their names each time the index is built
+ * once when the metadata is created. Exact names are held in a hash map while
+ * abbreviations are resolved by binary searching a sorted array of names, so
+ * lookup cost depends on the length of the token and not on the number of
+ * options in scope.
+ * </p>
+ */
+public class OptionIndex extends AbstractList<OptionMetadata> implements RandomAccess {
+
+    /**
+     * Minimum length a name must have to be eligible for abbreviation
+     */
+    private static final int MIN_ABBREVIATION_LENGTH = 3;
+
+    private static final Comparator<Map.Entry<String, OptionMetadata>> NAME_COMPARATOR = new Comparator<Map.Entry<String, OptionMetadata>>() {
+
+        @Override
+        public int compare(Map.Entry<String, OptionMetadata> o1, Map.Entry<String, OptionMetadata> o2) {
+            return o1.getKey().compareTo(o2.getKey());
+        }
+    };
+
+    private final List<OptionMetadata> options;
+    private final Map<String, OptionMetadata> exactNames = new HashMap<String, OptionMetadata>();
+    private final String[] sortedNames;
+    private final OptionMetadata[] sortedOptions;
+
+    /**
+     * Creates a new index
+     * 
+     * @param options
+     *            Options
+     */
+    public OptionIndex(Iterable<OptionMetadata> options) {
+        this.options = AirlineUtils.unmodifiableListCopy(options);
+
+        List<Map.Entry<String, OptionMetadata>> abbreviatable = new ArrayList<Map.Entry<String, OptionMetadata>>();
+        for (OptionMetadata option : this.options) {
+            for (String name : option.getOptions()) {
+                // First option declaring a name wins, this mirrors the
+                // behaviour of a linear scan
+                if (!this.exactNames.containsKey(name)) {
+                    this.exactNames.put(name, option);
+                }
+                if (name.length() >= MIN_ABBREVIATION_LENGTH) {
+                    abbreviatable.add(AirlineUtils.pairOf(name, option));
+                }
+            }
+        }
+
+        Collections.sort(abbreviatable, NAME_COMPARATOR);
+        this.sortedNames = new String[abbreviatable.size()];
+        this.sortedOptions = new OptionMetadata[abbreviatable.size()];
+        for (int i = 0; i < abbreviatable.size(); i++) {
+            this.sortedNames[i] = abbreviatable.get(i).getKey();
+            this.sortedOptions[i] = abbreviatable.get(i).getValue();
+        }
+    }
+
+    /**
+     * Finds the option with the given name
+     * 
+     * @param name
+     *            Name
+     * @return Option if found, {@code null} otherwise
+     */
+    public OptionMetadata find(String name) {
+        return this.exactNames.get(name);
+    }
+
+    /**
+     * Finds the option with the given name or which is uniquely identified by
+     * the given abbreviation
+     * 
+     * @param name
+     *            Name or abbreviation
+     * @return Option if found, {@code null} if not found or if the abbreviation
+     *         is ambiguous
+     */
+    public OptionMetadata findAbbreviated(String name) {
+        OptionMetadata exact = this.exactNames.get(name);
+        if (exact != null)
+            return exact;
+
+        // Names sharing a prefix are contiguous in the sorted array so the
+        // first candidate is at the insertion point for the prefix
+        int index = Arrays.binarySearch(this.sortedNames, name);
+        if (index < 0)
+            index = -(index + 1);
+
+        OptionMetadata candidate = null;
+        for (int i = index; i < this.sortedNames.length && this.sortedNames[i].startsWith(name); i++) {
+            if (candidate == null) {
+                candidate = this.sortedOptions[i];
+            } else if (candidate != this.sortedOptions[i]) {
+                // Ambiguous
+                return null;
+            }
+        }
+        return candidate;
+    }
+
+    @Override
+    public OptionMetadata get(int index) {
+        return this.options.get(index);
+    }
+
+    @Override
+    public int size() {
+        return this.options.size();
+    }
+}
@@ -40,6 +40,7 @@ public class OptionMetadata {
     private final List<OptionRestriction> restrictions;
     private final TypeConverterProvider provider;
     private Set<Accessor> accessors;
+    private int hashCode;
 
     //@formatter:off
     public OptionMetadata(OptionType optionType, 
@@ -209,7 +210,12 @@ public class OptionMetadata {
 
     @Override
     public int hashCode() {
-        int result = optionType.hashCode();
+        // Options are used as hash keys while parsing so cache the hash code,
+        // all the fields it is computed from are immutable
+        int result = this.hashCode;
+        if (result != 0)
+            return result;
+        result = optionType.hashCode();
         result = 31 * result + options.hashCode();
         result = 31 * result + title.hashCode();
         result = 31 * result + (description != null ? description.hashCode() : 0);
@@ -217,6 +223,7 @@ public class OptionMetadata {
         result = 31 * result + (hidden ? 1 : 0);
         result = 31 * result + (overrides ? 1 : 0);
         result = 31 * result + (sealed ? 1 : 0);
+        this.hashCode = result;
         return result;
     }
 
@@ -22,9 +22,12 @@ import com.github.rvesse.airline.utils.StringUtils;
 import com.github.rvesse.airline.CommandFactory;
 import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.parser.aliases.UserAliasesSource;
+import com.github.rvesse.airline.parser.argfiles.ArgumentFileFormat;
 import com.github.rvesse.airline.parser.errors.handlers.FailFast;
 import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
 import com.github.rvesse.airline.parser.options.OptionParser;
+import com.github.rvesse.airline.parser.options.OptionParserDispatcher;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
@@ -39,20 +42,101 @@ public class ParserMetadata<T> {
      */
     public static final String DEFAULT_ARGUMENTS_SEPARATOR = "--";
 
+    /**
+     * Default prefix used to denote an argument file
+     */
+    public static final String DEFAULT_ARGUMENT_FILE_PREFIX = "@";
+
     private final boolean allowAbbreviatedCommands, allowAbbreviatedOptions, aliasesOverrideBuiltIns, aliasesMayChain;
     private final List<OptionParser<T>> optionParsers;
+    private final OptionParser<T> optionParserDispatcher;
     private final List<AliasMetadata> aliases;
     private final UserAliasesSource<T> userAliases;
     private final TypeConverter typeConverter;
     private final CommandFactory<T> commandFactory;
     private final String argsSeparator, flagNegationPrefix;
     private final ParserErrorHandler errorHandler;
+    private final MetadataSnapshot metadataSnapshot;
+    private final boolean lazyCommandLoading;
+    private final String argumentFilePrefix;
+    private final ArgumentFileFormat argumentFileFormat;
+    private final boolean errorStackTraces;
+    private final ParseListener parseListener;
 
     public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
             TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
             boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
             boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
             String flagNegationPrefix) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, false);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, boolean useOptionParserDispatch) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, useOptionParserDispatch, null);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, boolean useOptionParserDispatch, MetadataSnapshot metadataSnapshot) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, useOptionParserDispatch, metadataSnapshot, false);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, boolean useOptionParserDispatch, MetadataSnapshot metadataSnapshot,
+            boolean lazyCommandLoading) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, useOptionParserDispatch, metadataSnapshot, lazyCommandLoading,
+                null, null);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, boolean useOptionParserDispatch, MetadataSnapshot metadataSnapshot,
+            boolean lazyCommandLoading, String argumentFilePrefix, ArgumentFileFormat argumentFileFormat) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, useOptionParserDispatch, metadataSnapshot, lazyCommandLoading,
+                argumentFilePrefix, argumentFileFormat, true);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, boolean useOptionParserDispatch, MetadataSnapshot metadataSnapshot,
+            boolean lazyCommandLoading, String argumentFilePrefix, ArgumentFileFormat argumentFileFormat,
+            boolean errorStackTraces) {
+        this(commandFactory, optionParsers, typeConverter, errorHandler, allowAbbreviateCommands,
+                allowAbbreviatedOptions, aliases, userAliases, aliasesOverrideBuiltIns, aliasesMayChain,
+                argumentsSeparator, flagNegationPrefix, useOptionParserDispatch, metadataSnapshot, lazyCommandLoading,
+                argumentFilePrefix, argumentFileFormat, errorStackTraces, null);
+    }
+
+    public ParserMetadata(CommandFactory<T> commandFactory, List<OptionParser<T>> optionParsers,
+            TypeConverter typeConverter, ParserErrorHandler errorHandler, boolean allowAbbreviateCommands,
+            boolean allowAbbreviatedOptions, List<AliasMetadata> aliases, UserAliasesSource<T> userAliases,
+            boolean aliasesOverrideBuiltIns, boolean aliasesMayChain, String argumentsSeparator,
+            String flagNegationPrefix, boolean useOptionParserDispatch, MetadataSnapshot metadataSnapshot,
+            boolean lazyCommandLoading, String argumentFilePrefix, ArgumentFileFormat argumentFileFormat,
+            boolean errorStackTraces, ParseListener parseListener) {
         if (optionParsers == null)
             throw new NullPointerException("optionParsers cannot be null");
         if (aliases == null)
@@ -60,6 +144,7 @@ public class ParserMetadata<T> {
 
         // Error handling
         this.errorHandler = errorHandler != null ? errorHandler : new FailFast();
+        this.errorStackTraces = errorStackTraces;
 
         // Command parsing
         this.commandFactory = commandFactory != null ? commandFactory : new DefaultCommandFactory<T>();
@@ -68,6 +153,8 @@ public class ParserMetadata<T> {
         // Option Parsing
         this.typeConverter = typeConverter != null ? typeConverter : new DefaultTypeConverter();
         this.optionParsers = AirlineUtils.unmodifiableListCopy(optionParsers);
+        this.optionParserDispatcher = useOptionParserDispatch
+                ? new OptionParserDispatcher<T>(this.optionParsers) : null;
         this.allowAbbreviatedOptions = allowAbbreviatedOptions;
 
         // Aliases
@@ -87,6 +174,20 @@ public class ParserMetadata<T> {
         // Flag negation
         this.flagNegationPrefix = StringUtils.isNotEmpty(flagNegationPrefix) ? flagNegationPrefix : null;
 
+        // Meta-data loading
+        this.metadataSnapshot = metadataSnapshot;
+        this.lazyCommandLoading = lazyCommandLoading;
+
+        // Argument files
+        if (StringUtils.isNotEmpty(argumentFilePrefix)) {
+            if (StringUtils.containsWhitespace(argumentFilePrefix))
+                throw new IllegalArgumentException("argumentFilePrefix cannot contain any whitespace");
+        }
+        this.argumentFilePrefix = StringUtils.isNotEmpty(argumentFilePrefix) ? argumentFilePrefix : null;
+        this.argumentFileFormat = argumentFileFormat != null ? argumentFileFormat : ArgumentFileFormat.QUOTED;
+
+        // Instrumentation
+        this.parseListener = parseListener;
     }
 
     /**
@@ -162,6 +263,19 @@ public class ParserMetadata<T> {
         return optionParsers;
     }
 
+    /**
+     * Gets the option parser dispatcher to use, if any
+     * <p>
+     * When present this should be used in preference to trying each of the
+     * {@link #getOptionParsers()} in turn.
+     * </p>
+     * 
+     * @return Option parser dispatcher, {@code null} if not enabled
+     */
+    public OptionParser<T> getOptionParserDispatcher() {
+        return optionParserDispatcher;
+    }
+
     /**
      * Gets whether command/group name abbreviation is allowed
      * 
@@ -207,6 +321,80 @@ public class ParserMetadata<T> {
         return this.flagNegationPrefix;
     }
 
+    /**
+     * Gets the meta-data snapshot used to speed up loading command meta-data
+     * (if any)
+     * 
+     * @return Meta-data snapshot, {@code null} if not enabled
+     */
+    public MetadataSnapshot getMetadataSnapshot() {
+        return this.metadataSnapshot;
+    }
+
+    /**
+     * Gets whether command meta-data is loaded lazily i.e. only command names
+     * and group membership are loaded when the CLI is built and the remaining
+     * meta-data is loaded when a command is first used
+     * 
+     * @return True if command meta-data is loaded lazily, false otherwise
+     */
+    public boolean usesLazyCommandLoading() {
+        return this.lazyCommandLoading;
+    }
+
+    /**
+     * Gets whether arguments starting with the argument file prefix are
+     * expanded into the arguments read from the referenced file
+     * 
+     * @return True if argument files are expanded, false otherwise
+     */
+    public boolean allowsArgumentFiles() {
+        return this.argumentFilePrefix != null;
+    }
+
+    /**
+     * Gets the prefix that denotes an argument file reference (if any)
+     * 
+     * @return Argument file prefix, {@code null} if not enabled
+     */
+    public String getArgumentFilePrefix() {
+        return this.argumentFilePrefix;
+    }
+
+    /**
+     * Gets the format of argument files
+     * 
+     * @return Argument file format
+     */
+    public ArgumentFileFormat getArgumentFileFormat() {
+        return this.argumentFileFormat;
+    }
+
+    /**
+     * Gets whether parse errors capture stack traces when they are created
+     * <p>
+     * Capturing a stack trace is by far the most expensive part of creating an
+     * error so disabling this makes error handlers that collect errors much
+     * cheaper when the input contains many errors. Errors that are thrown
+     * without a stack trace still carry their message, cause and any suppressed
+     * errors.
+     * </p>
+     * 
+     * @return True if errors capture stack traces, false otherwise
+     */
+    public boolean capturesErrorStackTraces() {
+        return this.errorStackTraces;
+    }
+
+    /**
+     * Gets the listener that is notified of the phases of parsing (if any)
+     * 
+     * @return Parse listener, {@code null} if none
+     */
+    public ParseListener getParseListener() {
+        return this.parseListener;
+    }
+
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
@@ -214,12 +402,19 @@ public class ParserMetadata<T> {
         sb.append("commandFactory=").append(commandFactory.getClass().getCanonicalName());
         sb.append(", allowAbbreviatedCommands=").append(allowAbbreviatedCommands);
         sb.append(", optionParsers=").append(optionParsers);
+        sb.append(", optionParserDispatch=").append(optionParserDispatcher != null);
         sb.append(", typeConverter=").append(typeConverter.getClass().getCanonicalName());
         sb.append(", allowAbbreviatedOptions=").append(allowAbbreviatedOptions);
         sb.append(", aliases=").append(aliases);
         sb.append(", aliasesOverrideBuiltIns=").append(aliasesOverrideBuiltIns);
         sb.append(", argumentsSeparator='").append(argsSeparator).append("'");
         sb.append(", flagNegationPrefix='").append(flagNegationPrefix).append("'");
+        sb.append(", metadataSnapshot=").append(metadataSnapshot != null ? metadataSnapshot.getFile() : null);
+        sb.append(", lazyCommandLoading=").append(lazyCommandLoading);
+        sb.append(", argumentFilePrefix='").append(argumentFilePrefix).append("'");
+        sb.append(", argumentFileFormat=").append(argumentFileFormat);
+        sb.append(", errorStackTraces=").append(errorStackTraces);
+        sb.append(", parseListener=").append(parseListener != null ? parseListener.getClass().getCanonicalName() : null);
         sb.append("}");
         return sb.toString();
     }
@@ -0,0 +1,308 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An index of names supporting prefix completion and typo correction
+ * <p>
+ * Prefix suggestions binary search a sorted array of names, since names sharing
+ * a prefix are contiguous in that array only the matching names are visited.
+ * Typo corrections are found by searching a BK-tree keyed on the Levenshtein
+ * distance between names, the triangle inequality allows whole sub-trees to be
+ * skipped so only a small fraction of the names are compared against the
+ * misspelt word.
+ * </p>
+ */
+public final class SuggestionIndex {
+
+    private static final SuggestionIndex EMPTY = new SuggestionIndex(Collections.<String> emptyList());
+
+    private final String[] sortedNames;
+    private final Node root;
+
+    private SuggestionIndex(Iterable<String> names) {
+        TreeSet<String> sorted = new TreeSet<String>();
+        for (String name : names) {
+            if (name != null && !name.isEmpty())
+                sorted.add(name);
+        }
+        this.sortedNames = sorted.toArray(new String[sorted.size()]);
+
+        // Insert in a shuffled but deterministic order so the tree does not
+        // degenerate when names share long prefixes
+        Node root = null;
+        for (int i = 0; i < this.sortedNames.length; i++) {
+            String name = this.sortedNames[(int) ((i * 0x9E3779B1L) % this.sortedNames.length)];
+            if (root == null) {
+                root = new Node(name);
+            } else {
+                root.add(name);
+            }
+        }
+        this.root = root;
+    }
+
+    /**
+     * Creates an index of the given names
+     * 
+     * @param names
+     *            Names, duplicates and {@code null} or empty names are ignored
+     * @return Index
+     */
+    public static SuggestionIndex of(Iterable<String> names) {
+        return new SuggestionIndex(names);
+    }
+
+    /**
+     * Gets an empty index
+     * 
+     * @return Empty index
+     */
+    public static SuggestionIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Creates an index of the visible names of the given groups, commands and
+     * options
+     * 
+     * @param groups
+     *            Groups
+     * @param commands
+     *            Commands
+     * @param options
+     *            Options
+     * @return Index
+     */
+    static SuggestionIndex of(Iterable<CommandGroupMetadata> groups, Iterable<CommandMetadata> commands,
+            Iterable<OptionMetadata> options) {
+        List<String> names = new ArrayList<String>();
+        for (CommandGroupMetadata group : groups) {
+            if (!group.isHidden())
+                names.add(group.getName());
+        }
+        for (CommandMetadata command : commands) {
+            if (!command.isHidden())
+                names.add(command.getName());
+        }
+        for (OptionMetadata option : options) {
+            if (!option.isHidden())
+                names.addAll(option.getOptions());
+        }
+        return new SuggestionIndex(names);
+    }
+
+    /**
+     * Gets the number of names in the index
+     * 
+     * @return Number of names
+     */
+    public int size() {
+        return this.sortedNames.length;
+    }
+
+    /**
+     * Gets the names which start with the given prefix in lexical order
+     * 
+     * @param prefix
+     *            Prefix, {@code null} or empty to match all names
+     * @param limit
+     *            Maximum number of names to return
+     * @return Names
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null)
+            prefix = "";
+        int index = Arrays.binarySearch(this.sortedNames, prefix);
+        if (index < 0)
+            index = -(index + 1);
+
+        List<String> suggestions = new ArrayList<String>();
+        while (index < this.sortedNames.length && suggestions.size() < limit
+                && this.sortedNames[index].startsWith(prefix)) {
+            suggestions.add(this.sortedNames[index++]);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Gets the names which are close to the given, presumably misspelt, word
+     * <p>
+     * The maximum edit distance scales with the length of the word, see
+     * {@link #getMaxDistance(String)}.
+     * </p>
+     * 
+     * @param word
+     *            Word
+     * @param limit
+     *            Maximum number of names to return
+     * @return Names ordered by closeness and then lexically
+     */
+    public List<String> correct(String word, int limit) {
+        return correct(word, getMaxDistance(word), limit);
+    }
+
+    /**
+     * Gets the names which are within the given edit distance of the given
+     * word
+     * 
+     * @param word
+     *            Word
+     * @param maxDistance
+     *            Maximum Levenshtein distance
+     * @param limit
+     *            Maximum number of names to return
+     * @return Names ordered by closeness and then lexically
+     */
+    public List<String> correct(String word, int maxDistance, int limit) {
+        if (word == null || this.root == null || limit <= 0)
+            return Collections.emptyList();
+
+        List<Match> matches = new ArrayList<Match>();
+        this.root.search(word, maxDistance, matches);
+        Collections.sort(matches, MATCH_COMPARATOR);
+
+        List<String> corrections = new ArrayList<String>();
+        for (int i = 0; i < matches.size() && corrections.size() < limit; i++) {
+            if (!matches.get(i).name.equals(word))
+                corrections.add(matches.get(i).name);
+        }
+        return corrections;
+    }
+
+    /**
+     * Gets the default maximum edit distance for correcting the given word,
+     * words of up to three characters allow for a single edit, words of up to
+     * six characters allow for two edits so that transposed characters are
+     * corrected, longer words allow for three edits
+     * 
+     * @param word
+     *            Word
+     * @return Maximum edit distance
+     */
+    public static int getMaxDistance(String word) {
+        if (word == null)
+            return 0;
+        return word.length() <= 3 ? 1 : word.length() <= 6 ? 2 : 3;
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings
+     * 
+     * @param a
+     *            First string
+     * @param b
+     *            Second string
+     * @return Distance
+     */
+    static int distance(String a, String b) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char c = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = c == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return previous[b.length()];
+    }
+
+    private static final Comparator<Match> MATCH_COMPARATOR = new Comparator<Match>() {
+
+        @Override
+        public int compare(Match o1, Match o2) {
+            int c = Integer.compare(o1.distance, o2.distance);
+            return c != 0 ? c : o1.name.compareTo(o2.name);
+        }
+    };
+
+    private static final class Match {
+        private final String name;
+        private final int distance;
+
+        private Match(String name, int distance) {
+            this.name = name;
+            this.distance = distance;
+        }
+    }
+
+    /**
+     * A BK-tree node, children are held in parallel arrays keyed by their
+     * distance from this node
+     */
+    private static final class Node {
+        private final String name;
+        private int[] distances = new int[0];
+        private Node[] children = new Node[0];
+
+        private Node(String name) {
+            this.name = name;
+        }
+
+        private void add(String name) {
+            Node node = this;
+            while (true) {
+                int d = distance(name, node.name);
+                Node child = node.child(d);
+                if (child == null) {
+                    int n = node.distances.length;
+                    node.distances = Arrays.copyOf(node.distances, n + 1);
+                    node.children = Arrays.copyOf(node.children, n + 1);
+                    node.distances[n] = d;
+                    node.children[n] = new Node(name);
+                    return;
+                }
+                node = child;
+            }
+        }
+
+        private Node child(int d) {
+            for (int i = 0; i < this.distances.length; i++) {
+                if (this.distances[i] == d)
+                    return this.children[i];
+            }
+            return null;
+        }
+
+        private void search(String word, int maxDistance, List<Match> matches) {
+            int d = distance(word, this.name);
+            if (d <= maxDistance)
+                matches.add(new Match(this.name, d));
+
+            // Only children whose distance from this node is within
+            // maxDistance of d can contain matches
+            for (int i = 0; i < this.distances.length; i++) {
+                if (Math.abs(this.distances[i] - d) <= maxDistance)
+                    this.children[i].search(word, maxDistance, matches);
+            }
+        }
+    }
+}
@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.parser;
 
+import static com.github.rvesse.airline.parser.ParserUtil.phaseFinished;
+import static com.github.rvesse.airline.parser.ParserUtil.phaseStarted;
+
 import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
@@ -23,17 +26,21 @@ import com.github.rvesse.airline.model.GlobalMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.aliases.AliasResolver;
+import com.github.rvesse.airline.parser.argfiles.ArgumentFileExpander;
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+import com.github.rvesse.airline.parser.errors.handlers.AbstractCollectingHandler;
+import com.github.rvesse.airline.parser.errors.handlers.ParserErrorHandler;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
+import com.github.rvesse.airline.parser.listeners.ParsePhase;
 import com.github.rvesse.airline.parser.options.OptionParser;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedCommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.AbbreviatedGroupFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 
-import com.github.rvesse.airline.utils.CollectionUtils;
-import com.github.rvesse.airline.utils.Predicate;
 import com.github.rvesse.airline.utils.PeekingIterator;
 
 /**
@@ -68,7 +75,21 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(GlobalMetadata<T> metadata, Iterable<String> args) {
-        PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
+        Iterator<String> input = expandArgumentFiles(metadata.getParserConfiguration(), args.iterator());
+        Iterator<String> routed = routeArgumentFileErrors(metadata.getParserConfiguration(), input);
+        ParseState<T> state = null;
+        try {
+            state = tryParse(metadata,
+                    new PeekingIterator<String>(limitErrors(metadata.getParserConfiguration(), routed)));
+            state = attachArgumentFiles(state, input);
+            return state;
+        } finally {
+            stopRoutingArgumentFileErrors(routed);
+            closeArgumentFiles(state, input);
+        }
+    }
+
+    private ParseState<T> tryParse(GlobalMetadata<T> metadata, PeekingIterator<String> tokens) {
 
         //@formatter:off
         ParseState<T> state = ParseState.<T> newInstance()
@@ -76,17 +97,27 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
                                         .withGlobal(metadata);
         //@formatter:on
 
+        ParseListener listener = metadata.getParserConfiguration().getParseListener();
+
         // Parse global options
+        long start = phaseStarted(listener, ParsePhase.GLOBAL_OPTIONS);
         state = parseOptions(tokens, state, metadata.getOptions());
+        phaseFinished(listener, ParsePhase.GLOBAL_OPTIONS, start);
 
         // Apply aliases
+        start = phaseStarted(listener, ParsePhase.ALIASES);
         tokens = applyAliases(tokens, state);
+        phaseFinished(listener, ParsePhase.ALIASES, start);
 
         // Parse group
+        start = phaseStarted(listener, ParsePhase.GROUP);
         state = parseGroup(tokens, state);
+        phaseFinished(listener, ParsePhase.GROUP, start);
 
         // parse command
+        start = phaseStarted(listener, ParsePhase.COMMAND);
         state = parseCommand(tokens, state);
+        phaseFinished(listener, ParsePhase.COMMAND, start);
 
         return state;
     }
@@ -108,34 +139,262 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
      * @return Parser State
      */
     protected ParseState<T> tryParse(ParserMetadata<T> parserConfig, CommandMetadata command, Iterable<String> args) {
-        PeekingIterator<String> tokens = new PeekingIterator<String>(args.iterator());
-        //@formatter:off
-        ParseState<T> state = ParseState.<T> newInstance()
-                                        .pushContext(Context.GLOBAL)
-                                        .withConfiguration(parserConfig)
-                                        .withCommand(command)
-                                        .pushContext(Context.COMMAND);
-        //@formatter:off
+        Iterator<String> input = expandArgumentFiles(parserConfig, args.iterator());
+        Iterator<String> routed = routeArgumentFileErrors(parserConfig, input);
+        ParseState<T> state = null;
+        try {
+            PeekingIterator<String> tokens = new PeekingIterator<String>(limitErrors(parserConfig, routed));
+            //@formatter:off
+            state = ParseState.<T> newInstance()
+                                            .pushContext(Context.GLOBAL)
+                                            .withConfiguration(parserConfig)
+                                            .withCommand(command)
+                                            .pushContext(Context.COMMAND);
+            //@formatter:off
 
-        state = parseCommandOptionsAndArguments(tokens, state, command);
-        return state;
+            ParseListener listener = parserConfig.getParseListener();
+            long start = phaseStarted(listener, ParsePhase.COMMAND);
+            state = parseCommandOptionsAndArguments(tokens, state, command);
+            phaseFinished(listener, ParsePhase.COMMAND, start);
+            state = attachArgumentFiles(state, input);
+            return state;
+        } finally {
+            stopRoutingArgumentFileErrors(routed);
+            closeArgumentFiles(state, input);
+        }
     }
 
-    protected ParseState<T> parseCommand(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandMetadata> findCommandPredicate;
-        List<CommandMetadata> expectedCommands = state.getGlobal().getDefaultGroupCommands();
-        if (state.getGroup() != null) {
-            expectedCommands = state.getGroup().getCommands();
+    /**
+     * Wraps the arguments so that argument file references are expanded, if
+     * the parser configuration enables argument files
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     * @param args
+     *            Arguments
+     * @return Arguments with argument files expanded
+     */
+    protected Iterator<String> expandArgumentFiles(ParserMetadata<T> parserConfig, Iterator<String> args) {
+        if (!parserConfig.allowsArgumentFiles())
+            return args;
+        return new ArgumentFileExpander(args, parserConfig.getArgumentFilePrefix(),
+                parserConfig.getArgumentFileFormat());
+    }
+
+    /**
+     * Wraps the arguments so that argument files which cannot be read are
+     * reported to the error handler, if argument files are being expanded
+     * <p>
+     * This only applies while parsing, if arguments are streamed then errors
+     * reading argument files while the stream is consumed are thrown directly
+     * to the consumer as with any other error in streamed arguments.
+     * </p>
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     * @param args
+     *            Arguments
+     * @return Arguments with argument file errors reported to the error
+     *         handler
+     */
+    protected Iterator<String> routeArgumentFileErrors(ParserMetadata<T> parserConfig, Iterator<String> args) {
+        if (!(args instanceof ArgumentFileExpander))
+            return args;
+        return new ArgumentFileErrorRouter(parserConfig.getErrorHandler(), args);
+    }
+
+    private void stopRoutingArgumentFileErrors(Iterator<String> args) {
+        if (args instanceof ArgumentFileErrorRouter)
+            ((ArgumentFileErrorRouter) args).stop();
+    }
+
+    /**
+     * Passes errors reading argument files to the error handler and carries on
+     * with the remaining arguments
+     */
+    private static final class ArgumentFileErrorRouter implements Iterator<String> {
+        private final ParserErrorHandler handler;
+        private final Iterator<String> args;
+        private boolean routing = true;
+
+        private ArgumentFileErrorRouter(ParserErrorHandler handler, Iterator<String> args) {
+            this.handler = handler;
+            this.args = args;
+        }
+
+        private void stop() {
+            this.routing = false;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (true) {
+                try {
+                    return this.args.hasNext();
+                } catch (ParseArgumentFileException e) {
+                    if (!this.routing)
+                        throw e;
+                    this.handler.handleError(e);
+                    if (this.handler instanceof AbstractCollectingHandler
+                            && ((AbstractCollectingHandler) this.handler).isLimitReached())
+                        return false;
+                }
+            }
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return this.args.next();
         }
 
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Resets the error handler after a parse ends abnormally, e.g. because an
+     * error was thrown, so that errors collected so far are not seen by a
+     * subsequent parse on the same thread
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     */
+    protected void parseAborted(ParserMetadata<T> parserConfig) {
+        if (parserConfig.getErrorHandler() instanceof AbstractCollectingHandler)
+            ((AbstractCollectingHandler) parserConfig.getErrorHandler()).reset();
+    }
+
+    /**
+     * Wraps the arguments so that no further arguments are consumed once the
+     * error handler has reached its error limit, if the parser configuration
+     * uses an error handler with a limit
+     * 
+     * @param parserConfig
+     *            Parser configuration
+     * @param args
+     *            Arguments
+     * @return Arguments that end once the error limit is reached
+     */
+    protected Iterator<String> limitErrors(ParserMetadata<T> parserConfig, Iterator<String> args) {
+        if (!(parserConfig.getErrorHandler() instanceof AbstractCollectingHandler))
+            return args;
+        final AbstractCollectingHandler handler = (AbstractCollectingHandler) parserConfig.getErrorHandler();
+        if (handler.getMaxErrors() == AbstractCollectingHandler.UNLIMITED)
+            return args;
+        final Iterator<String> input = args;
+        return new Iterator<String>() {
+
+            @Override
+            public boolean hasNext() {
+                return !handler.isLimitReached() && input.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return input.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * When arguments are streamed the argument files are still being read
+     * once parsing finishes so the stream takes over responsibility for
+     * closing them, see {@link ParseState#closeArgumentsStream()}
+     */
+    private ParseState<T> attachArgumentFiles(ParseState<T> state, Iterator<String> input) {
+        if (!state.isStreamingArguments() || !(input instanceof ArgumentFileExpander))
+            return state;
+        return state.withArgumentsStream(new ClosingIterator(state.getArgumentsStream(), (Closeable) input));
+    }
+
+    /**
+     * Iterator which closes the argument files it reads from on request, after
+     * which it has no further elements
+     */
+    private static final class ClosingIterator implements Iterator<String>, Closeable {
+        private final Iterator<String> tokens;
+        private final Closeable files;
+        private boolean closed = false;
+
+        private ClosingIterator(Iterator<String> tokens, Closeable files) {
+            this.tokens = tokens;
+            this.files = files;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !this.closed && this.tokens.hasNext();
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return this.tokens.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.closed = true;
+            this.files.close();
+        }
+    }
+
+    /**
+     * Closes the argument files once a parse ends abnormally or without
+     * success so that files are not left open when the arguments stream is
+     * never consumed
+     * 
+     * @param state
+     *            Parser state, may be {@code null} if parsing did not produce
+     *            a state
+     */
+    protected void closeArgumentFiles(ParseState<T> state) {
+        if (state != null)
+            state.closeArgumentsStream();
+    }
+
+    private void closeArgumentFiles(ParseState<T> state, Iterator<String> input) {
+        // When arguments are streamed the files are still being read, they are
+        // closed by the stream
+        if (state != null && state.isStreamingArguments())
+            return;
+        if (input instanceof ArgumentFileExpander) {
+            try {
+                ((ArgumentFileExpander) input).close();
+            } catch (IOException e) {
+                // Ignore, we have finished with the file anyway
+            }
+        }
+    }
+
+    protected ParseState<T> parseCommand(PeekingIterator<String> tokens, ParseState<T> state) {
         if (tokens.hasNext()) {
-            //@formatter:off
-            findCommandPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                   ? new AbbreviatedCommandFinder(tokens.peek(), expectedCommands)
-                                   : new CommandFinder(tokens.peek());
-            //@formatter:on
-            CommandMetadata command = AirlineUtils.find(expectedCommands, findCommandPredicate,
-                    state.getGroup() != null ? state.getGroup().getDefaultCommand() : null);
+            boolean abbreviated = state.getParserConfiguration().allowsAbbreviatedCommands();
+            CommandMetadata command;
+            if (state.getGroup() != null) {
+                command = state.getGroup().findCommand(tokens.peek(), abbreviated);
+                if (command == null)
+                    command = state.getGroup().getDefaultCommand();
+            } else {
+                command = state.getGlobal().findDefaultGroupCommand(tokens.peek(), abbreviated);
+            }
 
             boolean usingDefault = false;
             if (command == null && state.getGroup() == null && state.getGlobal().getDefaultCommand() != null) {
@@ -163,7 +422,7 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
     protected ParseState<T> parseCommandOptionsAndArguments(PeekingIterator<String> tokens, ParseState<T> state,
             CommandMetadata command) {
-        while (tokens.hasNext()) {
+        while (tokens.hasNext() && !state.isStreamingArguments()) {
             state = parseOptions(tokens, state, command.getCommandOptions());
 
             state = parseArgs(state, tokens, command.getArguments(), command.getDefaultOption());
@@ -172,14 +431,9 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
     }
 
     protected ParseState<T> parseGroup(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<CommandGroupMetadata> findGroupPredicate;
         if (tokens.hasNext()) {
-            //@formatter:off
-            findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                 ? new AbbreviatedGroupFinder(tokens.peek(), state.getGlobal().getCommandGroups()) 
-                                 : new GroupFinder(tokens.peek());
-            //@formatter:on
-            CommandGroupMetadata group = CollectionUtils.find(state.getGlobal().getCommandGroups(), findGroupPredicate);
+            boolean abbreviated = state.getParserConfiguration().allowsAbbreviatedCommands();
+            CommandGroupMetadata group = state.getGlobal().findCommandGroup(tokens.peek(), abbreviated);
             if (group != null) {
                 tokens.next();
                 state = state.withGroup(group).pushContext(Context.GROUP);
@@ -187,12 +441,7 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
 
                 // Possibly may have sub-groups specified
                 while (tokens.hasNext() && state.getGroup().getSubGroups().size() > 0) {
-                    //@formatter:off
-                    findGroupPredicate = state.getParserConfiguration().allowsAbbreviatedCommands() 
-                                         ? new AbbreviatedGroupFinder(tokens.peek(), state.getGroup().getSubGroups()) 
-                                         : new GroupFinder(tokens.peek());
-                    //@formatter:on
-                    group = CollectionUtils.find(state.getGroup().getSubGroups(), findGroupPredicate);
+                    group = state.getGroup().findSubGroup(tokens.peek(), abbreviated);
                     if (group != null) {
                         tokens.next();
                         state = state.withGroup(group).pushContext(Context.GROUP);
@@ -214,6 +463,18 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
     private ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
 
+        // Use the dispatcher if configured
+        OptionParser<T> dispatcher = state.getParserConfiguration().getOptionParserDispatcher();
+        if (dispatcher != null) {
+            while (tokens.hasNext()) {
+                ParseState<T> nextState = dispatcher.parseOptions(tokens, state, allowedOptions);
+                if (nextState == null)
+                    break;
+                state = nextState;
+            }
+            return state;
+        }
+
         // Get the option parsers in use
         List<OptionParser<T>> optionParsers = state.getParserConfiguration().getOptionParsers();
 
@@ -252,7 +513,16 @@ public abstract class AbstractCommandParser<T> extends AbstractParser<T> {
         String sep = state.getParserConfiguration().getArgumentsSeparator();
 
         if (tokens.hasNext()) {
-            if (tokens.peek().equals(sep)) {
+            if (arguments != null && arguments.isStreaming()) {
+                if (tokens.peek().equals(sep)) {
+                    state = state.pushContext(Context.ARGS);
+                    tokens.next();
+                }
+
+                // Hand all remaining tokens over to be bound lazily as
+                // arguments, no further options are recognised from here on
+                return state.withArgumentsStream(tokens);
+            } else if (tokens.peek().equals(sep)) {
                 state = state.pushContext(Context.ARGS);
                 tokens.next();
 
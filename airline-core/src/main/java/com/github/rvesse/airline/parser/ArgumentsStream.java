@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
+import com.github.rvesse.airline.types.TypeConverter;
+
+/**
+ * Binds arguments lazily, raw tokens are only converted and validated as the
+ * command consumes them so the full set of arguments is never held in memory
+ * <p>
+ * Each argument goes through the same restriction pre-validation, type
+ * conversion and post-validation as an eagerly parsed argument. Restriction
+ * final validation, e.g. occurrence checks which need to know how many
+ * arguments there were in total, happens once the end of the stream is
+ * reached. Since parsing has already completed by the time the stream is
+ * consumed any violations are thrown directly to the consumer as
+ * {@link com.github.rvesse.airline.parser.errors.ParseException} rather than
+ * being passed to the error handler, any argument files still being read are
+ * closed when this happens.
+ * </p>
+ * <p>
+ * A stream may only be iterated once and is not thread safe.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+final class ArgumentsStream<T> implements Iterable<Object>, Iterator<Object> {
+
+    private final ArgumentsMetadata arguments;
+    private final Iterator<Object> parsed;
+    private final Iterator<String> tokens;
+    private final String separator;
+    private final TypeConverter converter;
+    private ParseState<T> state;
+    private boolean seenSeparator, iterated = false, finished = false;
+    private String pending;
+
+    ArgumentsStream(ParseState<T> state, ArgumentsMetadata arguments) {
+        if (!state.isStreamingArguments())
+            throw new IllegalArgumentException("state is not streaming arguments");
+        this.state = state;
+        this.arguments = arguments;
+        this.parsed = state.getParsedArguments().iterator();
+        this.tokens = state.getArgumentsStream();
+        this.separator = state.getParserConfiguration().getArgumentsSeparator();
+        this.seenSeparator = state.getLocation() == Context.ARGS;
+        this.converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, state);
+    }
+
+    @Override
+    public Iterator<Object> iterator() {
+        if (this.iterated)
+            throw new IllegalStateException("Streamed arguments may only be iterated once");
+        this.iterated = true;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.parsed.hasNext() || this.pending != null)
+            return true;
+
+        while (this.tokens.hasNext()) {
+            String token = this.tokens.next();
+            if (!this.seenSeparator && token.equals(this.separator)) {
+                // Same as eager parsing the first separator is discarded
+                this.seenSeparator = true;
+                continue;
+            }
+            this.pending = token;
+            return true;
+        }
+
+        finish();
+        return false;
+    }
+
+    @Override
+    public Object next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        if (this.parsed.hasNext())
+            return this.parsed.next();
+
+        String rawValue = this.pending;
+        this.pending = null;
+
+        try {
+            // Pre-validate
+            for (ArgumentsRestriction restriction : this.arguments.getRestrictions()) {
+                if (restriction == null)
+                    continue;
+                restriction.preValidate(this.state, this.arguments, rawValue);
+            }
+
+            // Convert value
+            Object value = this.converter.convert(this.arguments.getTitle().get(0), this.arguments.getJavaType(),
+                    rawValue);
+
+            // Post-validate
+            for (ArgumentsRestriction restriction : this.arguments.getRestrictions()) {
+                if (restriction == null)
+                    continue;
+                restriction.postValidate(this.state, this.arguments, value);
+            }
+
+            this.state = this.state.withStreamedArgument();
+            return value;
+        } catch (RuntimeException e) {
+            // The consumer won't read any further so release argument files
+            this.state.closeArgumentsStream();
+            throw e;
+        }
+    }
+
+    private void finish() {
+        if (this.finished)
+            return;
+        this.finished = true;
+        this.state.closeArgumentsStream();
+
+        for (ArgumentsRestriction restriction : this.arguments.getRestrictions()) {
+            if (restriction == null)
+                continue;
+            restriction.finalValidate(this.state, this.arguments);
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+
+/**
+ * An immutable index of how many times each option, and each option tag, has
+ * occurred in the parsed options of a {@link ParseState}
+ * <p>
+ * This is maintained incrementally as options are parsed so that restrictions
+ * can look up occurrence counts in constant time rather than scanning all the
+ * parsed options. Like {@link com.github.rvesse.airline.utils.PersistentList}
+ * each index shares a log of occurrences with the index it was derived from,
+ * appending to the most recently derived index writes into the shared log in
+ * place and an index only counts the occurrences that were recorded before it
+ * was derived. If an older index is appended to, i.e. the history has
+ * branched, then the relevant prefix of the log is copied.
+ * </p>
+ */
+final class OccurrenceIndex {
+
+    private static final OccurrenceIndex EMPTY = new OccurrenceIndex(new Log(), 0);
+
+    /**
+     * Shared log recording the positions at which each key occurred
+     */
+    private static final class Log {
+        private final Map<Object, Positions> positions = new HashMap<>();
+        private int used;
+    }
+
+    /**
+     * Ascending list of positions at which a key occurred
+     */
+    private static final class Positions {
+        private int[] items = new int[4];
+        private int size;
+
+        private void add(int position) {
+            if (this.size == this.items.length) {
+                int[] items = new int[this.items.length * 2];
+                System.arraycopy(this.items, 0, items, 0, this.size);
+                this.items = items;
+            }
+            this.items[this.size++] = position;
+        }
+
+        private int countBefore(int position) {
+            // Fast path, all recorded positions are visible
+            if (this.size == 0 || this.items[this.size - 1] < position)
+                return this.size;
+
+            int low = 0, high = this.size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (this.items[mid] < position) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Key used to count occurrences of options which share a tag
+     */
+    private static final class TagKey {
+        private final Class<?> type;
+        private final String tag;
+
+        private TagKey(Class<?> type, String tag) {
+            this.type = type;
+            this.tag = tag;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TagKey))
+                return false;
+            TagKey other = (TagKey) obj;
+            return this.type.equals(other.type) && (this.tag == null ? other.tag == null : this.tag.equals(other.tag));
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * this.type.hashCode() + (this.tag != null ? this.tag.hashCode() : 0);
+        }
+    }
+
+    private final Log log;
+    private final int size;
+
+    private OccurrenceIndex(Log log, int size) {
+        this.log = log;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty index
+     * 
+     * @return Empty index
+     */
+    static OccurrenceIndex empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new index which additionally records an occurrence of the
+     * given option, this index is unchanged
+     * 
+     * @param option
+     *            Option
+     * @return New index
+     */
+    OccurrenceIndex append(OptionMetadata option) {
+        Set<Object> keys = keys(option);
+        synchronized (this.log) {
+            if (this.log.used == this.size && this != EMPTY) {
+                // We are the tip of this log so can record in place
+                record(this.log, keys, this.size);
+                return new OccurrenceIndex(this.log, this.size + 1);
+            }
+        }
+
+        // History has branched so copy the relevant prefix
+        Log log = new Log();
+        synchronized (this.log) {
+            for (Map.Entry<Object, Positions> entry : this.log.positions.entrySet()) {
+                Positions source = entry.getValue();
+                int count = source.countBefore(this.size);
+                if (count == 0)
+                    continue;
+                Positions copy = new Positions();
+                copy.items = new int[Math.max(4, count)];
+                System.arraycopy(source.items, 0, copy.items, 0, count);
+                copy.size = count;
+                log.positions.put(entry.getKey(), copy);
+            }
+        }
+        log.used = this.size;
+        record(log, keys, this.size);
+        return new OccurrenceIndex(log, this.size + 1);
+    }
+
+    private static void record(Log log, Set<Object> keys, int position) {
+        for (Object key : keys) {
+            Positions positions = log.positions.get(key);
+            if (positions == null) {
+                positions = new Positions();
+                log.positions.put(key, positions);
+            }
+            positions.add(position);
+        }
+        log.used++;
+    }
+
+    private static Set<Object> keys(OptionMetadata option) {
+        if (option.getRestrictions().isEmpty())
+            return Collections.<Object> singleton(option);
+
+        Set<Object> keys = new LinkedHashSet<>();
+        keys.add(option);
+        for (OptionRestriction restriction : option.getRestrictions()) {
+            if (restriction instanceof RequireFromRestriction) {
+                keys.add(new TagKey(RequireFromRestriction.class, ((RequireFromRestriction) restriction).getTag()));
+            } else if (restriction instanceof MutuallyExclusiveRestriction) {
+                keys.add(new TagKey(MutuallyExclusiveRestriction.class,
+                        ((MutuallyExclusiveRestriction) restriction).getTag()));
+            }
+        }
+        return keys;
+    }
+
+    private int count(Object key) {
+        synchronized (this.log) {
+            Positions positions = this.log.positions.get(key);
+            return positions != null ? positions.countBefore(this.size) : 0;
+        }
+    }
+
+    /**
+     * Gets how many values have been parsed for the given option
+     * 
+     * @param option
+     *            Option
+     * @return Occurrences
+     */
+    int count(OptionMetadata option) {
+        return count((Object) option);
+    }
+
+    /**
+     * Gets how many values have been parsed for options that have a
+     * restriction of the given type with the given tag
+     * 
+     * @param restrictionType
+     *            Restriction type, either {@link RequireFromRestriction} or
+     *            {@link MutuallyExclusiveRestriction}
+     * @param tag
+     *            Tag
+     * @return Occurrences
+     */
+    int count(Class<? extends OptionRestriction> restrictionType, String tag) {
+        return count(new TagKey(restrictionType, tag));
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Scratch storage which is shared by every {@link ParseState} derived during a
+ * single parse
+ * <p>
+ * This allows restrictions and other components that are shared between
+ * parses to cache expensive intermediate results for the duration of a parse
+ * without those results leaking into subsequent parses. Callers should use
+ * keys that are specific to themselves, e.g. an instance of a private class,
+ * to avoid collisions. Since values may be accessed concurrently by parallel
+ * validation they should be thread safe.
+ * </p>
+ */
+public final class ParseCache {
+
+    private volatile ConcurrentMap<Object, Object> values;
+
+    /**
+     * Gets a cached value
+     * 
+     * @param key
+     *            Key
+     * @return Value, or {@code null} if nothing is cached for the key
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V get(Object key) {
+        ConcurrentMap<Object, Object> values = this.values;
+        return values != null ? (V) values.get(key) : null;
+    }
+
+    /**
+     * Caches a value unless a value is already cached for the key
+     * 
+     * @param key
+     *            Key
+     * @param value
+     *            Value
+     * @return The value that is now cached for the key, this is the existing
+     *         value if there was one
+     */
+    @SuppressWarnings("unchecked")
+    public <V> V putIfAbsent(Object key, V value) {
+        V existing = (V) values().putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+
+    private ConcurrentMap<Object, Object> values() {
+        ConcurrentMap<Object, Object> values = this.values;
+        if (values == null) {
+            synchronized (this) {
+                values = this.values;
+                if (values == null) {
+                    values = new ConcurrentHashMap<>();
+                    this.values = values;
+                }
+            }
+        }
+        return values;
+    }
+}
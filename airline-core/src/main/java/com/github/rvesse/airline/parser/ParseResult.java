@@ -17,28 +17,44 @@
 package com.github.rvesse.airline.parser;
 
 import static com.github.rvesse.airline.parser.ParserUtil.createInstance;
+import static com.github.rvesse.airline.parser.ParserUtil.phaseFinished;
+import static com.github.rvesse.airline.parser.ParserUtil.phaseStarted;
 
+import java.io.Closeable;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
+import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
+import com.github.rvesse.airline.parser.listeners.ParsePhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.PersistentPrimitiveList;
 
 /**
  * Represents parsing results
+ * <p>
+ * If the command binds its arguments lazily, see
+ * {@link ParseState#isStreamingArguments()}, argument files may still be open
+ * once parsing has finished. They are closed when the arguments stream is
+ * fully consumed, when consuming the stream fails or when parsing was not
+ * successful, otherwise the result should be closed if the arguments may not
+ * be consumed.
+ * </p>
  * 
  * @author rvesse
  *
  * @param <T>
  *            Command type
  */
-public class ParseResult<T> {
+public class ParseResult<T> implements Closeable {
     private final ParseState<T> state;
     private final Collection<ParseException> errors;
 
@@ -86,6 +102,11 @@ public class ParseResult<T> {
      * {@link #wasSuccessful()} and act accordingly before assuming that it is
      * safe to run the parsed command.
      * </p>
+     * <p>
+     * If the command binds its arguments lazily, see
+     * {@link ParseState#isStreamingArguments()}, then the arguments can only
+     * be consumed once so only the first command returned will receive them.
+     * </p>
      * 
      * @return Command, or {@code null} if no command was parsed
      */
@@ -109,16 +130,37 @@ public class ParseResult<T> {
         bindings.put(ParserMetadata.class, state.getParserConfiguration());
         bindings = AirlineUtils.unmodifiableMapCopy(bindings);
 
-        if (state.getGlobal() != null) {
-            // Create instance
-            return createInstance(command.getType(), command.getAllOptions(), state.getParsedOptions(),
-                    command.getArguments(), state.getParsedArguments(), command.getMetadataInjections(), bindings,
-                    state.getParserConfiguration().getCommandFactory());
-        } else {
-            return createInstance(command.getType(), command.getAllOptions(), state.getParsedOptions(),
-                    command.getArguments(), state.getParsedArguments(), command.getMetadataInjections(), bindings,
-                    state.getParserConfiguration().getCommandFactory());
+        Iterable<Object> arguments = state.isStreamingArguments()
+                ? new ArgumentsStream<T>(state, command.getArguments()) : state.getParsedArguments();
+
+        // Create instance
+        ParseListener listener = state.getParserConfiguration().getParseListener();
+        long start = phaseStarted(listener, ParsePhase.INSTANTIATION);
+        T instance = createInstance(command.getType(), command.getAllOptions(), state.getParsedObjectOptions(),
+                command.getArguments(), arguments, command.getMetadataInjections(), bindings,
+                state.getParserConfiguration().getCommandFactory());
+
+        // Options bound to primitive arrays are held separately so bind those
+        // directly without boxing
+        for (OptionMetadata option : command.getAllOptions()) {
+            PersistentPrimitiveList values = state.getPrimitiveOptionValues(option);
+            if (values == null)
+                continue;
+            for (Accessor accessor : option.getAccessors()) {
+                accessor.addValues(instance, values);
+            }
         }
+        phaseFinished(listener, ParsePhase.INSTANTIATION, start);
+        return instance;
+    }
 
+    /**
+     * Closes any argument files still being read by the arguments stream, the
+     * stream has no further arguments afterwards. Has no effect if arguments
+     * are not streamed.
+     */
+    @Override
+    public void close() {
+        this.state.closeArgumentsStream();
     }
 }
@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.parser;
 
+import com.github.rvesse.airline.Accessor;
 import com.github.rvesse.airline.Context;
 import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
@@ -26,28 +27,53 @@ import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+import com.github.rvesse.airline.types.PrimitiveTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.PersistentList;
+import com.github.rvesse.airline.utils.PersistentPrimitiveList;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Represents the immutable state of the parser at a point in time
+ * <p>
+ * Each transition returns a new state, list valued state is held in
+ * {@link PersistentList} instances which share storage with the state they
+ * were derived from so each transition is constant time regardless of how
+ * many tokens have already been parsed.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
 public class ParseState<T> {
-    private final List<Context> locationStack;
+    private final PersistentList<Context> locationStack;
     private final GlobalMetadata<T> global;
     private final ParserMetadata<T> parserConfig;
     private final CommandGroupMetadata group;
     private final CommandMetadata command;
-    private final List<Map.Entry<OptionMetadata, Object>> parsedOptions;
-    private final List<Object> parsedArguments;
+    private final PersistentList<Map.Entry<OptionMetadata, Object>> parsedOptions;
+    private final PersistentList<Object> parsedArguments;
     private final OptionMetadata currentOption;
-    private final List<String> unparsedInput;
+    private final PersistentList<String> unparsedInput;
+    private final Iterator<String> argumentsStream;
+    private final int streamedArguments;
+    private final OccurrenceIndex occurrences;
+    private final PrimitiveValues primitives;
+    private final ParseCache cache;
 
     ParseState(GlobalMetadata<T> global, ParserMetadata<T> parserConfig, CommandGroupMetadata group,
-            CommandMetadata command, List<Map.Entry<OptionMetadata, Object>> parsedOptions, List<Context> locationStack,
-            List<Object> parsedArguments, OptionMetadata currentOption, List<String> unparsedInput) {
+            CommandMetadata command, PersistentList<Map.Entry<OptionMetadata, Object>> parsedOptions,
+            PersistentList<Context> locationStack, PersistentList<Object> parsedArguments, OptionMetadata currentOption,
+            PersistentList<String> unparsedInput, Iterator<String> argumentsStream, int streamedArguments,
+            OccurrenceIndex occurrences, PrimitiveValues primitives, ParseCache cache) {
         this.global = global;
         if (global != null) {
             this.parserConfig = global.getParserConfiguration();
@@ -63,27 +89,31 @@ public class ParseState<T> {
         this.parsedArguments = parsedArguments;
         this.currentOption = currentOption;
         this.unparsedInput = unparsedInput;
+        this.argumentsStream = argumentsStream;
+        this.streamedArguments = streamedArguments;
+        this.occurrences = occurrences;
+        this.primitives = primitives;
+        this.cache = cache;
     }
 
     public static <T> ParseState<T> newInstance() {
-        return new ParseState<T>(null, null, null, null, new ArrayList<Map.Entry<OptionMetadata, Object>>(),
-                Collections.<Context> emptyList(), Collections.<Object> emptyList(), null,
-                Collections.<String> emptyList());
+        return new ParseState<T>(null, null, null, null, PersistentList.<Map.Entry<OptionMetadata, Object>> empty(),
+                PersistentList.<Context> empty(), PersistentList.<Object> empty(), null,
+                PersistentList.<String> empty(), null, 0, OccurrenceIndex.empty(), PrimitiveValues.empty(),
+                new ParseCache());
     }
 
     public ParseState<T> pushContext(Context location) {
-        List<Context> locations = AirlineUtils.listCopy(this.locationStack);
-        locations.add(location);
+        PersistentList<Context> locations = this.locationStack.append(location);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locations, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> popContext() {
-        List<Context> locationStack = AirlineUtils
-                .unmodifiableListCopy(this.locationStack.subList(0, this.locationStack.size() - 1));
+        PersistentList<Context> locationStack = this.locationStack.removeLast();
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> withOptionValue(OptionMetadata option, String rawValue) {
@@ -99,6 +129,10 @@ public class ParseState<T> {
         try {
             // Convert value
             TypeConverter converter = option.getTypeConverterProvider().getTypeConverter(option, this);
+            if (converter instanceof PrimitiveTypeConverter
+                    && isPrimitiveArray(option.getAccessors(), option.getJavaType())) {
+                return withPrimitiveOptionValue(option, (PrimitiveTypeConverter) converter, rawValue);
+            }
             Object value = converter.convert(option.getTitle(), option.getJavaType(), rawValue);
 
             // Post-validate
@@ -110,45 +144,69 @@ public class ParseState<T> {
                 }
             }
 
-            List<Map.Entry<OptionMetadata, Object>> newOptions = AirlineUtils.listCopy(parsedOptions);
-            newOptions.add(AirlineUtils.pairOf(option, value));
+            PersistentList<Map.Entry<OptionMetadata, Object>> newOptions = parsedOptions
+                    .append(AirlineUtils.pairOf(option, value));
 
             return new ParseState<T>(global, parserConfig, group, command, newOptions, locationStack, parsedArguments,
-                    currentOption, unparsedInput);
+                    currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences.append(option),
+                    primitives, cache);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            PersistentList<String> newUnparsed = unparsedInput.append(rawValue);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, currentOption, newUnparsed, argumentsStream, streamedArguments, occurrences,
+                    primitives, cache);
+        }
+    }
+
+    private ParseState<T> withPrimitiveOptionValue(OptionMetadata option, PrimitiveTypeConverter converter,
+            String rawValue) {
+        PersistentPrimitiveList values = appendPrimitive(primitives.get(option), option.getJavaType(), converter,
+                option.getTitle(), rawValue);
+
+        // Post-validate, restrictions operate on objects so the value is only
+        // boxed if there are restrictions to apply
+        if (!option.getRestrictions().isEmpty()) {
+            Object value = values.get(values.size() - 1);
+            for (OptionRestriction restriction : option.getRestrictions()) {
+                try {
+                    restriction.postValidate(this, option, value);
+                } catch (ParseException e) {
+                    this.parserConfig.getErrorHandler().handleError(e);
+                }
+            }
         }
+
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences.append(option),
+                primitives.withOption(option, values, parsedOptions.size()), cache);
     }
 
     public ParseState<T> withGlobal(GlobalMetadata<T> global) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> withConfiguration(ParserMetadata<T> parserConfig) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> withGroup(CommandGroupMetadata group) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> withCommand(CommandMetadata command) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, unparsedInput);
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> withOption(OptionMetadata option) {
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                option, unparsedInput);
+                option, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     public ParseState<T> withArgument(ArgumentsMetadata arguments, String rawValue) {
@@ -164,6 +222,10 @@ public class ParseState<T> {
         // Convert value
         try {
             TypeConverter converter = arguments.getTypeConverterProvider().getTypeConverter(arguments, this);
+            if (converter instanceof PrimitiveTypeConverter
+                    && isPrimitiveArray(arguments.getAccessors(), arguments.getJavaType())) {
+                return withPrimitiveArgument(arguments, (PrimitiveTypeConverter) converter, rawValue);
+            }
             Object value = converter.convert(arguments.getTitle().get(0), arguments.getJavaType(), rawValue);
 
             // Post-validate
@@ -175,28 +237,100 @@ public class ParseState<T> {
                 }
             }
 
-            List<Object> newArguments = AirlineUtils.listCopy(parsedArguments);
-            newArguments.add(value);
+            PersistentList<Object> newArguments = parsedArguments.append(value);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, newArguments,
-                    currentOption, unparsedInput);
+                    currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
         } catch (ParseException e) {
             this.parserConfig.getErrorHandler().handleError(e);
 
-            List<String> newUnparsed = AirlineUtils.listCopy(unparsedInput);
-            newUnparsed.add(rawValue);
+            PersistentList<String> newUnparsed = unparsedInput.append(rawValue);
 
             return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack,
-                    parsedArguments, currentOption, newUnparsed);
+                    parsedArguments, currentOption, newUnparsed, argumentsStream, streamedArguments, occurrences,
+                    primitives, cache);
+        }
+    }
+
+    private ParseState<T> withPrimitiveArgument(ArgumentsMetadata arguments, PrimitiveTypeConverter converter,
+            String rawValue) {
+        PersistentPrimitiveList values = appendPrimitive(primitives.getArguments(), arguments.getJavaType(),
+                converter, arguments.getTitle().get(0), rawValue);
+
+        // Post-validate, restrictions operate on objects so the value is only
+        // boxed if there are restrictions to apply
+        if (!arguments.getRestrictions().isEmpty()) {
+            Object value = values.get(values.size() - 1);
+            for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
+                try {
+                    restriction.postValidate(this, arguments, value);
+                } catch (ParseException e) {
+                    this.parserConfig.getErrorHandler().handleError(e);
+                }
+            }
         }
+
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
+                currentOption, unparsedInput, argumentsStream, streamedArguments, occurrences,
+                primitives.withArguments(values), cache);
+    }
+
+    /**
+     * Gets whether values should be held as primitives, this is the case when
+     * every field they are bound to is an array of a primitive type that
+     * {@link PersistentPrimitiveList} supports
+     */
+    private static boolean isPrimitiveArray(Iterable<Accessor> accessors, Class<?> type) {
+        if (!PersistentPrimitiveList.isSupported(type))
+            return false;
+        for (Accessor accessor : accessors) {
+            if (!accessor.isArray())
+                return false;
+        }
+        return true;
+    }
+
+    private static PersistentPrimitiveList appendPrimitive(PersistentPrimitiveList values, Class<?> type,
+            PrimitiveTypeConverter converter, String title, String rawValue) {
+        if (values == null)
+            values = PersistentPrimitiveList.empty(type);
+        if (Integer.TYPE.equals(type))
+            return values.appendInt(converter.convertInt(title, rawValue));
+        if (Long.TYPE.equals(type))
+            return values.appendLong(converter.convertLong(title, rawValue));
+        return values.appendDouble(converter.convertDouble(title, rawValue));
+    }
+
+    /**
+     * Returns a new state where the remaining tokens are bound lazily as
+     * arguments rather than being parsed now, used when the command declares
+     * a streaming arguments field
+     * 
+     * @param tokens
+     *            Remaining tokens
+     * @return New state
+     */
+    public ParseState<T> withArgumentsStream(Iterator<String> tokens) {
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
+                currentOption, unparsedInput, tokens, streamedArguments, occurrences, primitives, cache);
+    }
+
+    /**
+     * Returns a new state which records that one further argument has been
+     * read from the arguments stream
+     * 
+     * @return New state
+     */
+    ParseState<T> withStreamedArgument() {
+        return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
+                currentOption, unparsedInput, argumentsStream, streamedArguments + 1, occurrences, primitives, cache);
     }
 
     public ParseState<T> withUnparsedInput(String input) {
-        List<String> newUnparsedInput = AirlineUtils.listCopy(unparsedInput);
-        newUnparsedInput.add(input);
+        PersistentList<String> newUnparsedInput = unparsedInput.append(input);
 
         return new ParseState<T>(global, parserConfig, group, command, parsedOptions, locationStack, parsedArguments,
-                currentOption, newUnparsedInput);
+                currentOption, newUnparsedInput, argumentsStream, streamedArguments, occurrences, primitives, cache);
     }
 
     @Override
@@ -230,14 +364,147 @@ public class ParseState<T> {
         return currentOption;
     }
 
+    /**
+     * Gets the parsed option values
+     * <p>
+     * Values of options bound to primitive arrays are held separately without
+     * boxing, if there are any then a copy of the parsed options is returned
+     * with those values boxed and merged back in the order they were parsed.
+     * </p>
+     * 
+     * @return Parsed option values
+     */
     public List<Map.Entry<OptionMetadata, Object>> getParsedOptions() {
+        if (!primitives.hasOptions())
+            return parsedOptions;
+        return primitives.mergeOptions(parsedOptions);
+    }
+
+    /**
+     * Gets the parsed option values excluding those held as primitives
+     * 
+     * @return Parsed option values
+     */
+    List<Map.Entry<OptionMetadata, Object>> getParsedObjectOptions() {
         return parsedOptions;
     }
 
+    /**
+     * Gets the values of an option bound to primitive arrays
+     * 
+     * @param option
+     *            Option
+     * @return Values, or {@code null} if the option has no values held as
+     *         primitives
+     */
+    PersistentPrimitiveList getPrimitiveOptionValues(OptionMetadata option) {
+        return primitives.get(option);
+    }
+
+    /**
+     * Gets how many values have been parsed for the given option
+     * <p>
+     * This is a constant time lookup and should be preferred over scanning
+     * {@link #getParsedOptions()}.
+     * </p>
+     * 
+     * @param option
+     *            Option
+     * @return Number of parsed values for the option
+     */
+    public int getOptionOccurrences(OptionMetadata option) {
+        return occurrences.count(option);
+    }
+
+    /**
+     * Gets how many values have been parsed for options that carry a
+     * restriction of the given type with the given tag
+     * 
+     * @param restrictionType
+     *            Restriction type, either {@link RequireFromRestriction} or
+     *            {@link MutuallyExclusiveRestriction}
+     * @param tag
+     *            Tag
+     * @return Number of parsed values for options with the tag
+     */
+    public int getTaggedOptionOccurrences(Class<? extends OptionRestriction> restrictionType, String tag) {
+        return occurrences.count(restrictionType, tag);
+    }
+
+    /**
+     * Gets the cache that is shared by all states derived during this parse
+     * 
+     * @return Parse cache
+     */
+    public ParseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the parsed arguments
+     * <p>
+     * If arguments are being streamed then values read from the stream are not
+     * retained so only the arguments parsed before the stream began are
+     * returned, use {@link #getArgumentCount()} to find the total number of
+     * arguments seen so far.
+     * </p>
+     * <p>
+     * If arguments are bound to a primitive array then the returned list boxes
+     * values as they are retrieved.
+     * </p>
+     * 
+     * @return Parsed arguments
+     */
     public List<Object> getParsedArguments() {
+        if (primitives.getArguments() != null)
+            return primitives.getArguments();
         return parsedArguments;
     }
 
+    /**
+     * Gets the total number of arguments seen so far, including any that were
+     * read from the arguments stream and not retained
+     * 
+     * @return Number of arguments
+     */
+    public int getArgumentCount() {
+        return getParsedArguments().size() + streamedArguments;
+    }
+
+    /**
+     * Gets the tokens that remain to be bound lazily as arguments
+     * 
+     * @return Arguments stream, or {@code null} if arguments are not being
+     *         streamed
+     */
+    public Iterator<String> getArgumentsStream() {
+        return argumentsStream;
+    }
+
+    /**
+     * Gets whether the remaining arguments are bound lazily, see
+     * {@link #withArgumentsStream(Iterator)}
+     * 
+     * @return True if arguments are streamed, false otherwise
+     */
+    public boolean isStreamingArguments() {
+        return argumentsStream != null;
+    }
+
+    /**
+     * Closes any argument files the arguments stream is still reading, after
+     * which the stream has no further arguments
+     */
+    public void closeArgumentsStream() {
+        if (argumentsStream instanceof Closeable) {
+            try {
+                ((Closeable) argumentsStream).close();
+            } catch (IOException e) {
+                // Ignore, nothing more will be read from the stream
+            }
+        }
+    }
+
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
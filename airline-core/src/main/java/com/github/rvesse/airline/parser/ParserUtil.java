@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.parser;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -27,10 +28,46 @@ import com.github.rvesse.airline.DefaultCommandFactory;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
+import com.github.rvesse.airline.parser.listeners.ParsePhase;
 import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class ParserUtil {
 
+    /**
+     * Notifies a parse listener, if any, that a phase has started
+     * 
+     * @param listener
+     *            Parse listener, may be {@code null}
+     * @param phase
+     *            Phase
+     * @return Start time to pass to
+     *         {@link #phaseFinished(ParseListener, ParsePhase, long)}
+     */
+    public static long phaseStarted(ParseListener listener, ParsePhase phase) {
+        if (listener == null)
+            return 0;
+        listener.phaseStarted(phase);
+        return System.nanoTime();
+    }
+
+    /**
+     * Notifies a parse listener, if any, that a phase has finished
+     * 
+     * @param listener
+     *            Parse listener, may be {@code null}
+     * @param phase
+     *            Phase
+     * @param start
+     *            Start time returned by
+     *            {@link #phaseStarted(ParseListener, ParsePhase)}
+     */
+    public static void phaseFinished(ParseListener listener, ParsePhase phase, long start) {
+        if (listener == null)
+            return;
+        listener.phaseFinished(phase, System.nanoTime() - start);
+    }
+
     public static <T> T createInstance(Class<T> type) {
         if (type != null) {
             try {
@@ -52,13 +89,22 @@ public class ParserUtil {
     public static <T> T injectOptions(T commandInstance, Iterable<OptionMetadata> options,
             List<Map.Entry<OptionMetadata, Object>> parsedOptions, ArgumentsMetadata arguments,
             Iterable<Object> parsedArguments, Iterable<Accessor> metadataInjection, Map<Class<?>, Object> bindings) {
-        // inject options
-        for (OptionMetadata option : options) {
-            List<Object> values = new ArrayList<>();
+        // group parsed values by option in a single pass
+        Map<OptionMetadata, List<Object>> parsedValues = new HashMap<>();
+        if (parsedOptions != null) {
             for (Map.Entry<OptionMetadata, Object> parsedOption : parsedOptions) {
-                if (option.equals(parsedOption.getKey()))
-                    values.add(parsedOption.getValue());
+                List<Object> values = parsedValues.get(parsedOption.getKey());
+                if (values == null) {
+                    values = new ArrayList<>();
+                    parsedValues.put(parsedOption.getKey(), values);
+                }
+                values.add(parsedOption.getValue());
             }
+        }
+
+        // inject options
+        for (OptionMetadata option : options) {
+            List<Object> values = parsedValues.get(option);
             if (values != null && !values.isEmpty()) {
                 for (Accessor accessor : option.getAccessors()) {
                     accessor.addValues(commandInstance, values);
@@ -0,0 +1,176 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.utils.AirlineUtils;
+import com.github.rvesse.airline.utils.PersistentPrimitiveList;
+
+/**
+ * The immutable set of values of a {@link ParseState} that are held as
+ * primitives, i.e. values for options/arguments bound to {@code int[]},
+ * {@code long[]} or {@code double[]} fields
+ * <p>
+ * Commands rarely have more than a handful of such options so these are held
+ * in small arrays that are copied on each change, the values themselves are
+ * held in {@link PersistentPrimitiveList} instances so appending a value is
+ * still constant time. The position of each option value among all parsed
+ * option values is recorded alongside it so that parse order can be restored
+ * when the values are combined with those held as objects.
+ * </p>
+ */
+final class PrimitiveValues {
+
+    private static final PrimitiveValues EMPTY = new PrimitiveValues(new OptionMetadata[0],
+            new PersistentPrimitiveList[0], new PersistentPrimitiveList[0], 0, null);
+
+    private final OptionMetadata[] options;
+    private final PersistentPrimitiveList[] optionValues, optionPositions;
+    private final int optionCount;
+    private final PersistentPrimitiveList arguments;
+
+    private PrimitiveValues(OptionMetadata[] options, PersistentPrimitiveList[] optionValues,
+            PersistentPrimitiveList[] optionPositions, int optionCount, PersistentPrimitiveList arguments) {
+        this.options = options;
+        this.optionValues = optionValues;
+        this.optionPositions = optionPositions;
+        this.optionCount = optionCount;
+        this.arguments = arguments;
+    }
+
+    static PrimitiveValues empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets whether any option values are held
+     * 
+     * @return True if some option values are held, false otherwise
+     */
+    boolean hasOptions() {
+        return this.options.length > 0;
+    }
+
+    /**
+     * Gets the values for an option
+     * 
+     * @param option
+     *            Option
+     * @return Values, or {@code null} if none
+     */
+    PersistentPrimitiveList get(OptionMetadata option) {
+        int index = indexOf(option);
+        return index >= 0 ? this.optionValues[index] : null;
+    }
+
+    /**
+     * Returns new values with the values for the given option replaced by
+     * values that have had a single value appended
+     * 
+     * @param option
+     *            Option
+     * @param values
+     *            Values
+     * @param objectCount
+     *            Number of option values held as objects when the value was
+     *            parsed
+     * @return New values
+     */
+    PrimitiveValues withOption(OptionMetadata option, PersistentPrimitiveList values, int objectCount) {
+        int position = objectCount + this.optionCount;
+        int index = indexOf(option);
+        if (index < 0) {
+            index = this.options.length;
+            OptionMetadata[] options = Arrays.copyOf(this.options, index + 1);
+            options[index] = option;
+            PersistentPrimitiveList[] optionValues = Arrays.copyOf(this.optionValues, index + 1);
+            optionValues[index] = values;
+            PersistentPrimitiveList[] optionPositions = Arrays.copyOf(this.optionPositions, index + 1);
+            optionPositions[index] = PersistentPrimitiveList.empty(Integer.TYPE).appendInt(position);
+            return new PrimitiveValues(options, optionValues, optionPositions, this.optionCount + 1,
+                    this.arguments);
+        }
+
+        PersistentPrimitiveList[] optionValues = this.optionValues.clone();
+        optionValues[index] = values;
+        PersistentPrimitiveList[] optionPositions = this.optionPositions.clone();
+        optionPositions[index] = optionPositions[index].appendInt(position);
+        return new PrimitiveValues(this.options, optionValues, optionPositions, this.optionCount + 1,
+                this.arguments);
+    }
+
+    /**
+     * Gets the argument values
+     * 
+     * @return Values, or {@code null} if none
+     */
+    PersistentPrimitiveList getArguments() {
+        return this.arguments;
+    }
+
+    /**
+     * Returns new values with the argument values replaced
+     * 
+     * @param values
+     *            Values
+     * @return New values
+     */
+    PrimitiveValues withArguments(PersistentPrimitiveList values) {
+        return new PrimitiveValues(this.options, this.optionValues, this.optionPositions, this.optionCount,
+                values);
+    }
+
+    /**
+     * Merges boxed entries for every option value with the option values held
+     * as objects, preserving the order in which the values were parsed
+     * 
+     * @param objectOptions
+     *            Option values held as objects, in parse order
+     * @return Merged option values
+     */
+    List<Map.Entry<OptionMetadata, Object>> mergeOptions(List<Map.Entry<OptionMetadata, Object>> objectOptions) {
+        List<Map.Entry<OptionMetadata, Object>> merged = new ArrayList<>(
+                Collections.<Map.Entry<OptionMetadata, Object>> nCopies(objectOptions.size() + this.optionCount, null));
+        for (int i = 0; i < this.options.length; i++) {
+            int[] positions = (int[]) this.optionPositions[i].toPrimitiveArray();
+            for (int j = 0; j < positions.length; j++) {
+                merged.set(positions[j], AirlineUtils.pairOf(this.options[i], this.optionValues[i].get(j)));
+            }
+        }
+        int next = 0;
+        for (Map.Entry<OptionMetadata, Object> option : objectOptions) {
+            while (merged.get(next) != null) {
+                next++;
+            }
+            merged.set(next++, option);
+        }
+        return merged;
+    }
+
+    private int indexOf(OptionMetadata option) {
+        for (int i = 0; i < this.options.length; i++) {
+            if (this.options[i] == option || this.options[i].equals(option))
+                return i;
+        }
+        return -1;
+    }
+}
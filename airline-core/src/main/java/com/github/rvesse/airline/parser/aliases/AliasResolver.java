@@ -21,7 +21,6 @@ import java.util.Set;
 import java.util.TreeSet;
 
 import com.github.rvesse.airline.utils.CollectionUtils;
-import com.github.rvesse.airline.utils.Predicate;
 import com.github.rvesse.airline.utils.PeekingIterator;
 
 import com.github.rvesse.airline.model.AliasMetadata;
@@ -32,8 +31,6 @@ import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseAliasCircularReferenceException;
 import com.github.rvesse.airline.utils.predicates.parser.AliasFinder;
-import com.github.rvesse.airline.utils.predicates.parser.CommandFinder;
-import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 
 /**
  * Resolves aliases
@@ -44,8 +41,6 @@ import com.github.rvesse.airline.utils.predicates.parser.GroupFinder;
 public class AliasResolver<T> extends AbstractParser<T> {
 
     public PeekingIterator<String> resolveAliases(PeekingIterator<String> tokens, ParseState<T> state) {
-        Predicate<? super CommandGroupMetadata> findGroupPredicate;
-        Predicate<? super CommandMetadata> findCommandPredicate;
 
         // Nothing to do if no further tokens
         if (!tokens.hasNext())
@@ -81,10 +76,8 @@ public class AliasResolver<T> extends AbstractParser<T> {
                 // would take precedence
                 if (state.getGlobal() != null) {
                     GlobalMetadata<T> metadata = state.getGlobal();
-                    findGroupPredicate = new GroupFinder(tokens.peek());
-                    findCommandPredicate = new CommandFinder(tokens.peek());
-                    if (CollectionUtils.find(metadata.getCommandGroups(), findGroupPredicate) != null
-                            || CollectionUtils.find(metadata.getDefaultGroupCommands(), findCommandPredicate) != null)
+                    if (metadata.findCommandGroup(tokens.peek(), false) != null
+                            || metadata.findDefaultGroupCommand(tokens.peek(), false) != null)
                         return tokens;
                 }
             }
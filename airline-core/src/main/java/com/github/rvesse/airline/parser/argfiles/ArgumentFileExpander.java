@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.argfiles;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+
+/**
+ * Expands argument file references in a sequence of arguments
+ * <p>
+ * Any argument starting with the configured prefix, e.g. {@code @args.txt}, is
+ * replaced by the arguments read from the referenced file. Arguments are
+ * streamed from the file as they are consumed so even very large argument
+ * files are parsed with constant memory. Arguments read from a file are not
+ * themselves expanded. An argument starting with the prefix repeated twice is
+ * passed through with a single prefix so that literal arguments beginning with
+ * the prefix can still be given.
+ * </p>
+ * <p>
+ * If a file cannot be read a {@link ParseArgumentFileException} is thrown and
+ * the rest of that file is skipped, iteration may continue with the remaining
+ * arguments.
+ * </p>
+ */
+public class ArgumentFileExpander implements Iterator<String>, Closeable {
+
+    private final Iterator<String> args;
+    private final String prefix;
+    private final ArgumentFileFormat format;
+    private ArgumentFileTokenizer current;
+    private String next;
+
+    /**
+     * Creates a new expander
+     * 
+     * @param args
+     *            Arguments
+     * @param prefix
+     *            Prefix that denotes an argument file reference
+     * @param format
+     *            Format of argument files
+     */
+    public ArgumentFileExpander(Iterator<String> args, String prefix, ArgumentFileFormat format) {
+        if (args == null)
+            throw new NullPointerException("args cannot be null");
+        if (prefix == null || prefix.isEmpty())
+            throw new IllegalArgumentException("prefix cannot be null/empty");
+        this.args = args;
+        this.prefix = prefix;
+        this.format = format;
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (this.next == null) {
+            if (this.current != null) {
+                try {
+                    if (this.current.hasNext()) {
+                        this.next = this.current.next();
+                        break;
+                    }
+                } catch (ParseArgumentFileException e) {
+                    // Abandon the rest of a file we can't read so that
+                    // expansion can continue with the next argument
+                    closeQuietly();
+                    throw e;
+                }
+                this.current = null;
+            }
+            if (!this.args.hasNext())
+                return false;
+
+            String arg = this.args.next();
+            if (arg.startsWith(this.prefix) && arg.length() > this.prefix.length()) {
+                String reference = arg.substring(this.prefix.length());
+                if (reference.startsWith(this.prefix)) {
+                    // Escaped prefix
+                    this.next = reference;
+                } else {
+                    this.current = ArgumentFileTokenizer.open(new File(reference), this.format);
+                }
+            } else {
+                this.next = arg;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        String arg = this.next;
+        this.next = null;
+        return arg;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // Ignore, we have finished with the file anyway
+            this.current = null;
+        }
+    }
+
+    /**
+     * Closes any argument file that is still being read
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.current != null) {
+            this.current.close();
+            this.current = null;
+        }
+    }
+}
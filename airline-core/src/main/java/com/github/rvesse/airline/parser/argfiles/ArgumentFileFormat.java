@@ -0,0 +1,34 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.argfiles;
+
+/**
+ * Formats of argument files
+ */
+public enum ArgumentFileFormat {
+    /**
+     * Arguments are separated by white space and may be quoted and escaped
+     * following the same rules as alias definitions, so line breaks are
+     * treated like any other white space
+     */
+    QUOTED,
+    /**
+     * Arguments are separated by NUL characters and are otherwise taken
+     * literally, this is the format produced by tools such as
+     * {@code find -print0}
+     */
+    NUL_SEPARATED
+}
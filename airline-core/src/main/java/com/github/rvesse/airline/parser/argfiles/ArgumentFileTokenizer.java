@@ -0,0 +1,222 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.argfiles;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+
+/**
+ * Lazily reads the arguments from an argument file
+ * <p>
+ * Arguments are read one at a time as they are requested so only the argument
+ * currently being read is ever held in memory. Files of at least
+ * {@link #MAPPED_THRESHOLD} bytes are memory mapped rather than read through a
+ * buffered stream. Files must be encoded in UTF-8.
+ * </p>
+ */
+public class ArgumentFileTokenizer implements Iterator<String>, Closeable {
+
+    /**
+     * Size in bytes at or above which files are memory mapped
+     */
+    public static final long MAPPED_THRESHOLD = 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int EOF = -1;
+
+    /**
+     * Opens an argument file
+     * 
+     * @param file
+     *            File
+     * @param format
+     *            Format of the file
+     * @return Tokenizer
+     * @throws ParseArgumentFileException
+     *             Thrown if the file cannot be opened
+     */
+    public static ArgumentFileTokenizer open(File file, ArgumentFileFormat format) {
+        try {
+            Reader reader;
+            if (file.isFile() && file.length() >= MAPPED_THRESHOLD) {
+                reader = new MappedFileReader(file);
+            } else {
+                reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+            }
+            return new ArgumentFileTokenizer(file.getPath(), reader, format);
+        } catch (IOException e) {
+            throw new ParseArgumentFileException(file.getPath(), e, "Unable to read argument file %s: %s",
+                    file.getPath(), e.getMessage());
+        }
+    }
+
+    private final String name;
+    private final Reader reader;
+    private final ArgumentFileFormat format;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0, limit = 0;
+    private String next;
+    private boolean finished = false;
+
+    /**
+     * Creates a new tokenizer
+     * 
+     * @param name
+     *            Name of the argument file used in error messages
+     * @param reader
+     *            Reader over the contents of the file
+     * @param format
+     *            Format of the file
+     */
+    public ArgumentFileTokenizer(String name, Reader reader, ArgumentFileFormat format) {
+        if (reader == null)
+            throw new NullPointerException("reader cannot be null");
+        this.name = name;
+        this.reader = reader;
+        this.format = format != null ? format : ArgumentFileFormat.QUOTED;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next == null && !this.finished) {
+            try {
+                this.next = this.format == ArgumentFileFormat.NUL_SEPARATED ? readNulSeparated() : readQuoted();
+            } catch (IOException e) {
+                closeQuietly();
+                throw new ParseArgumentFileException(this.name, e, "Unable to read argument file %s: %s",
+                        this.name, e.getMessage());
+            }
+            if (this.next == null) {
+                this.finished = true;
+                closeQuietly();
+            }
+        }
+        return this.next != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        String arg = this.next;
+        this.next = null;
+        return arg;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.finished = true;
+        this.next = null;
+        this.reader.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+
+    private int read() throws IOException {
+        if (this.position == this.limit) {
+            int read;
+            do {
+                read = this.reader.read(this.buffer, 0, this.buffer.length);
+            } while (read == 0);
+            if (read == EOF)
+                return EOF;
+            this.position = 0;
+            this.limit = read;
+        }
+        return this.buffer[this.position++];
+    }
+
+    private int peek() throws IOException {
+        int c = read();
+        if (c != EOF)
+            this.position--;
+        return c;
+    }
+
+    private String readNulSeparated() throws IOException {
+        int c = read();
+        if (c == EOF)
+            return null;
+        StringBuilder arg = new StringBuilder();
+        while (c != EOF && c != '\0') {
+            arg.append((char) c);
+            c = read();
+        }
+        return arg.toString();
+    }
+
+    /**
+     * Reads an argument following the same rules as
+     * {@link com.github.rvesse.airline.parser.aliases.AliasArgumentsParser}
+     */
+    private String readQuoted() throws IOException {
+        // Skip separating white space
+        int c;
+        do {
+            c = read();
+        } while (c != EOF && Character.isWhitespace(c));
+        if (c == EOF)
+            return null;
+
+        StringBuilder arg = new StringBuilder();
+        if (c == '"') {
+            // Quoted argument, read to the closing quote
+            while (true) {
+                c = read();
+                if (c == EOF)
+                    throw new ParseArgumentFileException(this.name, "Mismatched quotes in argument file %s",
+                            this.name);
+                if (c == '"')
+                    return arg.toString();
+                if (c == '\\' && peek() == '"')
+                    c = read();
+                arg.append((char) c);
+            }
+        }
+
+        // Unquoted argument, read to the next unescaped white space
+        while (c != EOF && !Character.isWhitespace(c)) {
+            if (c == '\\') {
+                int next = peek();
+                if (next != EOF && Character.isWhitespace(next))
+                    c = read();
+            }
+            arg.append((char) c);
+            c = read();
+        }
+        return arg.toString();
+    }
+}
@@ -0,0 +1,133 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.argfiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A reader which decodes a UTF-8 file by memory mapping it a window at a time
+ * <p>
+ * Only a single window is mapped at any time so arbitrarily large files can be
+ * read without reading them onto the heap.
+ * </p>
+ */
+class MappedFileReader extends Reader {
+
+    /**
+     * Size of the window that is mapped at any one time
+     */
+    static final int WINDOW_SIZE = 64 * 1024 * 1024;
+
+    /**
+     * Maximum number of bytes in a single UTF-8 encoded character, windows are
+     * never smaller than this so that each window always makes progress
+     */
+    private static final int MAX_CHAR_BYTES = 4;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT).onUnmappableCharacter(CodingErrorAction.REPORT);
+    private MappedByteBuffer window;
+    private long windowStart;
+    private boolean flushed = false;
+    private char pending;
+    private boolean hasPending = false;
+
+    MappedFileReader(File file) throws IOException {
+        this(file, WINDOW_SIZE);
+    }
+
+    MappedFileReader(File file, int windowSize) throws IOException {
+        this.file = new RandomAccessFile(file, "r");
+        this.channel = this.file.getChannel();
+        this.size = this.channel.size();
+        this.windowSize = windowSize;
+        map(0);
+    }
+
+    private void map(long position) throws IOException {
+        this.windowStart = position;
+        this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(Math.max(this.windowSize, MAX_CHAR_BYTES), this.size - position));
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0)
+            return 0;
+        if (this.hasPending) {
+            cbuf[off] = this.pending;
+            this.hasPending = false;
+            return 1;
+        }
+        if (this.flushed)
+            return -1;
+
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        while (true) {
+            boolean last = this.windowStart + this.window.limit() >= this.size;
+            CoderResult result = this.decoder.decode(this.window, out, last);
+            if (result.isError())
+                result.throwException();
+            int produced = out.position() - off;
+            if (produced > 0)
+                return produced;
+            if (result.isOverflow()) {
+                // Only one char requested but the next character is a
+                // surrogate pair, hand out the pair one char at a time
+                CharBuffer pair = CharBuffer.allocate(2);
+                result = this.decoder.decode(this.window, pair, last);
+                if (result.isError())
+                    result.throwException();
+                pair.flip();
+                cbuf[off] = pair.get();
+                this.pending = pair.get();
+                this.hasPending = true;
+                return 1;
+            }
+
+            if (last) {
+                this.decoder.flush(out);
+                this.flushed = true;
+                produced = out.position() - off;
+                return produced > 0 ? produced : -1;
+            }
+
+            // Window exhausted, any bytes of a partial character left in it
+            // are re-read as the start of the next window
+            map(this.windowStart + this.window.position());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.window = null;
+        this.file.close();
+    }
+}
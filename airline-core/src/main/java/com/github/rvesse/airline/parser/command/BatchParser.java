@@ -0,0 +1,262 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.command;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.github.rvesse.airline.parser.ParseResult;
+
+/**
+ * Parses batches of command lines in parallel on a {@link ForkJoinPool}
+ * <p>
+ * Parsing only reads the shared meta-data so many command lines can be parsed
+ * at once. Results are always returned in the same order as the command lines
+ * were given, regardless of the order in which they were parsed. If parsing a
+ * command line throws an error, e.g. because the parser is configured with an
+ * error handler that throws, then that error is rethrown when the result for
+ * that command line is reached. Use an error handler that collects errors,
+ * such as {@code CollectAll}, to receive every result instead.
+ * </p>
+ * 
+ * @param <T>
+ *            Command type
+ */
+public abstract class BatchParser<T> {
+
+    /**
+     * Default number of command lines read from the input and parsed together
+     * when streaming results
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    /**
+     * Number of command lines below which a chunk is parsed sequentially
+     * rather than being split further
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 32;
+
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+
+    /**
+     * Creates a new batch parser
+     * 
+     * @param pool
+     *            Pool to parse on
+     * @param chunkSize
+     *            Number of command lines to parse together when streaming
+     *            results
+     */
+    protected BatchParser(ForkJoinPool pool, int chunkSize) {
+        if (pool == null)
+            throw new NullPointerException("pool cannot be null");
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Gets the shared pool used when no pool is explicitly given, it has as
+     * many threads as there are available processors
+     * 
+     * @return Default pool
+     */
+    public static ForkJoinPool defaultPool() {
+        return DefaultPool.POOL;
+    }
+
+    /**
+     * Parses a single command line
+     * 
+     * @param args
+     *            Arguments
+     * @return Parse result
+     */
+    protected abstract ParseResult<T> parse(String[] args);
+
+    /**
+     * Parses all the given command lines
+     * 
+     * @param commandLines
+     *            Command lines
+     * @return Results in the same order as the command lines
+     */
+    public List<ParseResult<T>> parseAll(Iterable<String[]> commandLines) {
+        if (commandLines == null)
+            throw new NullPointerException("commandLines cannot be null");
+
+        List<String[]> lines = new ArrayList<>();
+        for (String[] line : commandLines) {
+            lines.add(line);
+        }
+        Chunk chunk = new Chunk(lines.toArray(new String[lines.size()][]));
+        this.pool.invoke(chunk.task);
+        chunk.rethrowFirstFailure();
+        return Collections.unmodifiableList(chunk.results);
+    }
+
+    /**
+     * Parses the given command lines incrementally
+     * <p>
+     * Command lines are read from the input a chunk at a time and each chunk is
+     * parsed in parallel while the results of the previous chunk are consumed,
+     * so arbitrarily many command lines may be processed without holding them
+     * all in memory. The input is only ever read from the thread consuming the
+     * results.
+     * </p>
+     * 
+     * @param commandLines
+     *            Command lines
+     * @return Results in the same order as the command lines
+     */
+    public Iterator<ParseResult<T>> parseEach(Iterable<String[]> commandLines) {
+        if (commandLines == null)
+            throw new NullPointerException("commandLines cannot be null");
+        return new ResultIterator(commandLines.iterator());
+    }
+
+    /**
+     * A chunk of command lines and their results
+     */
+    private final class Chunk {
+        private final String[][] lines;
+        private final List<ParseResult<T>> results;
+        private final RuntimeException[] failures;
+        private final ForkJoinTask<Void> task;
+
+        private Chunk(String[][] lines) {
+            this.lines = lines;
+            // Pre-sized so tasks can set their own slots without resizing
+            this.results = new ArrayList<ParseResult<T>>(Collections.<ParseResult<T>> nCopies(lines.length, null));
+            this.failures = new RuntimeException[lines.length];
+            this.task = new ParseTask(0, lines.length);
+        }
+
+        private int size() {
+            return this.lines.length;
+        }
+
+        private ParseResult<T> result(int index) {
+            if (this.failures[index] != null)
+                throw this.failures[index];
+            return this.results.get(index);
+        }
+
+        private void rethrowFirstFailure() {
+            for (RuntimeException failure : this.failures) {
+                if (failure != null)
+                    throw failure;
+            }
+        }
+
+        /**
+         * Recursively splits a range of the chunk until it is small enough to
+         * parse sequentially
+         */
+        private final class ParseTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final int start, end;
+
+            private ParseTask(int start, int end) {
+                this.start = start;
+                this.end = end;
+            }
+
+            @Override
+            protected void compute() {
+                if (this.end - this.start <= SEQUENTIAL_THRESHOLD) {
+                    for (int i = this.start; i < this.end; i++) {
+                        try {
+                            results.set(i, parse(lines[i]));
+                        } catch (RuntimeException e) {
+                            // Recorded so that it is surfaced in order
+                            failures[i] = e;
+                        }
+                    }
+                } else {
+                    int middle = (this.start + this.end) >>> 1;
+                    invokeAll(new ParseTask(this.start, middle), new ParseTask(middle, this.end));
+                }
+            }
+        }
+    }
+
+    /**
+     * Iterator which parses one chunk ahead of the results being consumed
+     */
+    private final class ResultIterator implements Iterator<ParseResult<T>> {
+        private final Iterator<String[]> input;
+        private Chunk current, pending;
+        private int index = 0;
+
+        private ResultIterator(Iterator<String[]> input) {
+            this.input = input;
+            this.pending = submitNext();
+        }
+
+        private Chunk submitNext() {
+            if (!this.input.hasNext())
+                return null;
+            List<String[]> lines = new ArrayList<>();
+            while (lines.size() < chunkSize && this.input.hasNext()) {
+                lines.add(this.input.next());
+            }
+            Chunk chunk = new Chunk(lines.toArray(new String[lines.size()][]));
+            pool.execute(chunk.task);
+            return chunk;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (this.current != null && this.index < this.current.size())
+                return true;
+            if (this.pending == null)
+                return false;
+
+            // Move onto the next chunk and start parsing the one after it
+            this.current = this.pending;
+            this.current.task.join();
+            this.index = 0;
+            this.pending = submitNext();
+            return true;
+        }
+
+        @Override
+        public ParseResult<T> next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            return this.current.result(this.index++);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    private static final class DefaultPool {
+        private static final ForkJoinPool POOL = new ForkJoinPool();
+    }
+}
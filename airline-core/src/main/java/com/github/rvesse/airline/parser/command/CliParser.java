@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.parser.command;
 
+import static com.github.rvesse.airline.parser.ParserUtil.phaseFinished;
+import static com.github.rvesse.airline.parser.ParserUtil.phaseStarted;
+
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.CommandMetadata;
 import com.github.rvesse.airline.model.GlobalMetadata;
@@ -23,6 +26,8 @@ import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
+import com.github.rvesse.airline.parser.listeners.ParsePhase;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
@@ -33,20 +38,37 @@ public class CliParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args cannot be null");
 
-        ParseState<T> state = tryParse(metadata, args);
+        boolean stackTraces = ParseException
+                .setStackTracesEnabled(metadata.getParserConfiguration().capturesErrorStackTraces());
+        ParseState<T> state = null;
+        try {
+            state = tryParse(metadata, args);
 
-        // If we did not find a command choose the appropriate default command
-        // (if any)
-        if (state.getCommand() == null) {
-            if (state.getGroup() != null) {
-                state = state.withCommand(state.getGroup().getDefaultCommand());
-            } else {
-                state = state.withCommand(metadata.getDefaultCommand());
+            // If we did not find a command choose the appropriate default
+            // command (if any)
+            if (state.getCommand() == null) {
+                if (state.getGroup() != null) {
+                    state = state.withCommand(state.getGroup().getDefaultCommand());
+                } else {
+                    state = state.withCommand(metadata.getDefaultCommand());
+                }
             }
-        }
 
-        validate(state);
-        return metadata.getParserConfiguration().getErrorHandler().finished(state);
+            ParseListener listener = metadata.getParserConfiguration().getParseListener();
+            long start = phaseStarted(listener, ParsePhase.VALIDATION);
+            validate(state);
+            phaseFinished(listener, ParsePhase.VALIDATION, start);
+            ParseResult<T> result = metadata.getParserConfiguration().getErrorHandler().finished(state);
+            if (!result.wasSuccessful())
+                closeArgumentFiles(state);
+            return result;
+        } catch (RuntimeException | Error e) {
+            closeArgumentFiles(state);
+            parseAborted(metadata.getParserConfiguration());
+            throw e;
+        } finally {
+            ParseException.setStackTracesEnabled(stackTraces);
+        }
     }
 
     public T parse(GlobalMetadata<T> metadata, Iterable<String> args) {
@@ -79,8 +101,10 @@ public class CliParser<T> extends AbstractCommandParser<T> {
         if (command != null) {
 
             // Argument restrictions
+            // When arguments are streamed these are deferred until the end
+            // of the stream is reached
             ArgumentsMetadata arguments = command.getArguments();
-            if (arguments != null) {
+            if (arguments != null && !state.isStreamingArguments()) {
                 for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
                     if (restriction == null)
                         continue;
@@ -15,6 +15,9 @@
  */
 package com.github.rvesse.airline.parser.command;
 
+import static com.github.rvesse.airline.parser.ParserUtil.phaseFinished;
+import static com.github.rvesse.airline.parser.ParserUtil.phaseStarted;
+
 import java.util.List;
 
 import com.github.rvesse.airline.utils.IteratorUtils;
@@ -27,6 +30,8 @@ import com.github.rvesse.airline.parser.AbstractCommandParser;
 import com.github.rvesse.airline.parser.ParseResult;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
+import com.github.rvesse.airline.parser.listeners.ParsePhase;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
@@ -38,11 +43,26 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         if (args == null)
             throw new NullPointerException("args is null");
 
-        ParseState<T> state = tryParse(parserConfig, commandMetadata, args);
-        validate(state, IteratorUtils.toList(restrictions.iterator()));
-
-        return state.getParserConfiguration().getErrorHandler().finished(state);
+        boolean stackTraces = ParseException.setStackTracesEnabled(parserConfig.capturesErrorStackTraces());
+        ParseState<T> state = null;
+        try {
+            state = tryParse(parserConfig, commandMetadata, args);
+            ParseListener listener = parserConfig.getParseListener();
+            long start = phaseStarted(listener, ParsePhase.VALIDATION);
+            validate(state, IteratorUtils.toList(restrictions.iterator()));
+            phaseFinished(listener, ParsePhase.VALIDATION, start);
 
+            ParseResult<T> result = parserConfig.getErrorHandler().finished(state);
+            if (!result.wasSuccessful())
+                closeArgumentFiles(state);
+            return result;
+        } catch (RuntimeException | Error e) {
+            closeArgumentFiles(state);
+            parseAborted(parserConfig);
+            throw e;
+        } finally {
+            ParseException.setStackTracesEnabled(stackTraces);
+        }
     }
 
     public T parse(ParserMetadata<T> parserConfig, CommandMetadata commandMetadata,
@@ -75,8 +95,10 @@ public class SingleCommandParser<T> extends AbstractCommandParser<T> {
         CommandMetadata command = state.getCommand();
         if (command != null) {
             // Arguments restrictions
+            // When arguments are streamed these are deferred until the end
+            // of the stream is reached
             ArgumentsMetadata arguments = command.getArguments();
-            if (arguments != null) {
+            if (arguments != null && !state.isStreamingArguments()) {
                 for (ArgumentsRestriction restriction : arguments.getRestrictions()) {
                     if (restriction == null)
                         continue;
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.List;
+
+/**
+ * Helper for formatting "did you mean" hints in error messages
+ */
+final class DidYouMean {
+
+    private DidYouMean() {
+    }
+
+    /**
+     * Formats a hint for the given suggestions
+     * 
+     * @param suggestions
+     *            Suggestions
+     * @return Hint to append to an error message, empty if there are no
+     *         suggestions
+     */
+    static String hint(List<String> suggestions) {
+        if (suggestions == null || suggestions.isEmpty())
+            return "";
+
+        StringBuilder builder = new StringBuilder();
+        builder.append(suggestions.size() == 1 ? ", did you mean " : ", did you mean one of ");
+        for (int i = 0; i < suggestions.size(); i++) {
+            if (i > 0)
+                builder.append(", ");
+            builder.append('\'').append(suggestions.get(i)).append('\'');
+        }
+        return builder.append('?').toString();
+    }
+}
@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+/**
+ * Parser exception that indicates that an argument file could not be read
+ */
+public class ParseArgumentFileException extends ParseException {
+    private static final long serialVersionUID = 4302562270981372095L;
+
+    private final String file;
+
+    public ParseArgumentFileException(String file, String string, Object... args) {
+        super(string, args);
+        this.file = file;
+    }
+
+    public ParseArgumentFileException(String file, Exception cause, String message, Object... args) {
+        super(cause, message, args);
+        this.file = file;
+    }
+
+    /**
+     * Gets the argument file that could not be read
+     * 
+     * @return Argument file
+     */
+    public String getFile() {
+        return file;
+    }
+}
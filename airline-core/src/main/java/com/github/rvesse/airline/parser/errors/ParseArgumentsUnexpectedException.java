@@ -17,6 +17,7 @@ package com.github.rvesse.airline.parser.errors;
 
 import com.github.rvesse.airline.utils.AirlineUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -27,13 +28,37 @@ public class ParseArgumentsUnexpectedException extends ParseRestrictionViolatedE
     private static final long serialVersionUID = -3146629773738933406L;
     
     private final List<String> unparsedInput;
+    private final List<String> suggestions;
 
     public ParseArgumentsUnexpectedException(List<String> unparsedInput) {
-        super("Found unexpected parameters: %s", unparsedInput);
+        this(unparsedInput, Collections.<String> emptyList());
+    }
+
+    /**
+     * Creates a new exception
+     * 
+     * @param unparsedInput
+     *            Unparsed input
+     * @param suggestions
+     *            Names of options that the user may have meant where the
+     *            unparsed input includes an unrecognized option
+     */
+    public ParseArgumentsUnexpectedException(List<String> unparsedInput, List<String> suggestions) {
+        super("Found unexpected parameters: %s%s", unparsedInput, DidYouMean.hint(suggestions));
         this.unparsedInput = AirlineUtils.unmodifiableListCopy(unparsedInput);
+        this.suggestions = AirlineUtils.unmodifiableListCopy(suggestions);
     }
 
     public List<String> getUnparsedInput() {
         return unparsedInput;
     }
+
+    /**
+     * Gets the names of options that the user may have meant
+     * 
+     * @return Suggestions, empty if there are no close matches
+     */
+    public List<String> getSuggestions() {
+        return suggestions;
+    }
 }
@@ -17,6 +17,7 @@ package com.github.rvesse.airline.parser.errors;
 
 import com.github.rvesse.airline.utils.AirlineUtils;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -28,15 +29,41 @@ public class ParseCommandUnrecognizedException extends ParseRestrictionViolatedE
     private static final long serialVersionUID = 7580940207857781141L;
     
     private final List<String> unparsedInput;
+    private final List<String> suggestions;
 
     public ParseCommandUnrecognizedException(List<String> unparsedInput)
     {
-        super("Command '%s' not recognized", unparsedInput.get(0));
+        this(unparsedInput, Collections.<String> emptyList());
+    }
+
+    /**
+     * Creates a new exception
+     * 
+     * @param unparsedInput
+     *            Unparsed input, the first item of which is the unrecognized
+     *            command
+     * @param suggestions
+     *            Names of commands or groups that the user may have meant
+     */
+    public ParseCommandUnrecognizedException(List<String> unparsedInput, List<String> suggestions)
+    {
+        super("Command '%s' not recognized%s", unparsedInput.get(0), DidYouMean.hint(suggestions));
         this.unparsedInput = AirlineUtils.unmodifiableListCopy(unparsedInput);
+        this.suggestions = AirlineUtils.unmodifiableListCopy(suggestions);
     }
 
     public List<String> getUnparsedInput()
     {
         return unparsedInput;
     }
+
+    /**
+     * Gets the names of commands or groups that the user may have meant
+     * 
+     * @return Suggestions, empty if there are no close matches
+     */
+    public List<String> getSuggestions()
+    {
+        return suggestions;
+    }
 }
@@ -23,6 +23,12 @@ public class ParseException extends RuntimeException
 {
     private static final long serialVersionUID = 3772132549207742875L;
 
+    /**
+     * Whether exceptions created on the current thread capture stack traces,
+     * {@code null} is treated as true
+     */
+    private static final ThreadLocal<Boolean> STACK_TRACES = new ThreadLocal<>();
+
     public ParseException(String string, Object... args)
     {
         super(String.format(string, args));
@@ -32,4 +38,46 @@ public class ParseException extends RuntimeException
     {
         super(String.format(string, args), cause);
     }
+
+    /**
+     * Sets whether parse exceptions created on the current thread capture
+     * stack traces
+     * <p>
+     * Parsers apply the setting from their configuration for the duration of
+     * each parse, see
+     * {@link com.github.rvesse.airline.model.ParserMetadata#capturesErrorStackTraces()}
+     * </p>
+     * 
+     * @param enabled
+     *            Whether stack traces are captured
+     * @return Previous setting so that the caller can restore it
+     */
+    public static boolean setStackTracesEnabled(boolean enabled) {
+        boolean previous = isStackTracesEnabled();
+        if (enabled) {
+            STACK_TRACES.remove();
+        } else {
+            STACK_TRACES.set(Boolean.FALSE);
+        }
+        return previous;
+    }
+
+    /**
+     * Gets whether parse exceptions created on the current thread capture
+     * stack traces
+     * 
+     * @return True if stack traces are captured, false otherwise
+     */
+    public static boolean isStackTracesEnabled() {
+        return STACK_TRACES.get() == null;
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        // Walking the stack is by far the most expensive part of creating an
+        // exception so skip it entirely when disabled
+        if (!isStackTracesEnabled())
+            return this;
+        return super.fillInStackTrace();
+    }
 }
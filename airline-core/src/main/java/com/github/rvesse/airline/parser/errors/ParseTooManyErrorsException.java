@@ -0,0 +1,41 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+/**
+ * Error recorded when an error handler stops a parse because it has collected
+ * the maximum number of errors it was configured to collect
+ */
+public class ParseTooManyErrorsException extends ParseException {
+    private static final long serialVersionUID = -2870375734658424471L;
+
+    private final int limit;
+
+    public ParseTooManyErrorsException(int limit) {
+        super("Parsing stopped after encountering %d errors", limit);
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the maximum number of errors that were collected before parsing
+     * stopped
+     * 
+     * @return Error limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+}
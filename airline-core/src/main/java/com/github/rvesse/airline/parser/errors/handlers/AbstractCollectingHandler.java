@@ -15,30 +15,181 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseTooManyErrorsException;
 
+/**
+ * Abstract error handler which collects errors for processing once parsing
+ * has finished
+ * <p>
+ * Errors are collected per thread so that a single parser configuration, and
+ * thus a single handler instance, may be safely used to carry out many
+ * concurrent parses. A parse always runs to completion on the thread that
+ * started it so the collection for the current thread holds exactly the errors
+ * for the parse in progress. Implementations should call
+ * {@link #resetCollection()} once they have finished with the collected errors
+ * so that they are not seen by a subsequent parse on the same thread.
+ * </p>
+ * <p>
+ * A handler may be limited to collecting a maximum number of errors, once the
+ * limit is reached a {@link ParseTooManyErrorsException} is recorded, parsing
+ * stops consuming further input and any subsequent errors are discarded. This
+ * bounds the work done for input that contains very many errors, e.g.
+ * untrusted or generated input.
+ * </p>
+ */
 public abstract class AbstractCollectingHandler implements ParserErrorHandler {
 
-    protected List<ParseException> errors = new ArrayList<>();
+    /**
+     * Value for the maximum number of errors indicating that errors are not
+     * limited
+     */
+    public static final int UNLIMITED = 0;
+
+    private final ThreadLocal<List<ParseException>> collections = new ThreadLocal<>();
+    private final int maxErrors;
+
+    /**
+     * The errors collected for the parse in progress on the current thread
+     * <p>
+     * This is a live view of the per-thread collection retained for
+     * compatibility with handlers written before errors were collected per
+     * thread. Reading and modifying it affects the collection for the current
+     * thread but assigning a different list to it has no effect on the errors
+     * the handler collects.
+     * </p>
+     * 
+     * @deprecated Use {@link #getCollection()} and {@link #resetCollection()}
+     *             instead
+     */
+    @Deprecated
+    protected List<ParseException> errors = new CurrentThreadErrors();
 
     public AbstractCollectingHandler() {
-        super();
+        this(UNLIMITED);
+    }
+
+    /**
+     * Creates a handler that stops parsing once the given number of errors
+     * have been collected
+     * 
+     * @param maxErrors
+     *            Maximum number of errors to collect, {@link #UNLIMITED} to
+     *            collect all errors
+     */
+    public AbstractCollectingHandler(int maxErrors) {
+        if (maxErrors < 0)
+            throw new IllegalArgumentException("maxErrors cannot be negative");
+        this.maxErrors = maxErrors;
     }
 
     @Override
     public void handleError(ParseException e) {
-        this.errors.add(e);
+        List<ParseException> errors = getOrCreateCollection();
+        if (this.maxErrors == UNLIMITED) {
+            errors.add(e);
+        } else if (errors.size() < this.maxErrors) {
+            errors.add(e);
+            if (errors.size() == this.maxErrors)
+                errors.add(new ParseTooManyErrorsException(this.maxErrors));
+        }
     }
 
+    /**
+     * Gets the maximum number of errors collected before parsing is stopped
+     * 
+     * @return Maximum errors, {@link #UNLIMITED} if errors are not limited
+     */
+    public int getMaxErrors() {
+        return this.maxErrors;
+    }
+
+    /**
+     * Gets whether the parse in progress on the current thread has reached
+     * the error limit and so should consume no further input
+     * 
+     * @return True if the limit has been reached, false otherwise
+     */
+    public boolean isLimitReached() {
+        return this.maxErrors != UNLIMITED && getCollection().size() > this.maxErrors;
+    }
+
+    /**
+     * Gets the errors collected for the parse in progress on the current thread
+     * 
+     * @return Collected errors
+     */
     protected List<ParseException> getCollection() {
-        return this.errors;
+        List<ParseException> errors = this.collections.get();
+        return errors != null ? errors : Collections.<ParseException> emptyList();
+    }
+
+    private List<ParseException> getOrCreateCollection() {
+        List<ParseException> errors = this.collections.get();
+        if (errors == null) {
+            errors = new ArrayList<>();
+            this.collections.set(errors);
+        }
+        return errors;
+    }
+
+    /**
+     * Discards the errors collected for the parse in progress on the current
+     * thread, called by the parser when a parse ends abnormally so that the
+     * errors are not seen by a subsequent parse on the same thread
+     */
+    public final void reset() {
+        resetCollection();
     }
 
+    /**
+     * Discards the errors collected for the parse in progress on the current
+     * thread
+     */
     protected void resetCollection() {
-        this.errors = new ArrayList<>();
+        this.collections.remove();
+    }
+
+    /**
+     * View of the collection for the current thread, backs the deprecated
+     * {@link AbstractCollectingHandler#errors} field
+     */
+    private final class CurrentThreadErrors extends AbstractList<ParseException> {
+
+        @Override
+        public ParseException get(int index) {
+            return getCollection().get(index);
+        }
+
+        @Override
+        public int size() {
+            return getCollection().size();
+        }
+
+        @Override
+        public ParseException set(int index, ParseException element) {
+            return getOrCreateCollection().set(index, element);
+        }
+
+        @Override
+        public void add(int index, ParseException element) {
+            getOrCreateCollection().add(index, element);
+        }
+
+        @Override
+        public ParseException remove(int index) {
+            return getOrCreateCollection().remove(index);
+        }
+
+        @Override
+        public void clear() {
+            collections.remove();
+        }
     }
 
-}
\ No newline at end of file
+}
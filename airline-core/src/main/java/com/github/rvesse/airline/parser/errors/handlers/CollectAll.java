@@ -26,11 +26,29 @@ import com.github.rvesse.airline.parser.ParseState;
  */
 public class CollectAll extends AbstractCollectingHandler {
 
+    public CollectAll() {
+        super();
+    }
+
+    /**
+     * Creates a handler that stops parsing once the given number of errors
+     * have been collected
+     * 
+     * @param maxErrors
+     *            Maximum number of errors to collect, {@link #UNLIMITED} to
+     *            collect all errors
+     */
+    public CollectAll(int maxErrors) {
+        super(maxErrors);
+    }
+
     @Override
     public <T> ParseResult<T> finished(ParseState<T> state) {
-        ParseResult<T> result = new ParseResult<>(state, getCollection());
-        resetCollection();
-        return result;
+        try {
+            return new ParseResult<>(state, getCollection());
+        } finally {
+            resetCollection();
+        }
     }
 
 }
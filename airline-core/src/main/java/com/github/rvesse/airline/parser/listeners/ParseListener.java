@@ -0,0 +1,53 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.listeners;
+
+/**
+ * Interface for listeners that observe the phases of parsing, this is
+ * primarily intended for instrumenting parsing e.g. to find out where parse
+ * time is spent in a long running application
+ * <p>
+ * Listeners are invoked on the thread carrying out the parse and may be
+ * invoked by many threads concurrently so implementations must be thread-safe.
+ * Since they are invoked in-line they should do as little work as possible.
+ * When no listener is configured the parser does not time the phases at all.
+ * </p>
+ * <p>
+ * If a phase fails with an error that is thrown, e.g. because the error
+ * handler fails fast, then {@link #phaseFinished(ParsePhase, long)} is not
+ * called for that phase.
+ * </p>
+ */
+public interface ParseListener {
+
+    /**
+     * Called when a phase of parsing starts
+     * 
+     * @param phase
+     *            Phase
+     */
+    public void phaseStarted(ParsePhase phase);
+
+    /**
+     * Called when a phase of parsing finishes
+     * 
+     * @param phase
+     *            Phase
+     * @param nanos
+     *            Elapsed time of the phase in nanoseconds
+     */
+    public void phaseFinished(ParsePhase phase, long nanos);
+}
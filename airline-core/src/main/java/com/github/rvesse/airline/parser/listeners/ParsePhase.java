@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.listeners;
+
+/**
+ * The phases of parsing that are reported to a {@link ParseListener}
+ */
+public enum ParsePhase {
+    /**
+     * Parsing of global options, only applies when parsing a CLI
+     */
+    GLOBAL_OPTIONS,
+    /**
+     * Resolution of command aliases, only applies when parsing a CLI
+     */
+    ALIASES,
+    /**
+     * Parsing of the group (and any sub-groups) and their options, only
+     * applies when parsing a CLI
+     */
+    GROUP,
+    /**
+     * Parsing of the command and its options and arguments
+     */
+    COMMAND,
+    /**
+     * Validation of the final parser state against the restrictions
+     */
+    VALIDATION,
+    /**
+     * Creation of the command instance and binding of the parsed values to it,
+     * this happens when the command is retrieved from the parse result
+     */
+    INSTANTIATION
+}
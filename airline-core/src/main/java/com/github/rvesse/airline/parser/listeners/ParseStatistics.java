@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.listeners;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A parse listener that keeps counters and latency histograms for each phase
+ * of parsing
+ * <p>
+ * Statistics are kept in lock free counters so a single instance may be
+ * shared by all the parses of a long running application, e.g. a daemon, and
+ * inspected while parsing continues. Latencies are recorded in a histogram of
+ * {@value #BUCKETS} buckets where bucket {@code i} counts the phases that took
+ * less than {@code 2^i} nanoseconds but at least {@code 2^(i-1)} nanoseconds.
+ * </p>
+ */
+public class ParseStatistics implements ParseListener {
+
+    /**
+     * Number of buckets in each latency histogram
+     */
+    public static final int BUCKETS = 64;
+
+    private static final ParsePhase[] PHASES = ParsePhase.values();
+
+    private final AtomicLongArray started = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray finished = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray totalNanos = new AtomicLongArray(PHASES.length);
+    private final AtomicLongArray histograms = new AtomicLongArray(PHASES.length * BUCKETS);
+
+    @Override
+    public void phaseStarted(ParsePhase phase) {
+        this.started.incrementAndGet(phase.ordinal());
+    }
+
+    @Override
+    public void phaseFinished(ParsePhase phase, long nanos) {
+        int index = phase.ordinal();
+        this.finished.incrementAndGet(index);
+        this.totalNanos.addAndGet(index, nanos);
+        this.histograms.incrementAndGet(index * BUCKETS + getBucket(nanos));
+    }
+
+    /**
+     * Gets the histogram bucket for a latency
+     * 
+     * @param nanos
+     *            Latency in nanoseconds
+     * @return Bucket
+     */
+    public static int getBucket(long nanos) {
+        return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * Gets the exclusive upper bound of the latencies counted by a histogram
+     * bucket
+     * 
+     * @param bucket
+     *            Bucket
+     * @return Upper bound in nanoseconds
+     */
+    public static long getBucketUpperBound(int bucket) {
+        if (bucket < 0 || bucket >= BUCKETS)
+            throw new IndexOutOfBoundsException("bucket must be in the range 0 to " + (BUCKETS - 1));
+        return bucket >= 63 ? Long.MAX_VALUE : 1l << bucket;
+    }
+
+    /**
+     * Gets how many times a phase has started
+     * 
+     * @param phase
+     *            Phase
+     * @return Number of times started
+     */
+    public long getStarted(ParsePhase phase) {
+        return this.started.get(phase.ordinal());
+    }
+
+    /**
+     * Gets how many times a phase has finished
+     * 
+     * @param phase
+     *            Phase
+     * @return Number of times finished
+     */
+    public long getFinished(ParsePhase phase) {
+        return this.finished.get(phase.ordinal());
+    }
+
+    /**
+     * Gets how many times a phase has started but not finished, this is the
+     * number of times the phase failed plus any parses currently in that phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Number of times not finished
+     */
+    public long getUnfinished(ParsePhase phase) {
+        return Math.max(0, getStarted(phase) - getFinished(phase));
+    }
+
+    /**
+     * Gets the total time spent in a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Total time in nanoseconds
+     */
+    public long getTotalNanos(ParsePhase phase) {
+        return this.totalNanos.get(phase.ordinal());
+    }
+
+    /**
+     * Gets the mean time spent in a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Mean time in nanoseconds, zero if the phase has not finished
+     *         yet
+     */
+    public double getMeanNanos(ParsePhase phase) {
+        long count = getFinished(phase);
+        return count == 0 ? 0 : (double) getTotalNanos(phase) / count;
+    }
+
+    /**
+     * Gets a copy of the latency histogram for a phase
+     * 
+     * @param phase
+     *            Phase
+     * @return Histogram with {@link #BUCKETS} buckets
+     */
+    public long[] getHistogram(ParsePhase phase) {
+        long[] histogram = new long[BUCKETS];
+        int offset = phase.ordinal() * BUCKETS;
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram[i] = this.histograms.get(offset + i);
+        }
+        return histogram;
+    }
+
+    /**
+     * Gets an estimate of a latency percentile for a phase, this is the upper
+     * bound of the histogram bucket that the percentile falls in so is accurate
+     * to within a factor of two
+     * 
+     * @param phase
+     *            Phase
+     * @param percentile
+     *            Percentile between 0 and 1
+     * @return Upper bound of the percentile in nanoseconds, zero if the phase
+     *         has not finished yet
+     */
+    public long getPercentileNanos(ParsePhase phase, double percentile) {
+        if (percentile < 0 || percentile > 1)
+            throw new IllegalArgumentException("percentile must be between 0 and 1");
+        long[] histogram = getHistogram(phase);
+        long count = 0;
+        for (long bucket : histogram) {
+            count += bucket;
+        }
+        if (count == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram[i];
+            if (seen >= target)
+                return getBucketUpperBound(i);
+        }
+        return getBucketUpperBound(BUCKETS - 1);
+    }
+
+    /**
+     * Resets all the statistics
+     * <p>
+     * Parses that are in progress while the statistics are reset may be
+     * partially counted.
+     * </p>
+     */
+    public void reset() {
+        for (int i = 0; i < PHASES.length; i++) {
+            this.started.set(i, 0);
+            this.finished.set(i, 0);
+            this.totalNanos.set(i, 0);
+        }
+        for (int i = 0; i < this.histograms.length(); i++) {
+            this.histograms.set(i, 0);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ParseStatistics {");
+        boolean first = true;
+        for (ParsePhase phase : PHASES) {
+            if (getStarted(phase) == 0)
+                continue;
+            if (!first)
+                sb.append(", ");
+            first = false;
+            sb.append(phase).append("={finished=").append(getFinished(phase));
+            sb.append(", unfinished=").append(getUnfinished(phase));
+            sb.append(", meanNanos=").append(Math.round(getMeanNanos(phase)));
+            sb.append(", p99Nanos=").append(getPercentileNanos(phase, 0.99)).append("}");
+        }
+        sb.append("}");
+        return sb.toString();
+    }
+}
@@ -46,6 +46,11 @@ public abstract class AbstractNameValueOptionParser<T> extends AbstractOptionPar
         this.separator = sep;
     }
 
+    @Override
+    public boolean isApplicable(OptionToken<T> token) {
+        return token.contains(this.separator);
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state, List<OptionMetadata> allowedOptions) {
         List<String> parts = AirlineUtils.unmodifiableListCopy(StringUtils.split(tokens.peek(), new String(new char[] { this.separator }), 2));
@@ -20,6 +20,7 @@ import java.util.regex.Pattern;
 
 import com.github.rvesse.airline.utils.Predicate;
 
+import com.github.rvesse.airline.model.OptionIndex;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.AbstractParser;
 import com.github.rvesse.airline.parser.ParseState;
@@ -65,6 +66,19 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
      */
     protected final OptionMetadata findOption(ParseState<T> state, List<OptionMetadata> options, final String name,
             OptionMetadata defaultValue) {
+        return lookupOption(state, options, name, defaultValue);
+    }
+
+    static <T> OptionMetadata lookupOption(ParseState<T> state, List<OptionMetadata> options, final String name,
+            OptionMetadata defaultValue) {
+        if (options instanceof OptionIndex) {
+            // Metadata provides a pre-built index so avoid a linear scan
+            OptionIndex index = (OptionIndex) options;
+            OptionMetadata option = state.getParserConfiguration().allowsAbbreviatedOptions()
+                    ? index.findAbbreviated(name) : index.find(name);
+            return option != null ? option : defaultValue;
+        }
+
         Predicate<OptionMetadata> findOptionPredicate;
         if (state.getParserConfiguration().allowsAbbreviatedOptions()) {
             findOptionPredicate = new AbbreviatedOptionFinder(name, options);
@@ -76,6 +90,30 @@ public abstract class AbstractOptionParser<T> extends AbstractParser<T> implemen
     }
 
     protected boolean hasShortNamePrefix(String name) {
+        return isShortNamePrefixed(name);
+    }
+
+    static boolean isShortNamePrefixed(String name) {
         return SHORT_OPTIONS_PREFIX.matcher(name).matches();
     }
+
+    /**
+     * Gets whether this parser could possibly parse the given token as an
+     * option
+     * <p>
+     * This is used by the {@link OptionParserDispatcher} to skip parsers that
+     * cannot apply to a token without invoking them. Implementations must only
+     * return {@code false} if {@link #parseOptions} would definitely return
+     * {@code null} for the token, the default implementation always returns
+     * {@code true}.
+     * </p>
+     * 
+     * @param token
+     *            Classified token
+     * @return True if this parser may be able to parse the token, false
+     *         otherwise
+     */
+    public boolean isApplicable(OptionToken<T> token) {
+        return true;
+    }
 }
\ No newline at end of file
@@ -38,6 +38,13 @@ import com.github.rvesse.airline.parser.errors.ParseOptionUnexpectedException;
  * @param <T>
  */
 public class ClassicGetOptParser<T> extends AbstractOptionParser<T> {
+
+    @Override
+    public boolean isApplicable(OptionToken<T> token) {
+        // First character after the prefix must be a known option
+        return token.getShortOption() != null;
+    }
+
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
         if (!hasShortNamePrefix(tokens.peek())) {
@@ -70,6 +70,11 @@ public class ListValueOptionParser<T> extends AbstractOptionParser<T> {
         return AirlineUtils.arrayToList(StringUtils.split(list, this.separator));
     }
 
+    @Override
+    public boolean isApplicable(OptionToken<T> token) {
+        return token.getOption() != null || (token.getToken().length() > 2 && token.getShortOption() != null);
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
@@ -70,6 +70,15 @@ public class MaybePairValueOptionParser<T> extends AbstractOptionParser<T> {
         return AirlineUtils.arrayToList(StringUtils.split(list, new String(new char[] { this.separator }), 2));
     }
 
+    @Override
+    public boolean isApplicable(OptionToken<T> token) {
+        OptionMetadata option = token.getOption();
+        if (option == null && token.getToken().length() > 2)
+            option = token.getShortOption();
+        // Only works with arity 2 options
+        return option != null && option.getArity() == 2;
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.options;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.utils.PeekingIterator;
+
+/**
+ * An option parser which routes each token directly to the configured option
+ * parsers that are applicable to it
+ * <p>
+ * Without a dispatcher every configured option parser is tried in turn for
+ * every token and each repeats its own name lookups and pattern matching. The
+ * dispatcher instead classifies each token once as an {@link OptionToken} and
+ * only invokes those parsers that report they are applicable via
+ * {@link AbstractOptionParser#isApplicable(OptionToken)}, parsers that do not
+ * derive from {@link AbstractOptionParser} are always invoked. Parsers are
+ * still consulted in their configured order so the results are identical to
+ * trying each parser in turn.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public class OptionParserDispatcher<T> implements OptionParser<T> {
+
+    private final List<OptionParser<T>> parsers;
+    private final List<AbstractOptionParser<T>> classifyingParsers;
+
+    /**
+     * Creates a new dispatcher
+     * 
+     * @param optionParsers
+     *            Option parsers in order of preference
+     */
+    public OptionParserDispatcher(List<OptionParser<T>> optionParsers) {
+        if (optionParsers == null)
+            throw new NullPointerException("optionParsers cannot be null");
+
+        this.parsers = new ArrayList<OptionParser<T>>(optionParsers);
+        this.classifyingParsers = new ArrayList<AbstractOptionParser<T>>(this.parsers.size());
+        for (OptionParser<T> parser : this.parsers) {
+            this.classifyingParsers
+                    .add(parser instanceof AbstractOptionParser ? (AbstractOptionParser<T>) parser : null);
+        }
+    }
+
+    @Override
+    public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
+            List<OptionMetadata> allowedOptions) {
+        OptionToken<T> token = new OptionToken<T>(state, allowedOptions, tokens.peek());
+
+        for (int i = 0; i < this.parsers.size(); i++) {
+            AbstractOptionParser<T> classifier = this.classifyingParsers.get(i);
+            if (classifier != null && !classifier.isApplicable(token))
+                continue;
+
+            ParseState<T> nextState = this.parsers.get(i).parseOptions(tokens, state, allowedOptions);
+            if (nextState != null)
+                return nextState;
+        }
+        return null;
+    }
+}
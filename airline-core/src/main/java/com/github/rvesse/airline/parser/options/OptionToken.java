@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.options;
+
+import java.util.List;
+
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+/**
+ * A token classified against the options allowed at the current point of
+ * parsing
+ * <p>
+ * Classification is computed lazily and at most once per token so that the
+ * {@link OptionParserDispatcher} can ask several option parsers whether they
+ * are applicable without each of them repeating the same name lookups and
+ * pattern matching.
+ * </p>
+ *
+ * @param <T>
+ *            Command type
+ */
+public final class OptionToken<T> {
+
+    private final ParseState<T> state;
+    private final List<OptionMetadata> allowedOptions;
+    private final String token;
+
+    private Boolean shortNamePrefixed;
+    private boolean optionResolved, shortOptionResolved;
+    private OptionMetadata option, shortOption;
+
+    /**
+     * Creates a new classified token
+     * 
+     * @param state
+     *            Current parser state
+     * @param allowedOptions
+     *            Allowed options
+     * @param token
+     *            Raw token
+     */
+    public OptionToken(ParseState<T> state, List<OptionMetadata> allowedOptions, String token) {
+        if (token == null)
+            throw new NullPointerException("token cannot be null");
+        this.state = state;
+        this.allowedOptions = allowedOptions;
+        this.token = token;
+    }
+
+    /**
+     * Gets the raw token
+     * 
+     * @return Raw token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    /**
+     * Gets whether the token has a short option name prefix i.e. a single
+     * {@code -} followed by at least one other character
+     * 
+     * @return True if short name prefixed, false otherwise
+     */
+    public boolean hasShortNamePrefix() {
+        if (this.shortNamePrefixed == null) {
+            this.shortNamePrefixed = AbstractOptionParser.isShortNamePrefixed(this.token);
+        }
+        return this.shortNamePrefixed;
+    }
+
+    /**
+     * Gets the option whose name is the entire token
+     * 
+     * @return Option, {@code null} if no such option
+     */
+    public OptionMetadata getOption() {
+        if (!this.optionResolved) {
+            this.option = AbstractOptionParser.lookupOption(this.state, this.allowedOptions, this.token, null);
+            this.optionResolved = true;
+        }
+        return this.option;
+    }
+
+    /**
+     * Gets the option whose name is the first two characters of the token,
+     * only applicable if the token has a short name prefix
+     * 
+     * @return Option, {@code null} if no such option or the token does not have
+     *         a short name prefix
+     */
+    public OptionMetadata getShortOption() {
+        if (!this.shortOptionResolved) {
+            if (hasShortNamePrefix()) {
+                this.shortOption = AbstractOptionParser.lookupOption(this.state, this.allowedOptions,
+                        this.token.substring(0, 2), null);
+            }
+            this.shortOptionResolved = true;
+        }
+        return this.shortOption;
+    }
+
+    /**
+     * Gets whether the token contains the given character
+     * 
+     * @param c
+     *            Character
+     * @return True if the character is present, false otherwise
+     */
+    public boolean contains(char c) {
+        return this.token.indexOf(c) >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return this.token;
+    }
+}
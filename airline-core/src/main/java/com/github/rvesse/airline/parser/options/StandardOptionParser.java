@@ -32,6 +32,11 @@ import com.github.rvesse.airline.parser.errors.ParseOptionMissingValueException;
  */
 public class StandardOptionParser<T> extends AbstractOptionParser<T> {
 
+    @Override
+    public boolean isApplicable(OptionToken<T> token) {
+        return token.getOption() != null;
+    }
+
     @Override
     public ParseState<T> parseOptions(PeekingIterator<String> tokens, ParseState<T> state,
             List<OptionMetadata> allowedOptions) {
@@ -58,8 +58,8 @@ public abstract class AbstractCommonRestriction implements OptionRestriction, Ar
 
         // If number of arguments parsed so far is less than the number of
         // titles available grab the next title
-        if (state.getParsedArguments().size() < arguments.getTitle().size())
-            return arguments.getTitle().get(state.getParsedArguments().size());
+        if (state.getArgumentCount() < arguments.getTitle().size())
+            return arguments.getTitle().get(state.getArgumentCount());
 
         // If number of arguments passed so far is greater than the number of
         // titles available just use the last title
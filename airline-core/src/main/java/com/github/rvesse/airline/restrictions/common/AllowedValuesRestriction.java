@@ -15,6 +15,7 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -30,8 +31,14 @@ import com.github.rvesse.airline.utils.AirlineUtils;
 
 public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
 
-    private Object currentState = null;
-    private Set<Object> allowedValues = null;
+    private static final TypeConverter DEFAULT_CONVERTER = new DefaultTypeConverter();
+
+    /**
+     * The most recently converted allowed values, published as a single
+     * immutable holder so that concurrent parses never see a partially updated
+     * cache and never need to lock
+     */
+    private volatile ConvertedValues cache = null;
 
     public AllowedValuesRestriction(String... rawValues) {
         super(false);
@@ -51,17 +58,20 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         }
     }
 
-    protected synchronized <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
+    protected <T> Set<Object> createAllowedValues(ParseState<T> state, String title, Class<?> type,
             TypeConverter converter) {
-        // Re-use cached values if possible
-        if (currentState == state) {
-            return allowedValues;
+        if (converter == null)
+            converter = DEFAULT_CONVERTER;
+
+        // Re-use cached values if possible, the converted values depend only
+        // upon the target type and the converter used
+        ConvertedValues cached = this.cache;
+        if (cached != null && cached.type == type && cached.converter == converter) {
+            return cached.values;
         }
 
         // Convert values
         Set<Object> actualValues = new LinkedHashSet<Object>();
-        if (converter == null)
-            converter = new DefaultTypeConverter();
         for (String rawValue : this.rawValues) {
             try {
                 actualValues.add(converter.convert(title, type, rawValue));
@@ -70,10 +80,11 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
                         "Unable to parse raw value '%s' in order to apply allowed values restriction", rawValue);
             }
         }
+        actualValues = Collections.unmodifiableSet(actualValues);
 
-        // Cache for re-use
-        currentState = state;
-        this.allowedValues = actualValues;
+        // Cache for re-use, if another thread races us the values are
+        // equivalent so it does not matter whose values are kept
+        this.cache = new ConvertedValues(type, converter, actualValues);
 
         return actualValues;
     }
@@ -92,4 +103,15 @@ public class AllowedValuesRestriction extends AbstractAllowedValuesRestriction {
         }
     }
 
+    private static final class ConvertedValues {
+        private final Class<?> type;
+        private final TypeConverter converter;
+        private final Set<Object> values;
+
+        private ConvertedValues(Class<?> type, TypeConverter converter, Set<Object> values) {
+            this.type = type;
+            this.converter = converter;
+            this.values = values;
+        }
+    }
 }
@@ -15,12 +15,8 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-
-import com.github.rvesse.airline.utils.CollectionUtils;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
@@ -31,7 +27,6 @@ import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.parser.errors.ParseTooManyArgumentsException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 public class OccurrencesRestriction extends AbstractCommonRestriction implements HelpHint {
 
@@ -48,17 +43,16 @@ public class OccurrencesRestriction extends AbstractCommonRestriction implements
         if (occurrences <= 0)
             return;
 
-        Collection<Map.Entry<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        int found = state.getOptionOccurrences(option);
 
-        if (maximum && parsedOptions.size() > this.occurrences) {
+        if (maximum && found > this.occurrences) {
             throw new ParseRestrictionViolatedException(
                     "Option '%s' may be specified a maximum of %d times but was found %d times", option.getTitle(),
-                    this.occurrences, parsedOptions.size());
-        } else if (!maximum && parsedOptions.size() < this.occurrences) {
+                    this.occurrences, found);
+        } else if (!maximum && found < this.occurrences) {
             throw new ParseRestrictionViolatedException(
                     "Option '%s' must be specified at least %d times but was only found %d times", option.getTitle(),
-                    occurrences, parsedOptions.size());
+                    occurrences, found);
         }
     }
 
@@ -67,21 +61,21 @@ public class OccurrencesRestriction extends AbstractCommonRestriction implements
         if (occurrences <= 0)
             return;
 
-        if (maximum && state.getParsedArguments().size() > this.occurrences) {
+        if (maximum && state.getArgumentCount() > this.occurrences) {
             throw new ParseTooManyArgumentsException("At most %d arguments may be specified but %d were found",
-                    occurrences, state.getParsedArguments().size());
-        } else if (!maximum && state.getParsedArguments().size() < this.occurrences) {
+                    occurrences, state.getArgumentCount());
+        } else if (!maximum && state.getArgumentCount() < this.occurrences) {
             throw new ParseArgumentsMissingException("At least %d arguments must be specified but only %d were found",
-                    titles(state, arguments), this.occurrences, state.getParsedArguments().size());
+                    titles(state, arguments), this.occurrences, state.getArgumentCount());
         }
     }
 
     private <T> List<String> titles(ParseState<T> state, ArgumentsMetadata arguments) {
-        if (state.getParsedArguments().size() >= arguments.getTitle().size())
+        if (state.getArgumentCount() >= arguments.getTitle().size())
             return Collections.emptyList();
         if (occurrences >= arguments.getTitle().size())
-            return arguments.getTitle().subList(state.getParsedArguments().size(), arguments.getTitle().size());
-        return arguments.getTitle().subList(state.getParsedArguments().size(), occurrences);
+            return arguments.getTitle().subList(state.getArgumentCount(), arguments.getTitle().size());
+        return arguments.getTitle().subList(state.getArgumentCount(), occurrences);
 
     }
 
@@ -15,26 +15,59 @@
  */
 package com.github.rvesse.airline.restrictions.common;
 
-import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import com.github.rvesse.airline.annotations.restrictions.PathKind;
 import com.github.rvesse.airline.help.sections.HelpFormat;
 import com.github.rvesse.airline.help.sections.HelpHint;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.AbstractCommonRestriction;
 
 /**
  * Implements restriction on options and arguments that expect to receive a path
  * to a file and/or directory
+ * <p>
+ * File system attributes are read via {@code java.nio.file} in a single call
+ * per path and cached for the duration of a parse, so checking many paths
+ * which share ancestor directories only looks each directory up once.
+ * </p>
+ * <p>
+ * Restrictions created with {@code parallel} enabled check their values on a
+ * pool of daemon threads dedicated to path checks rather than as each value is
+ * parsed, any violations are then reported during final validation in the
+ * order the values were given. Arguments streamed from an argument file are
+ * always checked as they are consumed.
+ * </p>
  * 
  * @author rvesse
  *
  */
 public class PathRestriction extends AbstractCommonRestriction implements HelpHint {
 
-    private final boolean mustExist, readable, writable, executable;
+    private static final Object CACHE_KEY = new Object();
+
+    private final boolean mustExist, readable, writable, executable, parallel;
     private final PathKind kind;
 
     /**
@@ -57,93 +90,123 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
      * @param kind
      */
     public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind) {
+        this(mustExist, readable, writable, executable, kind, false);
+    }
+
+    /**
+     * Creates a new path restriction
+     * 
+     * @param mustExist
+     *            Whether the path must exist
+     * @param readable
+     *            Whether the path must be readable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is readable
+     * @param writable
+     *            Whether the path must be writable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is writable
+     * @param executable
+     *            Whether the path must be executable, if the specific path does
+     *            not exist then this check validates that the first parent in
+     *            the path that exists is executable
+     * @param kind
+     *            Kind of path expected
+     * @param parallel
+     *            Whether values are checked in parallel, violations are then
+     *            reported during final validation
+     */
+    public PathRestriction(boolean mustExist, boolean readable, boolean writable, boolean executable, PathKind kind,
+            boolean parallel) {
         this.mustExist = mustExist;
         this.readable = readable;
         this.writable = writable;
         this.executable = executable;
         this.kind = kind;
+        this.parallel = parallel;
     }
 
     protected void validate(String title, String path) {
+        validate(title, path, new PathCache());
+    }
+
+    private void validate(String title, String path, PathCache cache) {
         if (path == null)
             throw new ParseRestrictionViolatedException("%s must be given a non-null path", title, path);
 
-        File f = new File(path);
+        if (!this.mustExist && !this.readable && !this.writable && !this.executable)
+            return;
 
-        if (this.mustExist && !f.exists())
+        Path p;
+        try {
+            p = Paths.get(path).toAbsolutePath();
+        } catch (InvalidPathException e) {
+            throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a valid path", title,
+                    path);
+        }
+        PathStatus status = cache.get(p);
+
+        if (this.mustExist && !status.exists)
             throw new ParseRestrictionViolatedException(
                     "%s was given value '%s' which is not a path to an existing file/directory", title, path);
 
-        if (this.mustExist && f.exists()) {
+        if (this.mustExist) {
             // Some things require the file to exist in order for direct
             // validation to be applied
             switch (kind) {
             case FILE:
-                if (!f.isFile())
+                if (!status.file)
                     throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a path to a file",
                             title, path);
                 break;
             case DIRECTORY:
-                if (!f.isDirectory())
+                if (!status.directory)
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a directory", title, path);
                 break;
             default:
-                if (!f.isFile() && !f.isDirectory())
+                if (!status.file && !status.directory)
                     throw new ParseRestrictionViolatedException(
                             "%s was given value '%s' which is not a path to a file/directory", title, path);
                 break;
             }
 
             // Check permissions
-            if (this.readable && !f.canRead())
-                notReadable(title, path);
-
-            if (this.writable && !f.canWrite())
-                notWritable(title, path);
-
-            if (this.executable && !f.canExecute())
-                notExecutable(title, path);
-        } else if (this.readable || this.writable || this.executable) {
-            if (!f.isAbsolute())
-                f = f.getAbsoluteFile();
-
+            checkPermissions(title, path, status);
+        } else if (status.exists) {
             // May be able to check the conditions directly if the file exists
-            if (f.exists()) {
-                if (this.readable && !f.canRead())
-                    notReadable(title, path);
+            checkPermissions(title, path, status);
+        } else {
+            // Otherwise verify that the first portion of the path that
+            // exists has the desired properties
+            Path parent = p.getParent();
+            while (parent != null) {
+                PathStatus parentStatus = cache.get(parent);
+                if (parentStatus.exists) {
+                    // All conditions must be met by first part of the path
+                    // that exists
+                    checkPermissions(title, path, parentStatus);
 
-                if (this.writable && !f.canWrite())
-                    notWritable(title, path);
-
-                if (this.executable && !f.canExecute())
-                    notExecutable(title, path);
-            } else {
-                // Otherwise verify that the first portion of the path that
-                // exists has the desired properties
-                while (f.getParentFile() != null) {
-                    f = f.getParentFile();
-                    if (f.exists()) {
-                        // All conditions must be met by first part of the path
-                        // that exists
-                        if (this.readable && !f.canRead())
-                            notReadable(title, path);
-
-                        if (this.writable && !f.canWrite())
-                            notWritable(title, path);
-
-                        if (this.executable && !f.canExecute())
-                            notExecutable(title, path);
-
-                        // All conditions satisfied so no need to continue going
-                        // up the path
-                        break;
-                    }
+                    // All conditions satisfied so no need to continue going
+                    // up the path
+                    break;
                 }
+                parent = parent.getParent();
             }
         }
     }
 
+    private void checkPermissions(String title, String path, PathStatus status) {
+        if (this.readable && !status.isReadable())
+            notReadable(title, path);
+
+        if (this.writable && !status.isWritable())
+            notWritable(title, path);
+
+        if (this.executable && !status.isExecutable())
+            notExecutable(title, path);
+    }
+
     private void notExecutable(String title, String path) {
         throw new ParseRestrictionViolatedException("%s was given value '%s' which is not a executable path", title,
                 path);
@@ -161,13 +224,189 @@ public class PathRestriction extends AbstractCommonRestriction implements HelpHi
 
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
-        this.validate(String.format("Option '%s'", option.getTitle()), value);
+        this.validate(state, option, String.format("Option '%s'", option.getTitle()), value);
     }
 
     @Override
     public <T> void preValidate(ParseState<T> state, ArgumentsMetadata arguments, String value) {
-        this.validate(String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)),
-                value);
+        this.validate(state, arguments,
+                String.format("Argument '%s'", AbstractCommonRestriction.getArgumentTitle(state, arguments)), value);
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
+        this.complete(state, option);
+    }
+
+    @Override
+    public <T> void finalValidate(ParseState<T> state, ArgumentsMetadata arguments) {
+        this.complete(state, arguments);
+    }
+
+    private <T> void validate(ParseState<T> state, Object owner, final String title, final String path) {
+        if (state == null) {
+            validate(title, path);
+            return;
+        }
+
+        final PathCache cache = getCache(state);
+
+        // Streamed arguments are validated as they are consumed so can't be
+        // deferred until final validation
+        if (!this.parallel || state.isStreamingArguments()) {
+            validate(title, path, cache);
+            return;
+        }
+
+        getBatch(state, owner).checks.add(Checkers.POOL.submit(new Callable<Void>() {
+            @Override
+            public Void call() {
+                validate(title, path, cache);
+                return null;
+            }
+        }));
+    }
+
+    private <T> void complete(ParseState<T> state, Object owner) {
+        if (state == null)
+            return;
+        Batch batch = state.getCache().get(Arrays.asList(this, owner));
+        if (batch == null)
+            return;
+
+        // Report violations in the order the values were given
+        for (Future<Void> check : batch.checks) {
+            try {
+                check.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParseException(e, "Interrupted while validating paths");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof ParseException) {
+                    state.getParserConfiguration().getErrorHandler().handleError((ParseException) cause);
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                } else {
+                    throw new ParseException((Exception) cause, "Failed to validate paths");
+                }
+            }
+        }
+    }
+
+    private static <T> PathCache getCache(ParseState<T> state) {
+        PathCache cache = state.getCache().get(CACHE_KEY);
+        if (cache == null)
+            cache = state.getCache().putIfAbsent(CACHE_KEY, new PathCache());
+        return cache;
+    }
+
+    private <T> Batch getBatch(ParseState<T> state, Object owner) {
+        List<Object> key = Arrays.asList(this, owner);
+        Batch batch = state.getCache().get(key);
+        if (batch == null)
+            batch = state.getCache().putIfAbsent(key, new Batch());
+        return batch;
+    }
+
+    /**
+     * Checks submitted so far for a single option/arguments during a parse,
+     * values arrive one at a time as they are parsed
+     */
+    private static final class Batch {
+        private final List<Future<Void>> checks = new ArrayList<>();
+    }
+
+    /**
+     * Holder for the pool that runs parallel checks, kept separate from any
+     * other pool so checks never compete with the parse that submitted them
+     */
+    private static final class Checkers {
+        private static final ExecutorService POOL = Executors
+                .newFixedThreadPool(Runtime.getRuntime().availableProcessors(), new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "airline-path-check-" + count.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
+
+    /**
+     * Cache of path attributes for the duration of a parse, shared by all path
+     * restrictions since the attributes of a path do not depend on what it is
+     * being checked for
+     */
+    private static final class PathCache {
+        private final ConcurrentMap<Path, PathStatus> statuses = new ConcurrentHashMap<>();
+
+        private PathStatus get(Path path) {
+            PathStatus status = this.statuses.get(path);
+            if (status == null) {
+                status = new PathStatus(path);
+                PathStatus existing = this.statuses.putIfAbsent(path, status);
+                if (existing != null)
+                    status = existing;
+            }
+            return status;
+        }
+    }
+
+    /**
+     * Attributes of a path, the basic attributes are read in a single call and
+     * permissions are only checked if needed
+     */
+    private static final class PathStatus {
+        private final Path path;
+        private final boolean exists, file, directory;
+        private volatile Boolean readable, writable, executable;
+
+        private PathStatus(Path path) {
+            this.path = path;
+
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            } catch (IOException | SecurityException e) {
+                // Treated as not existing
+                attributes = null;
+            }
+            this.exists = attributes != null;
+            this.file = attributes != null && attributes.isRegularFile();
+            this.directory = attributes != null && attributes.isDirectory();
+        }
+
+        private boolean isReadable() {
+            Boolean readable = this.readable;
+            if (readable == null) {
+                readable = Files.isReadable(this.path);
+                this.readable = readable;
+            }
+            return readable;
+        }
+
+        private boolean isWritable() {
+            Boolean writable = this.writable;
+            if (writable == null) {
+                writable = Files.isWritable(this.path);
+                this.writable = writable;
+            }
+            return writable;
+        }
+
+        private boolean isExecutable() {
+            Boolean executable = this.executable;
+            if (executable == null) {
+                executable = Files.isExecutable(this.path);
+                this.executable = executable;
+            }
+            return executable;
+        }
     }
 
     @Override
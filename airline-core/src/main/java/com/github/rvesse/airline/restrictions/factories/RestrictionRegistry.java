@@ -16,6 +16,7 @@
 package com.github.rvesse.airline.restrictions.factories;
 
 import java.lang.annotation.Annotation;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.ServiceLoader;
@@ -27,14 +28,16 @@ import com.github.rvesse.airline.restrictions.OptionRestriction;
 
 /**
  * Central registry for restrictions
+ * <p>
+ * The registry is safe for concurrent use, lookups never block. The registered
+ * factories are held in a single immutable snapshot which {@link #reset()} and
+ * the {@code add} methods replace in one step so concurrent lookups never
+ * observe a partially populated registry.
+ * </p>
  */
 public class RestrictionRegistry {
 
-    private static final Map<Class<? extends Annotation>, OptionRestrictionFactory> OPTION_RESTRICTION_FACTORIES = new HashMap<>();
-    private static final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> ARGUMENT_RESTRICTION_FACTORIES = new HashMap<>();
-    private static final Map<Class<? extends Annotation>, GlobalRestrictionFactory> GLOBAL_RESTRICTION_FACTORIES = new HashMap<>();
-
-    private static volatile boolean init = false;
+    private static volatile Factories FACTORIES;
 
     static {
         init();
@@ -45,59 +48,56 @@ public class RestrictionRegistry {
      * mechanism
      */
     static synchronized void init() {
-        if (init)
-            return;
-
         // Use ServerLoader to obtain restrictions
-        ServiceLoader<OptionRestrictionFactory> optionRestrictionFactories = ServiceLoader
-                .load(OptionRestrictionFactory.class);
-        for (OptionRestrictionFactory factory : optionRestrictionFactories) {
+        Map<Class<? extends Annotation>, OptionRestrictionFactory> optionFactories = new HashMap<>();
+        for (OptionRestrictionFactory factory : ServiceLoader.load(OptionRestrictionFactory.class)) {
             for (Class<? extends Annotation> cls : factory.supportedOptionAnnotations()) {
-                OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+                optionFactories.put(cls, factory);
             }
         }
-        ServiceLoader<ArgumentsRestrictionFactory> argumentsRestrictionFactories = ServiceLoader
-                .load(ArgumentsRestrictionFactory.class);
-        for (ArgumentsRestrictionFactory factory : argumentsRestrictionFactories) {
+        Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> argumentsFactories = new HashMap<>();
+        for (ArgumentsRestrictionFactory factory : ServiceLoader.load(ArgumentsRestrictionFactory.class)) {
             for (Class<? extends Annotation> cls : factory.supportedArgumentsAnnotations()) {
-                ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+                argumentsFactories.put(cls, factory);
             }
         }
-        ServiceLoader<GlobalRestrictionFactory> globalRestrictionFactories = ServiceLoader
-                .load(GlobalRestrictionFactory.class);
-        for (GlobalRestrictionFactory factory : globalRestrictionFactories) {
+        Map<Class<? extends Annotation>, GlobalRestrictionFactory> globalFactories = new HashMap<>();
+        for (GlobalRestrictionFactory factory : ServiceLoader.load(GlobalRestrictionFactory.class)) {
             for (Class<? extends Annotation> cls : factory.supportedGlobalAnnotations()) {
-                GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+                globalFactories.put(cls, factory);
             }
         }
 
-        init = true;
+        FACTORIES = new Factories(optionFactories, argumentsFactories, globalFactories);
     }
 
     /**
      * Resets the registry to its default state
      */
-    public synchronized static void reset() {
-        init = false;
-        OPTION_RESTRICTION_FACTORIES.clear();
-        ARGUMENT_RESTRICTION_FACTORIES.clear();
-        GLOBAL_RESTRICTION_FACTORIES.clear();
+    public static void reset() {
         init();
     }
 
     public static Set<Class<? extends Annotation>> getOptionRestrictionAnnotationClasses() {
-        return OPTION_RESTRICTION_FACTORIES.keySet();
+        return Collections.unmodifiableSet(FACTORIES.options.keySet());
     }
 
     public static void addOptionRestriction(Class<? extends Annotation> cls, OptionRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        OPTION_RESTRICTION_FACTORIES.put(cls, factory);
+        if (factory == null)
+            throw new NullPointerException("factory cannot be null");
+        synchronized (RestrictionRegistry.class) {
+            Factories current = FACTORIES;
+            Map<Class<? extends Annotation>, OptionRestrictionFactory> optionFactories = new HashMap<>(current.options);
+            optionFactories.put(cls, factory);
+            FACTORIES = new Factories(optionFactories, current.arguments, current.globals);
+        }
     }
 
     public static <T extends Annotation> OptionRestriction getOptionRestriction(Class<? extends Annotation> cls,
             T annotation) {
-        OptionRestrictionFactory factory = OPTION_RESTRICTION_FACTORIES.get(cls);
+        OptionRestrictionFactory factory = FACTORIES.options.get(cls);
         if (factory != null)
             return factory.createOptionRestriction(annotation);
         return null;
@@ -106,36 +106,69 @@ public class RestrictionRegistry {
     public static void addArgumentsRestriction(Class<? extends Annotation> cls, ArgumentsRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        ARGUMENT_RESTRICTION_FACTORIES.put(cls, factory);
+        if (factory == null)
+            throw new NullPointerException("factory cannot be null");
+        synchronized (RestrictionRegistry.class) {
+            Factories current = FACTORIES;
+            Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> argumentsFactories = new HashMap<>(
+                    current.arguments);
+            argumentsFactories.put(cls, factory);
+            FACTORIES = new Factories(current.options, argumentsFactories, current.globals);
+        }
     }
 
     public static Set<Class<? extends Annotation>> getArgumentsRestrictionAnnotationClasses() {
-        return ARGUMENT_RESTRICTION_FACTORIES.keySet();
+        return Collections.unmodifiableSet(FACTORIES.arguments.keySet());
     }
 
     public static <T extends Annotation> ArgumentsRestriction getArgumentsRestriction(Class<? extends Annotation> cls,
             T annotation) {
-        ArgumentsRestrictionFactory factory = ARGUMENT_RESTRICTION_FACTORIES.get(cls);
+        ArgumentsRestrictionFactory factory = FACTORIES.arguments.get(cls);
         if (factory != null)
             return factory.createArgumentsRestriction(annotation);
         return null;
     }
 
     public static Set<Class<? extends Annotation>> getGlobalRestrictionAnnotationClasses() {
-        return GLOBAL_RESTRICTION_FACTORIES.keySet();
+        return Collections.unmodifiableSet(FACTORIES.globals.keySet());
     }
 
     public static void addGlobalRestriction(Class<? extends Annotation> cls, GlobalRestrictionFactory factory) {
         if (cls == null)
             throw new NullPointerException("cls cannot be null");
-        GLOBAL_RESTRICTION_FACTORIES.put(cls, factory);
+        if (factory == null)
+            throw new NullPointerException("factory cannot be null");
+        synchronized (RestrictionRegistry.class) {
+            Factories current = FACTORIES;
+            Map<Class<? extends Annotation>, GlobalRestrictionFactory> globalFactories = new HashMap<>(current.globals);
+            globalFactories.put(cls, factory);
+            FACTORIES = new Factories(current.options, current.arguments, globalFactories);
+        }
     }
 
     public static <T extends Annotation> GlobalRestriction getGlobalRestriction(Class<? extends Annotation> cls,
             T annotation) {
-        GlobalRestrictionFactory factory = GLOBAL_RESTRICTION_FACTORIES.get(cls);
+        GlobalRestrictionFactory factory = FACTORIES.globals.get(cls);
         if (factory != null)
             return factory.createGlobalRestriction(annotation);
         return null;
     }
+
+    /**
+     * Snapshot of the registered factories, the maps are never modified once
+     * the snapshot is published
+     */
+    private static final class Factories {
+        private final Map<Class<? extends Annotation>, OptionRestrictionFactory> options;
+        private final Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> arguments;
+        private final Map<Class<? extends Annotation>, GlobalRestrictionFactory> globals;
+
+        private Factories(Map<Class<? extends Annotation>, OptionRestrictionFactory> options,
+                Map<Class<? extends Annotation>, ArgumentsRestrictionFactory> arguments,
+                Map<Class<? extends Annotation>, GlobalRestrictionFactory> globals) {
+            this.options = options;
+            this.arguments = arguments;
+            this.globals = globals;
+        }
+    }
 }
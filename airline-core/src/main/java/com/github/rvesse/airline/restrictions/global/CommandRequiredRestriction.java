@@ -15,6 +15,8 @@
  */
 package com.github.rvesse.airline.restrictions.global;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.github.rvesse.airline.model.CommandMetadata;
@@ -25,6 +27,11 @@ import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
 public class CommandRequiredRestriction implements GlobalRestriction {
 
+    /**
+     * Maximum number of alternatives suggested for an unrecognized command
+     */
+    private static final int MAX_SUGGESTIONS = 3;
+
     @Override
     public <T> void validate(ParseState<T> state) {
         CommandMetadata command = state.getCommand();
@@ -33,9 +40,24 @@ public class CommandRequiredRestriction implements GlobalRestriction {
             if (unparsedInput.isEmpty()) {
                 throw new ParseCommandMissingException();
             } else {
-                throw new ParseCommandUnrecognizedException(unparsedInput);
+                throw new ParseCommandUnrecognizedException(unparsedInput, suggest(state, unparsedInput.get(0)));
             }
         }
     }
 
+    private <T> List<String> suggest(ParseState<T> state, String command) {
+        if (state.getGlobal() == null)
+            return Collections.emptyList();
+
+        // Only suggest commands and groups, not options
+        List<String> suggestions = new ArrayList<>();
+        for (String name : state.getGlobal().getSuggestionIndex(state.getGroup()).correct(command,
+                Integer.MAX_VALUE)) {
+            if (!name.startsWith("-"))
+                suggestions.add(name);
+            if (suggestions.size() == MAX_SUGGESTIONS)
+                break;
+        }
+        return suggestions;
+    }
 }
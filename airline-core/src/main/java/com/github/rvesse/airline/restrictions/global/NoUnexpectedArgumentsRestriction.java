@@ -15,17 +15,61 @@
  */
 package com.github.rvesse.airline.restrictions.global;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.SuggestionIndex;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsUnexpectedException;
 import com.github.rvesse.airline.restrictions.GlobalRestriction;
 
 public class NoUnexpectedArgumentsRestriction implements GlobalRestriction {
 
+    /**
+     * Maximum number of alternatives suggested for an unrecognized option
+     */
+    private static final int MAX_SUGGESTIONS = 3;
+
     @Override
     public <T> void validate(ParseState<T> state) {
         if (!state.getUnparsedInput().isEmpty()) {
-            throw new ParseArgumentsUnexpectedException(state.getUnparsedInput());
+            throw new ParseArgumentsUnexpectedException(state.getUnparsedInput(),
+                    suggest(state, state.getUnparsedInput()));
         }
     }
 
+    /**
+     * Suggests alternatives for the first unexpected input that looks like an
+     * option
+     */
+    private <T> List<String> suggest(ParseState<T> state, List<String> unparsedInput) {
+        GlobalMetadata<T> global = state.getGlobal();
+        if (global == null)
+            return Collections.emptyList();
+
+        for (String input : unparsedInput) {
+            if (input.length() < 2 || input.charAt(0) != '-')
+                continue;
+
+            // Ignore any value given with the option
+            int separator = input.indexOf('=');
+            String option = separator > 0 ? input.substring(0, separator) : input;
+
+            // Outside of a command the index also includes commands and groups
+            // so only suggest options
+            SuggestionIndex index = state.getCommand() != null ? global.getSuggestionIndex(state.getCommand())
+                    : global.getSuggestionIndex(state.getGroup());
+            List<String> suggestions = new ArrayList<>();
+            for (String name : index.correct(option, Integer.MAX_VALUE)) {
+                if (name.startsWith("-"))
+                    suggestions.add(name);
+                if (suggestions.size() == MAX_SUGGESTIONS)
+                    break;
+            }
+            return suggestions;
+        }
+        return Collections.emptyList();
+    }
 }
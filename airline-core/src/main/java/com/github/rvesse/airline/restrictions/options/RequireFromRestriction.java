@@ -19,7 +19,6 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 
 import com.github.rvesse.airline.utils.CollectionUtils;
 
@@ -29,10 +28,8 @@ import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionGroupException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.RequiredFromFinder;
 import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagOptionFinder;
-import com.github.rvesse.airline.utils.predicates.restrictions.RequiredTagParsedOptionFinder;
 
 public class RequireFromRestriction implements OptionRestriction, HelpHint {
 
@@ -46,29 +43,27 @@ public class RequireFromRestriction implements OptionRestriction, HelpHint {
 
     @Override
     public <T> void finalValidate(ParseState<T> state, OptionMetadata option) {
-        Collection<Map.Entry<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
+        int parsedOptions = state.getOptionOccurrences(option);
 
         Collection<OptionRestriction> restrictions = CollectionUtils.select(option.getRestrictions(),
                 new RequiredFromFinder(this.tag));
 
+        // Count parsed options which have the same tag
+        int otherParsedOptions = state.getTaggedOptionOccurrences(RequireFromRestriction.class, this.tag);
+
         for (@SuppressWarnings("unused")
         OptionRestriction restriction : restrictions) {
-            // Find other parsed options which have the same tag
-            Collection<Map.Entry<OptionMetadata, Object>> otherParsedOptions = CollectionUtils
-                    .select(state.getParsedOptions(), new RequiredTagParsedOptionFinder(this.tag));
-
             // There are some parsed options but ONLY for this option
-            if (otherParsedOptions.size() > 0 && otherParsedOptions.size() == parsedOptions.size())
+            if (otherParsedOptions > 0 && otherParsedOptions == parsedOptions)
                 continue;
 
             // Otherwise may need to error
-            if (mutuallyExclusive && parsedOptions.size() > 0 && otherParsedOptions.size() > parsedOptions.size()) {
+            if (mutuallyExclusive && parsedOptions > 0 && otherParsedOptions > parsedOptions) {
                 Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
                 throw new ParseOptionGroupException(
                         "Only one of the following options may be specified but %d were found: %s", tag, taggedOptions,
-                        otherParsedOptions.size(), toOptionsList(taggedOptions));
-            } else if (otherParsedOptions.size() == 0) {
+                        otherParsedOptions, toOptionsList(taggedOptions));
+            } else if (otherParsedOptions == 0) {
                 Collection<OptionMetadata> taggedOptions = getTaggedOptions(state);
                 throw new ParseOptionGroupException("%s of the following options must be specified: %s", tag,
                         taggedOptions, mutuallyExclusive ? "One" : "One/more", toOptionsList(taggedOptions));
@@ -15,12 +15,11 @@
  */
 package com.github.rvesse.airline.restrictions.options;
 
-import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
-import java.util.Map;
 
-import com.github.rvesse.airline.utils.CollectionUtils;
 import com.github.rvesse.airline.utils.StringUtils;
 
 import com.github.rvesse.airline.help.sections.HelpFormat;
@@ -30,7 +29,6 @@ import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
 import com.github.rvesse.airline.utils.AirlineUtils;
-import com.github.rvesse.airline.utils.predicates.parser.ParsedOptionFinder;
 
 public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
 
@@ -45,28 +43,35 @@ public class RequiredOnlyIfRestriction implements OptionRestriction, HelpHint {
         if (this.names.isEmpty())
             return;
 
-        Collection<Map.Entry<OptionMetadata, Object>> parsedOptions = CollectionUtils.select(state.getParsedOptions(),
-                new ParsedOptionFinder(option));
-
         // If this option was seen then the required criteria has been fulfilled
         // regardless of whether any of the triggering options was actually
         // present
-        if (parsedOptions.size() > 0)
+        if (state.getOptionOccurrences(option) > 0)
             return;
 
         // Were any of the options that would trigger the required restriction
         // present?
-        for (Map.Entry<OptionMetadata, Object> otherOption : state.getParsedOptions()) {
-            if (otherOption.getKey().equals(option))
+        for (OptionMetadata otherOption : getOptions(state)) {
+            if (otherOption.equals(option) || state.getOptionOccurrences(otherOption) == 0)
                 continue;
 
             for (String name : this.names) {
-                if (otherOption.getKey().getOptions().contains(name))
+                if (otherOption.getOptions().contains(name))
                     throw new ParseOptionMissingException(option.getTitle());
             }
         }
     }
 
+    private <T> List<OptionMetadata> getOptions(ParseState<T> state) {
+        List<OptionMetadata> options = state.getCommand() != null ? state.getCommand().getAllOptions() : null;
+        if (options == null)
+            options = state.getGroup() != null ? state.getGroup().getOptions() : null;
+        if (options == null)
+            options = state.getGlobal() != null ? state.getGlobal().getOptions()
+                    : Collections.<OptionMetadata> emptyList();
+        return options;
+    }
+
     @Override
     public <T> void preValidate(ParseState<T> state, OptionMetadata option, String value) {
         // No pre-validation
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.shell;
+
+import java.io.PrintStream;
+import java.util.concurrent.Callable;
+
+/**
+ * Default executor which runs commands that are {@link Runnable} or
+ * {@link Callable}, the result of a {@link Callable} is printed if it is
+ * non-null
+ *
+ * @param <C>
+ *            Command type
+ */
+public class DefaultShellCommandExecutor<C> implements ShellCommandExecutor<C> {
+
+    @Override
+    public void execute(C command, PrintStream out) throws Exception {
+        if (command instanceof Runnable) {
+            ((Runnable) command).run();
+        } else if (command instanceof Callable) {
+            Object result = ((Callable<?>) command).call();
+            if (result != null)
+                out.println(result);
+        } else {
+            throw new UnsupportedOperationException(String.format(
+                    "Command %s is neither Runnable nor Callable, a custom ShellCommandExecutor is required to execute it",
+                    command.getClass().getName()));
+        }
+    }
+
+}
@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.shell;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An entry in the history of a {@link Shell}
+ */
+public class HistoryEntry {
+
+    private final int number;
+    private final String line;
+    private final long elapsed;
+    private final boolean successful;
+
+    public HistoryEntry(int number, String line, long elapsed, boolean successful) {
+        this.number = number;
+        this.line = line;
+        this.elapsed = elapsed;
+        this.successful = successful;
+    }
+
+    /**
+     * Gets the number of the entry, this is how the entry is referred to with
+     * the {@code !n} shell syntax
+     * 
+     * @return Entry number
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    /**
+     * Gets the command line that was entered
+     * 
+     * @return Command line
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the time taken to parse and execute the command
+     * 
+     * @param unit
+     *            Time unit
+     * @return Elapsed time
+     */
+    public long getElapsed(TimeUnit unit) {
+        return unit.convert(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets whether the command was successfully parsed and executed
+     * 
+     * @return True if successful, false otherwise
+     */
+    public boolean wasSuccessful() {
+        return successful;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%5d  %s", number, line);
+    }
+}
@@ -0,0 +1,267 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.shell;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.ShellBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.aliases.AliasArgumentsParser;
+import com.github.rvesse.airline.parser.command.CliParser;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+/**
+ * An interactive shell which repeatedly reads, parses and executes commands
+ * against a single {@link Cli}
+ * <p>
+ * Since the CLI meta-data is only loaded once and is then reused for every
+ * command the cost of starting the JVM and loading the meta-data is paid once
+ * rather than on every invocation. Lines are split into arguments using the
+ * same quoting and escaping rules as alias definitions.
+ * </p>
+ * <p>
+ * In addition to the commands of the CLI the shell understands the following:
+ * </p>
+ * <ul>
+ * <li>{@code history} - Lists previously entered commands</li>
+ * <li>{@code !!} - Re-runs the previous command</li>
+ * <li>{@code !n} - Re-runs the command numbered {@code n} in the history</li>
+ * <li>The configured exit commands, by default {@code exit} and {@code quit}
+ * </li>
+ * </ul>
+ * <p>
+ * A shell is intended to be driven by a single thread.
+ * </p>
+ *
+ * @param <C>
+ *            Command type
+ */
+public class Shell<C> {
+
+    /**
+     * Creates a builder for a shell
+     * 
+     * @param cli
+     *            CLI whose commands the shell will run
+     * @return Shell builder
+     */
+    public static <T> ShellBuilder<T> builder(Cli<T> cli) {
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        return new ShellBuilder<T>(cli);
+    }
+
+    private final Cli<C> cli;
+    private final CliParser<C> parser = new CliParser<C>();
+    private final ShellCommandExecutor<C> executor;
+    private final String prompt;
+    private final int historySize;
+    private final boolean timing;
+    private final Set<String> exitCommands;
+    private final Deque<HistoryEntry> history = new ArrayDeque<>();
+    private int nextNumber = 1;
+
+    //@formatter:off
+    public Shell(Cli<C> cli, 
+                 ShellCommandExecutor<C> executor, 
+                 String prompt, 
+                 int historySize, 
+                 boolean timing,
+                 Collection<String> exitCommands) {
+    //@formatter:on
+        if (cli == null)
+            throw new NullPointerException("cli cannot be null");
+        if (executor == null)
+            throw new NullPointerException("executor cannot be null");
+        if (historySize < 0)
+            throw new IllegalArgumentException("historySize cannot be negative");
+        this.cli = cli;
+        this.executor = executor;
+        this.prompt = prompt != null ? prompt : "";
+        this.historySize = historySize;
+        this.timing = timing;
+        this.exitCommands = new LinkedHashSet<>(exitCommands);
+    }
+
+    /**
+     * Gets the CLI
+     * 
+     * @return CLI
+     */
+    public Cli<C> getCli() {
+        return cli;
+    }
+
+    /**
+     * Gets the history, oldest entries first
+     * 
+     * @return History
+     */
+    public List<HistoryEntry> getHistory() {
+        return new ArrayList<>(history);
+    }
+
+    /**
+     * Runs the shell until the input is exhausted or an exit command is
+     * entered
+     * 
+     * @param in
+     *            Input
+     * @param out
+     *            Output
+     * @throws IOException
+     *             Thrown if there is a problem reading the input
+     */
+    public void run(InputStream in, OutputStream out) throws IOException {
+        run(new InputStreamReader(in, StandardCharsets.UTF_8),
+                out instanceof PrintStream ? (PrintStream) out : new PrintStream(out, true, "UTF-8"));
+    }
+
+    /**
+     * Runs the shell until the input is exhausted or an exit command is
+     * entered
+     * 
+     * @param in
+     *            Input
+     * @param out
+     *            Output
+     * @throws IOException
+     *             Thrown if there is a problem reading the input
+     */
+    public void run(Reader in, PrintStream out) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        while (true) {
+            out.print(prompt);
+            out.flush();
+            String line = reader.readLine();
+            if (line == null || !execute(line, out))
+                break;
+        }
+        out.flush();
+    }
+
+    /**
+     * Executes a single line of input
+     * 
+     * @param line
+     *            Line
+     * @param out
+     *            Output
+     * @return True if the shell should continue, false if an exit command was
+     *         entered
+     */
+    public boolean execute(String line, PrintStream out) {
+        line = line.trim();
+        if (line.isEmpty())
+            return true;
+        if (exitCommands.contains(line))
+            return false;
+        if ("history".equals(line)) {
+            for (HistoryEntry entry : history) {
+                out.println(entry);
+            }
+            return true;
+        }
+        if (line.startsWith("!")) {
+            HistoryEntry entry = findHistory(line.substring(1));
+            if (entry == null) {
+                out.println(String.format("%s: event not found", line));
+                return true;
+            }
+            line = entry.getLine();
+            out.println(line);
+        }
+
+        long start = System.nanoTime();
+        boolean successful = executeCommand(line, out);
+        long elapsed = System.nanoTime() - start;
+        if (timing)
+            out.println(String.format("Completed in %.3f ms", elapsed / 1000000d));
+        addHistory(line, elapsed, successful);
+        return true;
+    }
+
+    private boolean executeCommand(String line, PrintStream out) {
+        ParseResult<C> result;
+        try {
+            List<String> args = AliasArgumentsParser.parse(line);
+            result = parser.parseWithResult(cli.getMetadata(), args);
+        } catch (ParseException e) {
+            out.println(e.getMessage());
+            return false;
+        }
+        if (!result.wasSuccessful()) {
+            for (ParseException e : result.getErrors()) {
+                out.println(e.getMessage());
+            }
+            return false;
+        }
+        C command = result.getCommand();
+        if (command == null) {
+            out.println(String.format("Unknown command: %s", line));
+            return false;
+        }
+
+        try {
+            executor.execute(command, out);
+            return true;
+        } catch (Exception e) {
+            out.println(String.format("Error: %s", e.getMessage()));
+            return false;
+        }
+    }
+
+    private HistoryEntry findHistory(String ref) {
+        if (history.isEmpty())
+            return null;
+        if ("!".equals(ref))
+            return history.peekLast();
+        try {
+            int number = Integer.parseInt(ref);
+            for (HistoryEntry entry : history) {
+                if (entry.getNumber() == number)
+                    return entry;
+            }
+        } catch (NumberFormatException e) {
+            // Not a history reference
+        }
+        return null;
+    }
+
+    private void addHistory(String line, long elapsed, boolean successful) {
+        if (historySize == 0)
+            return;
+        history.addLast(new HistoryEntry(nextNumber++, line, elapsed, successful));
+        while (history.size() > historySize) {
+            history.removeFirst();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.shell;
+
+import java.io.PrintStream;
+
+/**
+ * Interface for executors which run the commands parsed by a {@link Shell}
+ *
+ * @param <C>
+ *            Command type
+ */
+public interface ShellCommandExecutor<C> {
+
+    /**
+     * Executes a command
+     * 
+     * @param command
+     *            Command
+     * @param out
+     *            Output stream of the shell
+     * @throws Exception
+     *             Thrown if the command fails, the shell reports the error and
+     *             carries on reading commands
+     */
+    public void execute(C command, PrintStream out) throws Exception;
+}
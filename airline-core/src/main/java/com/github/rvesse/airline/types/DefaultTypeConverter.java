@@ -19,8 +19,13 @@ import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
 import com.github.rvesse.airline.types.numerics.NumericTypeConverter;
 
-import java.lang.reflect.Constructor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * The default type converter
@@ -30,10 +35,43 @@ import java.lang.reflect.Method;
  * {@code valueOf(String)} method. Finally it supports any class that defines a
  * constructor that takes a string.
  * </p>
+ * <p>
+ * The methods and constructors available on each type are looked up
+ * reflectively only once per type and then cached, so converting many values
+ * to the same type does not repeat the lookups nor throw and discard an
+ * exception for each method a type does not have.
+ * </p>
+ * <p>
+ * Primitive conversions are delegated to the numeric converter when it
+ * supports them, otherwise they fall back to boxed conversion. Derived
+ * converters which override {@link #convert(String, Class, String)} always use
+ * boxed conversion so that their customisations apply to primitives too.
+ * </p>
  */
-public class DefaultTypeConverter extends DefaultTypeConverterProvider implements TypeConverter  {
+public class DefaultTypeConverter extends DefaultTypeConverterProvider
+        implements TypeConverter, PrimitiveTypeConverter {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType CONVERSION_TYPE = MethodType.methodType(Object.class, String.class);
+
+    private static final ClassValue<StringConversions> CONVERSIONS = new ClassValue<StringConversions>() {
+        @Override
+        protected StringConversions computeValue(Class<?> type) {
+            return new StringConversions(type);
+        }
+    };
 
-    private NumericTypeConverter numericConverter;
+    /**
+     * Whether a converter class overrides {@link #convert(String, Class, String)}
+     */
+    private static final ClassValue<Boolean> OVERRIDES_CONVERT = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(Class<?> type) {
+            return overrides(type, DefaultTypeConverter.class, "convert", String.class, Class.class, String.class);
+        }
+    };
+
+    private volatile NumericTypeConverter numericConverter;
 
     public DefaultTypeConverter() {
         this(null);
@@ -71,6 +109,33 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
         throw new ParseOptionConversionException(name, value, type.getSimpleName());
     }
 
+    @Override
+    public int convertInt(String name, String value) {
+        checkArguments(name, Integer.TYPE, value);
+        NumericTypeConverter numericConverter = this.numericConverter;
+        if (numericConverter instanceof PrimitiveTypeConverter && !OVERRIDES_CONVERT.get(getClass()))
+            return ((PrimitiveTypeConverter) numericConverter).convertInt(name, value);
+        return ((Number) convert(name, Integer.TYPE, value)).intValue();
+    }
+
+    @Override
+    public long convertLong(String name, String value) {
+        checkArguments(name, Long.TYPE, value);
+        NumericTypeConverter numericConverter = this.numericConverter;
+        if (numericConverter instanceof PrimitiveTypeConverter && !OVERRIDES_CONVERT.get(getClass()))
+            return ((PrimitiveTypeConverter) numericConverter).convertLong(name, value);
+        return ((Number) convert(name, Long.TYPE, value)).longValue();
+    }
+
+    @Override
+    public double convertDouble(String name, String value) {
+        checkArguments(name, Double.TYPE, value);
+        NumericTypeConverter numericConverter = this.numericConverter;
+        if (numericConverter instanceof PrimitiveTypeConverter && !OVERRIDES_CONVERT.get(getClass()))
+            return ((PrimitiveTypeConverter) numericConverter).convertDouble(name, value);
+        return ((Number) convert(name, Double.TYPE, value)).doubleValue();
+    }
+
     /**
      * Checks that the arguments are all non-null
      * 
@@ -90,6 +155,34 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
             throw new NullPointerException("value is null");
     }
 
+    /**
+     * Checks whether a class overrides a method declared by one of its base
+     * classes, used to decide whether a conversion shortcut would bypass a
+     * customisation made by a derived converter
+     * 
+     * @param type
+     *            Class to check
+     * @param base
+     *            Base class which declares the method
+     * @param methodName
+     *            Method name
+     * @param parameterTypes
+     *            Method parameter types
+     * @return True if the method is declared by {@code type} or any class
+     *         between it and {@code base}, false otherwise
+     */
+    public static boolean overrides(Class<?> type, Class<?> base, String methodName, Class<?>... parameterTypes) {
+        for (Class<?> cls = type; cls != null && cls != base; cls = cls.getSuperclass()) {
+            try {
+                cls.getDeclaredMethod(methodName, parameterTypes);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // Not declared at this level
+            }
+        }
+        return false;
+    }
+
     /**
      * Tries to convert the value by invoking a constructor that takes a string
      * on the type
@@ -101,12 +194,7 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion result
      */
     protected final ConvertResult tryConvertStringConstructor(String name, Class<?> type, String value) {
-        try {
-            Constructor<?> constructor = type.getConstructor(String.class);
-            return new ConvertResult(constructor.newInstance(value));
-        } catch (Throwable ignored) {
-        }
-        return ConvertResult.FAILURE;
+        return tryConvert(CONVERSIONS.get(type).getConstructor(), value);
     }
 
     /**
@@ -150,12 +238,15 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
      * @return Conversion Result
      */
     protected final ConvertResult tryConvertStringMethod(String name, Class<?> type, String value, String methodName) {
-        try {
-            Method method = type.getMethod(methodName, String.class);
-            if (method.getReturnType().isAssignableFrom(type)) {
-                return new ConvertResult(method.invoke(null, value));
+        return tryConvert(CONVERSIONS.get(type).getMethod(methodName), value);
+    }
+
+    private static ConvertResult tryConvert(MethodHandle conversion, String value) {
+        if (conversion != null) {
+            try {
+                return new ConvertResult((Object) conversion.invokeExact(value));
+            } catch (Throwable ignored) {
             }
-        } catch (Throwable ignored) {
         }
         return ConvertResult.FAILURE;
     }
@@ -185,9 +276,63 @@ public class DefaultTypeConverter extends DefaultTypeConverterProvider implement
 
     @Override
     public void setNumericConverter(NumericTypeConverter converter) {
-        this.numericConverter = converter;
-        if (this.numericConverter == null) {
-            this.numericConverter = new DefaultNumericConverter();
+        this.numericConverter = converter != null ? converter : new DefaultNumericConverter();
+    }
+
+    /**
+     * The string conversions available on a type, resolved on first use
+     */
+    private static final class StringConversions {
+        /**
+         * Marker used to cache the fact that a conversion is not available
+         */
+        private static final MethodHandle MISSING = MethodHandles.constant(Object.class, null);
+
+        private final Class<?> type;
+        private final ConcurrentMap<String, MethodHandle> methods = new ConcurrentHashMap<String, MethodHandle>();
+        private volatile MethodHandle constructor;
+
+        private StringConversions(Class<?> type) {
+            this.type = type;
+        }
+
+        private MethodHandle getMethod(String methodName) {
+            MethodHandle method = this.methods.get(methodName);
+            if (method == null) {
+                method = resolveMethod(methodName);
+                this.methods.putIfAbsent(methodName, method);
+            }
+            return method != MISSING ? method : null;
+        }
+
+        private MethodHandle resolveMethod(String methodName) {
+            try {
+                Method method = this.type.getMethod(methodName, String.class);
+                if (Modifier.isStatic(method.getModifiers()) && method.getReturnType().isAssignableFrom(this.type)) {
+                    return LOOKUP.unreflect(method).asType(CONVERSION_TYPE);
+                }
+            } catch (Exception ignored) {
+            }
+            return MISSING;
+        }
+
+        private MethodHandle getConstructor() {
+            MethodHandle constructor = this.constructor;
+            if (constructor == null) {
+                constructor = resolveConstructor();
+                this.constructor = constructor;
+            }
+            return constructor != MISSING ? constructor : null;
+        }
+
+        private MethodHandle resolveConstructor() {
+            try {
+                if (!Modifier.isAbstract(this.type.getModifiers())) {
+                    return LOOKUP.unreflectConstructor(this.type.getConstructor(String.class)).asType(CONVERSION_TYPE);
+                }
+            } catch (Exception ignored) {
+            }
+            return MISSING;
         }
     }
 }
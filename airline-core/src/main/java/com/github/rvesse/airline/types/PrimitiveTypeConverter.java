@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.types;
+
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+
+/**
+ * Interface for type converters which can convert values directly to primitive
+ * numerics without boxing them
+ * <p>
+ * This is used when binding options/arguments to {@code int[]},
+ * {@code long[]} and {@code double[]} fields, for which the parser accumulates
+ * values in primitive arrays rather than as objects. Implementations
+ * <strong>must</strong> produce the same values as their
+ * {@link TypeConverter#convert(String, Class, String)} implementation would
+ * for the equivalent primitive type.
+ * </p>
+ */
+public interface PrimitiveTypeConverter {
+
+    /**
+     * Converts a value into an {@code int}
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param value
+     *            String value
+     * @return Converted value
+     * @exception ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract int convertInt(String name, String value);
+
+    /**
+     * Converts a value into a {@code long}
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param value
+     *            String value
+     * @return Converted value
+     * @exception ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract long convertLong(String name, String value);
+
+    /**
+     * Converts a value into a {@code double}
+     * 
+     * @param name
+     *            Option/Argument name
+     * @param value
+     *            String value
+     * @return Converted value
+     * @exception ParseOptionConversionException
+     *                Should be thrown if the value cannot be converted
+     */
+    public abstract double convertDouble(String name, String value);
+}
@@ -55,7 +55,7 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
     }
 
     @Override
-    protected ConvertResult tryConvertDouble(String name, String value) {
+    protected double parseDouble(String name, String value) {
         NumericCandidate candidate = parse(value);
         double base = getDouble(candidate);
         long multiplier = getMultiplier(candidate);
@@ -66,7 +66,7 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
                     "%s: Abbreviated numeric value \"%s\" evaluates to a value outside the range of the numeric type %s",
                     name, value, Double.class.getSimpleName()), name, value, Double.class.getSimpleName());
 
-        return new ConvertResult(result);
+        return result;
     }
 
     @Override
@@ -85,17 +85,15 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
     }
 
     @Override
-    protected ConvertResult tryConvertLong(String name, String value) {
+    protected long parseLong(String name, String value) {
         NumericCandidate candidate = parse(value);
         long base = getLong(candidate);
         long multiplier = getMultiplier(candidate);
-        long result = multiplier != 1l ? base * multiplier : base;
-
-        return new ConvertResult(result);
+        return multiplier != 1l ? base * multiplier : base;
     }
 
     @Override
-    protected ConvertResult tryConvertInteger(String name, String value) {
+    protected int parseInt(String name, String value) {
         NumericCandidate candidate = parse(value);
         long base = getLong(candidate);
         long multiplier = getMultiplier(candidate);
@@ -106,7 +104,7 @@ public abstract class ComplexNumericTypeConverter extends DefaultNumericConverte
                     "%s: Abbreviated numeric value \"%s\" evaluates to a value outside the range of the numeric type %s",
                     name, value, Integer.class.getSimpleName()), name, value, Integer.class.getSimpleName());
 
-        return new ConvertResult((int) result);
+        return (int) result;
     }
 
     @Override
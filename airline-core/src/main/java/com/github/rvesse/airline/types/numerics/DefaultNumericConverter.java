@@ -18,21 +18,59 @@ package com.github.rvesse.airline.types.numerics;
 import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
 import com.github.rvesse.airline.types.ConvertResult;
 import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.PrimitiveTypeConverter;
 import com.github.rvesse.airline.types.TypeConverter;
 import com.github.rvesse.airline.types.TypeConverterProvider;
 
-public class DefaultNumericConverter implements TypeConverterProvider, NumericTypeConverter {
+/**
+ * The default numeric converter
+ * <p>
+ * Derived converters which customise how {@code int}, {@code long} or
+ * {@code double} values are parsed should override {@link #parseInt},
+ * {@link #parseLong} and {@link #parseDouble} so that both boxed conversions
+ * and the primitive conversions used for primitive array fields are affected.
+ * Converters which instead override {@link #tryConvertNumerics},
+ * {@link #tryConvertInteger}, {@link #tryConvertLong} or
+ * {@link #tryConvertDouble} are still honoured, primitive conversions then go
+ * through those methods and box the value.
+ * </p>
+ */
+public class DefaultNumericConverter implements TypeConverterProvider, NumericTypeConverter, PrimitiveTypeConverter {
+
+    /**
+     * Which of the boxed conversion methods a converter class overrides
+     */
+    private static final ClassValue<Overrides> OVERRIDES = new ClassValue<Overrides>() {
+        @Override
+        protected Overrides computeValue(Class<?> type) {
+            return new Overrides(type);
+        }
+    };
+
+    private volatile TypeConverter converter;
 
     @Override
     public <T> TypeConverter getTypeConverter(OptionMetadata option, ParseState<T> state) {
-        return new DefaultTypeConverter(this);
+        return getTypeConverter();
     }
 
     @Override
     public <T> TypeConverter getTypeConverter(ArgumentsMetadata arguments, ParseState<T> state) {
-        return new DefaultTypeConverter(this);
+        return getTypeConverter();
+    }
+
+    private TypeConverter getTypeConverter() {
+        // Converter is stateless beyond its reference to us so only create it
+        // once
+        TypeConverter converter = this.converter;
+        if (converter == null) {
+            converter = new DefaultTypeConverter(this);
+            this.converter = converter;
+        }
+        return converter;
     }
 
     @Override
@@ -57,8 +95,60 @@ public class DefaultNumericConverter implements TypeConverterProvider, NumericTy
         return ConvertResult.FAILURE;
     }
 
+    @Override
+    public int convertInt(String name, String value) {
+        if (OVERRIDES.get(getClass()).integers)
+            return convertBoxed(name, Integer.TYPE, value).intValue();
+        try {
+            return parseInt(name, value);
+        } catch (Exception e) {
+            throw new ParseOptionConversionException(name, value, Integer.TYPE.getSimpleName());
+        }
+    }
+
+    @Override
+    public long convertLong(String name, String value) {
+        if (OVERRIDES.get(getClass()).longs)
+            return convertBoxed(name, Long.TYPE, value).longValue();
+        try {
+            return parseLong(name, value);
+        } catch (Exception e) {
+            throw new ParseOptionConversionException(name, value, Long.TYPE.getSimpleName());
+        }
+    }
+
+    @Override
+    public double convertDouble(String name, String value) {
+        if (OVERRIDES.get(getClass()).doubles)
+            return convertBoxed(name, Double.TYPE, value).doubleValue();
+        try {
+            return parseDouble(name, value);
+        } catch (Exception e) {
+            throw new ParseOptionConversionException(name, value, Double.TYPE.getSimpleName());
+        }
+    }
+
+    private Number convertBoxed(String name, Class<?> type, String value) {
+        ConvertResult result = tryConvertNumerics(name, type, value);
+        if (!result.wasSuccessfull() || !(result.getConvertedValue() instanceof Number))
+            throw new ParseOptionConversionException(name, value, type.getSimpleName());
+        return (Number) result.getConvertedValue();
+    }
+
+    protected int parseInt(String name, String value) {
+        return Integer.parseInt(value);
+    }
+
+    protected long parseLong(String name, String value) {
+        return Long.parseLong(value);
+    }
+
+    protected double parseDouble(String name, String value) {
+        return Double.parseDouble(value);
+    }
+
     protected ConvertResult tryConvertDouble(String name, String value) {
-        return new ConvertResult(Double.valueOf(value));
+        return new ConvertResult(parseDouble(name, value));
     }
 
     protected ConvertResult tryConvertFloat(String name, String value) {
@@ -66,11 +156,11 @@ public class DefaultNumericConverter implements TypeConverterProvider, NumericTy
     }
 
     protected ConvertResult tryConvertLong(String name, String value) {
-        return new ConvertResult(Long.valueOf(value));
+        return new ConvertResult(parseLong(name, value));
     }
 
     protected ConvertResult tryConvertInteger(String name, String value) {
-        return new ConvertResult(Integer.valueOf(value));
+        return new ConvertResult(parseInt(name, value));
     }
 
     protected ConvertResult tryConvertShort(String name, String value) {
@@ -80,4 +170,21 @@ public class DefaultNumericConverter implements TypeConverterProvider, NumericTy
     protected ConvertResult tryConvertByte(String name, String value) {
         return new ConvertResult(Byte.valueOf(value));
     }
+
+    private static final class Overrides {
+        private final boolean integers, longs, doubles;
+
+        private Overrides(Class<?> type) {
+            boolean numerics = DefaultTypeConverter.overrides(type, DefaultNumericConverter.class,
+                    "tryConvertNumerics", String.class, Class.class, String.class);
+            this.integers = numerics || overridesConversion(type, "tryConvertInteger");
+            this.longs = numerics || overridesConversion(type, "tryConvertLong");
+            this.doubles = numerics || overridesConversion(type, "tryConvertDouble");
+        }
+
+        private static boolean overridesConversion(Class<?> type, String methodName) {
+            return DefaultTypeConverter.overrides(type, DefaultNumericConverter.class, methodName, String.class,
+                    String.class);
+        }
+    }
 }
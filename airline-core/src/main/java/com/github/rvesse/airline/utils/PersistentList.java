@@ -0,0 +1,156 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list which supports constant time appends by sharing its
+ * backing storage with the list it was derived from
+ * <p>
+ * Appending to the most recently derived list in a chain writes into the
+ * shared buffer in place, so a sequence of appends costs amortised
+ * {@code O(1)} per element rather than requiring a full copy each time. If an
+ * older list in the chain is appended to, i.e. the history has branched, then
+ * the relevant prefix is copied into a new buffer so that no list ever
+ * observes changes made via another list.
+ * </p>
+ * <p>
+ * This is primarily intended for use by
+ * {@link com.github.rvesse.airline.parser.ParseState} which is an immutable
+ * structure that is extended one token at a time.
+ * </p>
+ *
+ * @param <T>
+ *            Element type
+ */
+public final class PersistentList<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final PersistentList<Object> EMPTY = new PersistentList<Object>(new Buffer(new Object[0], 0), 0);
+
+    /**
+     * Shared storage, {@code used} records how many slots have been claimed by
+     * some list derived from this buffer
+     */
+    private static final class Buffer {
+        private volatile Object[] items;
+        private int used;
+
+        private Buffer(Object[] items, int used) {
+            this.items = items;
+            this.used = used;
+        }
+    }
+
+    private final Buffer buffer;
+    private final int size;
+
+    private PersistentList(Buffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Gets the empty list
+     * 
+     * @return Empty list
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentList<T> empty() {
+        return (PersistentList<T>) EMPTY;
+    }
+
+    /**
+     * Creates a new list containing the given items
+     * 
+     * @param items
+     *            Items
+     * @return List
+     */
+    public static <T> PersistentList<T> of(Iterable<? extends T> items) {
+        PersistentList<T> list = empty();
+        if (items == null)
+            return list;
+        for (T item : items) {
+            list = list.append(item);
+        }
+        return list;
+    }
+
+    /**
+     * Returns a new list consisting of this list with the given item appended,
+     * this list is unchanged
+     * 
+     * @param item
+     *            Item to append
+     * @return New list
+     */
+    public PersistentList<T> append(T item) {
+        synchronized (this.buffer) {
+            if (this.buffer.used == this.size && this.buffer != EMPTY.buffer) {
+                // We are the tip of this buffer so can claim the next slot
+                Object[] items = this.buffer.items;
+                if (this.size == items.length) {
+                    items = Arrays.copyOf(items, grow(items.length));
+                }
+                items[this.size] = item;
+                this.buffer.items = items;
+                this.buffer.used++;
+                return new PersistentList<T>(this.buffer, this.size + 1);
+            }
+        }
+
+        // History has branched so copy the relevant prefix
+        Object[] items = new Object[grow(this.size)];
+        System.arraycopy(this.buffer.items, 0, items, 0, this.size);
+        items[this.size] = item;
+        return new PersistentList<T>(new Buffer(items, this.size + 1), this.size + 1);
+    }
+
+    /**
+     * Returns a new list consisting of this list minus its last item, this list
+     * is unchanged
+     * 
+     * @return New list
+     * @throws IndexOutOfBoundsException
+     *             Thrown if the list is empty
+     */
+    public PersistentList<T> removeLast() {
+        if (this.size == 0)
+            throw new IndexOutOfBoundsException("Cannot remove from an empty list");
+        return new PersistentList<T>(this.buffer, this.size - 1);
+    }
+
+    private static int grow(int capacity) {
+        return capacity < DEFAULT_CAPACITY ? DEFAULT_CAPACITY : capacity + (capacity >> 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public T get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        return (T) this.buffer.items[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+}
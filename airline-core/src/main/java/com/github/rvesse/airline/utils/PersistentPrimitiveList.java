@@ -0,0 +1,217 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of primitive numeric values which supports constant time
+ * appends by sharing its backing array with the list it was derived from
+ * <p>
+ * This follows the same sharing scheme as {@link PersistentList} but holds its
+ * values in an {@code int[]}, {@code long[]} or {@code double[]} so that large
+ * numbers of numeric values can be accumulated without boxing each one. The
+ * {@link java.util.List} view boxes values as they are retrieved, callers that
+ * want the values themselves should use {@link #toPrimitiveArray()}.
+ * </p>
+ */
+public final class PersistentPrimitiveList extends AbstractList<Object> implements RandomAccess {
+
+    private static final int DEFAULT_CAPACITY = 8;
+
+    /**
+     * Shared storage, {@code used} records how many slots have been claimed by
+     * some list derived from this buffer
+     */
+    private static final class Buffer {
+        private volatile Object items;
+        private int used;
+
+        private Buffer(Object items, int used) {
+            this.items = items;
+            this.used = used;
+        }
+    }
+
+    private final Class<?> primitiveType;
+    private final Buffer buffer;
+    private final int size;
+
+    private PersistentPrimitiveList(Class<?> primitiveType, Buffer buffer, int size) {
+        this.primitiveType = primitiveType;
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * Gets whether values of the given type can be held by this list
+     * 
+     * @param type
+     *            Type
+     * @return True if the type is {@code int}, {@code long} or {@code double}
+     */
+    public static boolean isSupported(Class<?> type) {
+        return Integer.TYPE.equals(type) || Long.TYPE.equals(type) || Double.TYPE.equals(type);
+    }
+
+    /**
+     * Creates an empty list
+     * 
+     * @param primitiveType
+     *            Primitive type of the values, see {@link #isSupported(Class)}
+     * @return Empty list
+     */
+    public static PersistentPrimitiveList empty(Class<?> primitiveType) {
+        if (!isSupported(primitiveType))
+            throw new IllegalArgumentException("Primitive type " + primitiveType + " is not supported");
+        return new PersistentPrimitiveList(primitiveType, new Buffer(newArray(primitiveType, DEFAULT_CAPACITY), 0),
+                0);
+    }
+
+    /**
+     * Gets the primitive type of the values
+     * 
+     * @return Primitive type
+     */
+    public Class<?> getPrimitiveType() {
+        return primitiveType;
+    }
+
+    /**
+     * Returns a new list consisting of this list with the given value appended
+     * 
+     * @param value
+     *            Value
+     * @return New list
+     */
+    public PersistentPrimitiveList appendInt(int value) {
+        return append(Integer.TYPE, value, 0);
+    }
+
+    /**
+     * Returns a new list consisting of this list with the given value appended
+     * 
+     * @param value
+     *            Value
+     * @return New list
+     */
+    public PersistentPrimitiveList appendLong(long value) {
+        return append(Long.TYPE, value, 0);
+    }
+
+    /**
+     * Returns a new list consisting of this list with the given value appended
+     * 
+     * @param value
+     *            Value
+     * @return New list
+     */
+    public PersistentPrimitiveList appendDouble(double value) {
+        return append(Double.TYPE, 0, value);
+    }
+
+    private PersistentPrimitiveList append(Class<?> type, long integral, double floating) {
+        if (!this.primitiveType.equals(type))
+            throw new IllegalArgumentException(
+                    "Cannot append a " + type + " value to a list of " + this.primitiveType + " values");
+
+        synchronized (this.buffer) {
+            if (this.buffer.used == this.size) {
+                // We are the tip of this buffer so can claim the next slot
+                Object items = this.buffer.items;
+                if (this.size == length(items)) {
+                    items = copyOf(items, grow(this.size));
+                }
+                set(items, this.size, integral, floating);
+                this.buffer.items = items;
+                this.buffer.used++;
+                return new PersistentPrimitiveList(this.primitiveType, this.buffer, this.size + 1);
+            }
+        }
+
+        // History has branched so copy the relevant prefix
+        Object items = copyOf(this.buffer.items, grow(this.size));
+        set(items, this.size, integral, floating);
+        return new PersistentPrimitiveList(this.primitiveType, new Buffer(items, this.size + 1), this.size + 1);
+    }
+
+    /**
+     * Copies the values into a new primitive array of exactly the size of
+     * this list
+     * 
+     * @return An {@code int[]}, {@code long[]} or {@code double[]} as
+     *         appropriate
+     */
+    public Object toPrimitiveArray() {
+        return copyOf(this.buffer.items, this.size);
+    }
+
+    @Override
+    public Object get(int index) {
+        if (index < 0 || index >= this.size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.size);
+        Object items = this.buffer.items;
+        if (items instanceof int[])
+            return ((int[]) items)[index];
+        if (items instanceof long[])
+            return ((long[]) items)[index];
+        return ((double[]) items)[index];
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    private static int grow(int capacity) {
+        return capacity < DEFAULT_CAPACITY ? DEFAULT_CAPACITY : capacity + (capacity >> 1);
+    }
+
+    private static Object newArray(Class<?> type, int length) {
+        if (Integer.TYPE.equals(type))
+            return new int[length];
+        if (Long.TYPE.equals(type))
+            return new long[length];
+        return new double[length];
+    }
+
+    private static int length(Object items) {
+        if (items instanceof int[])
+            return ((int[]) items).length;
+        if (items instanceof long[])
+            return ((long[]) items).length;
+        return ((double[]) items).length;
+    }
+
+    private static void set(Object items, int index, long integral, double floating) {
+        if (items instanceof int[])
+            ((int[]) items)[index] = (int) integral;
+        else if (items instanceof long[])
+            ((long[]) items)[index] = integral;
+        else
+            ((double[]) items)[index] = floating;
+    }
+
+    private static Object copyOf(Object items, int length) {
+        if (items instanceof int[])
+            return Arrays.copyOf((int[]) items, length);
+        if (items instanceof long[])
+            return Arrays.copyOf((long[]) items, length);
+        return Arrays.copyOf((double[]) items, length);
+    }
+}
@@ -0,0 +1,76 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.SortedSet;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+
+public class TestAccessor {
+
+    @Command(name = "accessors")
+    public static class Accessors {
+        @Option(name = "--final")
+        private final String finalValue = null;
+
+        @Option(name = "--int")
+        private int primitive;
+
+        @Option(name = "--sorted")
+        private SortedSet<String> sorted;
+
+        @Arguments
+        private LinkedList<String> args;
+    }
+
+    @Test
+    public void accessor_final_field() {
+        Accessors cmd = SingleCommand.singleCommand(Accessors.class).parse("--final", "value");
+        Assert.assertEquals(cmd.finalValue, "value");
+    }
+
+    @Test
+    public void accessor_primitive_field() {
+        Accessors cmd = SingleCommand.singleCommand(Accessors.class).parse("--int", "1", "--int", "2");
+        Assert.assertEquals(cmd.primitive, 2);
+    }
+
+    @Test
+    public void accessor_collection_fields() {
+        Accessors cmd = SingleCommand.singleCommand(Accessors.class).parse("--sorted", "b", "--sorted", "a", "x",
+                "y");
+        Assert.assertEquals(cmd.sorted.first(), "a");
+        Assert.assertEquals(cmd.sorted.size(), 2);
+        Assert.assertEquals(cmd.args, Arrays.asList("x", "y"));
+    }
+
+    @Test
+    public void accessor_repeated_injection() {
+        SingleCommand<Accessors> parser = SingleCommand.singleCommand(Accessors.class);
+        for (int i = 0; i < 100; i++) {
+            Accessors cmd = parser.parse("--int", Integer.toString(i), "arg" + i);
+            Assert.assertEquals(cmd.primitive, i);
+            Assert.assertEquals(cmd.args, Arrays.asList("arg" + i));
+        }
+    }
+}
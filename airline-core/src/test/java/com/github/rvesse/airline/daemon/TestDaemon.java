@@ -0,0 +1,400 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.daemon;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.DaemonBuilder;
+import com.github.rvesse.airline.utils.AirlineUtils;
+
+public class TestDaemon {
+
+    @Command(name = "echo")
+    public static class Echo implements Callable<String> {
+        @Arguments
+        @Required
+        public List<String> args = new ArrayList<>();
+
+        @Override
+        public String call() {
+            return args.toString();
+        }
+    }
+
+    @Command(name = "exit")
+    public static class Exit implements Callable<Integer> {
+        @Arguments
+        public int code;
+
+        @Override
+        public Integer call() {
+            return code;
+        }
+    }
+
+    @Command(name = "fail")
+    public static class Fail implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    @Command(name = "print")
+    public static class Print implements Runnable {
+        @Arguments
+        public List<String> args = new ArrayList<>();
+
+        @Override
+        public void run() {
+            System.out.println("out " + args);
+            System.err.println("err " + args);
+        }
+    }
+
+    @Command(name = "env")
+    public static class Env {
+        @Arguments
+        public String name;
+    }
+
+    private static class Output {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ByteArrayOutputStream err = new ByteArrayOutputStream();
+        int exitCode;
+
+        String out() throws IOException {
+            return out.toString("UTF-8").replace("\r\n", "\n");
+        }
+
+        String err() throws IOException {
+            return err.toString("UTF-8").replace("\r\n", "\n");
+        }
+    }
+
+    private Cli<Object> cli() {
+        return Cli.<Object> builder("test").withCommand(Echo.class).withCommand(Exit.class).withCommand(Fail.class)
+                .withCommand(Print.class).withCommand(Env.class).build();
+    }
+
+    private DaemonBuilder<Object> builder() throws IOException {
+        File tokenFile = File.createTempFile("daemon", ".token");
+        tokenFile.deleteOnExit();
+        return Daemon.builder(cli()).withTokenFile(tokenFile);
+    }
+
+    private DaemonClient client(Daemon<?> daemon) {
+        return new DaemonClient(daemon.getPort(), daemon.getToken());
+    }
+
+    private Output run(DaemonClient client, String... args) throws IOException {
+        return run(client, new File("."), Collections.<String, String> emptyMap(), args);
+    }
+
+    private Output run(DaemonClient client, File cwd, Map<String, String> env, String... args) throws IOException {
+        Output output = new Output();
+        output.exitCode = client.run(Arrays.asList(args), cwd, env, output.out, output.err);
+        return output;
+    }
+
+    @Test
+    public void daemon_runs_commands() throws IOException {
+        try (Daemon<Object> daemon = builder().start()) {
+            Assert.assertTrue(daemon.getPort() > 0);
+            DaemonClient client = client(daemon);
+
+            Output output = run(client, "echo", "a", "b c");
+            Assert.assertEquals(output.exitCode, 0);
+            Assert.assertEquals(output.out(), "[a, b c]\n");
+            Assert.assertEquals(output.err(), "");
+
+            output = run(client, "exit", "3");
+            Assert.assertEquals(output.exitCode, 3);
+        }
+    }
+
+    @Test
+    public void daemon_errors() throws IOException {
+        try (Daemon<Object> daemon = builder().start()) {
+            DaemonClient client = client(daemon);
+
+            Output output = run(client, "fail");
+            Assert.assertEquals(output.exitCode, Daemon.EXIT_FAILURE);
+            Assert.assertEquals(output.err(), "Error: failed\n");
+
+            output = run(client, "echo");
+            Assert.assertEquals(output.exitCode, Daemon.EXIT_PARSE_ERROR);
+            Assert.assertFalse(output.err().isEmpty());
+
+            output = run(client, "unknown");
+            Assert.assertEquals(output.exitCode, Daemon.EXIT_PARSE_ERROR);
+        }
+    }
+
+    @Test
+    public void daemon_passes_request_context() throws IOException {
+        DaemonCommandExecutor<Object> executor = new DaemonCommandExecutor<Object>() {
+            @Override
+            public int execute(Object command, DaemonRequest request, PrintStream out, PrintStream err) {
+                out.print(request.getWorkingDirectory().getPath());
+                err.print(request.getEnvironment().get(((Env) command).name));
+                return 0;
+            }
+        };
+        try (Daemon<Object> daemon = builder().withExecutor(executor).start()) {
+            DaemonClient client = client(daemon);
+            File cwd = new File("target").getAbsoluteFile();
+            Output output = run(client, cwd, AirlineUtils.singletonMap("FOO", "bar"), "env", "FOO");
+            Assert.assertEquals(output.exitCode, 0);
+            Assert.assertEquals(output.out(), cwd.getPath());
+            Assert.assertEquals(output.err(), "bar");
+        }
+    }
+
+    @Test
+    public void daemon_token() throws IOException {
+        try (Daemon<Object> daemon = builder().withToken("secret").start()) {
+            Output output = run(new DaemonClient(daemon.getPort(), "wrong"), "echo", "a");
+            Assert.assertEquals(output.exitCode, Daemon.EXIT_FAILURE);
+            Assert.assertEquals(output.out(), "");
+            Assert.assertEquals(output.err(), "Invalid token\n");
+
+            output = run(new DaemonClient(daemon.getPort(), "secret"), "echo", "a");
+            Assert.assertEquals(output.exitCode, 0);
+            Assert.assertEquals(output.out(), "[a]\n");
+        }
+    }
+
+    @Test
+    public void daemon_concurrent_clients() throws Exception {
+        try (Daemon<Object> daemon = builder().withWorkers(4).start()) {
+            final DaemonClient client = client(daemon);
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            try {
+                List<Future<Void>> futures = new ArrayList<>();
+                for (int t = 0; t < 8; t++) {
+                    final int thread = t;
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            for (int i = 0; i < 50; i++) {
+                                String arg = thread + "-" + i;
+                                Output output = run(client, "echo", arg);
+                                Assert.assertEquals(output.exitCode, 0);
+                                Assert.assertEquals(output.out(), "[" + arg + "]\n");
+                            }
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void daemon_routes_standard_streams() throws Exception {
+        PrintStream originalOut = System.out, originalErr = System.err;
+        try (final Daemon<Object> daemon = builder().withWorkers(4).start()) {
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<Void>> futures = new ArrayList<>();
+                for (int i = 0; i < 20; i++) {
+                    final String arg = Integer.toString(i);
+                    futures.add(executor.submit(new Callable<Void>() {
+                        @Override
+                        public Void call() throws Exception {
+                            Output output = run(client(daemon), "print", arg);
+                            Assert.assertEquals(output.exitCode, 0);
+                            Assert.assertEquals(output.out(), "out [" + arg + "]\n");
+                            Assert.assertEquals(output.err(), "err [" + arg + "]\n");
+                            return null;
+                        }
+                    }));
+                }
+                for (Future<Void> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+        }
+        // Standard streams are restored once no daemon is running
+        Assert.assertSame(System.out, originalOut);
+        Assert.assertSame(System.err, originalErr);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void daemon_closed() throws IOException {
+        Daemon<Object> daemon = builder().start();
+        int port = daemon.getPort();
+        daemon.close();
+        Assert.assertTrue(daemon.isClosed());
+        run(new DaemonClient(port, daemon.getToken()), "echo", "a");
+    }
+
+    @Test
+    public void daemon_generated_token() throws IOException {
+        try (Daemon<Object> daemon = builder().start()) {
+            Assert.assertFalse(daemon.getToken().isEmpty());
+            File tokenFile = daemon.getTokenFile();
+            Assert.assertTrue(tokenFile.isFile());
+            Assert.assertEquals(DaemonClient.readToken(tokenFile), daemon.getToken());
+            try {
+                Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(tokenFile.toPath());
+                Assert.assertEquals(permissions,
+                        EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+            } catch (UnsupportedOperationException e) {
+                // Not a POSIX file system
+            }
+
+            Output output = run(client(daemon), "echo", "a");
+            Assert.assertEquals(output.exitCode, 0);
+
+            daemon.close();
+            Assert.assertFalse(tokenFile.exists());
+        }
+    }
+
+    @Test
+    public void daemon_generated_tokens_differ() throws IOException {
+        try (Daemon<Object> a = builder().start(); Daemon<Object> b = builder().start()) {
+            Assert.assertNotEquals(a.getToken(), b.getToken());
+        }
+    }
+
+    @Test
+    public void daemon_default_token_files() throws IOException {
+        String home = System.getProperty("user.home");
+        File dir = Files.createTempDirectory("daemon-home").toFile();
+        System.setProperty("user.home", dir.getAbsolutePath());
+        try (Daemon<Object> a = Daemon.builder(cli()).start(); Daemon<Object> b = Daemon.builder(cli()).start()) {
+            // Each daemon for the same CLI gets its own token file
+            Assert.assertEquals(a.getTokenFile(), Daemon.getDefaultTokenFile("test", a.getPort()));
+            Assert.assertEquals(b.getTokenFile(), Daemon.getDefaultTokenFile("test", b.getPort()));
+            Assert.assertEquals(DaemonClient.readToken(a.getTokenFile()), a.getToken());
+            Assert.assertEquals(DaemonClient.readToken(b.getTokenFile()), b.getToken());
+
+            a.close();
+            Assert.assertFalse(a.getTokenFile().exists());
+            Assert.assertEquals(run(client(b), "echo", "a").exitCode, 0);
+            Assert.assertEquals(DaemonClient.readToken(b.getTokenFile()), b.getToken());
+        } finally {
+            System.setProperty("user.home", home);
+        }
+    }
+
+    @Test
+    public void daemon_shared_token_file() throws IOException {
+        File tokenFile = File.createTempFile("daemon", ".token");
+        tokenFile.deleteOnExit();
+        try (Daemon<Object> a = Daemon.builder(cli()).withTokenFile(tokenFile).start();
+                Daemon<Object> b = Daemon.builder(cli()).withTokenFile(tokenFile).start()) {
+            Assert.assertEquals(DaemonClient.readToken(tokenFile), b.getToken());
+
+            // The file now holds the token of the second daemon so closing the
+            // first must leave it alone
+            a.close();
+            Assert.assertEquals(DaemonClient.readToken(tokenFile), b.getToken());
+            b.close();
+            Assert.assertFalse(tokenFile.exists());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void daemon_client_requires_token() {
+        new DaemonClient(1234, null);
+    }
+
+    @Test
+    public void daemon_token_checked_first() throws IOException {
+        try (Daemon<Object> daemon = builder().withToken("secret").start();
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+            socket.setSoTimeout(5000);
+            // Only send the header and token, the daemon must reject the
+            // token without waiting for the rest of the request
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            output.writeInt(DaemonProtocol.MAGIC);
+            output.writeInt(DaemonProtocol.VERSION);
+            DaemonProtocol.writeString(output, "wrong");
+            output.flush();
+
+            DataInputStream input = new DataInputStream(socket.getInputStream());
+            ByteArrayOutputStream err = new ByteArrayOutputStream();
+            byte type;
+            while ((type = input.readByte()) == DaemonProtocol.STDERR) {
+                byte[] data = new byte[input.readInt()];
+                input.readFully(data);
+                err.write(data);
+            }
+            Assert.assertEquals(type, DaemonProtocol.EXIT);
+            Assert.assertEquals(input.readInt(), Daemon.EXIT_FAILURE);
+            Assert.assertEquals(err.toString("UTF-8").trim(), "Invalid token");
+            Assert.assertEquals(input.read(), -1);
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void daemon_request_too_large() throws IOException {
+        try (Daemon<Object> daemon = builder().withMaxRequestSize(1024).start()) {
+            char[] arg = new char[4096];
+            Arrays.fill(arg, 'a');
+            run(client(daemon), "echo", new String(arg));
+        }
+    }
+
+    @Test
+    public void daemon_request_timeout() throws IOException {
+        try (Daemon<Object> daemon = builder().withRequestTimeout(100).start();
+                Socket socket = new Socket(InetAddress.getLoopbackAddress(), daemon.getPort())) {
+            socket.setSoTimeout(5000);
+            // Never send a request, the daemon should disconnect us
+            Assert.assertEquals(socket.getInputStream().read(), -1);
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.cli.CliCommandGroupUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliCommandUsageGenerator;
+import com.github.rvesse.airline.help.cli.CliGlobalUsageGenerator;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.ParserMetadata;
+
+public class TestHelpCache {
+
+    /**
+     * Output stream that counts how many times it is written to
+     */
+    private static class CountingOutputStream extends ByteArrayOutputStream {
+        private int writes = 0;
+
+        @Override
+        public synchronized void write(int b) {
+            writes++;
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            writes++;
+            super.write(b, off, len);
+        }
+    }
+
+    /**
+     * Derived generator which has not opted in to caching so its output is
+     * never cached
+     */
+    private static class UncachedGenerator extends CliCommandUsageGenerator {
+        protected int invocations = 0;
+
+        @Override
+        public <T> void usage(String programName, String[] groupNames, String commandName, CommandMetadata command,
+                ParserMetadata<T> parserConfig, OutputStream out)
+                throws IOException {
+            invocations++;
+            super.usage(programName, groupNames, commandName, command, parserConfig, out);
+        }
+    }
+
+    /**
+     * Derived generator which opts in to caching
+     */
+    private static class CachedGenerator extends UncachedGenerator {
+        @Override
+        public Object getCacheKey() {
+            return getConfigurationKey();
+        }
+    }
+
+    private static GlobalMetadata<Runnable> git() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class).withCommand(Help.class).withCommand(Add.class);
+        builder.withGroup("remote").withDescription("Manage set of tracked repositories")
+                .withDefaultCommand(RemoteShow.class).withCommand(RemoteShow.class).withCommand(RemoteAdd.class);
+        return builder.build().getMetadata();
+    }
+
+    @Test
+    public void help_cache_command() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        CommandMetadata add = global.findDefaultGroupCommand("add", false);
+        HelpCache cache = new HelpCache(10);
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new CliCommandUsageGenerator().usage("git", null, "add", add, global.getParserConfiguration(), expected);
+
+        for (int i = 0; i < 3; i++) {
+            CountingOutputStream out = new CountingOutputStream();
+            cache.usage(new CliCommandUsageGenerator(), "git", null, "add", add, global.getParserConfiguration(),
+                    out);
+            Assert.assertEquals(out.toByteArray(), expected.toByteArray());
+            Assert.assertEquals(out.writes, 1);
+        }
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void help_cache_global_and_group() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        CommandGroupMetadata[] remote = new CommandGroupMetadata[] { global.findCommandGroup("remote", false) };
+        HelpCache cache = new HelpCache(10);
+
+        ByteArrayOutputStream expectedGlobal = new ByteArrayOutputStream();
+        new CliGlobalUsageGenerator<Runnable>().usage(global, expectedGlobal);
+        ByteArrayOutputStream expectedGroup = new ByteArrayOutputStream();
+        new CliCommandGroupUsageGenerator<Runnable>().usage(global, remote, expectedGroup);
+
+        for (int i = 0; i < 2; i++) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            cache.usage(new CliGlobalUsageGenerator<Runnable>(), global, out);
+            Assert.assertEquals(out.toByteArray(), expectedGlobal.toByteArray());
+
+            out = new ByteArrayOutputStream();
+            cache.usage(new CliCommandGroupUsageGenerator<Runnable>(), global, remote, out);
+            Assert.assertEquals(out.toByteArray(), expectedGroup.toByteArray());
+        }
+        Assert.assertEquals(cache.size(), 2);
+    }
+
+    @Test
+    public void help_cache_keyed_by_configuration() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        CommandMetadata add = global.findDefaultGroupCommand("add", false);
+        HelpCache cache = new HelpCache(10);
+
+        ByteArrayOutputStream wide = new ByteArrayOutputStream();
+        cache.usage(new CliCommandUsageGenerator(200), "git", null, "add", add, null, wide);
+        ByteArrayOutputStream narrow = new ByteArrayOutputStream();
+        cache.usage(new CliCommandUsageGenerator(20), "git", null, "add", add, null, narrow);
+        ByteArrayOutputStream hidden = new ByteArrayOutputStream();
+        cache.usage(new CliCommandUsageGenerator(20, true), "git", null, "add", add, null, hidden);
+
+        Assert.assertEquals(cache.size(), 3);
+        Assert.assertNotEquals(wide.toString(), narrow.toString());
+
+        // A different metadata instance is a different entry
+        cache.usage(new CliCommandUsageGenerator(200), "git", null, "add",
+                git().findDefaultGroupCommand("add", false), null, new ByteArrayOutputStream());
+        Assert.assertEquals(cache.size(), 4);
+    }
+
+    @Test
+    public void help_cache_uncacheable_generator() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        CommandMetadata add = global.findDefaultGroupCommand("add", false);
+        HelpCache cache = new HelpCache(10);
+        UncachedGenerator generator = new UncachedGenerator();
+
+        cache.usage(generator, "git", null, "add", add, null, new ByteArrayOutputStream());
+        cache.usage(generator, "git", null, "add", add, null, new ByteArrayOutputStream());
+        Assert.assertEquals(generator.invocations, 2);
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void help_cache_opt_in() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        CommandMetadata add = global.findDefaultGroupCommand("add", false);
+        HelpCache cache = new HelpCache(10);
+        CachedGenerator generator = new CachedGenerator();
+
+        cache.usage(generator, "git", null, "add", add, null, new ByteArrayOutputStream());
+        cache.usage(generator, "git", null, "add", add, null, new ByteArrayOutputStream());
+        Assert.assertEquals(generator.invocations, 1);
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void help_cache_releases_metadata() throws IOException, InterruptedException {
+        HelpCache cache = new HelpCache(10);
+        GlobalMetadata<Runnable> global = git();
+        cache.usage(new CliGlobalUsageGenerator<Runnable>(), global, new ByteArrayOutputStream());
+        Assert.assertEquals(cache.size(), 1);
+
+        // Once the metadata is no longer referenced the cache must not keep it
+        // alive so its entry is eventually discarded
+        WeakReference<GlobalMetadata<Runnable>> ref = new WeakReference<>(global);
+        global = null;
+        for (int i = 0; i < 50 && (ref.get() != null || cache.size() > 0); i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        Assert.assertNull(ref.get());
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void help_cache_bounded() throws IOException {
+        GlobalMetadata<Runnable> global = git();
+        CommandMetadata add = global.findDefaultGroupCommand("add", false);
+        HelpCache cache = new HelpCache(2);
+
+        for (int columns : Arrays.asList(40, 50, 60, 70)) {
+            cache.usage(new CliCommandUsageGenerator(columns), "git", null, "add", add, null,
+                    new ByteArrayOutputStream());
+        }
+        Assert.assertEquals(cache.size(), 2);
+
+        cache.clear();
+        Assert.assertEquals(cache.size(), 0);
+    }
+}
@@ -0,0 +1,182 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.suggester;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.GitCommand;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.ParseState;
+
+public class TestCompleteCommand {
+
+    @Command(name = "gc", description = "Cleanup unnecessary files")
+    public static class Gc extends GitCommand {
+        @Option(name = "--level", arity = 1)
+        @AllowedRawValues(allowedValues = { "low", "high" })
+        public String level;
+
+        @Option(name = "--branch", arity = 1)
+        public String branch;
+    }
+
+    public static class Branches implements Suggester {
+        @Override
+        public Iterable<String> suggest() {
+            return Arrays.asList("main", "topic");
+        }
+    }
+
+    @Command(name = CompleteCommand.NAME, hidden = true)
+    public static class BranchCompleteCommand<T> extends CompleteCommand<T> {
+        @Override
+        protected Completions completeValue(OptionMetadata option) {
+            if (option.getOptions().contains("--branch"))
+                return new Completions(Arrays.asList("main", "topic"), false);
+            return super.completeValue(option);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cli<Runnable> git(Class<? extends Runnable> completeCommand) {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withDefaultCommand(Help.class)
+                .withCommands(Help.class, Add.class, Gc.class, completeCommand);
+        builder.withGroup("remote").withCommands(RemoteShow.class, RemoteAdd.class);
+        return builder.build();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompleteCommand<Runnable> completer() {
+        return (CompleteCommand<Runnable>) git(CompleteCommand.class).parse("__complete");
+    }
+
+    private static Completions complete(int cword, String... words) {
+        return completer().complete(cword, Arrays.asList(words));
+    }
+
+    @Test
+    public void complete_global() {
+        Completions completions = complete(1, "git", "");
+        Assert.assertTrue(completions.isCacheable());
+        Assert.assertTrue(completions.getCandidates().containsAll(Arrays.asList("help", "add", "gc", "remote", "-v")));
+        Assert.assertFalse(completions.getCandidates().contains(CompleteCommand.NAME));
+    }
+
+    @Test
+    public void complete_group() {
+        Completions completions = complete(2, "git", "remote", "a");
+        Assert.assertTrue(completions.isCacheable());
+        Assert.assertTrue(completions.getCandidates().containsAll(Arrays.asList("show", "add")));
+        Assert.assertFalse(completions.getCandidates().contains("gc"));
+    }
+
+    @Test
+    public void complete_command_options() {
+        Completions completions = complete(2, "git", "add", "-");
+        Assert.assertTrue(completions.isCacheable());
+        Assert.assertTrue(completions.getCandidates().containsAll(Arrays.asList("-i", "--")));
+
+        // Options are still offered after arguments
+        completions = complete(3, "git", "add", "file", "-");
+        Assert.assertTrue(completions.getCandidates().contains("-i"));
+
+        // But not after the arguments separator
+        completions = complete(4, "git", "add", "--", "file", "-");
+        Assert.assertTrue(completions.isCacheable());
+        Assert.assertTrue(completions.getCandidates().isEmpty());
+    }
+
+    @Test
+    public void complete_option_values() {
+        Completions completions = complete(3, "git", "gc", "--level", "");
+        Assert.assertTrue(completions.isCacheable());
+        Assert.assertEquals(completions.getCandidates(), Arrays.asList("low", "high"));
+
+        // Options without allowed values have no candidates
+        completions = complete(3, "git", "gc", "--branch", "");
+        Assert.assertTrue(completions.getCandidates().isEmpty());
+    }
+
+    @Test
+    public void complete_invalid() {
+        Assert.assertFalse(complete(0, "git").isCacheable());
+        Assert.assertTrue(complete(5, "git", "add").getCandidates().isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void complete_dynamic_values() {
+        CompleteCommand<Runnable> completer = (CompleteCommand<Runnable>) git(BranchCompleteCommand.class)
+                .parse("__complete");
+
+        Completions completions = completer.complete(3, Arrays.asList("git", "gc", "--branch", ""));
+        Assert.assertFalse(completions.isCacheable());
+        Assert.assertEquals(completions.getCandidates(), Arrays.asList("main", "topic"));
+
+        completions = completer.complete(3, Arrays.asList("git", "gc", "--level", ""));
+        Assert.assertTrue(completions.isCacheable());
+        Assert.assertEquals(completions.getCandidates(), Arrays.asList("low", "high"));
+    }
+
+    @Test
+    public void complete_dynamic_not_cacheable() {
+        CompleteCommand<Runnable> completer = new CompleteCommand<Runnable>() {
+            @Override
+            protected Class<? extends Suggester> getSuggesterClass(ParseState<Runnable> state) {
+                return Branches.class;
+            }
+        };
+        completer.metadata = completer().metadata;
+
+        Completions completions = completer.complete(1, Arrays.asList("git", ""));
+        Assert.assertFalse(completions.isCacheable());
+        Assert.assertEquals(completions.getCandidates(), Arrays.asList("main", "topic"));
+    }
+
+    @Test
+    public void complete_protocol() {
+        // Words after the separator are passed through even if they look like
+        // options
+        Runnable cmd = git(CompleteCommand.class).parse("__complete", "--", "3", "git", "gc", "--level", "h");
+        Assert.assertTrue(cmd instanceof CompleteCommand);
+
+        PrintStream original = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            System.setOut(new PrintStream(output, true));
+            cmd.run();
+        } finally {
+            System.setOut(original);
+        }
+        Assert.assertEquals(new String(output.toByteArray(), StandardCharsets.UTF_8),
+                CompleteCommand.STATIC + "\nlow\nhigh\n");
+    }
+}
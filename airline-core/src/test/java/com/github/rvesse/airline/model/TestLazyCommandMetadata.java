@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.Git.Add;
+import com.github.rvesse.airline.Git.RemoteAdd;
+import com.github.rvesse.airline.Git.RemoteShow;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+
+public class TestLazyCommandMetadata {
+
+    private static Cli<Runnable> createGit(boolean lazy) {
+        //@formatter:off
+        CliBuilder<Runnable> builder = Cli.<Runnable>builder("git")
+                .withDescription("the stupid content tracker")
+                .withDefaultCommand(Help.class)
+                .withCommands(Help.class, Add.class);
+        builder.withGroup("remote")
+               .withDescription("Manage set of tracked repositories")
+               .withDefaultCommand(RemoteShow.class)
+               .withCommands(RemoteShow.class, RemoteAdd.class);
+        //@formatter:on
+        if (lazy)
+            builder.withParser().withLazyCommandLoading();
+        return builder.build();
+    }
+
+    private static LazyCommandMetadata find(GlobalMetadata<Runnable> metadata, String group, String name) {
+        CommandMetadata command = group != null ? metadata.findCommandGroup(group, false).findCommand(name, false)
+                : metadata.findDefaultGroupCommand(name, false);
+        Assert.assertTrue(command instanceof LazyCommandMetadata, "Command " + name + " was not lazy");
+        return (LazyCommandMetadata) command;
+    }
+
+    @Test
+    public void lazy_command_loading_01() {
+        Cli<Runnable> git = createGit(true);
+        GlobalMetadata<Runnable> metadata = git.getMetadata();
+        Assert.assertTrue(metadata.getParserConfiguration().usesLazyCommandLoading());
+
+        // Nothing loaded when building the CLI but global options are known
+        Assert.assertFalse(find(metadata, null, "add").isLoaded());
+        Assert.assertFalse(find(metadata, "remote", "add").isLoaded());
+        Assert.assertFalse(find(metadata, "remote", "show").isLoaded());
+        Assert.assertEquals(metadata.getOptions().size(), 1);
+        Assert.assertTrue(metadata.getOptions().get(0).getOptions().contains("-v"));
+
+        // Only the invoked command is loaded
+        Runnable command = git.parse("-v", "remote", "add", "-t", "master", "origin", "git@example.org:repo.git");
+        Assert.assertTrue(command instanceof RemoteAdd);
+        RemoteAdd add = (RemoteAdd) command;
+        Assert.assertTrue(add.verbose);
+        Assert.assertEquals(add.branch, "master");
+        Assert.assertEquals(add.remote, Arrays.asList("origin", "git@example.org:repo.git"));
+
+        Assert.assertTrue(find(metadata, "remote", "add").isLoaded());
+        Assert.assertFalse(find(metadata, null, "add").isLoaded());
+        Assert.assertFalse(find(metadata, "remote", "show").isLoaded());
+    }
+
+    @Test
+    public void lazy_command_loading_02() {
+        CommandMetadata eager = MetadataLoader.loadCommand(RemoteAdd.class);
+        CommandMetadata lazy = find(createGit(true).getMetadata(), "remote", "add");
+
+        Assert.assertEquals(lazy, eager);
+        Assert.assertEquals(lazy.getDescription(), eager.getDescription());
+        Assert.assertEquals(lazy.getGlobalOptions(), eager.getGlobalOptions());
+        Assert.assertEquals(lazy.getGroupOptions(), eager.getGroupOptions());
+        Assert.assertEquals(lazy.getCommandOptions(), eager.getCommandOptions());
+        Assert.assertEquals(lazy.getAllOptions(), eager.getAllOptions());
+        Assert.assertEquals(lazy.getArguments(), eager.getArguments());
+        Assert.assertEquals(lazy.getDefaultOption(), eager.getDefaultOption());
+        Assert.assertEquals(lazy.getMetadataInjections(), eager.getMetadataInjections());
+    }
+
+    @Test
+    public void lazy_command_loading_help_01() throws IOException {
+        for (String[] command : new String[][] { {}, { "add" }, { "remote" }, { "remote", "add" } }) {
+            ByteArrayOutputStream expected = new ByteArrayOutputStream();
+            Help.help(createGit(false).getMetadata(), Arrays.asList(command), expected);
+            ByteArrayOutputStream actual = new ByteArrayOutputStream();
+            Help.help(createGit(true).getMetadata(), Arrays.asList(command), actual);
+
+            Assert.assertEquals(actual.toString(StandardCharsets.UTF_8.name()),
+                    expected.toString(StandardCharsets.UTF_8.name()));
+        }
+    }
+
+    @Test
+    public void lazy_command_loading_default_command_01() {
+        Cli<Runnable> git = createGit(true);
+        Assert.assertTrue(git.parse("-v") instanceof Help);
+        Assert.assertTrue(git.parse("remote") instanceof RemoteShow);
+        Assert.assertTrue(git.parse("add", "file") instanceof Add);
+    }
+
+    @Test
+    public void lazy_command_loading_disabled_01() {
+        Assert.assertFalse(
+                MetadataLoader.loadCommand(Git.Add.class, (ParserMetadata<?>) null) instanceof LazyCommandMetadata);
+        Assert.assertFalse(
+                createGit(false).getMetadata().findDefaultGroupCommand("add", false) instanceof LazyCommandMetadata);
+    }
+}
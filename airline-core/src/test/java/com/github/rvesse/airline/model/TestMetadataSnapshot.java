@@ -0,0 +1,256 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.inject.Inject;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.Ping;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.TestParametersDelegate.DelegatingSetsFieldsOnBothMainParamsAndTheDelegatedParams;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.args.Args1;
+import com.github.rvesse.airline.args.ArgsAllowedValues;
+import com.github.rvesse.airline.args.ArgsInheritedDiscussion;
+import com.github.rvesse.airline.args.overrides.ArgsMergeOverride;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.parser.ParseResult;
+
+public class TestMetadataSnapshot {
+
+    private static final Class<?>[] COMMANDS = { Args1.class, ArgsAllowedValues.class, ArgsInheritedDiscussion.class,
+            ArgsMergeOverride.class, DelegatingSetsFieldsOnBothMainParamsAndTheDelegatedParams.class, Ping.class,
+            Git.Add.class };
+
+    public static class EmptyDelegate {
+        public String value;
+    }
+
+    @Command(name = "delegating")
+    public static class Delegating {
+        @Inject
+        public EmptyDelegate delegate = new EmptyDelegate();
+
+        @Option(name = "-a")
+        public String a;
+    }
+
+    private static File createSnapshotFile() throws IOException {
+        File file = File.createTempFile("airline", ".snapshot");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static void assertSameOptions(List<OptionMetadata> snapshot, List<OptionMetadata> reflective) {
+        Assert.assertEquals(new HashSet<>(snapshot), new HashSet<>(reflective));
+        for (OptionMetadata option : snapshot) {
+            OptionMetadata other = reflective.get(reflective.indexOf(option));
+            Assert.assertEquals(option.getAccessors(), other.getAccessors());
+            Assert.assertEquals(option.getRestrictions().size(), other.getRestrictions().size());
+            Assert.assertEquals(option.getTypeConverterProvider().getClass(),
+                    other.getTypeConverterProvider().getClass());
+        }
+    }
+
+    private static Set<String> titles(List<HelpSection> sections) {
+        Set<String> titles = new HashSet<>();
+        for (HelpSection section : sections) {
+            titles.add(section.getTitle());
+        }
+        return titles;
+    }
+
+    private static void assertSameMetadata(CommandMetadata snapshot, CommandMetadata reflective) {
+        Assert.assertEquals(snapshot, reflective);
+        Assert.assertEquals(snapshot.getDescription(), reflective.getDescription());
+        Assert.assertEquals(snapshot.isHidden(), reflective.isHidden());
+        Assert.assertEquals(snapshot.getGroupNames(), reflective.getGroupNames());
+        assertSameOptions(snapshot.getGlobalOptions(), reflective.getGlobalOptions());
+        assertSameOptions(snapshot.getGroupOptions(), reflective.getGroupOptions());
+        assertSameOptions(snapshot.getCommandOptions(), reflective.getCommandOptions());
+        Assert.assertEquals(snapshot.getDefaultOption(), reflective.getDefaultOption());
+        Assert.assertEquals(snapshot.getArguments(), reflective.getArguments());
+        if (reflective.getArguments() != null) {
+            Assert.assertEquals(snapshot.getArguments().getAccessors(), reflective.getArguments().getAccessors());
+        }
+        Assert.assertEquals(new ArrayList<Accessor>(snapshot.getMetadataInjections()),
+                new ArrayList<Accessor>(reflective.getMetadataInjections()));
+        Assert.assertEquals(titles(snapshot.getHelpSections()), titles(reflective.getHelpSections()));
+    }
+
+    @Test
+    public void metadata_snapshot_round_trip_01() throws IOException {
+        File file = createSnapshotFile();
+
+        MetadataSnapshot snapshot = new MetadataSnapshot(file);
+        for (Class<?> cls : COMMANDS) {
+            assertSameMetadata(snapshot.loadCommand(cls), MetadataLoader.loadCommand(cls, false));
+        }
+        Assert.assertTrue(snapshot.isModified());
+        snapshot.save();
+        Assert.assertFalse(snapshot.isModified());
+        Assert.assertTrue(file.isFile());
+
+        // A fresh snapshot should replay the saved entries without needing to
+        // record any new ones
+        snapshot = new MetadataSnapshot(file);
+        for (Class<?> cls : COMMANDS) {
+            assertSameMetadata(snapshot.loadCommand(cls), MetadataLoader.loadCommand(cls, false));
+        }
+        Assert.assertFalse(snapshot.isModified());
+    }
+
+    @Test
+    public void metadata_snapshot_corrupt_01() throws IOException {
+        File file = createSnapshotFile();
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write("not a snapshot".getBytes(StandardCharsets.UTF_8));
+        }
+
+        MetadataSnapshot snapshot = new MetadataSnapshot(file);
+        assertSameMetadata(snapshot.loadCommand(Args1.class), MetadataLoader.loadCommand(Args1.class, false));
+        Assert.assertTrue(snapshot.isModified());
+        snapshot.save();
+
+        snapshot = new MetadataSnapshot(file);
+        assertSameMetadata(snapshot.loadCommand(Args1.class), MetadataLoader.loadCommand(Args1.class, false));
+        Assert.assertFalse(snapshot.isModified());
+    }
+
+    @Test
+    public void metadata_snapshot_truncated_01() throws IOException {
+        File file = createSnapshotFile();
+        MetadataSnapshot snapshot = new MetadataSnapshot(file);
+        snapshot.loadCommand(Args1.class);
+        snapshot.loadCommand(ArgsAllowedValues.class);
+        snapshot.save();
+
+        // Truncating the file loses the last entry but the rest is still
+        // usable
+        byte[] data = Files.readAllBytes(file.toPath());
+        try (OutputStream output = new FileOutputStream(file)) {
+            output.write(data, 0, data.length - 4);
+        }
+
+        snapshot = new MetadataSnapshot(file);
+        snapshot.loadCommand(Args1.class);
+        Assert.assertFalse(snapshot.isModified());
+        assertSameMetadata(snapshot.loadCommand(ArgsAllowedValues.class),
+                MetadataLoader.loadCommand(ArgsAllowedValues.class, false));
+        Assert.assertTrue(snapshot.isModified());
+    }
+
+    @Test
+    public void metadata_snapshot_add_entry_01() throws IOException {
+        File file = createSnapshotFile();
+        MetadataSnapshot snapshot = new MetadataSnapshot(file);
+        snapshot.loadCommand(Args1.class);
+        snapshot.save();
+
+        // Saving a snapshot holding both a replayed entry and a newly
+        // recorded one must write both back
+        snapshot = new MetadataSnapshot(file);
+        snapshot.loadCommand(Args1.class);
+        Assert.assertFalse(snapshot.isModified());
+        snapshot.loadCommand(ArgsInheritedDiscussion.class);
+        Assert.assertTrue(snapshot.isModified());
+        snapshot.save();
+
+        snapshot = new MetadataSnapshot(file);
+        assertSameMetadata(snapshot.loadCommand(Args1.class), MetadataLoader.loadCommand(Args1.class, false));
+        assertSameMetadata(snapshot.loadCommand(ArgsInheritedDiscussion.class),
+                MetadataLoader.loadCommand(ArgsInheritedDiscussion.class, false));
+        Assert.assertFalse(snapshot.isModified());
+    }
+
+    @Test
+    public void metadata_snapshot_single_command_01() throws IOException {
+        File file = createSnapshotFile();
+        for (int i = 0; i < 2; i++) {
+            SingleCommand<Ping> parser = SingleCommand.singleCommand(Ping.class,
+                    new ParserBuilder<Ping>().withMetadataSnapshot(file).build());
+            Assert.assertEquals(parser.getParserConfiguration().getMetadataSnapshot().getFile(), file);
+            Assert.assertTrue(file.isFile());
+
+            Ping ping = parser.parse("-c", "3");
+            Assert.assertEquals(ping.count, 3);
+        }
+    }
+
+    @Test
+    public void metadata_snapshot_cli_01() throws IOException {
+        File file = createSnapshotFile();
+        for (int i = 0; i < 2; i++) {
+            CliBuilder<Object> builder = Cli.<Object> builder("test").withCommands(Args1.class, ArgsAllowedValues.class);
+            builder.withParser().withMetadataSnapshot(file);
+            Cli<Object> cli = builder.build();
+            Assert.assertTrue(file.isFile());
+
+            ParseResult<Object> result = cli.parseWithResult("ArgsAllowedValues", "-mode", "b");
+            Assert.assertTrue(result.wasSuccessful());
+            Assert.assertEquals(((ArgsAllowedValues) result.getCommand()).mode, "b");
+        }
+    }
+
+    @Test
+    public void metadata_snapshot_unannotated_delegate_01() throws IOException, URISyntaxException {
+        File file = createSnapshotFile();
+        MetadataSnapshot snapshot = new MetadataSnapshot(file);
+        snapshot.loadCommand(Delegating.class);
+        snapshot.save();
+
+        snapshot = new MetadataSnapshot(file);
+        assertSameMetadata(snapshot.loadCommand(Delegating.class), MetadataLoader.loadCommand(Delegating.class, false));
+        Assert.assertFalse(snapshot.isModified());
+
+        // The delegate declares no options but changing it must still
+        // invalidate the entry since it could have gained some
+        File classFile = new File(EmptyDelegate.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        Assert.assertTrue(classFile.isDirectory(), "Test classes expected to be loaded from a directory");
+        classFile = new File(classFile, EmptyDelegate.class.getName().replace('.', '/') + ".class");
+        long lastModified = classFile.lastModified();
+        Assert.assertTrue(classFile.setLastModified(lastModified + 60000));
+        try {
+            snapshot = new MetadataSnapshot(file);
+            assertSameMetadata(snapshot.loadCommand(Delegating.class),
+                    MetadataLoader.loadCommand(Delegating.class, false));
+            Assert.assertTrue(snapshot.isModified());
+        } finally {
+            classFile.setLastModified(lastModified);
+        }
+    }
+}
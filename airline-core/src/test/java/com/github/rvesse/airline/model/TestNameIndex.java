@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.help.sections.HelpSection;
+
+public class TestNameIndex {
+
+    private static CommandMetadata command(String name) {
+        return new CommandMetadata(name, null, false, null, null, null, null, null,
+                Collections.<Accessor> emptyList(), Object.class, Collections.<String> emptyList(),
+                Collections.<Group> emptyList(), Collections.<HelpSection> emptyList());
+    }
+
+    private static CommandGroupMetadata group(String name, CommandMetadata... commands) {
+        return new CommandGroupMetadata(name, null, false, Collections.<OptionMetadata> emptyList(),
+                Collections.<CommandGroupMetadata> emptyList(), null, Arrays.asList(commands));
+    }
+
+    private final CommandMetadata add = command("add");
+    private final CommandMetadata address = command("address");
+    private final CommandMetadata remove = command("remove");
+    private final CommandMetadata rename = command("rename");
+    private final NameIndex<CommandMetadata> index = NameIndex.ofCommands(Arrays.asList(remove, add, rename,
+            address));
+
+    @Test
+    public void name_index_exact() {
+        Assert.assertSame(index.find("add"), add);
+        Assert.assertSame(index.find("address"), address);
+        Assert.assertSame(index.find("remove"), remove);
+        Assert.assertNull(index.find("re"));
+        Assert.assertNull(index.find("foo"));
+        Assert.assertNull(index.find(null));
+    }
+
+    @Test
+    public void name_index_abbreviated_01() {
+        Assert.assertSame(index.findAbbreviated("addr"), address);
+        Assert.assertSame(index.findAbbreviated("rem"), remove);
+        Assert.assertSame(index.findAbbreviated("ren"), rename);
+    }
+
+    @Test
+    public void name_index_abbreviated_02() {
+        // Exact matches win over otherwise ambiguous abbreviations
+        Assert.assertSame(index.findAbbreviated("add"), add);
+        Assert.assertSame(index.find("add", true), add);
+    }
+
+    @Test
+    public void name_index_abbreviated_ambiguous() {
+        Assert.assertNull(index.findAbbreviated("ad"));
+        Assert.assertNull(index.findAbbreviated("re"));
+        Assert.assertNull(index.findAbbreviated(""));
+        Assert.assertNull(index.findAbbreviated("zzz"));
+        Assert.assertNull(index.find("rem", false));
+    }
+
+    @Test
+    public void name_index_abbreviated_large() {
+        List<CommandMetadata> commands = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            commands.add(command(String.format("cmd%03d", i)));
+        }
+        NameIndex<CommandMetadata> large = NameIndex.ofCommands(commands);
+        for (int i = 0; i < 500; i++) {
+            Assert.assertSame(large.findAbbreviated(String.format("cmd%03d", i)), commands.get(i));
+        }
+        Assert.assertNull(large.findAbbreviated("cmd1"));
+        Assert.assertNull(large.findAbbreviated("cmd49"));
+    }
+
+    @Test
+    public void name_index_group_commands_added() {
+        CommandGroupMetadata group = group("remote", add);
+        Assert.assertSame(group.findCommand("a", true), add);
+
+        // Index must reflect commands added after it was first used
+        group.addCommand(address);
+        Assert.assertNull(group.findCommand("a", true));
+        Assert.assertSame(group.findCommand("addr", true), address);
+    }
+
+    @Test
+    public void name_index_sub_groups_added() {
+        CommandGroupMetadata parent = group("parent");
+        Assert.assertNull(parent.findSubGroup("child", false));
+
+        CommandGroupMetadata child = group("child", add);
+        parent.addSubGroup(child);
+        Assert.assertSame(parent.findSubGroup("child", false), child);
+        Assert.assertSame(parent.findSubGroup("ch", true), child);
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.annotations.OptionType;
+
+public class TestOptionIndex {
+
+    private static OptionMetadata option(String... names) {
+        return new OptionMetadata(OptionType.COMMAND, Arrays.asList(names), names[0], "", 0, false, false, false,
+                null, null, null);
+    }
+
+    private final OptionMetadata verbose = option("-v", "--verbose");
+    private final OptionMetadata version = option("--version");
+    private final OptionMetadata output = option("-o", "--output");
+    private final OptionIndex index = new OptionIndex(Arrays.asList(verbose, version, output));
+
+    @Test
+    public void option_index_list() {
+        Assert.assertEquals(index.size(), 3);
+        Assert.assertEquals(index, Arrays.asList(verbose, version, output));
+    }
+
+    @Test
+    public void option_index_exact() {
+        Assert.assertSame(index.find("-v"), verbose);
+        Assert.assertSame(index.find("--verbose"), verbose);
+        Assert.assertSame(index.find("--version"), version);
+        Assert.assertNull(index.find("--verb"));
+        Assert.assertNull(index.find("--foo"));
+    }
+
+    @Test
+    public void option_index_abbreviated_01() {
+        Assert.assertSame(index.findAbbreviated("--verb"), verbose);
+        Assert.assertSame(index.findAbbreviated("--vers"), version);
+        Assert.assertSame(index.findAbbreviated("--o"), output);
+        Assert.assertSame(index.findAbbreviated("-o"), output);
+    }
+
+    @Test
+    public void option_index_abbreviated_02() {
+        // Ambiguous abbreviations
+        Assert.assertNull(index.findAbbreviated("--ver"));
+        Assert.assertNull(index.findAbbreviated("--"));
+        Assert.assertNull(index.findAbbreviated("--foo"));
+    }
+
+    @Test
+    public void option_index_abbreviated_03() {
+        // Multiple names of a single option matching is not ambiguous
+        OptionMetadata colour = option("--colour", "--color");
+        OptionIndex index = new OptionIndex(Arrays.asList(colour, output));
+        Assert.assertSame(index.findAbbreviated("--col"), colour);
+    }
+
+    @Test
+    public void option_index_abbreviated_04() {
+        // Exact match takes precedence over abbreviation
+        OptionMetadata test = option("--test");
+        OptionMetadata tests = option("--tests");
+        OptionIndex index = new OptionIndex(Arrays.asList(test, tests));
+        Assert.assertSame(index.findAbbreviated("--test"), test);
+        Assert.assertNull(index.findAbbreviated("--tes"));
+    }
+
+    @Test
+    public void option_index_large() {
+        List<OptionMetadata> options = new ArrayList<OptionMetadata>();
+        for (int i = 0; i < 500; i++) {
+            options.add(option("--option-" + i));
+        }
+        OptionIndex index = new OptionIndex(options);
+        Assert.assertSame(index.find("--option-250"), options.get(250));
+        Assert.assertSame(index.findAbbreviated("--option-499"), options.get(499));
+        Assert.assertNull(index.findAbbreviated("--option-"));
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+
+public class TestSuggestionIndex {
+
+    @Command(name = "secret", hidden = true)
+    public static class Secret extends Git.GitCommand {
+    }
+
+    private final SuggestionIndex index = SuggestionIndex.of(Arrays.asList("status", "stash", "show", "add",
+            "address", "remote", "rename", "remove", "--verbose", "--version", "add"));
+
+    @Test
+    public void suggestion_index_prefix() {
+        Assert.assertEquals(index.size(), 10);
+        Assert.assertEquals(index.suggest("st", 10), Arrays.asList("stash", "status"));
+        Assert.assertEquals(index.suggest("re", 2), Arrays.asList("remote", "remove"));
+        Assert.assertEquals(index.suggest("--ver", 10), Arrays.asList("--verbose", "--version"));
+        Assert.assertEquals(index.suggest("x", 10), Collections.<String> emptyList());
+        Assert.assertEquals(index.suggest("", 100).size(), 10);
+        Assert.assertEquals(index.suggest(null, 3), Arrays.asList("--verbose", "--version", "add"));
+    }
+
+    @Test
+    public void suggestion_index_correct() {
+        Assert.assertEquals(index.correct("stauts", 3), Arrays.asList("status"));
+        Assert.assertEquals(index.correct("remoe", 3), Arrays.asList("remote", "remove"));
+        Assert.assertEquals(index.correct("remoe", 1, 1), Arrays.asList("remote"));
+        Assert.assertEquals(index.correct("ad", 3), Arrays.asList("add"));
+        Assert.assertEquals(index.correct("--verbos", 3), Arrays.asList("--verbose", "--version"));
+        Assert.assertEquals(index.correct("--verson", 3), Arrays.asList("--version", "--verbose"));
+        Assert.assertEquals(index.correct("--verson", 1, 3), Arrays.asList("--version"));
+
+        // Exact matches and distant words are not corrections
+        Assert.assertEquals(index.correct("add", 3), Collections.<String> emptyList());
+        Assert.assertEquals(index.correct("commit", 3), Collections.<String> emptyList());
+        Assert.assertEquals(SuggestionIndex.empty().correct("add", 3), Collections.<String> emptyList());
+    }
+
+    @Test
+    public void suggestion_index_distance() {
+        Assert.assertEquals(SuggestionIndex.distance("", ""), 0);
+        Assert.assertEquals(SuggestionIndex.distance("abc", ""), 3);
+        Assert.assertEquals(SuggestionIndex.distance("kitten", "sitting"), 3);
+        Assert.assertEquals(SuggestionIndex.distance("status", "stauts"), 2);
+    }
+
+    @Test
+    public void suggestion_index_large_matches_brute_force() {
+        Random random = new Random(42);
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            names.add(word(random));
+        }
+        SuggestionIndex large = SuggestionIndex.of(names);
+
+        for (int i = 0; i < 200; i++) {
+            String word = word(random);
+            List<String> expected = new ArrayList<>();
+            for (int d = 1; d <= 2; d++) {
+                List<String> atDistance = new ArrayList<>();
+                for (String name : names) {
+                    if (SuggestionIndex.distance(word, name) == d && !atDistance.contains(name))
+                        atDistance.add(name);
+                }
+                Collections.sort(atDistance);
+                expected.addAll(atDistance);
+            }
+            Assert.assertEquals(large.correct(word, 2, Integer.MAX_VALUE), expected, word);
+        }
+    }
+
+    private static String word(Random random) {
+        StringBuilder builder = new StringBuilder();
+        int length = 3 + random.nextInt(6);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(6)));
+        }
+        return builder.toString();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void suggestion_index_global_metadata() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withCommands(Help.class, Git.Add.class,
+                Secret.class);
+        builder.withGroup("remote").withCommands(Git.RemoteShow.class, Git.RemoteAdd.class);
+        GlobalMetadata<Runnable> global = builder.build().getMetadata();
+
+        // Built once
+        Assert.assertSame(global.getSuggestionIndex(), global.getSuggestionIndex());
+        CommandGroupMetadata remote = global.getCommandGroups().get(0);
+        Assert.assertSame(global.getSuggestionIndex(remote), global.getSuggestionIndex(remote));
+        Assert.assertSame(global.getSuggestionIndex((CommandGroupMetadata) null), global.getSuggestionIndex());
+
+        // Hidden commands are not included
+        Assert.assertEquals(global.getSuggestionIndex().suggest("", 10), Arrays.asList("-v", "add", "help", "remote"));
+        Assert.assertEquals(global.getSuggestionIndex(remote).suggest("", 10), Arrays.asList("add", "show"));
+
+        CommandMetadata add = global.findDefaultGroupCommand("add", false);
+        Assert.assertEquals(global.getSuggestionIndex(add).suggest("", 10), Arrays.asList("-i", "-v"));
+    }
+}
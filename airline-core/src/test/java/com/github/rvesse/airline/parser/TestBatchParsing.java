@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.parser.TestConcurrentParsing.Worker;
+import com.github.rvesse.airline.parser.command.BatchParser;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseOptionMissingException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+
+public class TestBatchParsing {
+
+    private Cli<Worker> cli(boolean collect) {
+        CliBuilder<Worker> builder = Cli.<Worker> builder("test").withCommand(Worker.class);
+        if (collect)
+            builder.withParser().withErrorHandler(new CollectAll());
+        return builder.build();
+    }
+
+    /**
+     * Generates command lines where every tenth line is missing the required
+     * option
+     */
+    private List<String[]> commandLines(int count) {
+        List<String[]> lines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (i % 10 == 9) {
+                lines.add(new String[] { "worker", Integer.toString(i) });
+            } else {
+                lines.add(new String[] { "worker", "--id", Integer.toString(i), Integer.toString(i) });
+            }
+        }
+        return lines;
+    }
+
+    private void verify(int i, ParseResult<Worker> result) {
+        Assert.assertEquals(result.getCommand().args.get(0), Integer.toString(i));
+        if (i % 10 == 9) {
+            Assert.assertEquals(result.getErrors().size(), 1);
+        } else {
+            Assert.assertTrue(result.wasSuccessful());
+            Assert.assertEquals(result.getCommand().id, i);
+        }
+    }
+
+    @Test
+    public void batch_parse_all_ordered() {
+        List<ParseResult<Worker>> results = cli(true).parseAll(commandLines(5000));
+        Assert.assertEquals(results.size(), 5000);
+        for (int i = 0; i < results.size(); i++) {
+            verify(i, results.get(i));
+        }
+    }
+
+    @Test
+    public void batch_parse_all_empty() {
+        Assert.assertTrue(cli(true).parseAll(Collections.<String[]> emptyList()).isEmpty());
+        Assert.assertFalse(cli(true).parseEach(Collections.<String[]> emptyList()).hasNext());
+    }
+
+    @Test
+    public void batch_parse_all_custom_pool() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            List<ParseResult<Worker>> results = cli(true).parseAll(commandLines(100), pool);
+            for (int i = 0; i < results.size(); i++) {
+                verify(i, results.get(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void batch_parse_all_first_error_rethrown() {
+        try {
+            cli(false).parseAll(commandLines(1000));
+            Assert.fail("Expected a parse error");
+        } catch (ParseOptionMissingException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void batch_parse_each_across_chunks() {
+        Iterator<ParseResult<Worker>> results = cli(true).parseEach(commandLines(1001), BatchParser.defaultPool(),
+                64);
+        int i = 0;
+        while (results.hasNext()) {
+            verify(i, results.next());
+            i++;
+        }
+        Assert.assertEquals(i, 1001);
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void batch_parse_each_exhausted() {
+        Iterator<ParseResult<Worker>> results = cli(true).parseEach(commandLines(1));
+        results.next();
+        results.next();
+    }
+
+    @Test
+    public void batch_parse_each_reads_lazily() {
+        final List<String[]> lines = commandLines(10000);
+        final AtomicInteger read = new AtomicInteger();
+        Iterable<String[]> input = new Iterable<String[]>() {
+            @Override
+            public Iterator<String[]> iterator() {
+                final Iterator<String[]> base = lines.iterator();
+                return new Iterator<String[]>() {
+                    @Override
+                    public boolean hasNext() {
+                        return base.hasNext();
+                    }
+
+                    @Override
+                    public String[] next() {
+                        read.incrementAndGet();
+                        return base.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        Iterator<ParseResult<Worker>> results = cli(true).parseEach(input, BatchParser.defaultPool(), 100);
+        verify(0, results.next());
+        // At most the current chunk and the one being parsed ahead
+        Assert.assertTrue(read.get() <= 200, "Read too far ahead: " + read.get());
+    }
+
+    @Test
+    public void batch_parse_each_error_surfaced_in_order() {
+        Iterator<ParseResult<Worker>> results = cli(false).parseEach(commandLines(100), BatchParser.defaultPool(),
+                16);
+        for (int i = 0; i < 9; i++) {
+            verify(i, results.next());
+        }
+        try {
+            results.next();
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            // Expected, the tenth line is missing its required option
+        }
+        // Subsequent results are still available
+        verify(10, results.next());
+    }
+}
@@ -0,0 +1,246 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.restrictions.AllowedValues;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.errors.handlers.FailAll;
+import com.github.rvesse.airline.restrictions.common.AllowedValuesRestriction;
+import com.github.rvesse.airline.restrictions.factories.RestrictionRegistry;
+
+/**
+ * Stress tests which share a single parser between many threads and verify
+ * that concurrent parses neither fail nor see each others results
+ */
+public class TestConcurrentParsing {
+
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int ITERATIONS = 2000;
+
+    @Command(name = "worker")
+    public static class Worker {
+        @Option(name = "--verbose", type = OptionType.GLOBAL)
+        public boolean verbose;
+
+        @Option(name = "--id", arity = 1)
+        @Required
+        public int id;
+
+        @Option(name = "--level", arity = 1)
+        @AllowedValues(allowedValues = { "1", "2", "3" })
+        public Integer level;
+
+        @Arguments
+        public List<String> args = new ArrayList<>();
+    }
+
+    @Command(name = "other")
+    public static class Other extends Worker {
+    }
+
+    /**
+     * Runs the given task from many threads at once, all threads are released
+     * together to maximise contention
+     */
+    private static void runConcurrently(final Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        return task.call();
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrent_single_command_collect_all() throws Exception {
+        final SingleCommand<Worker> parser = SingleCommand.singleCommand(Worker.class,
+                new ParserBuilder<Worker>().withErrorHandler(new CollectAll()).build());
+
+        runConcurrently(new Callable<Void>() {
+            @Override
+            public Void call() {
+                long thread = Thread.currentThread().getId();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String id = Long.toString(thread * ITERATIONS + i);
+                    int level = (i % 3) + 1;
+                    switch (i % 3) {
+                    case 0:
+                        // Valid
+                        ParseResult<Worker> result = parser.parseWithResult("--id", id, "--level",
+                                Integer.toString(level), id);
+                        Assert.assertTrue(result.wasSuccessful(), "Unexpected errors: " + result.getErrors());
+                        Assert.assertEquals(Integer.toString(result.getCommand().id), id);
+                        Assert.assertEquals(result.getCommand().level, Integer.valueOf(level));
+                        Assert.assertEquals(result.getCommand().args.size(), 1);
+                        Assert.assertEquals(result.getCommand().args.get(0), id);
+                        break;
+                    case 1:
+                        // Single error, value not allowed
+                        result = parser.parseWithResult("--id", id, "--level", "4");
+                        Assert.assertEquals(result.getErrors().size(), 1, "Errors leaked between parses");
+                        Assert.assertEquals(Integer.toString(result.getCommand().id), id);
+                        break;
+                    default:
+                        // Two errors, missing required option and value not
+                        // allowed
+                        result = parser.parseWithResult("--level", "0", id);
+                        Assert.assertEquals(result.getErrors().size(), 2, "Errors leaked between parses");
+                        Assert.assertEquals(result.getCommand().args.get(0), id);
+                        break;
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void concurrent_cli_fail_all() throws Exception {
+        CliBuilder<Worker> builder = Cli.<Worker> builder("test").withCommand(Worker.class);
+        builder.withGroup("group").withCommand(Worker.class).withCommand(Other.class);
+        builder.withParser().withErrorHandler(new FailAll());
+        final Cli<Worker> cli = builder.build();
+
+        runConcurrently(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    String id = Integer.toString(i);
+                    if (i % 2 == 0) {
+                        Worker worker = cli.parse("--verbose", "group", i % 4 == 0 ? "worker" : "other", "--id", id,
+                                "--level", "2");
+                        Assert.assertEquals(worker.getClass(), i % 4 == 0 ? Worker.class : Other.class);
+                        Assert.assertTrue(worker.verbose);
+                        Assert.assertEquals(worker.id, i);
+                    } else {
+                        try {
+                            cli.parse("worker", "--level", "5");
+                            Assert.fail("Expected a parse error");
+                        } catch (ParseException e) {
+                            // Exactly our two errors and nothing from any
+                            // other parse
+                            Assert.assertEquals(e.getSuppressed().length, 2, "Errors leaked between parses");
+                        }
+                    }
+                }
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void concurrent_allowed_values_converters() throws Exception {
+        // The same restriction instance applied under different parser
+        // configurations must convert its values with the right converter
+        final AllowedValuesRestriction restriction = new AllowedValuesRestriction("1", "2");
+        CommandMetadata command = MetadataLoader.loadCommand(Worker.class);
+        OptionMetadata option = null;
+        for (OptionMetadata candidate : command.getCommandOptions()) {
+            if (candidate.getOptions().contains("--level"))
+                option = candidate;
+        }
+        final OptionMetadata level = option;
+        Assert.assertNotNull(level);
+        final ParseState<Worker> stateA = ParseState.<Worker> newInstance()
+                .withConfiguration(new ParserBuilder<Worker>().build());
+        final ParseState<Worker> stateB = ParseState.<Worker> newInstance()
+                .withConfiguration(new ParserBuilder<Worker>().build());
+
+        runConcurrently(new Callable<Void>() {
+            @Override
+            public Void call() {
+                for (int i = 0; i < ITERATIONS; i++) {
+                    ParseState<Worker> state = i % 2 == 0 ? stateA : stateB;
+                    restriction.postValidate(state, level, Integer.valueOf(1 + (i % 2)));
+                }
+                return null;
+            }
+        });
+    }
+
+    @Test
+    public void concurrent_registry_reset() throws Exception {
+        final CountDownLatch done = new CountDownLatch(1);
+        Thread resetter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (done.getCount() > 0) {
+                    RestrictionRegistry.reset();
+                }
+            }
+        });
+        resetter.start();
+        try {
+            runConcurrently(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = 0; i < 200; i++) {
+                        // Restrictions must always be found even while the
+                        // registry is being reset
+                        CommandMetadata command = MetadataLoader.loadCommand(Worker.class);
+                        for (OptionMetadata option : command.getCommandOptions()) {
+                            Assert.assertFalse(option.getRestrictions().isEmpty(),
+                                    "Restrictions missing for " + option.getTitle());
+                        }
+                    }
+                    return null;
+                }
+            });
+        } finally {
+            done.countDown();
+            resetter.join();
+        }
+    }
+}
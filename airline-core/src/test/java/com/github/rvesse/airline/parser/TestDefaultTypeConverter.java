@@ -191,4 +191,46 @@ public class TestDefaultTypeConverter {
             Assert.assertEquals(converted, item);
         }
     }
+
+    @Test
+    public void convert_enum_repeated() {
+        // Conversions are resolved once and then cached so repeated conversions
+        // must behave identically
+        for (int i = 0; i < 1000; i++) {
+            ConversionEnum item = ConversionEnum.values()[i % 2];
+            Assert.assertEquals(testConvert(ConversionEnum.class, item.name()), item);
+        }
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void convert_enum_failure() {
+        testConvert(ConversionEnum.class, "foo");
+    }
+
+    @Test
+    public void convert_constructor_repeated() {
+        for (int i = 0; i < 1000; i++) {
+            String value = Integer.toString(i);
+            ConversionExample converted = testConvert(ConversionExample.class, value);
+            Assert.assertEquals(converted.value, value);
+        }
+    }
+
+    public static class InstanceFromString {
+        private final String value;
+
+        public InstanceFromString(String value) {
+            this.value = value;
+        }
+
+        public InstanceFromString fromString(String value) {
+            throw new IllegalStateException("Instance methods should not be used for conversion");
+        }
+    }
+
+    @Test
+    public void convert_ignores_instance_methods() {
+        InstanceFromString converted = testConvert(InstanceFromString.class, "test");
+        Assert.assertEquals(converted.value, "test");
+    }
 }
@@ -41,13 +41,25 @@ public class TestOptionParsing {
     public static class OptionParsing {
 
         @Option(name = { "-a", "--alpha" })
-        private boolean alpha;
+        boolean alpha;
 
         @Option(name = { "-b", "--beta" }, arity = 1)
-        private String beta;
+        String beta;
 
         @Option(name = { "-c", "--charlie" }, arity = 2)
-        private List<String> charlie = new ArrayList<String>();
+        List<String> charlie = new ArrayList<String>();
+    }
+
+    /**
+     * Builds the parser, derived test classes may override this to apply
+     * additional parser configuration
+     * 
+     * @param builder
+     *            Builder
+     * @return Parser
+     */
+    protected <T> Cli<T> build(CliBuilder<T> builder) {
+        return builder.build();
     }
 
     private <T> T testParsing(Cli<T> parser, String... args) {
@@ -83,7 +95,7 @@ public class TestOptionParsing {
         builder.withParser()
                .withDefaultOptionParsers();
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
 
     @Test
@@ -108,7 +120,7 @@ public class TestOptionParsing {
         builder.withParser()
                .withOptionParser(new StandardOptionParser<T>());
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
 
     @Test
@@ -163,7 +175,7 @@ public class TestOptionParsing {
         builder.withParser()
                .withOptionParser(new ClassicGetOptParser<T>());
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
 
     @Test
@@ -201,7 +213,7 @@ public class TestOptionParsing {
         builder.withParser()
                .withOptionParser(new LongGetOptParser<T>());
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
     
     @Test
@@ -249,7 +261,7 @@ public class TestOptionParsing {
         builder.withParser()
                .withOptionParser(new KeyValueOptionParser<T>(separator));
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
 
     public static class KeyValueOptionParser<T> extends AbstractNameValueOptionParser<T> {
@@ -332,7 +344,7 @@ public class TestOptionParsing {
         builder.withParser()
                .withOptionParser(new ListValueOptionParser<T>(listSeparator));
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
     
     @Test
@@ -390,6 +402,6 @@ public class TestOptionParsing {
         builder.withParser()
                .withOptionParser(new MaybePairValueOptionParser<T>(pairSeparator));
         //@formatter:on
-        return builder.build();
+        return build(builder);
     }
 }
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.options.ClassicGetOptParser;
+import com.github.rvesse.airline.parser.options.ListValueOptionParser;
+import com.github.rvesse.airline.parser.options.LongGetOptParser;
+import com.github.rvesse.airline.parser.options.MaybePairValueOptionParser;
+import com.github.rvesse.airline.parser.options.OptionToken;
+import com.github.rvesse.airline.parser.options.StandardOptionParser;
+
+/**
+ * Runs all the option parsing tests with option parser dispatch enabled, plus
+ * some tests specific to dispatch
+ */
+public class TestOptionParsingDispatch extends TestOptionParsing {
+
+    @Override
+    protected <T> Cli<T> build(CliBuilder<T> builder) {
+        builder.withParser().withOptionParserDispatch();
+        return builder.build();
+    }
+
+    private List<OptionMetadata> options() {
+        Cli<OptionParsing> cli = Cli.<OptionParsing> builder("test").withCommand(OptionParsing.class).build();
+        return cli.getMetadata().getDefaultGroupCommands().get(0).getCommandOptions();
+    }
+
+    private OptionToken<Object> token(String token) {
+        return new OptionToken<Object>(ParseState.newInstance(), options(), token);
+    }
+
+    @Test
+    public void option_parsing_dispatch_applicable_standard() {
+        StandardOptionParser<Object> parser = new StandardOptionParser<Object>();
+        Assert.assertTrue(parser.isApplicable(token("--alpha")));
+        Assert.assertTrue(parser.isApplicable(token("-b")));
+        Assert.assertFalse(parser.isApplicable(token("-ab")));
+        Assert.assertFalse(parser.isApplicable(token("file.txt")));
+    }
+
+    @Test
+    public void option_parsing_dispatch_applicable_classic() {
+        ClassicGetOptParser<Object> parser = new ClassicGetOptParser<Object>();
+        Assert.assertTrue(parser.isApplicable(token("-ab")));
+        Assert.assertTrue(parser.isApplicable(token("-bfoo")));
+        Assert.assertFalse(parser.isApplicable(token("-x")));
+        Assert.assertFalse(parser.isApplicable(token("--alpha")));
+        Assert.assertFalse(parser.isApplicable(token("file.txt")));
+    }
+
+    @Test
+    public void option_parsing_dispatch_applicable_long_getopt() {
+        LongGetOptParser<Object> parser = new LongGetOptParser<Object>();
+        Assert.assertTrue(parser.isApplicable(token("--beta=foo")));
+        Assert.assertFalse(parser.isApplicable(token("--beta")));
+    }
+
+    @Test
+    public void option_parsing_dispatch_applicable_list_and_pair() {
+        ListValueOptionParser<Object> list = new ListValueOptionParser<Object>();
+        MaybePairValueOptionParser<Object> pair = new MaybePairValueOptionParser<Object>();
+        Assert.assertTrue(list.isApplicable(token("-cone,two")));
+        Assert.assertTrue(list.isApplicable(token("--beta")));
+        Assert.assertFalse(list.isApplicable(token("one,two")));
+        Assert.assertTrue(pair.isApplicable(token("-cfoo=bar")));
+        Assert.assertTrue(pair.isApplicable(token("--charlie")));
+        // Only arity 2 options are applicable
+        Assert.assertFalse(pair.isApplicable(token("--beta")));
+    }
+
+    @Test
+    public void option_parsing_dispatch_mixed() {
+        //@formatter:off
+        CliBuilder<OptionParsing> builder = Cli.<OptionParsing>builder("test")
+                                               .withCommand(OptionParsing.class);
+        builder.withParser()
+               .withDefaultOptionParsers()
+               .withOptionParser(new ListValueOptionParser<OptionParsing>());
+        //@formatter:on
+        Cli<OptionParsing> parser = build(builder);
+        OptionParsing cmd = parser.parse("OptionParsing1", "-ab", "foo", "--charlie", "one", "two");
+
+        Assert.assertTrue(cmd.alpha);
+        Assert.assertEquals(cmd.beta, "foo");
+        Assert.assertEquals(cmd.charlie, Arrays.asList("one", "two"));
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Context;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.RequireOnlyOne;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.restrictions.options.MutuallyExclusiveRestriction;
+import com.github.rvesse.airline.restrictions.options.RequireFromRestriction;
+
+public class TestParseState {
+
+    @Command(name = "files")
+    public static class Files {
+        @Arguments
+        private List<String> files = new ArrayList<String>();
+    }
+
+    @Command(name = "tagged")
+    public static class Tagged {
+        @Option(name = "-a")
+        @RequireOnlyOne(tag = "t")
+        private String a;
+
+        @Option(name = "-b")
+        @RequireOnlyOne(tag = "t")
+        private String b;
+
+        @Option(name = "-c")
+        @MaxOccurrences(occurrences = 1000000)
+        private List<String> c;
+    }
+
+    private static OptionMetadata option(CommandMetadata command, String name) {
+        for (OptionMetadata option : command.getAllOptions()) {
+            if (option.getOptions().contains(name))
+                return option;
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    @Test
+    public void parse_state_immutable_01() {
+        ParseState<Object> state = ParseState.newInstance().pushContext(Context.GLOBAL);
+        ParseState<Object> a = state.withUnparsedInput("a");
+        ParseState<Object> b = a.withUnparsedInput("b");
+        ParseState<Object> c = a.withUnparsedInput("c");
+
+        Assert.assertTrue(state.getUnparsedInput().isEmpty());
+        Assert.assertEquals(a.getUnparsedInput().size(), 1);
+        Assert.assertEquals(b.getUnparsedInput().get(1), "b");
+        Assert.assertEquals(c.getUnparsedInput().get(1), "c");
+    }
+
+    @Test
+    public void parse_state_immutable_02() {
+        ParseState<Object> state = ParseState.newInstance().pushContext(Context.GLOBAL).pushContext(Context.COMMAND);
+        ParseState<Object> popped = state.popContext();
+        ParseState<Object> pushed = popped.pushContext(Context.GROUP);
+
+        Assert.assertEquals(state.getLocation(), Context.COMMAND);
+        Assert.assertEquals(popped.getLocation(), Context.GLOBAL);
+        Assert.assertEquals(pushed.getLocation(), Context.GROUP);
+    }
+
+    @Test(timeOut = 30000)
+    public void parse_state_many_arguments() {
+        // Per token transitions must not copy the accumulated state otherwise
+        // this becomes quadratic
+        int count = 100000;
+        String[] args = new String[count];
+        for (int i = 0; i < count; i++) {
+            args[i] = "file" + i;
+        }
+
+        Files cmd = SingleCommand.singleCommand(Files.class).parse(args);
+        Assert.assertEquals(cmd.files.size(), count);
+        Assert.assertEquals(cmd.files.get(count - 1), "file" + (count - 1));
+    }
+
+    @Test
+    public void parse_state_occurrences_01() {
+        CommandMetadata command = SingleCommand.singleCommand(Tagged.class).getCommandMetadata();
+        OptionMetadata a = option(command, "-a"), b = option(command, "-b"), c = option(command, "-c");
+
+        ParseState<Object> state = ParseState.newInstance().pushContext(Context.GLOBAL).withCommand(command);
+        ParseState<Object> first = state.withOptionValue(c, "1");
+        ParseState<Object> second = first.withOptionValue(c, "2");
+        ParseState<Object> branch = first.withOptionValue(a, "x");
+
+        Assert.assertEquals(state.getOptionOccurrences(c), 0);
+        Assert.assertEquals(first.getOptionOccurrences(c), 1);
+        Assert.assertEquals(second.getOptionOccurrences(c), 2);
+        Assert.assertEquals(second.getOptionOccurrences(a), 0);
+        Assert.assertEquals(branch.getOptionOccurrences(c), 1);
+        Assert.assertEquals(branch.getOptionOccurrences(a), 1);
+        Assert.assertEquals(branch.getOptionOccurrences(b), 0);
+
+        // Continuing from either branch must not see the other
+        ParseState<Object> third = second.withOptionValue(c, "3");
+        Assert.assertEquals(third.getOptionOccurrences(c), 3);
+        Assert.assertEquals(third.getOptionOccurrences(a), 0);
+        Assert.assertEquals(branch.withOptionValue(c, "4").getOptionOccurrences(c), 2);
+    }
+
+    @Test
+    public void parse_state_occurrences_02() {
+        CommandMetadata command = SingleCommand.singleCommand(Tagged.class).getCommandMetadata();
+        OptionMetadata a = option(command, "-a"), b = option(command, "-b"), c = option(command, "-c");
+
+        ParseState<Object> state = ParseState.newInstance().pushContext(Context.GLOBAL).withCommand(command);
+        state = state.withOptionValue(a, "x").withOptionValue(c, "1").withOptionValue(b, "y");
+
+        Assert.assertEquals(state.getTaggedOptionOccurrences(RequireFromRestriction.class, "t"), 2);
+        Assert.assertEquals(state.getTaggedOptionOccurrences(RequireFromRestriction.class, "other"), 0);
+        Assert.assertEquals(state.getTaggedOptionOccurrences(MutuallyExclusiveRestriction.class, "t"), 0);
+    }
+
+    @Test(timeOut = 30000)
+    public void parse_state_many_option_values() {
+        // Validating restrictions must not rescan all the parsed values
+        int count = 100000;
+        String[] args = new String[count * 2 + 2];
+        for (int i = 0; i < count; i++) {
+            args[i * 2] = "-c";
+            args[i * 2 + 1] = "value" + i;
+        }
+        args[count * 2] = "-a";
+        args[count * 2 + 1] = "x";
+
+        Tagged cmd = SingleCommand.singleCommand(Tagged.class).parse(args);
+        Assert.assertEquals(cmd.c.size(), count);
+        Assert.assertEquals(cmd.a, "x");
+    }
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseOptionConversionException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.types.ConvertResult;
+import com.github.rvesse.airline.types.DefaultTypeConverter;
+import com.github.rvesse.airline.types.numerics.DefaultNumericConverter;
+import com.github.rvesse.airline.types.numerics.bases.Hexadecimal;
+
+public class TestPrimitiveArrays {
+
+    @Command(name = "ids")
+    public static class Ids {
+        @Option(name = "--verbose")
+        public boolean verbose;
+
+        @Option(name = "--name", arity = 1)
+        public String name;
+
+        @Option(name = "--id", arity = 1)
+        public int[] ids;
+
+        @Option(name = "--weight", arity = 1)
+        public double[] weights;
+
+        @Arguments
+        public long[] values;
+    }
+
+    @Command(name = "bytes")
+    public static class Bytes {
+        @Option(name = "--mask", arity = 1, typeConverterProvider = Hexadecimal.class)
+        public long[] masks;
+
+        @Arguments
+        public byte[] bytes;
+    }
+
+    @Command(name = "ranged")
+    public static class Ranged {
+        @Option(name = "--id", arity = 1)
+        @IntegerRange(min = 0, max = 10)
+        public int[] ids;
+    }
+
+    @Test
+    public void primitive_arrays_options_and_arguments() {
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse("--id", "1", "--weight", "0.5", "--id", "-2", "3", "4",
+                "9223372036854775807");
+        Assert.assertEquals(cmd.ids, new int[] { 1, -2 });
+        Assert.assertEquals(cmd.weights, new double[] { 0.5 });
+        Assert.assertEquals(cmd.values, new long[] { 3, 4, Long.MAX_VALUE });
+    }
+
+    @Test
+    public void primitive_arrays_unset() {
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse();
+        Assert.assertNull(cmd.ids);
+        Assert.assertNull(cmd.weights);
+        Assert.assertNull(cmd.values);
+    }
+
+    @Test
+    public void primitive_arrays_many_values() {
+        String[] args = new String[200000];
+        for (int i = 0; i < args.length; i += 2) {
+            args[i] = "--id";
+            args[i + 1] = Integer.toString(i);
+        }
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse(args);
+        Assert.assertEquals(cmd.ids.length, args.length / 2);
+        for (int i = 0; i < cmd.ids.length; i++) {
+            Assert.assertEquals(cmd.ids[i], i * 2);
+        }
+    }
+
+    /**
+     * Numeric converter which only customises the boxed conversion methods
+     */
+    public static class WordNumericConverter extends DefaultNumericConverter {
+        @Override
+        protected ConvertResult tryConvertInteger(String name, String value) {
+            return "one".equals(value) ? new ConvertResult(1) : super.tryConvertInteger(name, value);
+        }
+
+        @Override
+        protected ConvertResult tryConvertLong(String name, String value) {
+            return "two".equals(value) ? new ConvertResult(2l) : super.tryConvertLong(name, value);
+        }
+
+        @Override
+        protected ConvertResult tryConvertDouble(String name, String value) {
+            return "half".equals(value) ? new ConvertResult(0.5d) : super.tryConvertDouble(name, value);
+        }
+    }
+
+    /**
+     * Type converter which customises conversion as a whole
+     */
+    public static class MaxTypeConverter extends DefaultTypeConverter {
+        @Override
+        public Object convert(String name, Class<?> type, String value) {
+            if ("max".equals(value) && Integer.TYPE.equals(type))
+                return Integer.MAX_VALUE;
+            return super.convert(name, type, value);
+        }
+    }
+
+    @Test
+    public void primitive_arrays_overridden_numeric_conversions() {
+        SingleCommand<Ids> parser = SingleCommand.singleCommand(Ids.class,
+                new ParserBuilder<Ids>().withNumericTypeConverter(new WordNumericConverter()).build());
+        Ids cmd = parser.parse("--id", "one", "--id", "3", "--weight", "half", "two", "4");
+        Assert.assertEquals(cmd.ids, new int[] { 1, 3 });
+        Assert.assertEquals(cmd.weights, new double[] { 0.5 });
+        Assert.assertEquals(cmd.values, new long[] { 2, 4 });
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class)
+    public void primitive_arrays_overridden_numeric_conversions_bad_value() {
+        SingleCommand.singleCommand(Ids.class,
+                new ParserBuilder<Ids>().withNumericTypeConverter(new WordNumericConverter()).build())
+                .parse("--id", "three");
+    }
+
+    @Test
+    public void primitive_arrays_overridden_type_converter() {
+        SingleCommand<Ids> parser = SingleCommand.singleCommand(Ids.class,
+                new ParserBuilder<Ids>().withTypeConverter(new MaxTypeConverter()).build());
+        Ids cmd = parser.parse("--id", "max", "--id", "3");
+        Assert.assertEquals(cmd.ids, new int[] { Integer.MAX_VALUE, 3 });
+    }
+
+    @Test
+    public void primitive_arrays_custom_converter() {
+        Bytes cmd = SingleCommand.singleCommand(Bytes.class).parse("--mask", "ff", "--mask", "10", "1", "-2");
+        Assert.assertEquals(cmd.masks, new long[] { 255, 16 });
+        Assert.assertEquals(cmd.bytes, new byte[] { 1, -2 });
+    }
+
+    @Test(expectedExceptions = ParseOptionConversionException.class,
+            expectedExceptionsMessageRegExp = ".*can not convert \"x\" to a int")
+    public void primitive_arrays_bad_value() {
+        SingleCommand.singleCommand(Ids.class).parse("--id", "1", "--id", "x");
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void primitive_arrays_restrictions() {
+        SingleCommand.singleCommand(Ranged.class).parse("--id", "1", "--id", "11");
+    }
+
+    @Test
+    public void primitive_arrays_parse_state() {
+        SingleCommand<Ids> parser = SingleCommand.singleCommand(Ids.class,
+                new ParserBuilder<Ids>().withErrorHandler(new CollectAll()).build());
+        ParseResult<Ids> result = parser.parseWithResult("--id", "1", "--verbose", "--id", "2", "5", "6");
+        Assert.assertTrue(result.wasSuccessful());
+
+        ParseState<Ids> state = result.getState();
+        Assert.assertEquals(state.getParsedArguments(), Arrays.<Object> asList(5l, 6l));
+        // Values held as primitives are still listed in parse order
+        Assert.assertEquals(state.getParsedOptions().size(), 3);
+        Assert.assertEquals(state.getParsedOptions().get(0).getValue(), 1);
+        Assert.assertEquals(state.getParsedOptions().get(1).getValue(), true);
+        Assert.assertEquals(state.getParsedOptions().get(2).getValue(), 2);
+
+        OptionMetadata id = state.getParsedOptions().get(0).getKey();
+        Assert.assertEquals(id.getTitle(), "ids");
+        Assert.assertEquals(state.getOptionOccurrences(id), 2);
+    }
+
+    @Test
+    public void primitive_arrays_parse_state_order() {
+        ParseResult<Ids> result = SingleCommand.singleCommand(Ids.class).parseWithResult("--name", "a", "--id", "1",
+                "--weight", "0.5", "--name", "b", "--id", "2", "--name", "c", "--weight", "1.5", "--id", "3");
+        Assert.assertTrue(result.wasSuccessful());
+
+        List<Object> titles = new ArrayList<>();
+        List<Object> values = new ArrayList<>();
+        for (Map.Entry<OptionMetadata, Object> option : result.getState().getParsedOptions()) {
+            titles.add(option.getKey().getTitle());
+            values.add(option.getValue());
+        }
+        Assert.assertEquals(titles, Arrays.<Object> asList("name", "ids", "weights", "name", "ids", "name",
+                "weights", "ids"));
+        Assert.assertEquals(values, Arrays.<Object> asList("a", 1, 0.5d, "b", 2, "c", 1.5d, 3));
+
+        Ids cmd = result.getCommand();
+        Assert.assertEquals(cmd.name, "c");
+        Assert.assertEquals(cmd.ids, new int[] { 1, 2, 3 });
+        Assert.assertEquals(cmd.weights, new double[] { 0.5d, 1.5d });
+    }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.MaxOccurrences;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.ParseTooManyArgumentsException;
+
+public class TestStreamingArguments {
+
+    @Command(name = "ids")
+    public static class Ids {
+        @Option(name = "--verbose")
+        public boolean verbose;
+
+        @Arguments
+        @IntegerRange(min = 0, max = 100)
+        public Iterator<Integer> ids;
+    }
+
+    @Command(name = "files")
+    public static class Files {
+        @Arguments
+        @Required
+        public Iterable<String> files;
+    }
+
+    @Command(name = "limited")
+    public static class Limited {
+        @Arguments
+        @MaxOccurrences(occurrences = 2)
+        public Iterator<String> values;
+    }
+
+    /**
+     * Arguments which records how many tokens have been taken from them
+     */
+    private static class CountingArgs implements Iterable<String> {
+        private final List<String> args;
+        private int consumed = 0;
+
+        private CountingArgs(String... args) {
+            this.args = Arrays.asList(args);
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            final Iterator<String> iter = this.args.iterator();
+            return new Iterator<String>() {
+
+                @Override
+                public boolean hasNext() {
+                    return iter.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    consumed++;
+                    return iter.next();
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
+    private static <T> List<T> drain(Iterator<T> iter) {
+        List<T> values = new ArrayList<>();
+        while (iter.hasNext()) {
+            values.add(iter.next());
+        }
+        return values;
+    }
+
+    @Test
+    public void streaming_arguments_iterator() {
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse("--verbose", "1", "2", "3");
+        Assert.assertTrue(cmd.verbose);
+        Assert.assertEquals(drain(cmd.ids), Arrays.asList(1, 2, 3));
+    }
+
+    @Test
+    public void streaming_arguments_iterable() {
+        Files cmd = SingleCommand.singleCommand(Files.class).parse("a", "b");
+        List<String> files = new ArrayList<>();
+        for (String file : cmd.files) {
+            files.add(file);
+        }
+        Assert.assertEquals(files, Arrays.asList("a", "b"));
+    }
+
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void streaming_arguments_iterable_once() {
+        Files cmd = SingleCommand.singleCommand(Files.class).parse("a", "b");
+        cmd.files.iterator();
+        cmd.files.iterator();
+    }
+
+    @Test
+    public void streaming_arguments_are_lazy() {
+        CountingArgs args = new CountingArgs("--verbose", "1", "2", "3");
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse(args);
+        // Parser only needed to see the first argument
+        Assert.assertEquals(args.consumed, 2);
+
+        Assert.assertEquals(cmd.ids.next(), Integer.valueOf(1));
+        Assert.assertEquals(args.consumed, 2);
+        Assert.assertEquals(cmd.ids.next(), Integer.valueOf(2));
+        Assert.assertEquals(args.consumed, 3);
+        Assert.assertEquals(cmd.ids.next(), Integer.valueOf(3));
+        Assert.assertFalse(cmd.ids.hasNext());
+        Assert.assertEquals(args.consumed, 4);
+    }
+
+    @Test
+    public void streaming_arguments_options_after_first_argument() {
+        Files cmd = SingleCommand.singleCommand(Files.class).parse("a", "--verbose", "b");
+        Assert.assertEquals(drain(cmd.files.iterator()), Arrays.asList("a", "--verbose", "b"));
+    }
+
+    @Test
+    public void streaming_arguments_separator() {
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse("--verbose", "--", "1", "--", "2");
+        Assert.assertTrue(cmd.verbose);
+        // Only the first separator is treated specially
+        try {
+            drain(cmd.ids);
+            Assert.fail("Second separator should have been converted as an argument");
+        } catch (ParseException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void streaming_arguments_separator_mid_stream() {
+        Files cmd = SingleCommand.singleCommand(Files.class).parse("a", "--", "--verbose");
+        Assert.assertEquals(drain(cmd.files.iterator()), Arrays.asList("a", "--verbose"));
+    }
+
+    @Test
+    public void streaming_arguments_empty() {
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse("--verbose");
+        Assert.assertNotNull(cmd.ids);
+        Assert.assertFalse(cmd.ids.hasNext());
+    }
+
+    @Test(expectedExceptions = ParseArgumentsMissingException.class)
+    public void streaming_arguments_required() {
+        SingleCommand.singleCommand(Files.class).parse();
+    }
+
+    @Test
+    public void streaming_arguments_restrictions_on_demand() {
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse("1", "500", "2");
+        Assert.assertEquals(cmd.ids.next(), Integer.valueOf(1));
+        try {
+            cmd.ids.next();
+            Assert.fail("Out of range value should be rejected when consumed");
+        } catch (ParseRestrictionViolatedException e) {
+            // Expected
+        }
+        Assert.assertEquals(cmd.ids.next(), Integer.valueOf(2));
+    }
+
+    @Test
+    public void streaming_arguments_final_validation_deferred() {
+        Limited cmd = SingleCommand.singleCommand(Limited.class).parse("a", "b", "c");
+        Assert.assertEquals(cmd.values.next(), "a");
+        Assert.assertEquals(cmd.values.next(), "b");
+        Assert.assertEquals(cmd.values.next(), "c");
+        try {
+            cmd.values.hasNext();
+            Assert.fail("Occurrences should be checked at the end of the stream");
+        } catch (ParseTooManyArgumentsException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void streaming_arguments_large() {
+        final int count = 1000000;
+        Iterable<String> args = new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int i = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < count;
+                    }
+
+                    @Override
+                    public String next() {
+                        return Integer.toString(i++ % 100);
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+
+        Ids cmd = SingleCommand.singleCommand(Ids.class).parse(args);
+        long total = 0, seen = 0;
+        while (cmd.ids.hasNext()) {
+            total += cmd.ids.next();
+            seen++;
+        }
+        Assert.assertEquals(seen, count);
+        Assert.assertEquals(total, (count / 100) * 4950L);
+    }
+}
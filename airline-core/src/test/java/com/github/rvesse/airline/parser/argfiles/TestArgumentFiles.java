@@ -0,0 +1,346 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.argfiles;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.Parser;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseArgumentFileException;
+import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
+import com.github.rvesse.airline.parser.listeners.ParseListener;
+import com.github.rvesse.airline.parser.listeners.ParsePhase;
+
+public class TestArgumentFiles {
+
+    @Command(name = "files")
+    public static class Files {
+        @Option(name = "--name", arity = 1)
+        public String name;
+
+        @Option(name = "--verbose")
+        public boolean verbose;
+
+        @Arguments
+        public List<String> files = new ArrayList<>();
+    }
+
+    @Command(name = "files")
+    @Parser(argumentFilePrefix = "+", argumentFileFormat = ArgumentFileFormat.NUL_SEPARATED)
+    public static class AnnotatedFiles extends Files {
+    }
+
+    @Command(name = "files")
+    public static class StreamingFiles {
+        @Arguments
+        public Iterator<String> files;
+    }
+
+    @Command(name = "files")
+    public static class StreamingNumbers {
+        @Option(name = "--name", arity = 1)
+        @Required
+        public String name;
+
+        @Arguments
+        public Iterator<Integer> numbers;
+    }
+
+    private static File write(String contents) throws IOException {
+        File file = File.createTempFile("args", ".txt");
+        file.deleteOnExit();
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write(contents);
+        }
+        return file;
+    }
+
+    private static List<String> tokenize(String contents, ArgumentFileFormat format) {
+        List<String> args = new ArrayList<>();
+        ArgumentFileTokenizer tokenizer = new ArgumentFileTokenizer("test", new StringReader(contents), format);
+        while (tokenizer.hasNext()) {
+            args.add(tokenizer.next());
+        }
+        return args;
+    }
+
+    private static SingleCommand<Files> parser(ParserBuilder<Files> builder) {
+        return SingleCommand.singleCommand(Files.class, builder.build());
+    }
+
+    @Test
+    public void argument_files_tokenize_quoted() {
+        Assert.assertEquals(tokenize("  a b\n\tc  ", ArgumentFileFormat.QUOTED), Arrays.asList("a", "b", "c"));
+        Assert.assertEquals(tokenize("\"a b\" \"c \\\"d\\\"\" \"\"", ArgumentFileFormat.QUOTED),
+                Arrays.asList("a b", "c \"d\"", ""));
+        Assert.assertEquals(tokenize("a\\ b c\\d", ArgumentFileFormat.QUOTED), Arrays.asList("a b", "c\\d"));
+        Assert.assertEquals(tokenize("", ArgumentFileFormat.QUOTED), Arrays.<String> asList());
+    }
+
+    @Test(expectedExceptions = ParseArgumentFileException.class)
+    public void argument_files_tokenize_quoted_mismatched() {
+        tokenize("a \"b c", ArgumentFileFormat.QUOTED);
+    }
+
+    @Test
+    public void argument_files_tokenize_nul_separated() {
+        Assert.assertEquals(tokenize("a b\0c\n\0\0d\0", ArgumentFileFormat.NUL_SEPARATED),
+                Arrays.asList("a b", "c\n", "", "d"));
+        Assert.assertEquals(tokenize("", ArgumentFileFormat.NUL_SEPARATED), Arrays.<String> asList());
+    }
+
+    @Test
+    public void argument_files_expanded() throws IOException {
+        File file = write("--name \"my name\"\n--verbose\nb \"c d\"\n");
+        Files cmd = parser(new ParserBuilder<Files>().withArgumentFiles()).parse("a", "@" + file.getPath(), "e");
+        Assert.assertEquals(cmd.name, "my name");
+        Assert.assertTrue(cmd.verbose);
+        Assert.assertEquals(cmd.files, Arrays.asList("a", "b", "c d", "e"));
+    }
+
+    @Test
+    public void argument_files_disabled() throws IOException {
+        File file = write("b");
+        Files cmd = parser(new ParserBuilder<Files>()).parse("@" + file.getPath());
+        Assert.assertEquals(cmd.files, Arrays.asList("@" + file.getPath()));
+    }
+
+    @Test
+    public void argument_files_escaped_prefix() {
+        Files cmd = parser(new ParserBuilder<Files>().withArgumentFiles()).parse("@@literal", "@");
+        Assert.assertEquals(cmd.files, Arrays.asList("@literal", "@"));
+    }
+
+    @Test
+    public void argument_files_custom_prefix_and_format() throws IOException {
+        File file = write("--name\0with space\0x\0");
+        Files cmd = parser(new ParserBuilder<Files>().withArgumentFiles("argfile:")
+                .withArgumentFileFormat(ArgumentFileFormat.NUL_SEPARATED)).parse("argfile:" + file.getPath(), "@y");
+        Assert.assertEquals(cmd.name, "with space");
+        Assert.assertEquals(cmd.files, Arrays.asList("x", "@y"));
+    }
+
+    @Test
+    public void argument_files_annotation() throws IOException {
+        File file = write("a\0b c\0");
+        AnnotatedFiles cmd = SingleCommand.singleCommand(AnnotatedFiles.class).parse("+" + file.getPath());
+        Assert.assertEquals(cmd.files, Arrays.asList("a", "b c"));
+    }
+
+    @Test
+    public void argument_files_multiple() throws IOException {
+        File first = write("a b");
+        File second = write("c");
+        Files cmd = parser(new ParserBuilder<Files>().withArgumentFiles()).parse("@" + first.getPath(),
+                "@" + second.getPath(), "@" + first.getPath());
+        Assert.assertEquals(cmd.files, Arrays.asList("a", "b", "c", "a", "b"));
+    }
+
+    @Test(expectedExceptions = ParseArgumentFileException.class)
+    public void argument_files_missing() {
+        parser(new ParserBuilder<Files>().withArgumentFiles()).parse("@" + new File("target/no-such-file").getPath());
+    }
+
+    @Test
+    public void argument_files_missing_collected() {
+        String missing = "@" + new File("target/no-such-file").getPath();
+        ParseResult<Files> result = parser(new ParserBuilder<Files>().withArgumentFiles().withErrorHandler(
+                new CollectAll())).parseWithResult("a", missing, "b");
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertTrue(result.getErrors().iterator().next() instanceof ParseArgumentFileException);
+        Assert.assertEquals(result.getCommand().files, Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void argument_files_mismatched_quotes_collected() throws IOException {
+        File file = write("b \"c d");
+        ParseResult<Files> result = parser(new ParserBuilder<Files>().withArgumentFiles().withErrorHandler(
+                new CollectAll())).parseWithResult("a", "@" + file.getPath(), "e");
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertTrue(result.getErrors().iterator().next() instanceof ParseArgumentFileException);
+        // Rest of the bad file is skipped
+        Assert.assertEquals(result.getCommand().files, Arrays.asList("a", "b", "e"));
+    }
+
+    @Test
+    public void argument_files_missing_cli() {
+        CliBuilder<Object> builder = Cli.<Object> builder("c").withCommand(Files.class);
+        builder.withParser().withArgumentFiles().withErrorHandler(new CollectAll());
+        Cli<Object> cli = builder.build();
+        String missing = "@" + new File("target/no-such-file").getPath();
+        ParseResult<Object> result = cli.parseWithResult("files", "--name", "a", "--name", "b", missing);
+        Assert.assertFalse(result.wasSuccessful());
+        boolean found = false;
+        for (ParseException e : result.getErrors()) {
+            found = found || e instanceof ParseArgumentFileException;
+        }
+        Assert.assertTrue(found);
+
+        // Nothing is left over for the next parse on this thread
+        result = cli.parseWithResult("files", "a");
+        Assert.assertTrue(result.wasSuccessful());
+    }
+
+    @Test
+    public void argument_files_abnormal_exit_resets_errors() {
+        final CollectAll handler = new CollectAll();
+        SingleCommand<Files> failing = parser(
+                new ParserBuilder<Files>().withErrorHandler(handler).withParseListener(new ParseListener() {
+                    @Override
+                    public void phaseStarted(ParsePhase phase) {
+                        if (phase == ParsePhase.VALIDATION)
+                            throw new IllegalStateException("listener failed");
+                    }
+
+                    @Override
+                    public void phaseFinished(ParsePhase phase, long nanos) {
+                    }
+                }));
+        try {
+            failing.parseWithResult("--name");
+            Assert.fail("Expected listener failure");
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+
+        // Errors from the failed parse must not be seen by the next parse on
+        // this thread
+        ParseResult<Files> result = parser(new ParserBuilder<Files>().withErrorHandler(handler))
+                .parseWithResult("a");
+        Assert.assertTrue(result.wasSuccessful());
+    }
+
+    @Test
+    public void argument_files_large_mapped() throws IOException {
+        // Large enough to be memory mapped
+        File file = File.createTempFile("args", ".txt");
+        file.deleteOnExit();
+        int count = 0;
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            while (file.length() < ArgumentFileTokenizer.MAPPED_THRESHOLD * 2) {
+                for (int i = 0; i < 1000; i++, count++) {
+                    writer.write("\"argé " + count + "\"\n");
+                }
+                writer.flush();
+            }
+        }
+
+        Files cmd = parser(new ParserBuilder<Files>().withArgumentFiles()).parse("@" + file.getPath());
+        Assert.assertEquals(cmd.files.size(), count);
+        Assert.assertEquals(cmd.files.get(0), "argé 0");
+        Assert.assertEquals(cmd.files.get(count - 1), "argé " + (count - 1));
+    }
+
+    @Test
+    public void argument_files_streamed_arguments() throws IOException {
+        File file = write("b c\nd");
+        StreamingFiles cmd = SingleCommand
+                .singleCommand(StreamingFiles.class, new ParserBuilder<StreamingFiles>().withArgumentFiles().build())
+                .parse("a", "@" + file.getPath(), "e");
+
+        // File is read as the arguments are consumed
+        List<String> files = new ArrayList<>();
+        while (cmd.files.hasNext()) {
+            files.add(cmd.files.next());
+        }
+        Assert.assertEquals(files, Arrays.asList("a", "b", "c", "d", "e"));
+    }
+
+    private static SingleCommand<StreamingNumbers> streamingParser() {
+        return SingleCommand.singleCommand(StreamingNumbers.class,
+                new ParserBuilder<StreamingNumbers>().withArgumentFiles().withErrorHandler(new CollectAll()).build());
+    }
+
+    @Test
+    public void argument_files_streamed_closed_by_result() throws IOException {
+        File file = write("1 2 3");
+        ParseResult<StreamingNumbers> result = streamingParser().parseWithResult("--name", "a", "@" + file.getPath());
+        Assert.assertTrue(result.wasSuccessful());
+        result.close();
+
+        // Once closed the stream has no further arguments
+        Assert.assertFalse(result.getCommand().numbers.hasNext());
+    }
+
+    @Test
+    public void argument_files_streamed_closed_on_failure() throws IOException {
+        File file = write("1 2 3");
+        ParseResult<StreamingNumbers> result = streamingParser().parseWithResult("@" + file.getPath());
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertFalse(result.getCommand().numbers.hasNext());
+    }
+
+    @Test
+    public void argument_files_streamed_closed_on_consumer_error() throws IOException {
+        File file = write("1 x 3");
+        StreamingNumbers cmd = streamingParser().parse("--name", "a", "@" + file.getPath());
+        Assert.assertEquals(cmd.numbers.next(), Integer.valueOf(1));
+        try {
+            cmd.numbers.next();
+            Assert.fail("Expected conversion failure");
+        } catch (ParseException e) {
+            // Expected
+        }
+        Assert.assertFalse(cmd.numbers.hasNext());
+    }
+
+    @Test
+    public void argument_files_mapped_window_boundaries() throws IOException {
+        // Multi-byte characters including a surrogate pair so that with a tiny
+        // window characters are split across windows
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            builder.append("aé€😀 ");
+        }
+        String contents = builder.toString();
+        File file = write(contents);
+
+        for (int window = 1; window <= 7; window++) {
+            StringBuilder read = new StringBuilder();
+            try (MappedFileReader reader = new MappedFileReader(file, window)) {
+                char[] buffer = new char[window];
+                int n;
+                while ((n = reader.read(buffer, 0, buffer.length)) != -1) {
+                    read.append(buffer, 0, n);
+                }
+            }
+            Assert.assertEquals(read.toString(), contents, "Window size " + window);
+        }
+    }
+}
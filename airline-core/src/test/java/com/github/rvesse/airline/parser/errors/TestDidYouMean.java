@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.errors;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.Git;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+
+public class TestDidYouMean {
+
+    @Command(name = "fetch")
+    public static class Fetch extends Git.GitCommand {
+        @Option(name = "--prune")
+        public boolean prune;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Cli<Runnable> git() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("git").withCommands(Help.class, Git.Add.class,
+                Fetch.class);
+        builder.withGroup("remote").withCommands(Git.RemoteShow.class, Git.RemoteAdd.class);
+        return builder.build();
+    }
+
+    @Test
+    public void did_you_mean_command() {
+        try {
+            git().parse("ad");
+            Assert.fail("Expected an unrecognized command");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("add"));
+            Assert.assertEquals(e.getMessage(), "Command 'ad' not recognized, did you mean 'add'?");
+        }
+    }
+
+    @Test
+    public void did_you_mean_group_command() {
+        try {
+            git().parse("remote", "shwo");
+            Assert.fail("Expected an unrecognized command");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("show"));
+        }
+    }
+
+    @Test
+    public void did_you_mean_group() {
+        try {
+            git().parse("remte", "show");
+            Assert.fail("Expected an unrecognized command");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("remote"));
+        }
+    }
+
+    @Test
+    public void did_you_mean_none() {
+        try {
+            git().parse("commit");
+            Assert.fail("Expected an unrecognized command");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Collections.emptyList());
+            Assert.assertEquals(e.getMessage(), "Command 'commit' not recognized");
+        }
+    }
+
+    @Test
+    public void did_you_mean_option() {
+        try {
+            git().parse("fetch", "--prun", "origin");
+            Assert.fail("Expected unexpected arguments");
+        } catch (ParseArgumentsUnexpectedException e) {
+            Assert.assertEquals(e.getSuggestions(), Arrays.asList("--prune"));
+            Assert.assertEquals(e.getMessage(),
+                    "Found unexpected parameters: [--prun, origin], did you mean '--prune'?");
+        }
+    }
+
+    @Test
+    public void did_you_mean_option_not_command() {
+        try {
+            git().parse("-x", "add");
+            Assert.fail("Expected an unrecognized command");
+        } catch (ParseCommandUnrecognizedException e) {
+            Assert.assertEquals(e.getSuggestions(), Collections.emptyList());
+        }
+    }
+}
@@ -15,19 +15,71 @@
  */
 package com.github.rvesse.airline.parser.errors.handlers;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
 import com.github.rvesse.airline.args.ArgsRequired;
 import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.model.ParserMetadata;
 import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseException;
+import com.github.rvesse.airline.parser.errors.ParseTooManyErrorsException;
 import com.github.rvesse.airline.restrictions.Strings;
 
 public class TestErrorHandlers {
 
+    @Command(name = "numbers")
+    public static class Numbers {
+        @Option(name = "--number", arity = 1)
+        public List<Integer> numbers;
+
+        @Arguments
+        public List<Integer> args;
+    }
+
+    /**
+     * Arguments consisting only of invalid numbers that count how many have
+     * been consumed
+     */
+    private static class InvalidNumbers implements Iterable<String> {
+        private final int count;
+        private int consumed = 0;
+
+        private InvalidNumbers(int count) {
+            this.count = count;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                @Override
+                public boolean hasNext() {
+                    return consumed < count;
+                }
+
+                @Override
+                public String next() {
+                    consumed++;
+                    return consumed % 2 == 0 ? "--number" : "nan";
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+    }
+
     private <T> ParserMetadata<T> prepareParser(ParserErrorHandler handler) {
         return new ParserBuilder<T>().withErrorHandler(handler).build();
     }
@@ -82,4 +134,125 @@ public class TestErrorHandlers {
         Strings cmd = result.getCommand();
         Assert.assertFalse(cmd.helpOption.showHelpIfErrors(result));
     }
+
+    @Test
+    public void errorHandlerFailAllReset() {
+        SingleCommand<Strings> parser = SingleCommand.<Strings> singleCommand(Strings.class,
+                this.<Strings> prepareParser(new FailAll()));
+        try {
+            parser.parseWithResult("--not-empty", "", "--not-blank", "  ");
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            Assert.assertEquals(e.getSuppressed().length, 2);
+        }
+
+        // Errors from the previous parse must not be seen by the next parse
+        ParseResult<Strings> result = parser.parseWithResult("--not-empty", "foo", "--not-blank", "non-blank");
+        Assert.assertTrue(result.wasSuccessful());
+    }
+
+    @Test
+    public void errorHandlerCollectAllLimit() {
+        InvalidNumbers args = new InvalidNumbers(100000);
+        ParseResult<Numbers> result = SingleCommand
+                .<Numbers> singleCommand(Numbers.class, this.<Numbers> prepareParser(new CollectAll(10)))
+                .parseWithResult(args);
+        Assert.assertFalse(result.wasSuccessful());
+        Assert.assertEquals(result.getErrors().size(), 11);
+        List<ParseException> errors = new ArrayList<>(result.getErrors());
+        ParseException last = errors.get(10);
+        Assert.assertTrue(last instanceof ParseTooManyErrorsException);
+        Assert.assertEquals(((ParseTooManyErrorsException) last).getLimit(), 10);
+
+        // Parsing stopped shortly after the limit was reached
+        Assert.assertTrue(args.consumed < 100, "Consumed " + args.consumed + " arguments");
+    }
+
+    @Test
+    public void errorHandlerCollectAllLimitNotReached() {
+        ParseResult<Strings> result = SingleCommand
+                .<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new CollectAll(10)))
+                .parseWithResult("--not-empty", "", "--not-blank", "  ");
+        Assert.assertEquals(result.getErrors().size(), 2);
+    }
+
+    @Test
+    public void errorHandlerFailAllLimit() {
+        try {
+            SingleCommand.<Numbers> singleCommand(Numbers.class, this.<Numbers> prepareParser(new FailAll(5)))
+                    .parseWithResult(new InvalidNumbers(100000));
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            Assert.assertEquals(e.getSuppressed().length, 6);
+            Assert.assertTrue(e.getSuppressed()[5] instanceof ParseTooManyErrorsException);
+        }
+    }
+
+    /**
+     * Handler written against the original field based API
+     */
+    @SuppressWarnings("deprecation")
+    private static class LegacyHandler extends AbstractCollectingHandler {
+        @Override
+        public <T> ParseResult<T> finished(ParseState<T> state) {
+            ParseResult<T> result = new ParseResult<>(state, new ArrayList<>(this.errors));
+            this.errors.clear();
+            return result;
+        }
+    }
+
+    @Test
+    public void errorHandlerLegacyErrorsField() {
+        SingleCommand<Strings> parser = SingleCommand.<Strings> singleCommand(Strings.class,
+                this.<Strings> prepareParser(new LegacyHandler()));
+        ParseResult<Strings> result = parser.parseWithResult("--not-empty", "", "--not-blank", "  ");
+        Assert.assertEquals(result.getErrors().size(), 2);
+
+        result = parser.parseWithResult("--not-empty", "foo", "--not-blank", "non-blank");
+        Assert.assertTrue(result.wasSuccessful());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void errorHandlerLimitNegative() {
+        new CollectAll(-1);
+    }
+
+    @Test
+    public void errorStackTraces() {
+        ParseResult<Strings> result = SingleCommand
+                .<Strings> singleCommand(Strings.class, this.<Strings> prepareParser(new CollectAll()))
+                .parseWithResult("--not-empty", "");
+        Assert.assertEquals(result.getErrors().size(), 1);
+        Assert.assertTrue(result.getErrors().iterator().next().getStackTrace().length > 0);
+    }
+
+    @Test
+    public void errorStackTracesDisabled() {
+        ParserMetadata<Strings> config = new ParserBuilder<Strings>().withErrorHandler(new CollectAll())
+                .withoutErrorStackTraces().build();
+        Assert.assertFalse(config.capturesErrorStackTraces());
+        ParseResult<Strings> result = SingleCommand.<Strings> singleCommand(Strings.class, config)
+                .parseWithResult("--not-empty", "", "--not-blank", "  ");
+        Assert.assertEquals(result.getErrors().size(), 2);
+        for (ParseException e : result.getErrors()) {
+            Assert.assertEquals(e.getStackTrace().length, 0);
+            Assert.assertNotNull(e.getMessage());
+        }
+
+        // Setting only applies for the duration of the parse
+        Assert.assertTrue(ParseException.isStackTracesEnabled());
+    }
+
+    @Test
+    public void errorStackTracesDisabledFailFast() {
+        SingleCommand<ArgsRequired> parser = SingleCommand.<ArgsRequired> singleCommand(ArgsRequired.class,
+                new ParserBuilder<ArgsRequired>().withoutErrorStackTraces().build());
+        try {
+            parser.parse();
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            Assert.assertEquals(e.getStackTrace().length, 0);
+        }
+        Assert.assertTrue(ParseException.isStackTracesEnabled());
+    }
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.parser.listeners;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.builder.ParserBuilder;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
+
+public class TestParseListeners {
+
+    @Command(name = "add")
+    public static class Add implements Runnable {
+        @Option(name = "--name", arity = 1)
+        @Required
+        public String name;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    /**
+     * Listener that records the sequence of events
+     */
+    private static class RecordingListener implements ParseListener {
+        private final List<String> events = Collections.synchronizedList(new ArrayList<String>());
+
+        @Override
+        public void phaseStarted(ParsePhase phase) {
+            this.events.add("+" + phase);
+        }
+
+        @Override
+        public void phaseFinished(ParsePhase phase, long nanos) {
+            Assert.assertTrue(nanos >= 0);
+            this.events.add("-" + phase);
+        }
+    }
+
+    private Cli<Runnable> cli(ParseListener listener) {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("test");
+        builder.withGroup("remote").withCommand(Add.class);
+        builder.withParser().withParseListener(listener);
+        return builder.build();
+    }
+
+    @Test
+    public void parse_listener_cli_phases() {
+        RecordingListener listener = new RecordingListener();
+        Add add = (Add) cli(listener).parse("remote", "add", "--name", "origin");
+        Assert.assertEquals(add.name, "origin");
+
+        //@formatter:off
+        Assert.assertEquals(listener.events, Arrays.asList("+GLOBAL_OPTIONS", "-GLOBAL_OPTIONS", 
+                                                           "+ALIASES", "-ALIASES", 
+                                                           "+GROUP", "-GROUP", 
+                                                           "+COMMAND", "-COMMAND", 
+                                                           "+VALIDATION", "-VALIDATION", 
+                                                           "+INSTANTIATION", "-INSTANTIATION"));
+        //@formatter:on
+    }
+
+    @Test
+    public void parse_listener_single_command_phases() {
+        RecordingListener listener = new RecordingListener();
+        SingleCommand<Add> parser = SingleCommand.singleCommand(Add.class,
+                new ParserBuilder<Add>().withParseListener(listener).build());
+        ParseResult<Add> result = parser.parseWithResult("--name", "origin");
+
+        // Instantiation only happens when the command is retrieved
+        Assert.assertEquals(listener.events, Arrays.asList("+COMMAND", "-COMMAND", "+VALIDATION", "-VALIDATION"));
+        Assert.assertEquals(result.getCommand().name, "origin");
+        Assert.assertEquals(listener.events.subList(4, listener.events.size()),
+                Arrays.asList("+INSTANTIATION", "-INSTANTIATION"));
+    }
+
+    @Test
+    public void parse_listener_failed_phase() {
+        RecordingListener listener = new RecordingListener();
+        try {
+            cli(listener).parse("remote", "add");
+            Assert.fail("Expected a parse error");
+        } catch (ParseException e) {
+            // Expected
+        }
+        Assert.assertEquals(listener.events.get(listener.events.size() - 1), "+VALIDATION");
+    }
+
+    @Test
+    public void parse_statistics() {
+        ParseStatistics stats = new ParseStatistics();
+        Cli<Runnable> cli = cli(stats);
+        for (int i = 0; i < 100; i++) {
+            cli.parse("remote", "add", "--name", "origin" + i);
+        }
+        try {
+            cli.parse("remote", "add");
+        } catch (ParseException e) {
+            // Expected
+        }
+
+        for (ParsePhase phase : Arrays.asList(ParsePhase.GLOBAL_OPTIONS, ParsePhase.ALIASES, ParsePhase.GROUP,
+                ParsePhase.COMMAND)) {
+            Assert.assertEquals(stats.getStarted(phase), 101, phase.toString());
+            Assert.assertEquals(stats.getFinished(phase), 101, phase.toString());
+        }
+        Assert.assertEquals(stats.getStarted(ParsePhase.VALIDATION), 101);
+        Assert.assertEquals(stats.getFinished(ParsePhase.VALIDATION), 100);
+        Assert.assertEquals(stats.getUnfinished(ParsePhase.VALIDATION), 1);
+        Assert.assertEquals(stats.getFinished(ParsePhase.INSTANTIATION), 100);
+
+        long[] histogram = stats.getHistogram(ParsePhase.COMMAND);
+        Assert.assertEquals(histogram.length, ParseStatistics.BUCKETS);
+        long count = 0;
+        for (long bucket : histogram) {
+            count += bucket;
+        }
+        Assert.assertEquals(count, 101);
+        Assert.assertTrue(stats.getTotalNanos(ParsePhase.COMMAND) > 0);
+        Assert.assertTrue(stats.getMeanNanos(ParsePhase.COMMAND) > 0);
+        long median = stats.getPercentileNanos(ParsePhase.COMMAND, 0.5);
+        long max = stats.getPercentileNanos(ParsePhase.COMMAND, 1.0);
+        Assert.assertTrue(median > 0 && median <= max);
+
+        stats.reset();
+        Assert.assertEquals(stats.getStarted(ParsePhase.COMMAND), 0);
+        Assert.assertEquals(stats.getPercentileNanos(ParsePhase.COMMAND, 0.5), 0);
+    }
+
+    @Test
+    public void parse_statistics_buckets() {
+        Assert.assertEquals(ParseStatistics.getBucket(0), 0);
+        Assert.assertEquals(ParseStatistics.getBucket(1), 1);
+        Assert.assertEquals(ParseStatistics.getBucket(1023), 10);
+        Assert.assertEquals(ParseStatistics.getBucket(1024), 11);
+        Assert.assertEquals(ParseStatistics.getBucket(Long.MAX_VALUE), 63);
+        for (long nanos : new long[] { 0, 1, 5, 1000, 123456789 }) {
+            Assert.assertTrue(nanos < ParseStatistics.getBucketUpperBound(ParseStatistics.getBucket(nanos)));
+        }
+    }
+}
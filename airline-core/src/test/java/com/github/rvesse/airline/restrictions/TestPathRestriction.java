@@ -20,16 +20,91 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.restrictions.Partial;
+import com.github.rvesse.airline.annotations.restrictions.Path;
+import com.github.rvesse.airline.annotations.restrictions.PathKind;
+import com.github.rvesse.airline.builder.ParserBuilder;
 import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.parser.ParseResult;
+import com.github.rvesse.airline.parser.errors.ParseException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.parser.errors.handlers.CollectAll;
 
 public class TestPathRestriction {
 
+    @Command(name = "files")
+    public static class ManyFiles {
+        @Arguments
+        @Path(mustExist = true, kind = PathKind.FILE)
+        public List<String> files;
+    }
+
+    @Command(name = "partial")
+    public static class PartialParallel {
+        @Option(name = "--pair", arity = 2)
+        @Partial(appliesTo = 1, restriction = Path.class)
+        @Path(mustExist = true, kind = PathKind.FILE, parallel = true)
+        public List<String> pair;
+    }
+
+    @Command(name = "files")
+    public static class ManyFilesParallel {
+        @Arguments
+        @Path(mustExist = true, kind = PathKind.FILE, parallel = true)
+        public List<String> files;
+    }
+
+    /**
+     * Creates a directory tree containing the given number of files spread
+     * over several sub-directories
+     */
+    private static List<String> createTree(File root, int count) throws IOException {
+        List<String> paths = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            File dir = new File(root, "dir" + (i % 5));
+            dir.mkdirs();
+            File f = new File(dir, "file" + i);
+            try (FileWriter writer = new FileWriter(f)) {
+                writer.append("test");
+            }
+            paths.add(f.getPath());
+        }
+        return paths;
+    }
+
+    private static <T> List<String> collectErrors(Class<T> cls, List<String> args) {
+        ParseResult<T> result = SingleCommand
+                .singleCommand(cls, new ParserBuilder<T>().withErrorHandler(new CollectAll()).build())
+                .parseWithResult(args);
+        Assert.assertFalse(result.wasSuccessful());
+        List<String> messages = new ArrayList<>();
+        for (ParseException e : result.getErrors()) {
+            messages.add(e.getMessage());
+        }
+        return messages;
+    }
+
+    private static void deleteTree(File f) {
+        File[] children = f.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteTree(child);
+            }
+        }
+        f.delete();
+    }
+
     @Test
     public void path_restriction_must_exist_01() throws IOException {
         File f = new File("target/paths.txt");
@@ -286,4 +361,92 @@ public class TestPathRestriction {
         Assert.assertTrue(usage.contains("must be executable"));
         Assert.assertTrue(usage.contains("must exist"));
     }
+
+    @Test
+    public void path_restriction_many_values_01() throws IOException {
+        File root = new File("target/path-tree");
+        try {
+            List<String> paths = createTree(root, 160);
+
+            ManyFiles cmd = SingleCommand.singleCommand(ManyFiles.class).parse(paths);
+            Assert.assertEquals(cmd.files, paths);
+            ManyFilesParallel parallel = SingleCommand.singleCommand(ManyFilesParallel.class).parse(paths);
+            Assert.assertEquals(parallel.files, paths);
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void path_restriction_many_values_02() throws IOException {
+        File root = new File("target/path-tree");
+        try {
+            List<String> paths = createTree(root, 160);
+            String missing = new File(root, "dir3/missing").getPath();
+            paths.add(80, missing);
+
+            // Same violation whether values are checked in parallel or not
+            for (Class<?> cls : new Class<?>[] { ManyFiles.class, ManyFilesParallel.class }) {
+                try {
+                    SingleCommand.singleCommand(cls).parse(paths);
+                    Assert.fail("Missing file should have been reported");
+                } catch (ParseRestrictionViolatedException e) {
+                    Assert.assertTrue(e.getMessage().contains(missing), e.getMessage());
+                }
+            }
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void path_restriction_many_values_03() throws IOException {
+        File root = new File("target/path-tree");
+        try {
+            List<String> paths = createTree(root, 160);
+            String first = new File(root, "dir1/missing").getPath();
+            String second = new File(root, "dir2/missing").getPath();
+            paths.add(1, first);
+            paths.add(second);
+
+            for (Class<?> cls : new Class<?>[] { ManyFiles.class, ManyFilesParallel.class }) {
+                // Violations reported in the order the values were given
+                List<String> messages = collectErrors(cls, paths);
+                Assert.assertEquals(messages.size(), 2);
+                Assert.assertTrue(messages.get(0).contains(first), messages.get(0));
+                Assert.assertTrue(messages.get(1).contains(second), messages.get(1));
+            }
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test
+    public void path_restriction_parallel_partial() throws IOException {
+        File root = new File("target/path-tree");
+        try {
+            List<String> paths = createTree(root, 2);
+            String missing = new File(root, "dir1/missing").getPath();
+
+            // Partial restrictions must pass final validation through so
+            // deferred checks are still reported
+            try {
+                SingleCommand.singleCommand(PartialParallel.class).parse("--pair", paths.get(0), missing);
+                Assert.fail("Missing file should have been reported");
+            } catch (ParseRestrictionViolatedException e) {
+                Assert.assertTrue(e.getMessage().contains(missing), e.getMessage());
+            }
+            PartialParallel cmd = SingleCommand.singleCommand(PartialParallel.class).parse("--pair", missing,
+                    paths.get(1));
+            Assert.assertEquals(cmd.pair, Arrays.asList(missing, paths.get(1)));
+        } finally {
+            deleteTree(root);
+        }
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class,
+            expectedExceptionsMessageRegExp = ".*not a valid path")
+    public void path_restriction_invalid_path() {
+        SingleCommand.<Paths> singleCommand(Paths.class).parse("--path", "invalid\0path");
+    }
 }
@@ -31,6 +31,7 @@ import com.github.rvesse.airline.model.ArgumentsMetadata;
 import com.github.rvesse.airline.model.OptionMetadata;
 import com.github.rvesse.airline.parser.ParseState;
 import com.github.rvesse.airline.parser.errors.ParseArgumentsIllegalValueException;
+import com.github.rvesse.airline.parser.errors.ParseArgumentsMissingException;
 import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
 import com.github.rvesse.airline.restrictions.ArgumentsRestriction;
 import com.github.rvesse.airline.restrictions.OptionRestriction;
@@ -178,7 +179,7 @@ public class TestPartialRestriction {
         restriction.finalValidate(state, option);
     }
 
-    @Test
+    @Test(expectedExceptions = ParseArgumentsMissingException.class)
     public void partial_required_01() throws NoSuchFieldException, SecurityException {
         List<String> titles = new ArrayList<>();
         titles.add("not-blank");
@@ -191,8 +192,8 @@ public class TestPartialRestriction {
 
         ArgumentsMetadata arguments = new ArgumentsMetadata(titles, "", restrictions, null, fields);
 
-        // Should pass because finalValidate() restrictions are not respected by
-        // partial restrictions
+        // Should fail because partial restrictions pass final validation
+        // through to the restriction they wrap
         ParseState<Partial> state = ParseState.newInstance();
         restriction.finalValidate(state, arguments);
     }
@@ -0,0 +1,155 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.shell;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.ShellBuilder;
+
+public class TestShell {
+
+    @Command(name = "echo")
+    public static class Echo implements Callable<String> {
+        @Option(name = "-n")
+        public boolean noNewLine;
+
+        @Arguments
+        public List<String> args = new ArrayList<>();
+
+        @Override
+        public String call() {
+            StringBuilder builder = new StringBuilder();
+            for (String arg : args) {
+                if (builder.length() > 0)
+                    builder.append('|');
+                builder.append(arg);
+            }
+            return builder.toString();
+        }
+    }
+
+    @Command(name = "fail")
+    public static class Fail implements Runnable {
+        @Override
+        public void run() {
+            throw new IllegalStateException("failed");
+        }
+    }
+
+    private Cli<Object> cli() {
+        return Cli.<Object> builder("test").withCommand(Echo.class).withCommand(Fail.class).build();
+    }
+
+    private String run(ShellBuilder<Object> builder, String input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        builder.build().run(new StringReader(input), new PrintStream(output, true, "UTF-8"));
+        return output(output);
+    }
+
+    private String output(ByteArrayOutputStream output) throws UnsupportedEncodingException {
+        return output.toString("UTF-8").replace("\r\n", "\n");
+    }
+
+    @Test
+    public void shell_executes_commands() throws IOException {
+        String output = run(Shell.builder(cli()).withPrompt(""), "echo a b\necho \"c d\" e\\ f\n");
+        Assert.assertEquals(output, "a|b\nc d|e f\n");
+    }
+
+    @Test
+    public void shell_default_prompt() throws IOException {
+        String output = run(Shell.builder(cli()), "echo a\n");
+        Assert.assertEquals(output, "test> a\ntest> ");
+    }
+
+    @Test
+    public void shell_exit() throws IOException {
+        String output = run(Shell.builder(cli()).withPrompt(""), "echo a\nexit\necho b\n");
+        Assert.assertEquals(output, "a\n");
+        output = run(Shell.builder(cli()).withPrompt("").withExitCommand("bye"), "bye\necho b\n");
+        Assert.assertEquals(output, "");
+    }
+
+    @Test
+    public void shell_continues_after_errors() throws IOException {
+        String output = run(Shell.builder(cli()).withPrompt(""), "fail\necho \"unterminated\nnope\necho ok\n");
+        String[] lines = output.split("\n");
+        Assert.assertEquals(lines.length, 4);
+        Assert.assertEquals(lines[0], "Error: failed");
+        Assert.assertEquals(lines[3], "ok");
+    }
+
+    @Test
+    public void shell_history() throws IOException {
+        Shell<Object> shell = Shell.builder(cli()).withPrompt("").build();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        shell.run(new StringReader("echo a\nfail\necho b\nhistory\n!1\n!!\n!99\n"), new PrintStream(output, true,
+                "UTF-8"));
+        Assert.assertEquals(output(output), "a\nError: failed\nb\n" + "    1  echo a\n    2  fail\n    3  echo b\n"
+                + "echo a\na\necho a\na\n!99: event not found\n");
+
+        List<HistoryEntry> history = shell.getHistory();
+        Assert.assertEquals(history.size(), 5);
+        Assert.assertTrue(history.get(0).wasSuccessful());
+        Assert.assertFalse(history.get(1).wasSuccessful());
+        Assert.assertEquals(history.get(4).getNumber(), 5);
+        Assert.assertEquals(history.get(4).getLine(), "echo a");
+    }
+
+    @Test
+    public void shell_history_bounded() throws IOException {
+        Shell<Object> shell = Shell.builder(cli()).withPrompt("").withHistorySize(2).build();
+        shell.run(new StringReader("echo a\necho b\necho c\n"), new PrintStream(new ByteArrayOutputStream()));
+        List<HistoryEntry> history = shell.getHistory();
+        Assert.assertEquals(history.size(), 2);
+        Assert.assertEquals(history.get(0).getLine(), "echo b");
+        Assert.assertEquals(history.get(1).getNumber(), 3);
+    }
+
+    @Test
+    public void shell_timing() throws IOException {
+        String output = run(Shell.builder(cli()).withPrompt("").withTiming(), "echo a\n");
+        Assert.assertTrue(output.matches("a\nCompleted in [0-9.,]+ ms\n"), output);
+    }
+
+    @Test
+    public void shell_custom_executor() throws IOException {
+        final List<Object> executed = new ArrayList<>();
+        run(Shell.builder(cli()).withExecutor(new ShellCommandExecutor<Object>() {
+            @Override
+            public void execute(Object command, PrintStream out) {
+                executed.add(command);
+            }
+        }), "echo a\nfail\n");
+        Assert.assertEquals(executed.size(), 2);
+        Assert.assertTrue(executed.get(0) instanceof Echo);
+        Assert.assertTrue(executed.get(1) instanceof Fail);
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestPersistentList {
+
+    @Test
+    public void persistent_list_empty() {
+        PersistentList<String> list = PersistentList.empty();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertEquals(list.size(), 0);
+    }
+
+    @Test
+    public void persistent_list_append_01() {
+        PersistentList<String> empty = PersistentList.empty();
+        PersistentList<String> a = empty.append("a");
+        PersistentList<String> ab = a.append("b");
+
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertEquals(a, Arrays.asList("a"));
+        Assert.assertEquals(ab, Arrays.asList("a", "b"));
+    }
+
+    @Test
+    public void persistent_list_append_02() {
+        PersistentList<Integer> list = PersistentList.empty();
+        for (int i = 0; i < 1000; i++) {
+            list = list.append(i);
+        }
+        Assert.assertEquals(list.size(), 1000);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(list.get(i).intValue(), i);
+        }
+    }
+
+    @Test
+    public void persistent_list_branching_01() {
+        PersistentList<String> a = PersistentList.<String> empty().append("a");
+        PersistentList<String> ab = a.append("b");
+        // Appending to an older list must not affect lists derived from it
+        PersistentList<String> ac = a.append("c");
+
+        Assert.assertEquals(a, Arrays.asList("a"));
+        Assert.assertEquals(ab, Arrays.asList("a", "b"));
+        Assert.assertEquals(ac, Arrays.asList("a", "c"));
+    }
+
+    @Test
+    public void persistent_list_branching_02() {
+        PersistentList<String> abc = PersistentList.of(Arrays.asList("a", "b", "c"));
+        PersistentList<String> ab = abc.removeLast();
+        PersistentList<String> abd = ab.append("d");
+
+        Assert.assertEquals(abc, Arrays.asList("a", "b", "c"));
+        Assert.assertEquals(ab, Arrays.asList("a", "b"));
+        Assert.assertEquals(abd, Arrays.asList("a", "b", "d"));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void persistent_list_immutable() {
+        PersistentList<String> list = PersistentList.<String> empty().append("a");
+        list.add("b");
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void persistent_list_bounds() {
+        PersistentList<String> abc = PersistentList.of(Arrays.asList("a", "b", "c"));
+        // Index is within the shared buffer but outside of this list
+        abc.removeLast().get(2);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void persistent_list_remove_empty() {
+        PersistentList.empty().removeLast();
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.utils;
+
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class TestPersistentPrimitiveList {
+
+    @Test
+    public void persistent_primitive_list_int() {
+        PersistentPrimitiveList list = PersistentPrimitiveList.empty(int.class);
+        for (int i = 0; i < 1000; i++) {
+            list = list.appendInt(i);
+        }
+        Assert.assertEquals(list.size(), 1000);
+        int[] values = (int[]) list.toPrimitiveArray();
+        Assert.assertEquals(values.length, 1000);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertEquals(values[i], i);
+            Assert.assertEquals(list.get(i), Integer.valueOf(i));
+        }
+    }
+
+    @Test
+    public void persistent_primitive_list_long_and_double() {
+        PersistentPrimitiveList longs = PersistentPrimitiveList.empty(long.class).appendLong(Long.MAX_VALUE)
+                .appendLong(-1);
+        Assert.assertEquals((long[]) longs.toPrimitiveArray(), new long[] { Long.MAX_VALUE, -1 });
+
+        PersistentPrimitiveList doubles = PersistentPrimitiveList.empty(double.class).appendDouble(0.5)
+                .appendDouble(-2);
+        Assert.assertEquals(doubles, Arrays.<Object> asList(0.5d, -2d));
+    }
+
+    @Test
+    public void persistent_primitive_list_branching() {
+        PersistentPrimitiveList a = PersistentPrimitiveList.empty(int.class).appendInt(1);
+        PersistentPrimitiveList ab = a.appendInt(2);
+        // Appending to an older list must not affect lists derived from it
+        PersistentPrimitiveList ac = a.appendInt(3);
+
+        Assert.assertEquals((int[]) a.toPrimitiveArray(), new int[] { 1 });
+        Assert.assertEquals((int[]) ab.toPrimitiveArray(), new int[] { 1, 2 });
+        Assert.assertEquals((int[]) ac.toPrimitiveArray(), new int[] { 1, 3 });
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void persistent_primitive_list_wrong_type() {
+        PersistentPrimitiveList.empty(int.class).appendLong(1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void persistent_primitive_list_unsupported_type() {
+        PersistentPrimitiveList.empty(String.class);
+    }
+}
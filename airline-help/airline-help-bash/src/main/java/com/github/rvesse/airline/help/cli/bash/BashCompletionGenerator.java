@@ -15,13 +15,19 @@
  */
 package com.github.rvesse.airline.help.cli.bash;
 
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Locale;
 import java.util.Set;
 
 import com.github.rvesse.airline.utils.CollectionUtils;
@@ -42,6 +48,12 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
 
     private static final char NEWLINE = '\n';
     private static final String DOUBLE_NEWLINE = "\n\n";
+    /**
+     * Name of the split script containing the default group commands, can't
+     * clash with a group script since group names never contain {@code -} once
+     * made safe for use in Bash
+     */
+    private static final String SPLIT_DEFAULT_GROUP_FILE = "default-group.bash";
     private final boolean withDebugging;
 
     public BashCompletionGenerator() {
@@ -71,13 +83,128 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
 
         // If there are multiple groups then we will need to generate a function
         // for each
-        boolean hasGroups = global.getCommandGroups().size() > 1 || global.getDefaultGroupCommands().size() == 0;
-        if (hasGroups) {
+        if (hasGroups(global)) {
             generateGroupFunctions(global, writer);
         }
         // Need to generate functions for default group commands regardless
         generateCommandFunctions(global, writer);
 
+        writeMainFunction(writer, global, false);
+
+        // Flush the output
+        writer.flush();
+        output.flush();
+    }
+
+    /**
+     * Generates split completion scripts
+     * <p>
+     * Rather than a single script containing the completion functions for
+     * every group and command this writes a small root script containing just
+     * the main completion function plus a script for each group, and one for
+     * the commands of the default group, into a sub-directory. Only the root
+     * script need be sourced, the script for a group is sourced by the root
+     * script the first time that group is completed so the cost of sourcing
+     * the completions for a large CLI is not paid when a shell starts.
+     * </p>
+     * <p>
+     * The root script locates the sub-directory relative to itself so the
+     * generated files may be moved provided they are kept together.
+     * </p>
+     * 
+     * @param global
+     *            Global meta-data
+     * @param directory
+     *            Directory to write the scripts to
+     * @return Root script
+     * @throws IOException
+     *             Thrown if there is a problem writing the scripts
+     */
+    public File usage(GlobalMetadata<T> global, File directory) throws IOException {
+        File scripts = new File(directory, getSplitDirectoryName(global));
+        if (!scripts.isDirectory() && !scripts.mkdirs())
+            throw new IOException("Failed to create directory " + scripts);
+
+        // Script for each group
+        if (hasGroups(global)) {
+            for (CommandGroupMetadata group : global.getCommandGroups()) {
+                if (group.isHidden() && !this.includeHidden())
+                    continue;
+
+                try (Writer writer = newScript(new File(scripts, getSplitGroupFileName(group)))) {
+                    writeSplitHeader(writer, global);
+                    generateGroupFunctions(global, group, writer);
+                    writer.flush();
+                }
+            }
+        }
+
+        // Script for default group commands
+        try (Writer writer = newScript(new File(scripts, SPLIT_DEFAULT_GROUP_FILE))) {
+            writeSplitHeader(writer, global);
+            generateCommandFunctions(global, writer);
+            writer.flush();
+        }
+
+        // Root script
+        File root = new File(directory, getSplitRootFileName(global));
+        try (Writer writer = newScript(root)) {
+            writeHeader(writer);
+            writeHelperFunctions(writer);
+            writeLoaderFunction(writer, global);
+            writeMainFunction(writer, global, true);
+            writer.flush();
+        }
+        return root;
+    }
+
+    private Writer newScript(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the name of the root script written by
+     * {@link #usage(GlobalMetadata, File)}
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Root script file name
+     */
+    public String getSplitRootFileName(GlobalMetadata<T> global) {
+        return bashize(global.getName()) + "-completion.bash";
+    }
+
+    /**
+     * Gets the name of the sub-directory containing the group scripts written
+     * by {@link #usage(GlobalMetadata, File)}
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Directory name
+     */
+    public String getSplitDirectoryName(GlobalMetadata<T> global) {
+        return bashize(global.getName()) + "-completion.d";
+    }
+
+    /**
+     * Gets the name of the script for a group written by
+     * {@link #usage(GlobalMetadata, File)}
+     * 
+     * @param group
+     *            Group
+     * @return Group script file name
+     */
+    public String getSplitGroupFileName(CommandGroupMetadata group) {
+        return bashize(group.getName()) + ".bash";
+    }
+
+    private boolean hasGroups(GlobalMetadata<T> global) {
+        return global.getCommandGroups().size() > 1 || global.getDefaultGroupCommands().size() == 0;
+    }
+
+    private void writeMainFunction(Writer writer, GlobalMetadata<T> global, boolean lazy) throws IOException {
+        boolean hasGroups = hasGroups(global);
+
         // Start main completion function
         writeFunctionName(writer, global, true);
 
@@ -123,6 +250,9 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         if (global.getDefaultCommand() != null) {
             // Need to call the completion function and combine its output
             // with that of the list of available commands
+            if (lazy) {
+                writeCommandLoad(writer, global, global.getDefaultCommand(), 4);
+            }
             writeCommandFunctionCall(writer, global, null, global.getDefaultCommand(), 4);
             indent(writer, 4);
             writer.append("DEFAULT_COMMAND_COMPLETIONS=(${COMPREPLY[@]})").append(NEWLINE);
@@ -149,7 +279,7 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
                     continue;
 
                 // Add case for the group
-                writeGroupCase(writer, global, group, 4);
+                writeGroupCase(writer, global, group, 4, lazy);
 
                 // Track which groups we've generated completion functions for
                 groups.add(group.getName());
@@ -167,7 +297,7 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
                     continue;
 
                 // Add case for the command
-                writeCommandCase(writer, global, null, command, 4, false);
+                writeCommandCase(writer, global, null, command, 4, false, lazy);
 
                 groups.add(command.getName());
             }
@@ -178,7 +308,7 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
                     continue;
 
                 // Add case for the command
-                writeCommandCase(writer, global, null, command, 4, false);
+                writeCommandCase(writer, global, null, command, 4, false, lazy);
             }
         }
 
@@ -196,10 +326,6 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         writer.append("complete -F ");
         writeFunctionName(writer, global, false);
         writer.append(" ").append(global.getName());
-
-        // Flush the output
-        writer.flush();
-        output.flush();
     }
 
     private void generateCommandFunctions(GlobalMetadata<T> global, Writer writer) throws IOException {
@@ -217,16 +343,21 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
             if (group.isHidden() && !this.includeHidden())
                 continue;
 
-            // Generate the group completion function
-            generateGroupCompletionFunction(writer, global, group);
+            generateGroupFunctions(global, group, writer);
+        }
+    }
 
-            // Generate the associated command completion functions
-            for (CommandMetadata command : group.getCommands()) {
-                if (command.isHidden() && !this.includeHidden())
-                    continue;
+    private void generateGroupFunctions(GlobalMetadata<T> global, CommandGroupMetadata group, Writer writer)
+            throws IOException {
+        // Generate the group completion function
+        generateGroupCompletionFunction(writer, global, group);
 
-                generateCommandCompletionFunction(writer, global, group, command);
-            }
+        // Generate the associated command completion functions
+        for (CommandMetadata command : group.getCommands()) {
+            if (command.isHidden() && !this.includeHidden())
+                continue;
+
+            generateCommandCompletionFunction(writer, global, group, command);
         }
     }
 
@@ -236,6 +367,60 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         writer.append("# Generated by airline BashCompletionGenerator").append(DOUBLE_NEWLINE);
     }
 
+    private void writeSplitHeader(Writer writer, GlobalMetadata<T> global) throws IOException {
+        writer.append("# Generated by airline BashCompletionGenerator").append(NEWLINE);
+        writer.append("# Sourced on demand by ").append(getSplitRootFileName(global)).append(DOUBLE_NEWLINE);
+    }
+
+    private void writeLoaderFunction(Writer writer, GlobalMetadata<T> global) throws IOException {
+        // Locate the directory of split scripts relative to the root script
+        String dirVar = getSplitDirectoryVariable(global);
+        writer.append(dirVar).append("=\"${BASH_SOURCE[0]%/*}\"").append(NEWLINE);
+        writer.append("if [[ \"${").append(dirVar).append("}\" == \"${BASH_SOURCE[0]}\" ]]; then").append(NEWLINE);
+        indent(writer, 2);
+        writer.append(dirVar).append("=.").append(NEWLINE);
+        writer.append("fi").append(NEWLINE);
+        writer.append("if [[ \"${").append(dirVar).append("}\" != /* ]]; then").append(NEWLINE);
+        indent(writer, 2);
+        writer.append(dirVar).append("=\"${PWD}/${").append(dirVar).append("}\"").append(NEWLINE);
+        writer.append("fi").append(NEWLINE);
+        writer.append(dirVar).append("=\"${").append(dirVar).append("}/").append(getSplitDirectoryName(global))
+                .append('"').append(DOUBLE_NEWLINE);
+
+        // Loader sources a script unless the function it defines already
+        // exists
+        writeLoaderFunctionName(writer, global, true);
+        indent(writer, 2);
+        writer.append("declare -F $1 > /dev/null || source \"${").append(dirVar).append("}/$2\"").append(NEWLINE);
+        writer.append("}").append(DOUBLE_NEWLINE);
+    }
+
+    private String getSplitDirectoryVariable(GlobalMetadata<T> global) {
+        return "_COMPLETE_" + bashize(global.getName()).toUpperCase(Locale.ROOT) + "_DIR";
+    }
+
+    private void writeLoaderFunctionName(Writer writer, GlobalMetadata<T> global, boolean declare)
+            throws IOException {
+        if (declare) {
+            writer.append("function ");
+        }
+
+        writer.append("_complete_").append(bashize(global.getName())).append("_load");
+
+        if (declare) {
+            writer.append("() {").append(NEWLINE);
+        }
+    }
+
+    private void writeCommandLoad(Writer writer, GlobalMetadata<T> global, CommandMetadata command, int indent)
+            throws IOException {
+        indent(writer, indent);
+        writeLoaderFunctionName(writer, global, false);
+        writer.append(' ');
+        writeCommandFunctionName(writer, global, null, command, false);
+        writer.append(' ').append(SPLIT_DEFAULT_GROUP_FILE).append(NEWLINE);
+    }
+
     private void writeHelperFunctions(Writer writer) throws IOException {
         // Helper functions
         writer.append("containsElement () {\n");
@@ -251,12 +436,17 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
     }
 
     private void writeCommandCase(Writer writer, GlobalMetadata<T> global, CommandGroupMetadata group,
-            CommandMetadata command, int indent, boolean isNestedFunction) throws IOException {
+            CommandMetadata command, int indent, boolean isNestedFunction, boolean lazy) throws IOException {
         // Start the case
         indent(writer, indent);
         writer.append(command.getName()).append(')').append(NEWLINE);
         indent += 2;
 
+        // Ensure the function is loaded
+        if (lazy) {
+            writeCommandLoad(writer, global, command, indent);
+        }
+
         // Call the function
         writeCommandFunctionCall(writer, global, group, command, indent);
 
@@ -282,13 +472,22 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         writer.append(" \"${COMMANDS}\" ) )").append(NEWLINE);
     }
 
-    private void writeGroupCase(Writer writer, GlobalMetadata<T> global, CommandGroupMetadata group, int indent)
-            throws IOException {
+    private void writeGroupCase(Writer writer, GlobalMetadata<T> global, CommandGroupMetadata group, int indent,
+            boolean lazy) throws IOException {
         // Start the case
         indent(writer, indent);
         writer.append(group.getName()).append(')').append(NEWLINE);
         indent += 2;
 
+        // Ensure the function is loaded
+        if (lazy) {
+            indent(writer, indent);
+            writeLoaderFunctionName(writer, global, false);
+            writer.append(' ');
+            writeGroupFunctionName(writer, global, group, false);
+            writer.append(' ').append(getSplitGroupFileName(group)).append(NEWLINE);
+        }
+
         // Call the function
         writeGroupFunctionCall(writer, global, group, indent);
 
@@ -357,7 +556,7 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
                 continue;
 
             // Add case for the command
-            writeCommandCase(writer, global, group, command, 4, true);
+            writeCommandCase(writer, global, group, command, 4, true, false);
         }
         writer.append("  esac").append(NEWLINE);
 
@@ -627,4 +826,13 @@ public class BashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T>
         return info;
     }
 
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(BashCompletionGenerator.class);
+    }
+
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.withDebugging);
+    }
 }
@@ -0,0 +1,183 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.bash;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
+import com.github.rvesse.airline.help.suggester.CompleteCommand;
+import com.github.rvesse.airline.model.CommandGroupMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.GlobalMetadata;
+import com.github.rvesse.airline.model.OptionMetadata;
+
+/**
+ * Generates a compact Bash completion script that obtains completions by
+ * invoking the CLI itself
+ * <p>
+ * Unlike the {@link BashCompletionGenerator} the generated script does not
+ * contain the completions for every group, command and option, instead it calls
+ * the {@link CompleteCommand} so the CLI must include that command. This keeps
+ * the script a fixed size regardless of the size of the CLI and allows
+ * completing values that depend upon runtime state. To avoid starting the CLI
+ * on every completion static candidates are cached on disk for the lifetime of
+ * the shell session, keyed by the words preceding the word being completed.
+ * The cache is kept in a directory under {@code $TMPDIR} (or {@code /tmp})
+ * named for the CLI, its meta-data and the process ID of the shell.
+ * </p>
+ * <p>
+ * The script may also be sourced by Zsh in which case it enables Zsh's Bash
+ * completion compatibility.
+ * </p>
+ * 
+ * @param <T>
+ *            Command type
+ */
+public class DynamicBashCompletionGenerator<T> extends AbstractGlobalUsageGenerator<T> {
+
+    private static final char NEWLINE = '\n';
+    private static final String DOUBLE_NEWLINE = "\n\n";
+
+    /**
+     * Maximum length of a cache key, longer keys are not cached since they
+     * could exceed file name length limits
+     */
+    private static final int MAX_KEY_LENGTH = 200;
+
+    public DynamicBashCompletionGenerator() {
+        super(false);
+    }
+
+    @Override
+    public void usage(GlobalMetadata<T> global, OutputStream output) throws IOException {
+        Writer writer = new OutputStreamWriter(output);
+        String function = "_complete_" + bashize(global.getName());
+        String cacheDir = "${TMPDIR:-/tmp}/" + bashize(global.getName()) + "-completion-" + signature(global)
+                + "-$$";
+
+        // Script header
+        writer.append("#!/bin/bash").append(DOUBLE_NEWLINE);
+        writer.append("# Generated by airline DynamicBashCompletionGenerator").append(NEWLINE);
+        writer.append("# Candidates are obtained by running '").append(global.getName()).append(' ')
+                .append(CompleteCommand.NAME).append("', static candidates are cached").append(NEWLINE);
+        writer.append("# for the lifetime of the shell session").append(DOUBLE_NEWLINE);
+
+        // Zsh compatibility
+        writer.append("if [ -n \"${ZSH_VERSION}\" ]; then").append(NEWLINE);
+        writer.append("  autoload -U +X bashcompinit && bashcompinit").append(NEWLINE);
+        writer.append("fi").append(DOUBLE_NEWLINE);
+
+        // Array slices are used throughout since Zsh arrays are 1 indexed
+        writer.append("function ").append(function).append("() {").append(NEWLINE);
+        writer.append("  local CURR_WORD=\"${COMP_WORDS[@]:COMP_CWORD:1}\"").append(NEWLINE);
+        writer.append("  local CACHE_DIR=\"").append(cacheDir).append('"').append(NEWLINE);
+        writer.append("  local KEY CACHE_FILE RESPONSE CANDIDATES").append(DOUBLE_NEWLINE);
+
+        // Encode the preceding words as a file name
+        writer.append("  # Cache key is the preceding words quoted and with / escaped").append(NEWLINE);
+        writer.append("  printf -v KEY '%q ' \"${COMP_WORDS[@]:1:COMP_CWORD-1}\"").append(NEWLINE);
+        writer.append("  KEY=\"${COMP_CWORD}_${KEY//%/%25}\"").append(NEWLINE);
+        writer.append("  KEY=\"${KEY//\\//%2F}\"").append(NEWLINE);
+        writer.append("  CACHE_FILE=").append(NEWLINE);
+        writer.append("  if [[ ${#KEY} -le ").append(Integer.toString(MAX_KEY_LENGTH)).append(" ]]; then")
+                .append(NEWLINE);
+        writer.append("    CACHE_FILE=\"${CACHE_DIR}/${KEY}\"").append(NEWLINE);
+        writer.append("  fi").append(DOUBLE_NEWLINE);
+
+        // Use cached candidates or invoke the CLI
+        writer.append("  if [[ -n ${CACHE_FILE} && -O ${CACHE_DIR} && -f ${CACHE_FILE} ]]; then").append(NEWLINE);
+        writer.append("    RESPONSE=$(< \"${CACHE_FILE}\")").append(NEWLINE);
+        writer.append("  else").append(NEWLINE);
+        writer.append("    RESPONSE=$( \"${COMP_WORDS[@]:0:1}\" ").append(CompleteCommand.NAME)
+                .append(" -- \"${COMP_CWORD}\" \"${COMP_WORDS[@]}\" 2>/dev/null )").append(NEWLINE);
+        writer.append("    if [[ -n ${CACHE_FILE} && \"${RESPONSE%%$'\\n'*}\" == ").append(CompleteCommand.STATIC)
+                .append(" ]]; then").append(NEWLINE);
+        writer.append("      mkdir -p -m 700 \"${CACHE_DIR}\" 2>/dev/null").append(NEWLINE);
+        writer.append("      if [[ -O ${CACHE_DIR} ]]; then").append(NEWLINE);
+        writer.append("        printf '%s\\n' \"${RESPONSE}\" > \"${CACHE_FILE}\"").append(NEWLINE);
+        writer.append("      fi").append(NEWLINE);
+        writer.append("    fi").append(NEWLINE);
+        writer.append("  fi").append(DOUBLE_NEWLINE);
+
+        // First line is the directive, remaining lines are the candidates
+        writer.append("  CANDIDATES=").append(NEWLINE);
+        writer.append("  if [[ \"${RESPONSE}\" == *$'\\n'* ]]; then").append(NEWLINE);
+        writer.append("    CANDIDATES=\"${RESPONSE#*$'\\n'}\"").append(NEWLINE);
+        writer.append("  fi").append(NEWLINE);
+        writer.append("  local IFS=$'\\n'").append(NEWLINE);
+        writer.append("  COMPREPLY=( $(compgen -W \"${CANDIDATES}\" -- \"${CURR_WORD}\") )").append(NEWLINE);
+        writer.append("  return 0").append(NEWLINE);
+        writer.append("}").append(DOUBLE_NEWLINE);
+
+        // Completion setup, fall back to file names when there are no
+        // candidates
+        writer.append("complete -o default -F ").append(function).append(' ').append(global.getName())
+                .append(NEWLINE);
+
+        // Flush the output
+        writer.flush();
+        output.flush();
+    }
+
+    /**
+     * Computes a signature of the CLI meta-data so that cached candidates from
+     * a previous version of the CLI are not used
+     * 
+     * @param global
+     *            Global meta-data
+     * @return Signature
+     */
+    private String signature(GlobalMetadata<T> global) {
+        int hash = global.getName().hashCode();
+        for (OptionMetadata option : global.getOptions()) {
+            hash = 31 * hash + option.getOptions().hashCode();
+        }
+        for (CommandMetadata command : global.getDefaultGroupCommands()) {
+            hash = 31 * hash + signature(command);
+        }
+        for (CommandGroupMetadata group : global.getCommandGroups()) {
+            hash = 31 * hash + group.getName().hashCode();
+            for (OptionMetadata option : group.getOptions()) {
+                hash = 31 * hash + option.getOptions().hashCode();
+            }
+            for (CommandMetadata command : group.getCommands()) {
+                hash = 31 * hash + signature(command);
+            }
+        }
+        return String.format("%08x", hash);
+    }
+
+    private int signature(CommandMetadata command) {
+        int hash = command.getName().hashCode();
+        for (OptionMetadata option : command.getAllOptions()) {
+            hash = 31 * hash + option.getOptions().hashCode();
+        }
+        return hash;
+    }
+
+    private String bashize(String value) {
+        StringBuilder builder = new StringBuilder();
+        for (char c : value.toCharArray()) {
+            if (Character.isLetterOrDigit(c) || c == '_') {
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.help.cli.bash;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.Help;
+import com.github.rvesse.airline.model.GlobalMetadata;
+
+public class TestBashCompletionSplit {
+
+    /**
+     * Number of groups in the synthetic CLI, each has 4 commands
+     */
+    private static final int GROUPS = 250;
+
+    public static class Base implements Runnable {
+        @Option(name = { "-v", "--verbose" })
+        public boolean verbose;
+
+        @Option(name = "--profile", arity = 1)
+        public String profile;
+
+        @Override
+        public void run() {
+        }
+    }
+
+    @Command(name = "build")
+    public static class Build extends Base {
+        @Option(name = "--target", arity = 1)
+        public String target;
+
+        @Arguments
+        public List<String> modules;
+    }
+
+    @Command(name = "deploy")
+    public static class Deploy extends Base {
+        @Option(name = "--env", arity = 1)
+        public String env;
+    }
+
+    @Command(name = "status")
+    public static class Status extends Base {
+        @Option(name = "--watch")
+        public boolean watch;
+    }
+
+    @Command(name = "clean")
+    public static class Clean extends Base {
+        @Option(name = "--all")
+        public boolean all;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GlobalMetadata<Runnable> synthetic() {
+        CliBuilder<Runnable> builder = Cli.<Runnable> builder("big").withDefaultCommand(Help.class)
+                .withCommand(Help.class);
+        for (int i = 0; i < GROUPS; i++) {
+            builder.withGroup(String.format("group%03d", i)).withCommands(Build.class, Deploy.class, Status.class,
+                    Clean.class);
+        }
+        return builder.build().getMetadata();
+    }
+
+    private static File tempDirectory() throws IOException {
+        File dir = File.createTempFile("bash", "completion");
+        Assert.assertTrue(dir.delete());
+        Assert.assertTrue(dir.mkdirs());
+        return dir;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+
+    private static String bash(String script) throws IOException, InterruptedException {
+        Process process;
+        try {
+            process = new ProcessBuilder("bash", "-c", script).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            throw new SkipException("bash is not available");
+        }
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream input = process.getInputStream()) {
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+        }
+        Assert.assertEquals(process.waitFor(), 0, output.toString("UTF-8"));
+        return new String(output.toByteArray(), StandardCharsets.UTF_8).trim();
+    }
+
+    @Test
+    public void bash_completion_split_lazy_loading() throws IOException, InterruptedException {
+        GlobalMetadata<Runnable> global = synthetic();
+        BashCompletionGenerator<Runnable> generator = new BashCompletionGenerator<>();
+        File dir = tempDirectory();
+        try {
+            File full = new File(dir, "full.bash");
+            try (OutputStream output = new FileOutputStream(full)) {
+                generator.usage(global, output);
+            }
+            File root = generator.usage(global, dir);
+
+            // One script per group plus one for the default group
+            File scripts = new File(dir, generator.getSplitDirectoryName(global));
+            Assert.assertEquals(scripts.list().length, GROUPS + 1);
+            Assert.assertTrue(root.length() * 10 < full.length(),
+                    String.format("Root script is %d bytes vs %d bytes", root.length(), full.length()));
+
+            // Only the group being completed is loaded
+            String completions = bash("source '" + root.getAbsolutePath()
+                    + "'; COMP_WORDS=(big group042 de); COMP_CWORD=2; _complete_big; echo ${COMPREPLY[@]}; "
+                    + "COMP_WORDS=(big group042 deploy --e); COMP_CWORD=3; _complete_big; echo ${COMPREPLY[@]}; "
+                    + "declare -F | grep -c _group_");
+            Assert.assertEquals(completions, "deploy\n--env\n5");
+
+            // Completions match those of the single script
+            String expected = bash("source '" + full.getAbsolutePath()
+                    + "'; COMP_WORDS=(big group042 deploy --e); COMP_CWORD=3; _complete_big; echo ${COMPREPLY[@]}");
+            Assert.assertEquals(expected, "--env");
+        } finally {
+            deleteRecursively(dir);
+        }
+    }
+}
@@ -20,6 +20,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import com.github.rvesse.airline.utils.StringUtils;
@@ -454,4 +455,15 @@ public class HtmlCommandUsageGenerator extends AbstractCommandUsageGenerator {
         }
     }
 
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(HtmlCommandUsageGenerator.class);
+    }
+
+    @Override
+    protected Object getConfigurationKey() {
+        // Stylesheets may be added by derived generators after construction
+        // so take a copy of the current stylesheets
+        return Arrays.asList(super.getConfigurationKey(), new ArrayList<>(this.stylesheetUrls));
+    }
 }
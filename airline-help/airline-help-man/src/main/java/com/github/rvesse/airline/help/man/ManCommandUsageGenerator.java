@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -288,4 +289,14 @@ public class ManCommandUsageGenerator extends AbstractCommandUsageGenerator {
 
         return stringBuilder.toString();
     }
+
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(ManCommandUsageGenerator.class);
+    }
+
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.manSection);
+    }
 }
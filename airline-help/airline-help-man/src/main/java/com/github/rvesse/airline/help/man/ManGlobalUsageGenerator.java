@@ -20,12 +20,14 @@ import java.io.OutputStream;
 import java.io.PrintWriter;
 import java.io.Writer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
 import com.github.rvesse.airline.help.CommandUsageGenerator;
 import com.github.rvesse.airline.help.UsageHelper;
 import com.github.rvesse.airline.help.common.AbstractGlobalUsageGenerator;
+import com.github.rvesse.airline.help.common.AbstractUsageGenerator;
 import com.github.rvesse.airline.help.man.ManSections;
 import com.github.rvesse.airline.io.printers.TroffPrinter;
 import com.github.rvesse.airline.model.CommandGroupMetadata;
@@ -434,4 +436,19 @@ public class ManGlobalUsageGenerator<T> extends AbstractGlobalUsageGenerator<T>
 
         return stringBuilder.toString();
     }
+
+    @Override
+    public Object getCacheKey() {
+        // Output includes that of the command usage generator so is only
+        // cacheable if that generator is
+        Object key = getCacheKeyFor(ManGlobalUsageGenerator.class);
+        Object commandKey = this.commandUsageGenerator instanceof AbstractUsageGenerator
+                ? ((AbstractUsageGenerator) this.commandUsageGenerator).getCacheKey() : null;
+        return key != null && commandKey != null ? Arrays.asList(key, commandKey) : null;
+    }
+
+    @Override
+    protected Object getConfigurationKey() {
+        return Arrays.asList(super.getConfigurationKey(), this.manSection);
+    }
 }
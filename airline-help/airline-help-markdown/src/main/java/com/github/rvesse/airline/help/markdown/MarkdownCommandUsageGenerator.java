@@ -198,4 +198,8 @@ public class MarkdownCommandUsageGenerator extends AbstractPrintedCommandUsageGe
         out.append("-").append(command.getDescription()).newline().newline();
     }
 
+    @Override
+    public Object getCacheKey() {
+        return getCacheKeyFor(MarkdownCommandUsageGenerator.class);
+    }
 }
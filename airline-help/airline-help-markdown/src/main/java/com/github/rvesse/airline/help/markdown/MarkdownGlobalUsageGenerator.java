@@ -17,6 +17,7 @@ package com.github.rvesse.airline.help.markdown;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 
@@ -365,4 +366,13 @@ public class MarkdownGlobalUsageGenerator<T> extends AbstractPrintedGlobalUsageG
             outputGroupCommandUsages(printer, global, subGroupPath);
         }
     }
+
+    @Override
+    public Object getCacheKey() {
+        // Output includes that of the command usage generator so is only
+        // cacheable if that generator is
+        Object key = getCacheKeyFor(MarkdownGlobalUsageGenerator.class);
+        Object commandKey = this.commandUsageGenerator.getCacheKey();
+        return key != null && commandKey != null ? Arrays.asList(key, commandKey) : null;
+    }
 }
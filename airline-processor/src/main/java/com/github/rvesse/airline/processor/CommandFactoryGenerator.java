@@ -0,0 +1,462 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+import com.github.rvesse.airline.model.MetadataLoader;
+
+/**
+ * Generates the source of a command meta-data factory for a single command
+ * class
+ * <p>
+ * The generated code mirrors what {@link MetadataLoader} does reflectively,
+ * fields are visited in the same order and options and arguments are
+ * registered via the same {@link MetadataLoader.InjectionMetadata} methods so
+ * validation and option overriding behave identically.
+ * </p>
+ */
+class CommandFactoryGenerator {
+
+    static final String COMMAND = "com.github.rvesse.airline.annotations.Command";
+    static final String GROUP = "com.github.rvesse.airline.annotations.Group";
+    static final String GROUPS = "com.github.rvesse.airline.annotations.Groups";
+    static final String OPTION = "com.github.rvesse.airline.annotations.Option";
+    static final String DEFAULT_OPTION = "com.github.rvesse.airline.annotations.DefaultOption";
+    static final String ARGUMENTS = "com.github.rvesse.airline.annotations.Arguments";
+    static final String PARTIAL = "com.github.rvesse.airline.annotations.restrictions.Partial";
+    static final String PARTIALS = "com.github.rvesse.airline.annotations.restrictions.Partials";
+    static final String INJECT = "javax.inject.Inject";
+    static final String GUICE_INJECT = "com.google.inject.Inject";
+
+    /**
+     * Annotations on a class that can never produce a help section
+     */
+    private static final Set<String> NON_HELP_ANNOTATIONS = new HashSet<>(Arrays.asList(COMMAND, GROUP, GROUPS,
+            "com.github.rvesse.airline.annotations.Cli", "com.github.rvesse.airline.annotations.Parser"));
+
+    /**
+     * Annotations on a field that can never produce a restriction
+     */
+    private static final Set<String> NON_RESTRICTION_ANNOTATIONS = new HashSet<>(
+            Arrays.asList(OPTION, DEFAULT_OPTION, ARGUMENTS, PARTIAL, PARTIALS, INJECT, GUICE_INJECT));
+
+    private static final Set<String> METADATA_TYPES = new HashSet<>(
+            Arrays.asList("com.github.rvesse.airline.model.GlobalMetadata",
+                    "com.github.rvesse.airline.model.CommandGroupMetadata",
+                    "com.github.rvesse.airline.model.CommandMetadata"));
+
+    /**
+     * Maximum depth of injected delegates, reflective loading would overflow
+     * the stack on recursive delegates so we give up well before that
+     */
+    private static final int MAX_DELEGATE_DEPTH = 32;
+
+    private final Elements elements;
+    private final Types types;
+    private final TypeElement commandType;
+    private final PackageElement commandPackage;
+    private final StringBuilder body = new StringBuilder();
+    private int fieldCount = 0;
+
+    CommandFactoryGenerator(ProcessingEnvironment env, TypeElement commandType) {
+        this.elements = env.getElementUtils();
+        this.types = env.getTypeUtils();
+        this.commandType = commandType;
+        this.commandPackage = this.elements.getPackageOf(commandType);
+    }
+
+    /**
+     * Gets the fully qualified name of the factory that will be generated, this
+     * must match {@link MetadataLoader#getGeneratedFactoryName(Class)}
+     * 
+     * @return Factory name
+     */
+    String getFactoryName() {
+        String packageName = this.commandPackage.isUnnamed() ? "" : this.commandPackage.getQualifiedName() + ".";
+        return packageName + getFactorySimpleName();
+    }
+
+    private String getFactorySimpleName() {
+        String binaryName = this.elements.getBinaryName(this.commandType).toString();
+        int index = binaryName.lastIndexOf('.');
+        return binaryName.substring(index + 1).replace('$', '_') + MetadataLoader.GENERATED_FACTORY_SUFFIX;
+    }
+
+    /**
+     * Generates the factory source
+     * 
+     * @return Factory source
+     * @throws UnsupportedCommandException
+     *             Thrown if a factory cannot be generated for the command
+     */
+    String generate() throws UnsupportedCommandException {
+        if (!isAccessible(this.commandType))
+            throw new UnsupportedCommandException("command class is not accessible from generated code");
+
+        String type = this.commandType.getQualifiedName() + ".class";
+        AnnotationMirror command = getAnnotation(this.commandType, COMMAND);
+        Map<String, AnnotationValue> commandValues = getValues(command);
+
+        // Groups are only taken from the class declaring @Command
+        line("List<Group> groups = new ArrayList<Group>();");
+        if (getAnnotation(this.commandType, GROUPS) != null) {
+            line("groups.addAll(Arrays.asList(%s.getAnnotation(Groups.class).value()));", type);
+        }
+        if (getAnnotation(this.commandType, GROUP) != null) {
+            line("groups.add(%s.getAnnotation(Group.class));", type);
+        }
+
+        // Help sections may come from anywhere in the hierarchy
+        List<String> helpDepths = new ArrayList<>();
+        int depth = 0;
+        for (TypeElement cls = this.commandType; cls != null; cls = getSuperclass(cls), depth++) {
+            for (AnnotationMirror annotation : cls.getAnnotationMirrors()) {
+                if (isRuntimeVisible(annotation) && !NON_HELP_ANNOTATIONS.contains(getName(annotation))) {
+                    helpDepths.add(Integer.toString(depth));
+                    break;
+                }
+            }
+        }
+
+        line("InjectionMetadata injection = new InjectionMetadata();");
+        loadFields(this.commandType, type, new ArrayList<String>());
+
+        String description = getString(commandValues, "description");
+        //@formatter:off
+        line("return MetadataLoader.loadCommand(%s, %s, %s, %s, Arrays.<String> asList(%s), groups, %s, injection);",
+             type,
+             literal(getString(commandValues, "name")),
+             description.isEmpty() ? "null" : literal(description),
+             getBoolean(commandValues, "hidden"),
+             join(literals(getStrings(commandValues, "groupNames"))),
+             helpDepths.isEmpty() ? "Collections.<HelpSection> emptyList()"
+                                  : String.format("MetadataLoader.loadHelpSections(%s, %s)", type, join(helpDepths)));
+        //@formatter:on
+
+        StringBuilder source = new StringBuilder();
+        if (!this.commandPackage.isUnnamed()) {
+            source.append("package ").append(this.commandPackage.getQualifiedName()).append(";\n\n");
+        }
+        source.append("import java.lang.reflect.Field;\n");
+        source.append("import java.util.ArrayList;\n");
+        source.append("import java.util.Arrays;\n");
+        source.append("import java.util.Collections;\n");
+        source.append("import java.util.List;\n\n");
+        source.append("import com.github.rvesse.airline.Accessor;\n");
+        source.append("import com.github.rvesse.airline.annotations.Group;\n");
+        source.append("import com.github.rvesse.airline.annotations.Groups;\n");
+        source.append("import com.github.rvesse.airline.annotations.OptionType;\n");
+        source.append("import com.github.rvesse.airline.help.sections.HelpSection;\n");
+        source.append("import com.github.rvesse.airline.model.ArgumentsMetadata;\n");
+        source.append("import com.github.rvesse.airline.model.CommandMetadata;\n");
+        source.append("import com.github.rvesse.airline.model.CommandMetadataFactory;\n");
+        source.append("import com.github.rvesse.airline.model.MetadataLoader;\n");
+        source.append("import com.github.rvesse.airline.model.MetadataLoader.InjectionMetadata;\n");
+        source.append("import com.github.rvesse.airline.model.OptionMetadata;\n");
+        source.append("import com.github.rvesse.airline.parser.ParserUtil;\n");
+        source.append("import com.github.rvesse.airline.restrictions.ArgumentsRestriction;\n");
+        source.append("import com.github.rvesse.airline.restrictions.OptionRestriction;\n\n");
+        source.append("/**\n");
+        source.append(" * Command meta-data factory for {@link ").append(this.commandType.getQualifiedName())
+                .append("}, generated by ").append(MetadataProcessor.class.getName()).append("\n");
+        source.append(" */\n");
+        source.append("public final class ").append(getFactorySimpleName())
+                .append(" implements CommandMetadataFactory {\n\n");
+        source.append("    @Override\n");
+        source.append("    public CommandMetadata loadCommand() {\n");
+        source.append(this.body);
+        source.append("    }\n");
+        source.append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Emits the code to load the annotated fields of a type, this visits
+     * fields in the same order as
+     * {@link MetadataLoader#loadInjectionMetadata(Class, MetadataLoader.InjectionMetadata, List)}
+     */
+    private void loadFields(TypeElement type, String typeExpr, List<String> parentPath)
+            throws UnsupportedCommandException {
+        if (type.getKind().isInterface())
+            return;
+        if (parentPath.size() > MAX_DELEGATE_DEPTH)
+            throw new UnsupportedCommandException("injected delegates are nested too deeply");
+
+        int depth = 0;
+        for (TypeElement cls = type; cls != null; cls = getSuperclass(cls), depth++) {
+            for (VariableElement field : ElementFilter.fieldsIn(cls.getEnclosedElements())) {
+                AnnotationMirror inject = getAnnotation(field, INJECT);
+                AnnotationMirror guiceInject = getAnnotation(field, GUICE_INJECT);
+                AnnotationMirror option = getAnnotation(field, OPTION);
+                AnnotationMirror defaultOption = getAnnotation(field, DEFAULT_OPTION);
+                AnnotationMirror arguments = getAnnotation(field, ARGUMENTS);
+                if (inject == null && guiceInject == null && option == null && defaultOption == null
+                        && arguments == null)
+                    continue;
+
+                String var = "f" + this.fieldCount++;
+                line("Field %s = MetadataLoader.loadField(%s, %d, %s);", var, typeExpr, depth,
+                        literal(field.getSimpleName().toString()));
+                List<String> path = new ArrayList<>(parentPath);
+                path.add(var);
+
+                if (inject != null)
+                    loadInjection(field, var, path);
+                if (guiceInject != null)
+                    loadInjection(field, var, path);
+
+                if (option != null) {
+                    loadOption(field, option, defaultOption != null, typeExpr, var, path);
+                } else if (defaultOption != null) {
+                    throw new UnsupportedCommandException(String.format(
+                            "field %s is annotated with @DefaultOption but not @Option", field.getSimpleName()));
+                }
+
+                if (arguments != null)
+                    loadArguments(field, arguments, var, path);
+            }
+        }
+    }
+
+    private void loadInjection(VariableElement field, String var, List<String> path)
+            throws UnsupportedCommandException {
+        TypeMirror fieldType = this.types.erasure(field.asType());
+        if (fieldType.getKind() == TypeKind.ARRAY) {
+            // Arrays have no declared fields
+            return;
+        }
+        if (fieldType.getKind() != TypeKind.DECLARED)
+            throw new UnsupportedCommandException(
+                    String.format("field %s cannot be injected as it has type %s", field.getSimpleName(), fieldType));
+
+        TypeElement fieldTypeElement = (TypeElement) ((DeclaredType) fieldType).asElement();
+        if (METADATA_TYPES.contains(fieldTypeElement.getQualifiedName().toString())) {
+            line("injection.addMetadataInjection(new Accessor(%s));", join(path));
+        } else {
+            loadFields(fieldTypeElement, var + ".getType()", path);
+        }
+    }
+
+    private void loadOption(VariableElement field, AnnotationMirror option, boolean defaultOption, String typeExpr,
+            String var, List<String> path) throws UnsupportedCommandException {
+        Map<String, AnnotationValue> values = getValues(option);
+
+        String title = getString(values, "title");
+        if (title.isEmpty())
+            title = field.getSimpleName().toString();
+
+        int arity = (Integer) values.get("arity").getValue();
+        if (arity < 0 && arity != Integer.MIN_VALUE)
+            throw new UnsupportedCommandException(String.format("invalid arity for option %s", title));
+        if (arity < 0) {
+            TypeMirror fieldType = this.types.erasure(field.asType());
+            boolean isBoolean = fieldType.getKind() == TypeKind.BOOLEAN || (fieldType.getKind() == TypeKind.DECLARED
+                    && isNamed((DeclaredType) fieldType, Boolean.class.getName()));
+            arity = isBoolean ? 0 : 1;
+        }
+
+        //@formatter:off
+        line("injection.addOption(%s, %s, new OptionMetadata(OptionType.%s, Arrays.<String> asList(%s), %s, %s, %d, %s, %s, %s, %s, %s, Arrays.asList(%s)), %s);",
+             typeExpr,
+             var,
+             ((VariableElement) values.get("type").getValue()).getSimpleName(),
+             join(literals(getStrings(values, "name"))),
+             literal(title),
+             literal(getString(values, "description")),
+             arity,
+             getBoolean(values, "hidden"),
+             getBoolean(values, "override"),
+             getBoolean(values, "sealed"),
+             hasRestrictions(field) ? String.format("MetadataLoader.loadOptionRestrictions(%s)", var)
+                                    : "Collections.<OptionRestriction> emptyList()",
+             createInstance(values, "typeConverterProvider"),
+             join(path),
+             defaultOption);
+        //@formatter:on
+    }
+
+    private void loadArguments(VariableElement field, AnnotationMirror arguments, String var, List<String> path)
+            throws UnsupportedCommandException {
+        Map<String, AnnotationValue> values = getValues(arguments);
+
+        List<String> titles = getStrings(values, "title");
+        if (titles.size() == 1 && titles.get(0).equals(""))
+            titles = Arrays.asList(field.getSimpleName().toString());
+
+        //@formatter:off
+        line("injection.addArguments(%s, new ArgumentsMetadata(Arrays.<String> asList(%s), %s, %s, %s, Arrays.asList(%s)));",
+             var,
+             join(literals(titles)),
+             literal(getString(values, "description")),
+             hasRestrictions(field) ? String.format("MetadataLoader.loadArgumentsRestrictions(%s)", var)
+                                    : "Collections.<ArgumentsRestriction> emptyList()",
+             createInstance(values, "typeConverterProvider"),
+             join(path));
+        //@formatter:on
+    }
+
+    private String createInstance(Map<String, AnnotationValue> values, String key) throws UnsupportedCommandException {
+        TypeMirror type = (TypeMirror) values.get(key).getValue();
+        TypeElement element = (TypeElement) this.types.asElement(type);
+        if (!isAccessible(element))
+            throw new UnsupportedCommandException(
+                    String.format("%s is not accessible from generated code", element.getQualifiedName()));
+        return String.format("ParserUtil.createInstance(%s.class)", element.getQualifiedName());
+    }
+
+    /**
+     * Determines whether a field might have restrictions, which restrictions
+     * are available is only known at runtime so any runtime visible annotation
+     * not otherwise known to Airline is treated as a potential restriction
+     */
+    private boolean hasRestrictions(VariableElement field) {
+        for (AnnotationMirror annotation : field.getAnnotationMirrors()) {
+            if (isRuntimeVisible(annotation) && !NON_RESTRICTION_ANNOTATIONS.contains(getName(annotation)))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Determines whether a type may be referenced from code generated in the
+     * package of the command
+     */
+    private boolean isAccessible(TypeElement type) {
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (!(e instanceof TypeElement))
+                return false;
+            TypeElement t = (TypeElement) e;
+            if (t.getNestingKind() == NestingKind.LOCAL || t.getNestingKind() == NestingKind.ANONYMOUS)
+                return false;
+            if (t.getModifiers().contains(Modifier.PRIVATE))
+                return false;
+            if (!t.getModifiers().contains(Modifier.PUBLIC) && !this.elements.getPackageOf(t).equals(this.commandPackage))
+                return false;
+        }
+        return true;
+    }
+
+    private TypeElement getSuperclass(TypeElement type) {
+        TypeMirror superclass = type.getSuperclass();
+        if (superclass.getKind() != TypeKind.DECLARED)
+            return null;
+        TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+        if (element.getQualifiedName().contentEquals(Object.class.getName()))
+            return null;
+        return element;
+    }
+
+    private boolean isRuntimeVisible(AnnotationMirror annotation) {
+        Retention retention = annotation.getAnnotationType().asElement().getAnnotation(Retention.class);
+        return retention != null && retention.value() == RetentionPolicy.RUNTIME;
+    }
+
+    private static boolean isNamed(DeclaredType type, String name) {
+        return ((TypeElement) type.asElement()).getQualifiedName().contentEquals(name);
+    }
+
+    private static String getName(AnnotationMirror annotation) {
+        return ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static AnnotationMirror getAnnotation(Element element, String name) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if (isNamed(annotation.getAnnotationType(), name))
+                return annotation;
+        }
+        return null;
+    }
+
+    private Map<String, AnnotationValue> getValues(AnnotationMirror annotation) {
+        Map<String, AnnotationValue> values = new HashMap<>();
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> e : this.elements
+                .getElementValuesWithDefaults(annotation).entrySet()) {
+            values.put(e.getKey().getSimpleName().toString(), e.getValue());
+        }
+        return values;
+    }
+
+    private static String getString(Map<String, AnnotationValue> values, String key) {
+        return (String) values.get(key).getValue();
+    }
+
+    private static boolean getBoolean(Map<String, AnnotationValue> values, String key) {
+        return (Boolean) values.get(key).getValue();
+    }
+
+    private static List<String> getStrings(Map<String, AnnotationValue> values, String key) {
+        List<String> strings = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        List<? extends AnnotationValue> list = (List<? extends AnnotationValue>) values.get(key).getValue();
+        for (AnnotationValue value : list) {
+            strings.add((String) value.getValue());
+        }
+        return strings;
+    }
+
+    private String literal(String value) {
+        return this.elements.getConstantExpression(value);
+    }
+
+    private List<String> literals(List<String> values) {
+        List<String> literals = new ArrayList<>();
+        for (String value : values) {
+            literals.add(literal(value));
+        }
+        return literals;
+    }
+
+    private static String join(List<String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            if (builder.length() > 0)
+                builder.append(", ");
+            builder.append(value);
+        }
+        return builder.toString();
+    }
+
+    private void line(String format, Object... args) {
+        this.body.append("        ").append(String.format(format, args)).append('\n');
+    }
+}
@@ -0,0 +1,117 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.FilerException;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+
+import com.github.rvesse.airline.model.CommandMetadataFactory;
+import com.github.rvesse.airline.model.MetadataLoader;
+
+/**
+ * Annotation processor that generates a {@link CommandMetadataFactory} for
+ * each class annotated with {@code @Command}
+ * <p>
+ * The generated factories are discovered automatically by
+ * {@link MetadataLoader#loadCommand(Class)} and so are used by both
+ * {@code Cli} and {@code SingleCommand}. They replace the reflective walk over
+ * the command class hierarchy with direct lookups of only those fields that
+ * carry Airline annotations, the option and arguments definitions themselves
+ * are read at compile time.
+ * </p>
+ * <p>
+ * Commands that cannot be referenced from generated code, e.g. private nested
+ * classes, or whose definitions are invalid are skipped and a note is issued,
+ * such commands continue to have their meta-data loaded reflectively and so
+ * any errors are reported at runtime exactly as they would be without this
+ * processor.
+ * </p>
+ */
+@SupportedAnnotationTypes(CommandFactoryGenerator.COMMAND)
+public class MetadataProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement commandAnnotation = processingEnv.getElementUtils().getTypeElement(CommandFactoryGenerator.COMMAND);
+        if (commandAnnotation == null)
+            return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(commandAnnotation)) {
+            if (element.getKind() != ElementKind.CLASS)
+                continue;
+            TypeElement commandType = (TypeElement) element;
+
+            CommandFactoryGenerator generator = new CommandFactoryGenerator(processingEnv, commandType);
+            try {
+                write(generator.getFactoryName(), generator.generate(), commandType);
+            } catch (UnsupportedCommandException e) {
+                processingEnv.getMessager().printMessage(Kind.NOTE, String.format(
+                        "Command meta-data for %s will be loaded reflectively: %s", commandType, e.getMessage()),
+                        commandType);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Kind.ERROR,
+                        String.format("Failed to write command meta-data for %s: %s", commandType, e.getMessage()),
+                        commandType);
+            }
+        }
+
+        // Never claim the annotations, other processors may also want them
+        return false;
+    }
+
+    private void write(String name, String source, TypeElement commandType) throws IOException {
+        Filer filer = processingEnv.getFiler();
+        JavaFileObject file;
+        try {
+            file = filer.createSourceFile(name, commandType);
+        } catch (FilerException e) {
+            // Some build tools pass previously generated sources back in as
+            // inputs, this is harmless provided they are up to date
+            int index = name.lastIndexOf('.');
+            FileObject existing = filer.getResource(StandardLocation.SOURCE_OUTPUT,
+                    index >= 0 ? name.substring(0, index) : "", name.substring(index + 1) + ".java");
+            if (!source.equals(existing.getCharContent(true).toString())) {
+                processingEnv.getMessager().printMessage(Kind.ERROR, String.format(
+                        "Generated command meta-data %s is out of date and could not be regenerated, a clean build is required",
+                        name), commandType);
+            }
+            return;
+        }
+        try (Writer writer = file.openWriter()) {
+            writer.write(source);
+        }
+    }
+}
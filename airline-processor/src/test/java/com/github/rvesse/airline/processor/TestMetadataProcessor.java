@@ -0,0 +1,178 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import com.github.rvesse.airline.Accessor;
+import com.github.rvesse.airline.Cli;
+import com.github.rvesse.airline.SingleCommand;
+import com.github.rvesse.airline.builder.CliBuilder;
+import com.github.rvesse.airline.help.sections.HelpSection;
+import com.github.rvesse.airline.model.ArgumentsMetadata;
+import com.github.rvesse.airline.model.CommandMetadata;
+import com.github.rvesse.airline.model.MetadataLoader;
+import com.github.rvesse.airline.model.OptionMetadata;
+import com.github.rvesse.airline.parser.errors.ParseRestrictionViolatedException;
+import com.github.rvesse.airline.processor.commands.Defaulted;
+import com.github.rvesse.airline.processor.commands.Nested;
+import com.github.rvesse.airline.processor.commands.Simple;
+
+public class TestMetadataProcessor {
+
+    private static boolean hasGeneratedFactory(Class<?> cls) {
+        try {
+            Class.forName(MetadataLoader.getGeneratedFactoryName(cls));
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static void assertSameOptions(List<OptionMetadata> generated, List<OptionMetadata> reflective) {
+        Assert.assertEquals(new HashSet<>(generated), new HashSet<>(reflective));
+        for (OptionMetadata option : generated) {
+            OptionMetadata other = reflective.get(reflective.indexOf(option));
+            Assert.assertEquals(option.getAccessors(), other.getAccessors());
+            Assert.assertEquals(option.getRestrictions().size(), other.getRestrictions().size());
+            for (int i = 0; i < option.getRestrictions().size(); i++) {
+                Assert.assertEquals(option.getRestrictions().get(i).getClass(),
+                        other.getRestrictions().get(i).getClass());
+            }
+            Assert.assertEquals(option.getTypeConverterProvider().getClass(),
+                    other.getTypeConverterProvider().getClass());
+        }
+    }
+
+    private static Set<String> titles(List<HelpSection> sections) {
+        Set<String> titles = new HashSet<>();
+        for (HelpSection section : sections) {
+            titles.add(section.getTitle());
+        }
+        return titles;
+    }
+
+    private static void assertSameMetadata(Class<?> cls) {
+        Assert.assertTrue(hasGeneratedFactory(cls), "No factory generated for " + cls);
+        CommandMetadata generated = MetadataLoader.loadCommand(cls);
+        CommandMetadata reflective = MetadataLoader.loadCommand(cls, false);
+
+        Assert.assertEquals(generated, reflective);
+        Assert.assertEquals(generated.getDescription(), reflective.getDescription());
+        Assert.assertEquals(generated.isHidden(), reflective.isHidden());
+        Assert.assertEquals(generated.getGroupNames(), reflective.getGroupNames());
+        Assert.assertEquals(generated.getGroups(), reflective.getGroups());
+        assertSameOptions(generated.getGlobalOptions(), reflective.getGlobalOptions());
+        assertSameOptions(generated.getGroupOptions(), reflective.getGroupOptions());
+        assertSameOptions(generated.getCommandOptions(), reflective.getCommandOptions());
+        Assert.assertEquals(generated.getDefaultOption(), reflective.getDefaultOption());
+
+        ArgumentsMetadata arguments = generated.getArguments();
+        if (arguments == null) {
+            Assert.assertNull(reflective.getArguments());
+        } else {
+            Assert.assertEquals(arguments, reflective.getArguments());
+            Assert.assertEquals(arguments.getAccessors(), reflective.getArguments().getAccessors());
+            Assert.assertEquals(arguments.getRestrictions().size(), reflective.getArguments().getRestrictions().size());
+        }
+
+        Assert.assertEquals(new ArrayList<Accessor>(generated.getMetadataInjections()),
+                new ArrayList<Accessor>(reflective.getMetadataInjections()));
+        Assert.assertEquals(titles(generated.getHelpSections()), titles(reflective.getHelpSections()));
+    }
+
+    @Test
+    public void processor_generated_factory_01() {
+        assertSameMetadata(Simple.class);
+
+        CommandMetadata metadata = MetadataLoader.loadCommand(Simple.class);
+        Assert.assertEquals(metadata.getName(), "simple");
+        Assert.assertEquals(metadata.getDescription(), "A \"simple\" command");
+        Assert.assertEquals(metadata.getArguments().getTitle(), Arrays.asList("first", "second"));
+        Assert.assertEquals(metadata.getArguments().getDescription(), "Arguments\nwith a newline");
+        Assert.assertEquals(metadata.getHelpSections().size(), 2);
+    }
+
+    @Test
+    public void processor_generated_factory_delegates_01() {
+        assertSameMetadata(Defaulted.class);
+
+        CommandMetadata metadata = MetadataLoader.loadCommand(Defaulted.class);
+        Assert.assertTrue(metadata.isHidden());
+        Assert.assertNull(metadata.getDescription());
+        Assert.assertNotNull(metadata.getDefaultOption());
+        Assert.assertEquals(metadata.getMetadataInjections().size(), 1);
+        Assert.assertEquals(metadata.getCommandOptions().size(), 2);
+    }
+
+    @Test
+    public void processor_generated_factory_nested_01() {
+        assertSameMetadata(Nested.Visible.class);
+    }
+
+    @Test
+    public void processor_generated_factory_nested_02() {
+        // Private classes cannot be referenced from generated code so fall
+        // back to reflection
+        Class<?> hidden = Nested.getHiddenClass();
+        Assert.assertFalse(hasGeneratedFactory(hidden));
+        CommandMetadata metadata = MetadataLoader.loadCommand(hidden);
+        Assert.assertEquals(metadata.getName(), "hidden");
+        Assert.assertEquals(metadata.getCommandOptions().size(), 1);
+    }
+
+    @Test
+    public void processor_generated_factory_single_command_01() {
+        Simple cmd = SingleCommand.singleCommand(Simple.class).parse("--name", "foo", "-c", "3", "--flag", "--pair",
+                "a", "b", "x");
+        Assert.assertEquals(cmd.name, "foo");
+        Assert.assertEquals(cmd.count, 3);
+        Assert.assertEquals(cmd.flag, Boolean.TRUE);
+        Assert.assertEquals(cmd.pair, Arrays.asList("a", "b"));
+        Assert.assertEquals(cmd.args, Arrays.asList("x"));
+    }
+
+    @Test(expectedExceptions = ParseRestrictionViolatedException.class)
+    public void processor_generated_factory_single_command_02() {
+        SingleCommand.singleCommand(Simple.class).parse("--name", "other", "x");
+    }
+
+    @Test
+    public void processor_generated_factory_cli_01() {
+        //@formatter:off
+        CliBuilder<Object> builder = Cli.<Object>builder("test")
+                                        .withCommands(Simple.class, Defaulted.class);
+        //@formatter:on
+        Cli<Object> cli = builder.build();
+
+        Object cmd = cli.parse("defaulted", "--delegated", "4", "value");
+        Assert.assertTrue(cmd instanceof Defaulted);
+        Defaulted defaulted = (Defaulted) cmd;
+        Assert.assertEquals(defaulted.value, "value");
+        Assert.assertEquals(defaulted.delegate.delegated, 4);
+        Assert.assertNotNull(defaulted.metadata);
+
+        cmd = cli.parse("-v", "tools", "simple", "x");
+        Assert.assertTrue(((Simple) cmd).verbose);
+    }
+}
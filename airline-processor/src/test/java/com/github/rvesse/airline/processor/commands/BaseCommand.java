@@ -0,0 +1,39 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor.commands;
+
+import javax.inject.Inject;
+
+import com.github.rvesse.airline.HelpOption;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.help.Discussion;
+
+@Discussion(paragraphs = "Base discussion")
+public abstract class BaseCommand {
+
+    @Inject
+    public HelpOption<BaseCommand> help = new HelpOption<>();
+
+    @Option(name = { "-v", "--verbose" }, type = OptionType.GLOBAL, description = "Verbose output")
+    public boolean verbose;
+
+    @Option(name = "--name", description = "Name to use")
+    public String name = "base";
+
+    @Option(name = "--sealed", sealed = true)
+    public String sealed;
+}
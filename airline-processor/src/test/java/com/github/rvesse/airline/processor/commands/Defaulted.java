@@ -0,0 +1,42 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor.commands;
+
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.DefaultOption;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.model.CommandMetadata;
+
+import javax.inject.Inject;
+
+@Command(name = "defaulted", hidden = true)
+public class Defaulted {
+
+    @Inject
+    public CommandMetadata metadata;
+
+    @Inject
+    public Delegate delegate = new Delegate();
+
+    @DefaultOption
+    @Option(name = "--value")
+    public String value;
+
+    public static class Delegate {
+        @Option(name = "--delegated")
+        public int delegated;
+    }
+}
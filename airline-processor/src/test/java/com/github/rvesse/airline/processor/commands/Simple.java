@@ -0,0 +1,59 @@
+/**
+ * Copyright (C) 2010-16 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.rvesse.airline.processor.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.rvesse.airline.annotations.Arguments;
+import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Group;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.help.Discussion;
+import com.github.rvesse.airline.annotations.help.Examples;
+import com.github.rvesse.airline.annotations.restrictions.AllowedRawValues;
+import com.github.rvesse.airline.annotations.restrictions.NotBlank;
+import com.github.rvesse.airline.annotations.restrictions.Partial;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.annotations.restrictions.ranges.IntegerRange;
+
+@Command(name = "simple", description = "A \"simple\" command", groupNames = "tools")
+@Group(name = "extra", description = "Extra commands")
+@Discussion(paragraphs = "Overridden discussion")
+@Examples(examples = "simple --name foo", descriptions = "Uses foo")
+public class Simple extends BaseCommand {
+
+    @Option(name = "--name", description = "Overridden name", override = true)
+    @AllowedRawValues(allowedValues = { "foo", "bar" })
+    public String name;
+
+    @Option(name = { "-c", "--count" }, title = "Count", arity = 1)
+    @IntegerRange(min = 0, max = 10)
+    public int count;
+
+    @Option(name = "--flag", hidden = true)
+    public Boolean flag;
+
+    @Option(name = "--pair", arity = 2)
+    @Partial(appliesTo = { 0 }, restriction = NotBlank.class)
+    @NotBlank
+    public List<String> pair;
+
+    @Arguments(title = { "first", "second" }, description = "Arguments\nwith a newline")
+    @Required
+    public List<String> args = new ArrayList<>();
+}